@@ -188,9 +188,16 @@ class RedisCache implements Cache {
 		if (template.getKeySerializer() == null && key instanceof byte[]) {
 			return (byte[]) key;
 		}
+		boolean prefixed = (prefix != null && prefix.length > 0);
+		// subclasses may override serialize(String), which the prefixed form does not go through
+		if (prefixed && key instanceof String && template.getKeySerializer().getClass() == StringRedisSerializer.class) {
+			// encoded right after the prefix, without intermediate array
+			return ((StringRedisSerializer) template.getKeySerializer()).serialize(prefix, (String) key);
+		}
+
 		byte[] k = template.getKeySerializer().serialize(key);
 
-		if (prefix == null || prefix.length == 0)
+		if (!prefixed)
 			return k;
 
 		byte[] result = Arrays.copyOf(prefix, prefix.length + k.length);
@@ -60,6 +60,7 @@ import redis.clients.jedis.Transaction;
 import redis.clients.jedis.ZParams;
 import redis.clients.jedis.exceptions.JedisDataException;
 import redis.clients.util.Pool;
+import redis.clients.util.SafeEncoder;
 
 /**
  * {@code RedisConnection} implementation on top of <a href="http://github.com/xetorthio/jedis">Jedis</a> library.
@@ -984,13 +985,12 @@ public class JedisConnection implements RedisConnection {
 			throw new UnsupportedOperationException();
 		}
 		try {
-			for (byte[] key : keys) {
-				if (isPipelined()) {
-					pipeline(new JedisStatusResult(pipeline.watch(key)));
-				} else {
-					jedis.watch(key);
-				}
+			// watch all keys with a single command rather than one round trip per key
+			if (isPipelined()) {
+				pipeline(new JedisStatusResult(pipeline.watch(keys)));
+				return;
 			}
+			jedis.watch(keys);
 		} catch (Exception ex) {
 			throw convertJedisAccessException(ex);
 		}
@@ -2702,8 +2702,8 @@ public class JedisConnection implements RedisConnection {
 			throw new UnsupportedOperationException();
 		}
 		try {
-			return (T) new JedisScriptReturnConverter(returnType).convert(jedis.evalsha(scriptSha1, numKeys,
-					JedisConverters.toStrings(keysAndArgs)));
+			return (T) new JedisScriptReturnConverter(returnType).convert(jedis.evalsha(SafeEncoder.encode(scriptSha1),
+					numKeys, keysAndArgs));
 		} catch (Exception ex) {
 			throw convertJedisAccessException(ex);
 		}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.connection.lettuce;
+
+import java.nio.ByteBuffer;
+
+import org.springframework.data.redis.serializer.BufferRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationUtils;
+import org.springframework.util.Assert;
+
+import com.lambdaworks.redis.codec.RedisCodec;
+
+/**
+ * Lettuce codec delegating to {@link RedisSerializer}s, for use with native Lettuce connections (
+ * {@link com.lambdaworks.redis.RedisClient#connect(RedisCodec)}). {@link BufferRedisSerializer}s decode keys and values
+ * straight from the network buffer, other serializers are handed a copy of it.
+ * 
+ * @since 1.2
+ */
+public class SerializingRedisCodec<K, V> extends RedisCodec<K, V> {
+
+	private final RedisSerializer<K> keySerializer;
+	private final RedisSerializer<V> valueSerializer;
+
+	/**
+	 * Constructs a new <code>SerializingRedisCodec</code> instance.
+	 * 
+	 * @param keySerializer key serializer
+	 * @param valueSerializer value serializer
+	 */
+	public SerializingRedisCodec(RedisSerializer<K> keySerializer, RedisSerializer<V> valueSerializer) {
+		Assert.notNull(keySerializer, "a valid key serializer is required");
+		Assert.notNull(valueSerializer, "a valid value serializer is required");
+		this.keySerializer = keySerializer;
+		this.valueSerializer = valueSerializer;
+	}
+
+	@Override
+	public K decodeKey(ByteBuffer bytes) {
+		return decode(keySerializer, bytes);
+	}
+
+	@Override
+	public V decodeValue(ByteBuffer bytes) {
+		return decode(valueSerializer, bytes);
+	}
+
+	@Override
+	public byte[] encodeKey(K key) {
+		return SerializationUtils.serialize(keySerializer, key);
+	}
+
+	@Override
+	public byte[] encodeValue(V value) {
+		return SerializationUtils.serialize(valueSerializer, value);
+	}
+
+	private static <T> T decode(RedisSerializer<T> serializer, ByteBuffer bytes) {
+		if (SerializationUtils.supportsBuffers(serializer)) {
+			return ((BufferRedisSerializer<T>) serializer).deserialize(bytes);
+		}
+		return serializer.deserialize(SerializationUtils.toArray(bytes));
+	}
+}
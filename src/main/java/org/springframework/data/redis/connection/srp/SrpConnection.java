@@ -16,6 +16,7 @@
 package org.springframework.data.redis.connection.srp;
 
 import java.io.IOException;
+import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedList;
@@ -40,10 +41,12 @@ import org.springframework.data.redis.connection.ReturnType;
 import org.springframework.data.redis.connection.SortParameters;
 import org.springframework.data.redis.connection.Subscription;
 import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
 
 import redis.Command;
 import redis.client.RedisClient;
 import redis.client.RedisClient.Pipeline;
+import redis.client.RedisClientBase;
 import redis.client.RedisException;
 import redis.reply.MultiBulkReply;
 import redis.reply.Reply;
@@ -68,6 +71,15 @@ public class SrpConnection implements RedisConnection {
 	private static final byte[] GET = "GET".getBytes(Charsets.UTF_8);
 	private static final byte[] ALPHA = "ALPHA".getBytes(Charsets.UTF_8);
 	private static final byte[] STORE = "STORE".getBytes(Charsets.UTF_8);
+	// private client state, absent from some SRP versions (null then)
+	private static final Field TX_REPLIES;
+
+	static {
+		TX_REPLIES = ReflectionUtils.findField(RedisClientBase.class, "txReplies", Queue.class);
+		if (TX_REPLIES != null) {
+			ReflectionUtils.makeAccessible(TX_REPLIES);
+		}
+	}
 
 	private final RedisClient client;
 	private final BlockingQueue<SrpConnection> queue;
@@ -78,6 +90,7 @@ public class SrpConnection implements RedisConnection {
 	private Pipeline pipeline;
 	private PipelineTracker callback;
 	private PipelineTracker txTracker;
+	private SrpTxResult pendingTxResult;
 	private volatile SrpSubscription subscription;
 	private boolean convertPipelineAndTxResults = true;
 
@@ -126,7 +139,9 @@ public class SrpConnection implements RedisConnection {
 			int i = 0;
 			for (FutureResult future : futureResults) {
 				if (future instanceof SrpTxResult) {
-					PipelineTracker txTracker = ((SrpTxResult) future).getResultHolder();
+					SrpTxResult txResult = (SrpTxResult) future;
+					txResult.awaitExec();
+					PipelineTracker txTracker = txResult.getResultHolder();
 					if (txTracker != null) {
 						convertedResults.add(getPipelinedResults(txTracker, true));
 					} else {
@@ -194,8 +209,28 @@ public class SrpConnection implements RedisConnection {
 	}
 
 	private class SrpTxResult extends FutureResult<PipelineTracker> {
-		public SrpTxResult(PipelineTracker txTracker) {
+		private Future<Boolean> exec;
+
+		public SrpTxResult(PipelineTracker txTracker, Future<Boolean> exec) {
 			super(txTracker);
+			this.exec = exec;
+		}
+
+		// waits for the EXEC reply, dropping the queued commands if a watched key has been modified
+		void awaitExec() {
+			if (exec == null) {
+				return;
+			}
+			try {
+				if (!exec.get()) {
+					clearTxReplies();
+					resultHolder = null;
+				}
+			} catch (Exception ex) {
+				throw convertSrpAccessException(ex);
+			} finally {
+				exec = null;
+			}
 		}
 
 		public List<Object> get() {
@@ -522,17 +557,17 @@ public class SrpConnection implements RedisConnection {
 		isMulti = false;
 		try {
 			Future<Boolean> exec = client.exec();
+			if (pipelineRequested) {
+				// the EXEC reply is read along with the rest of the pipeline
+				pendingTxResult = new SrpTxResult(txTracker, exec);
+				pipeline(pendingTxResult);
+				return null;
+			}
 			// Need to wait on execution or subsequent non-pipelined calls may read exec results
 			boolean resultsSet = exec.get();
 			if (!resultsSet) {
 				// This is the case where a nil MultiBulk Reply was returned b/c watched variable modified
-				if (pipelineRequested) {
-					pipeline(new SrpTxResult(null));
-				}
-				return null;
-			}
-			if (pipelineRequested) {
-				pipeline(new SrpTxResult(txTracker));
+				clearTxReplies();
 				return null;
 			}
 			return closeTransaction();
@@ -619,6 +654,8 @@ public class SrpConnection implements RedisConnection {
 		if (isQueueing()) {
 			return;
 		}
+		// replies of a previous transaction in the pipeline have to be settled before queueing new ones
+		awaitPendingExec();
 		isMulti = true;
 		initTxTracker();
 		try {
@@ -2112,6 +2149,24 @@ public class SrpConnection implements RedisConnection {
 		}
 	}
 
+	private void awaitPendingExec() {
+		if (pendingTxResult != null) {
+			SrpTxResult txResult = pendingTxResult;
+			pendingTxResult = null;
+			txResult.awaitExec();
+		}
+	}
+
+	// an aborted EXEC fails the queued replies but leaves them in the client, where the next EXEC would pick them up
+	private void clearTxReplies() {
+		if (TX_REPLIES == null) {
+			return;
+		}
+		synchronized (client) {
+			((Queue<?>) ReflectionUtils.getField(TX_REPLIES, client)).clear();
+		}
+	}
+
 	private void initPipeline() {
 		if (pipeline == null) {
 			callback = new PipelineTracker(convertPipelineAndTxResults);
@@ -2128,6 +2183,7 @@ public class SrpConnection implements RedisConnection {
 
 	public List<Object> closePipeline() {
 		pipelineRequested = false;
+		pendingTxResult = null;
 		List<Object> results = Collections.emptyList();
 		if (pipeline != null) {
 			pipeline = null;
@@ -21,6 +21,7 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 
 import org.springframework.data.redis.connection.DefaultTuple;
 import org.springframework.data.redis.connection.RedisConnection;
@@ -54,6 +55,11 @@ abstract class AbstractOperations<K, V> {
 		protected abstract byte[] inRedis(byte[] rawKey, RedisConnection connection);
 	}
 
+	// a read whose result may be shared by identical concurrent reads
+	abstract class ReadCallback<T> implements Callable<T> {
+		public abstract T call();
+	}
+
 	RedisTemplate<K, V> template;
 
 	AbstractOperations(RedisTemplate<K, V> template) {
@@ -84,6 +90,15 @@ abstract class AbstractOperations<K, V> {
 		return template.execute(callback, b);
 	}
 
+	<T> T executeRead(String command, ReadCallback<T> read, byte[]... args) {
+		ReadCoalescer coalescer = template.getReadCoalescer();
+		if (coalescer == null || !coalescer.isCoalesced(command)
+				|| RedisConnectionUtils.isConnectionBound(template.getConnectionFactory())) {
+			return read.call();
+		}
+		return coalescer.execute(command, read, args);
+	}
+
 	public RedisOperations<K, V> getOperations() {
 		return template;
 	}
@@ -107,7 +122,7 @@ abstract class AbstractOperations<K, V> {
 		if (valueSerializer() == null && value instanceof byte[]) {
 			return (byte[]) value;
 		}
-		return valueSerializer().serialize(value);
+		return SerializationUtils.serialize(valueSerializer(), value);
 	}
 
 	byte[][] rawValues(Object... values) {
@@ -142,7 +157,7 @@ abstract class AbstractOperations<K, V> {
 		if (hashValueSerializer() == null & value instanceof byte[]) {
 			return (byte[]) value;
 		}
-		return hashValueSerializer().serialize(value);
+		return SerializationUtils.serialize(hashValueSerializer(), value);
 	}
 
 	byte[][] rawKeys(K key, K otherKey) {
@@ -178,7 +193,10 @@ abstract class AbstractOperations<K, V> {
 		if (valueSerializer() == null) {
 			return (Set<V>) rawValues;
 		}
-		return SerializationUtils.deserialize(rawValues, valueSerializer());
+		if (rawValues != null && template.isLazyDeserialization()) {
+			return new LazyDeserializingSet<V>(rawValues, valueSerializer());
+		}
+		return template.deserializeValues(rawValues, valueSerializer());
 	}
 
 	@SuppressWarnings({ "unchecked", "rawtypes" })
@@ -208,7 +226,7 @@ abstract class AbstractOperations<K, V> {
 			if (valueSerializer() == null && value.getValue() instanceof byte[]) {
 				rawValue = (byte[]) value.getValue();
 			} else {
-				rawValue = valueSerializer().serialize(value.getValue());
+				rawValue = SerializationUtils.serialize(valueSerializer(), value.getValue());
 			}
 			rawTuples.add(new DefaultTuple(rawValue, value.getScore()));
 		}
@@ -220,7 +238,10 @@ abstract class AbstractOperations<K, V> {
 		if (valueSerializer() == null) {
 			return (List<V>) rawValues;
 		}
-		return SerializationUtils.deserialize(rawValues, valueSerializer());
+		if (rawValues != null && template.isLazyDeserialization()) {
+			return new LazyDeserializingList<V>(rawValues, valueSerializer());
+		}
+		return template.deserializeValues(rawValues, valueSerializer());
 	}
 
 	@SuppressWarnings("unchecked")
@@ -228,7 +249,7 @@ abstract class AbstractOperations<K, V> {
 		if (hashKeySerializer() == null) {
 			return (Set<T>) rawKeys;
 		}
-		return SerializationUtils.deserialize(rawKeys, hashKeySerializer());
+		return template.deserializeValues(rawKeys, hashKeySerializer());
 	}
 
 	@SuppressWarnings("unchecked")
@@ -236,7 +257,7 @@ abstract class AbstractOperations<K, V> {
 		if (hashValueSerializer() == null) {
 			return (List<T>) rawValues;
 		}
-		return SerializationUtils.deserialize(rawValues, hashValueSerializer());
+		return template.deserializeValues(rawValues, hashValueSerializer());
 	}
 
 	@SuppressWarnings("unchecked")
@@ -0,0 +1,686 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.core;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.springframework.data.redis.connection.DataType;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisListCommands.Position;
+import org.springframework.data.redis.connection.RedisStringCommands.BitOperation;
+import org.springframework.data.redis.connection.RedisZSetCommands.Aggregate;
+import org.springframework.data.redis.connection.RedisZSetCommands.Tuple;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.SortParameters;
+import org.springframework.data.redis.connection.Subscription;
+import org.springframework.util.ClassUtils;
+
+/**
+ * {@link RedisConnection} delegating to another connection while suppressing {@link #close()} calls. Used by
+ * {@link RedisTemplate} instead of a JDK dynamic proxy (see {@link CloseSuppressingInvocationHandler}), so that commands
+ * are plain method calls rather than reflective invocations. Like the proxy, a wrapper is created per template
+ * invocation and instances are only equal to themselves.
+ * 
+ * @since 1.2
+ */
+class CloseSuppressingRedisConnection implements RedisConnection {
+
+	private final RedisConnection delegate;
+
+	CloseSuppressingRedisConnection(RedisConnection delegate) {
+		this.delegate = delegate;
+	}
+
+	/**
+	 * Returns a close suppressing view of the given connection, as long as it does not implement interfaces other than
+	 * {@link RedisConnection} and {@link StringRedisConnection}.
+	 * 
+	 * @param connection connection to wrap
+	 * @return close suppressing view or null if the connection type is not supported
+	 */
+	static RedisConnection wrap(RedisConnection connection) {
+		// same interfaces as the proxy would implement; not cached so that connection classes are not pinned
+		Class<?>[] interfaces = ClassUtils.getAllInterfacesForClass(connection.getClass());
+		if (interfaces.length != 1) {
+			return null;
+		}
+		Class<?> kind = interfaces[0];
+		if (kind == RedisConnection.class) {
+			return new CloseSuppressingRedisConnection(connection);
+		}
+		if (kind == StringRedisConnection.class) {
+			return new CloseSuppressingStringRedisConnection((StringRedisConnection) connection);
+		}
+		return null;
+	}
+
+	public void close() {
+		// suppressed, the connection is managed by the template
+	}
+
+	public boolean isClosed() {
+		return delegate.isClosed();
+	}
+
+	public Object getNativeConnection() {
+		return delegate.getNativeConnection();
+	}
+
+	public boolean isQueueing() {
+		return delegate.isQueueing();
+	}
+
+	public boolean isPipelined() {
+		return delegate.isPipelined();
+	}
+
+	public void openPipeline() {
+		delegate.openPipeline();
+	}
+
+	public List<Object> closePipeline() {
+		return delegate.closePipeline();
+	}
+
+	public Object execute(String command, byte[]... args) {
+		return delegate.execute(command, args);
+	}
+
+	public Boolean exists(byte[] key) {
+		return delegate.exists(key);
+	}
+
+	public Long del(byte[]... keys) {
+		return delegate.del(keys);
+	}
+
+	public DataType type(byte[] key) {
+		return delegate.type(key);
+	}
+
+	public Set<byte[]> keys(byte[] pattern) {
+		return delegate.keys(pattern);
+	}
+
+	public byte[] randomKey() {
+		return delegate.randomKey();
+	}
+
+	public void rename(byte[] oldName, byte[] newName) {
+		delegate.rename(oldName, newName);
+	}
+
+	public Boolean renameNX(byte[] oldName, byte[] newName) {
+		return delegate.renameNX(oldName, newName);
+	}
+
+	public Boolean expire(byte[] key, long seconds) {
+		return delegate.expire(key, seconds);
+	}
+
+	public Boolean pExpire(byte[] key, long millis) {
+		return delegate.pExpire(key, millis);
+	}
+
+	public Boolean expireAt(byte[] key, long unixTime) {
+		return delegate.expireAt(key, unixTime);
+	}
+
+	public Boolean pExpireAt(byte[] key, long unixTimeInMillis) {
+		return delegate.pExpireAt(key, unixTimeInMillis);
+	}
+
+	public Boolean persist(byte[] key) {
+		return delegate.persist(key);
+	}
+
+	public Boolean move(byte[] key, int dbIndex) {
+		return delegate.move(key, dbIndex);
+	}
+
+	public Long ttl(byte[] key) {
+		return delegate.ttl(key);
+	}
+
+	public Long pTtl(byte[] key) {
+		return delegate.pTtl(key);
+	}
+
+	public List<byte[]> sort(byte[] key, SortParameters params) {
+		return delegate.sort(key, params);
+	}
+
+	public Long sort(byte[] key, SortParameters params, byte[] storeKey) {
+		return delegate.sort(key, params, storeKey);
+	}
+
+	public byte[] dump(byte[] key) {
+		return delegate.dump(key);
+	}
+
+	public void restore(byte[] key, long ttlInMillis, byte[] serializedValue) {
+		delegate.restore(key, ttlInMillis, serializedValue);
+	}
+
+	public byte[] get(byte[] key) {
+		return delegate.get(key);
+	}
+
+	public byte[] getSet(byte[] key, byte[] value) {
+		return delegate.getSet(key, value);
+	}
+
+	public List<byte[]> mGet(byte[]... keys) {
+		return delegate.mGet(keys);
+	}
+
+	public void set(byte[] key, byte[] value) {
+		delegate.set(key, value);
+	}
+
+	public Boolean setNX(byte[] key, byte[] value) {
+		return delegate.setNX(key, value);
+	}
+
+	public void setEx(byte[] key, long seconds, byte[] value) {
+		delegate.setEx(key, seconds, value);
+	}
+
+	public void mSet(Map<byte[], byte[]> tuple) {
+		delegate.mSet(tuple);
+	}
+
+	public Boolean mSetNX(Map<byte[], byte[]> tuple) {
+		return delegate.mSetNX(tuple);
+	}
+
+	public Long incr(byte[] key) {
+		return delegate.incr(key);
+	}
+
+	public Long incrBy(byte[] key, long value) {
+		return delegate.incrBy(key, value);
+	}
+
+	public Double incrBy(byte[] key, double value) {
+		return delegate.incrBy(key, value);
+	}
+
+	public Long decr(byte[] key) {
+		return delegate.decr(key);
+	}
+
+	public Long decrBy(byte[] key, long value) {
+		return delegate.decrBy(key, value);
+	}
+
+	public Long append(byte[] key, byte[] value) {
+		return delegate.append(key, value);
+	}
+
+	public byte[] getRange(byte[] key, long begin, long end) {
+		return delegate.getRange(key, begin, end);
+	}
+
+	public void setRange(byte[] key, byte[] value, long offset) {
+		delegate.setRange(key, value, offset);
+	}
+
+	public Boolean getBit(byte[] key, long offset) {
+		return delegate.getBit(key, offset);
+	}
+
+	public void setBit(byte[] key, long offset, boolean value) {
+		delegate.setBit(key, offset, value);
+	}
+
+	public Long bitCount(byte[] key) {
+		return delegate.bitCount(key);
+	}
+
+	public Long bitCount(byte[] key, long begin, long end) {
+		return delegate.bitCount(key, begin, end);
+	}
+
+	public Long bitOp(BitOperation op, byte[] destination, byte[]... keys) {
+		return delegate.bitOp(op, destination, keys);
+	}
+
+	public Long strLen(byte[] key) {
+		return delegate.strLen(key);
+	}
+
+	public Long rPush(byte[] key, byte[]... values) {
+		return delegate.rPush(key, values);
+	}
+
+	public Long lPush(byte[] key, byte[]... value) {
+		return delegate.lPush(key, value);
+	}
+
+	public Long rPushX(byte[] key, byte[] value) {
+		return delegate.rPushX(key, value);
+	}
+
+	public Long lPushX(byte[] key, byte[] value) {
+		return delegate.lPushX(key, value);
+	}
+
+	public Long lLen(byte[] key) {
+		return delegate.lLen(key);
+	}
+
+	public List<byte[]> lRange(byte[] key, long begin, long end) {
+		return delegate.lRange(key, begin, end);
+	}
+
+	public void lTrim(byte[] key, long begin, long end) {
+		delegate.lTrim(key, begin, end);
+	}
+
+	public byte[] lIndex(byte[] key, long index) {
+		return delegate.lIndex(key, index);
+	}
+
+	public Long lInsert(byte[] key, Position where, byte[] pivot, byte[] value) {
+		return delegate.lInsert(key, where, pivot, value);
+	}
+
+	public void lSet(byte[] key, long index, byte[] value) {
+		delegate.lSet(key, index, value);
+	}
+
+	public Long lRem(byte[] key, long count, byte[] value) {
+		return delegate.lRem(key, count, value);
+	}
+
+	public byte[] lPop(byte[] key) {
+		return delegate.lPop(key);
+	}
+
+	public byte[] rPop(byte[] key) {
+		return delegate.rPop(key);
+	}
+
+	public List<byte[]> bLPop(int timeout, byte[]... keys) {
+		return delegate.bLPop(timeout, keys);
+	}
+
+	public List<byte[]> bRPop(int timeout, byte[]... keys) {
+		return delegate.bRPop(timeout, keys);
+	}
+
+	public byte[] rPopLPush(byte[] srcKey, byte[] dstKey) {
+		return delegate.rPopLPush(srcKey, dstKey);
+	}
+
+	public byte[] bRPopLPush(int timeout, byte[] srcKey, byte[] dstKey) {
+		return delegate.bRPopLPush(timeout, srcKey, dstKey);
+	}
+
+	public Long sAdd(byte[] key, byte[]... values) {
+		return delegate.sAdd(key, values);
+	}
+
+	public Long sRem(byte[] key, byte[]... values) {
+		return delegate.sRem(key, values);
+	}
+
+	public byte[] sPop(byte[] key) {
+		return delegate.sPop(key);
+	}
+
+	public Boolean sMove(byte[] srcKey, byte[] destKey, byte[] value) {
+		return delegate.sMove(srcKey, destKey, value);
+	}
+
+	public Long sCard(byte[] key) {
+		return delegate.sCard(key);
+	}
+
+	public Boolean sIsMember(byte[] key, byte[] value) {
+		return delegate.sIsMember(key, value);
+	}
+
+	public Set<byte[]> sInter(byte[]... keys) {
+		return delegate.sInter(keys);
+	}
+
+	public Long sInterStore(byte[] destKey, byte[]... keys) {
+		return delegate.sInterStore(destKey, keys);
+	}
+
+	public Set<byte[]> sUnion(byte[]... keys) {
+		return delegate.sUnion(keys);
+	}
+
+	public Long sUnionStore(byte[] destKey, byte[]... keys) {
+		return delegate.sUnionStore(destKey, keys);
+	}
+
+	public Set<byte[]> sDiff(byte[]... keys) {
+		return delegate.sDiff(keys);
+	}
+
+	public Long sDiffStore(byte[] destKey, byte[]... keys) {
+		return delegate.sDiffStore(destKey, keys);
+	}
+
+	public Set<byte[]> sMembers(byte[] key) {
+		return delegate.sMembers(key);
+	}
+
+	public byte[] sRandMember(byte[] key) {
+		return delegate.sRandMember(key);
+	}
+
+	public List<byte[]> sRandMember(byte[] key, long count) {
+		return delegate.sRandMember(key, count);
+	}
+
+	public Boolean zAdd(byte[] key, double score, byte[] value) {
+		return delegate.zAdd(key, score, value);
+	}
+
+	public Long zAdd(byte[] key, Set<Tuple> tuples) {
+		return delegate.zAdd(key, tuples);
+	}
+
+	public Long zRem(byte[] key, byte[]... values) {
+		return delegate.zRem(key, values);
+	}
+
+	public Double zIncrBy(byte[] key, double increment, byte[] value) {
+		return delegate.zIncrBy(key, increment, value);
+	}
+
+	public Long zRank(byte[] key, byte[] value) {
+		return delegate.zRank(key, value);
+	}
+
+	public Long zRevRank(byte[] key, byte[] value) {
+		return delegate.zRevRank(key, value);
+	}
+
+	public Set<byte[]> zRange(byte[] key, long begin, long end) {
+		return delegate.zRange(key, begin, end);
+	}
+
+	public Set<Tuple> zRangeWithScores(byte[] key, long begin, long end) {
+		return delegate.zRangeWithScores(key, begin, end);
+	}
+
+	public Set<byte[]> zRangeByScore(byte[] key, double min, double max) {
+		return delegate.zRangeByScore(key, min, max);
+	}
+
+	public Set<Tuple> zRangeByScoreWithScores(byte[] key, double min, double max) {
+		return delegate.zRangeByScoreWithScores(key, min, max);
+	}
+
+	public Set<byte[]> zRangeByScore(byte[] key, double min, double max, long offset, long count) {
+		return delegate.zRangeByScore(key, min, max, offset, count);
+	}
+
+	public Set<Tuple> zRangeByScoreWithScores(byte[] key, double min, double max, long offset, long count) {
+		return delegate.zRangeByScoreWithScores(key, min, max, offset, count);
+	}
+
+	public Set<byte[]> zRevRange(byte[] key, long begin, long end) {
+		return delegate.zRevRange(key, begin, end);
+	}
+
+	public Set<Tuple> zRevRangeWithScores(byte[] key, long begin, long end) {
+		return delegate.zRevRangeWithScores(key, begin, end);
+	}
+
+	public Set<byte[]> zRevRangeByScore(byte[] key, double min, double max) {
+		return delegate.zRevRangeByScore(key, min, max);
+	}
+
+	public Set<Tuple> zRevRangeByScoreWithScores(byte[] key, double min, double max) {
+		return delegate.zRevRangeByScoreWithScores(key, min, max);
+	}
+
+	public Set<byte[]> zRevRangeByScore(byte[] key, double min, double max, long offset, long count) {
+		return delegate.zRevRangeByScore(key, min, max, offset, count);
+	}
+
+	public Set<Tuple> zRevRangeByScoreWithScores(byte[] key, double min, double max, long offset, long count) {
+		return delegate.zRevRangeByScoreWithScores(key, min, max, offset, count);
+	}
+
+	public Long zCount(byte[] key, double min, double max) {
+		return delegate.zCount(key, min, max);
+	}
+
+	public Long zCard(byte[] key) {
+		return delegate.zCard(key);
+	}
+
+	public Double zScore(byte[] key, byte[] value) {
+		return delegate.zScore(key, value);
+	}
+
+	public Long zRemRange(byte[] key, long begin, long end) {
+		return delegate.zRemRange(key, begin, end);
+	}
+
+	public Long zRemRangeByScore(byte[] key, double min, double max) {
+		return delegate.zRemRangeByScore(key, min, max);
+	}
+
+	public Long zUnionStore(byte[] destKey, byte[]... sets) {
+		return delegate.zUnionStore(destKey, sets);
+	}
+
+	public Long zUnionStore(byte[] destKey, Aggregate aggregate, int[] weights, byte[]... sets) {
+		return delegate.zUnionStore(destKey, aggregate, weights, sets);
+	}
+
+	public Long zInterStore(byte[] destKey, byte[]... sets) {
+		return delegate.zInterStore(destKey, sets);
+	}
+
+	public Long zInterStore(byte[] destKey, Aggregate aggregate, int[] weights, byte[]... sets) {
+		return delegate.zInterStore(destKey, aggregate, weights, sets);
+	}
+
+	public Boolean hSet(byte[] key, byte[] field, byte[] value) {
+		return delegate.hSet(key, field, value);
+	}
+
+	public Boolean hSetNX(byte[] key, byte[] field, byte[] value) {
+		return delegate.hSetNX(key, field, value);
+	}
+
+	public byte[] hGet(byte[] key, byte[] field) {
+		return delegate.hGet(key, field);
+	}
+
+	public List<byte[]> hMGet(byte[] key, byte[]... fields) {
+		return delegate.hMGet(key, fields);
+	}
+
+	public void hMSet(byte[] key, Map<byte[], byte[]> hashes) {
+		delegate.hMSet(key, hashes);
+	}
+
+	public Long hIncrBy(byte[] key, byte[] field, long delta) {
+		return delegate.hIncrBy(key, field, delta);
+	}
+
+	public Double hIncrBy(byte[] key, byte[] field, double delta) {
+		return delegate.hIncrBy(key, field, delta);
+	}
+
+	public Boolean hExists(byte[] key, byte[] field) {
+		return delegate.hExists(key, field);
+	}
+
+	public Long hDel(byte[] key, byte[]... fields) {
+		return delegate.hDel(key, fields);
+	}
+
+	public Long hLen(byte[] key) {
+		return delegate.hLen(key);
+	}
+
+	public Set<byte[]> hKeys(byte[] key) {
+		return delegate.hKeys(key);
+	}
+
+	public List<byte[]> hVals(byte[] key) {
+		return delegate.hVals(key);
+	}
+
+	public Map<byte[], byte[]> hGetAll(byte[] key) {
+		return delegate.hGetAll(key);
+	}
+
+	public void multi() {
+		delegate.multi();
+	}
+
+	public List<Object> exec() {
+		return delegate.exec();
+	}
+
+	public void discard() {
+		delegate.discard();
+	}
+
+	public void watch(byte[]... keys) {
+		delegate.watch(keys);
+	}
+
+	public void unwatch() {
+		delegate.unwatch();
+	}
+
+	public boolean isSubscribed() {
+		return delegate.isSubscribed();
+	}
+
+	public Subscription getSubscription() {
+		return delegate.getSubscription();
+	}
+
+	public Long publish(byte[] channel, byte[] message) {
+		return delegate.publish(channel, message);
+	}
+
+	public void subscribe(MessageListener listener, byte[]... channels) {
+		delegate.subscribe(listener, channels);
+	}
+
+	public void pSubscribe(MessageListener listener, byte[]... patterns) {
+		delegate.pSubscribe(listener, patterns);
+	}
+
+	public void select(int dbIndex) {
+		delegate.select(dbIndex);
+	}
+
+	public byte[] echo(byte[] message) {
+		return delegate.echo(message);
+	}
+
+	public String ping() {
+		return delegate.ping();
+	}
+
+	public void bgWriteAof() {
+		delegate.bgWriteAof();
+	}
+
+	public void bgSave() {
+		delegate.bgSave();
+	}
+
+	public Long lastSave() {
+		return delegate.lastSave();
+	}
+
+	public void save() {
+		delegate.save();
+	}
+
+	public Long dbSize() {
+		return delegate.dbSize();
+	}
+
+	public void flushDb() {
+		delegate.flushDb();
+	}
+
+	public void flushAll() {
+		delegate.flushAll();
+	}
+
+	public Properties info() {
+		return delegate.info();
+	}
+
+	public Properties info(String section) {
+		return delegate.info(section);
+	}
+
+	public void shutdown() {
+		delegate.shutdown();
+	}
+
+	public List<String> getConfig(String pattern) {
+		return delegate.getConfig(pattern);
+	}
+
+	public void setConfig(String param, String value) {
+		delegate.setConfig(param, value);
+	}
+
+	public void resetConfigStats() {
+		delegate.resetConfigStats();
+	}
+
+	public void scriptFlush() {
+		delegate.scriptFlush();
+	}
+
+	public void scriptKill() {
+		delegate.scriptKill();
+	}
+
+	public String scriptLoad(byte[] script) {
+		return delegate.scriptLoad(script);
+	}
+
+	public List<Boolean> scriptExists(String... scriptSha1) {
+		return delegate.scriptExists(scriptSha1);
+	}
+
+	public <T> T eval(byte[] script, ReturnType returnType, int numKeys, byte[]... keysAndArgs) {
+		return delegate.eval(script, returnType, numKeys, keysAndArgs);
+	}
+
+	public <T> T evalSha(String scriptSha1, ReturnType returnType, int numKeys, byte[]... keysAndArgs) {
+		return delegate.evalSha(scriptSha1, returnType, numKeys, keysAndArgs);
+	}
+}
@@ -0,0 +1,522 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.core;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.data.redis.connection.DataType;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisListCommands.Position;
+import org.springframework.data.redis.connection.RedisStringCommands.BitOperation;
+import org.springframework.data.redis.connection.RedisZSetCommands.Aggregate;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.SortParameters;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.StringRedisConnection.StringTuple;
+
+/**
+ * {@link StringRedisConnection} variant of {@link CloseSuppressingRedisConnection}.
+ * 
+ * @since 1.2
+ */
+class CloseSuppressingStringRedisConnection extends CloseSuppressingRedisConnection implements StringRedisConnection {
+
+	private final StringRedisConnection delegate;
+
+	CloseSuppressingStringRedisConnection(StringRedisConnection delegate) {
+		super(delegate);
+		this.delegate = delegate;
+	}
+
+	public Object execute(String command, String... args) {
+		return delegate.execute(command, args);
+	}
+
+	public Object execute(String command) {
+		return delegate.execute(command);
+	}
+
+	public Boolean exists(String key) {
+		return delegate.exists(key);
+	}
+
+	public Long del(String... keys) {
+		return delegate.del(keys);
+	}
+
+	public DataType type(String key) {
+		return delegate.type(key);
+	}
+
+	public Collection<String> keys(String pattern) {
+		return delegate.keys(pattern);
+	}
+
+	public void rename(String oldName, String newName) {
+		delegate.rename(oldName, newName);
+	}
+
+	public Boolean renameNX(String oldName, String newName) {
+		return delegate.renameNX(oldName, newName);
+	}
+
+	public Boolean expire(String key, long seconds) {
+		return delegate.expire(key, seconds);
+	}
+
+	public Boolean pExpire(String key, long millis) {
+		return delegate.pExpire(key, millis);
+	}
+
+	public Boolean expireAt(String key, long unixTime) {
+		return delegate.expireAt(key, unixTime);
+	}
+
+	public Boolean pExpireAt(String key, long unixTimeInMillis) {
+		return delegate.pExpireAt(key, unixTimeInMillis);
+	}
+
+	public Boolean persist(String key) {
+		return delegate.persist(key);
+	}
+
+	public Boolean move(String key, int dbIndex) {
+		return delegate.move(key, dbIndex);
+	}
+
+	public Long ttl(String key) {
+		return delegate.ttl(key);
+	}
+
+	public Long pTtl(String key) {
+		return delegate.pTtl(key);
+	}
+
+	public String echo(String message) {
+		return delegate.echo(message);
+	}
+
+	public List<String> sort(String key, SortParameters params) {
+		return delegate.sort(key, params);
+	}
+
+	public Long sort(String key, SortParameters params, String storeKey) {
+		return delegate.sort(key, params, storeKey);
+	}
+
+	public String get(String key) {
+		return delegate.get(key);
+	}
+
+	public String getSet(String key, String value) {
+		return delegate.getSet(key, value);
+	}
+
+	public List<String> mGet(String... keys) {
+		return delegate.mGet(keys);
+	}
+
+	public void set(String key, String value) {
+		delegate.set(key, value);
+	}
+
+	public Boolean setNX(String key, String value) {
+		return delegate.setNX(key, value);
+	}
+
+	public void setEx(String key, long seconds, String value) {
+		delegate.setEx(key, seconds, value);
+	}
+
+	public void mSetString(Map<String, String> tuple) {
+		delegate.mSetString(tuple);
+	}
+
+	public Boolean mSetNXString(Map<String, String> tuple) {
+		return delegate.mSetNXString(tuple);
+	}
+
+	public Long incr(String key) {
+		return delegate.incr(key);
+	}
+
+	public Long incrBy(String key, long value) {
+		return delegate.incrBy(key, value);
+	}
+
+	public Double incrBy(String key, double value) {
+		return delegate.incrBy(key, value);
+	}
+
+	public Long decr(String key) {
+		return delegate.decr(key);
+	}
+
+	public Long decrBy(String key, long value) {
+		return delegate.decrBy(key, value);
+	}
+
+	public Long append(String key, String value) {
+		return delegate.append(key, value);
+	}
+
+	public String getRange(String key, long start, long end) {
+		return delegate.getRange(key, start, end);
+	}
+
+	public void setRange(String key, String value, long offset) {
+		delegate.setRange(key, value, offset);
+	}
+
+	public Boolean getBit(String key, long offset) {
+		return delegate.getBit(key, offset);
+	}
+
+	public void setBit(String key, long offset, boolean value) {
+		delegate.setBit(key, offset, value);
+	}
+
+	public Long bitCount(String key) {
+		return delegate.bitCount(key);
+	}
+
+	public Long bitCount(String key, long begin, long end) {
+		return delegate.bitCount(key, begin, end);
+	}
+
+	public Long bitOp(BitOperation op, String destination, String... keys) {
+		return delegate.bitOp(op, destination, keys);
+	}
+
+	public Long strLen(String key) {
+		return delegate.strLen(key);
+	}
+
+	public Long rPush(String key, String... values) {
+		return delegate.rPush(key, values);
+	}
+
+	public Long lPush(String key, String... values) {
+		return delegate.lPush(key, values);
+	}
+
+	public Long rPushX(String key, String value) {
+		return delegate.rPushX(key, value);
+	}
+
+	public Long lPushX(String key, String value) {
+		return delegate.lPushX(key, value);
+	}
+
+	public Long lLen(String key) {
+		return delegate.lLen(key);
+	}
+
+	public List<String> lRange(String key, long start, long end) {
+		return delegate.lRange(key, start, end);
+	}
+
+	public void lTrim(String key, long start, long end) {
+		delegate.lTrim(key, start, end);
+	}
+
+	public String lIndex(String key, long index) {
+		return delegate.lIndex(key, index);
+	}
+
+	public Long lInsert(String key, Position where, String pivot, String value) {
+		return delegate.lInsert(key, where, pivot, value);
+	}
+
+	public void lSet(String key, long index, String value) {
+		delegate.lSet(key, index, value);
+	}
+
+	public Long lRem(String key, long count, String value) {
+		return delegate.lRem(key, count, value);
+	}
+
+	public String lPop(String key) {
+		return delegate.lPop(key);
+	}
+
+	public String rPop(String key) {
+		return delegate.rPop(key);
+	}
+
+	public List<String> bLPop(int timeout, String... keys) {
+		return delegate.bLPop(timeout, keys);
+	}
+
+	public List<String> bRPop(int timeout, String... keys) {
+		return delegate.bRPop(timeout, keys);
+	}
+
+	public String rPopLPush(String srcKey, String dstKey) {
+		return delegate.rPopLPush(srcKey, dstKey);
+	}
+
+	public String bRPopLPush(int timeout, String srcKey, String dstKey) {
+		return delegate.bRPopLPush(timeout, srcKey, dstKey);
+	}
+
+	public Long sAdd(String key, String... values) {
+		return delegate.sAdd(key, values);
+	}
+
+	public Long sRem(String key, String... values) {
+		return delegate.sRem(key, values);
+	}
+
+	public String sPop(String key) {
+		return delegate.sPop(key);
+	}
+
+	public Boolean sMove(String srcKey, String destKey, String value) {
+		return delegate.sMove(srcKey, destKey, value);
+	}
+
+	public Long sCard(String key) {
+		return delegate.sCard(key);
+	}
+
+	public Boolean sIsMember(String key, String value) {
+		return delegate.sIsMember(key, value);
+	}
+
+	public Set<String> sInter(String... keys) {
+		return delegate.sInter(keys);
+	}
+
+	public Long sInterStore(String destKey, String... keys) {
+		return delegate.sInterStore(destKey, keys);
+	}
+
+	public Set<String> sUnion(String... keys) {
+		return delegate.sUnion(keys);
+	}
+
+	public Long sUnionStore(String destKey, String... keys) {
+		return delegate.sUnionStore(destKey, keys);
+	}
+
+	public Set<String> sDiff(String... keys) {
+		return delegate.sDiff(keys);
+	}
+
+	public Long sDiffStore(String destKey, String... keys) {
+		return delegate.sDiffStore(destKey, keys);
+	}
+
+	public Set<String> sMembers(String key) {
+		return delegate.sMembers(key);
+	}
+
+	public String sRandMember(String key) {
+		return delegate.sRandMember(key);
+	}
+
+	public List<String> sRandMember(String key, long count) {
+		return delegate.sRandMember(key, count);
+	}
+
+	public Boolean zAdd(String key, double score, String value) {
+		return delegate.zAdd(key, score, value);
+	}
+
+	public Long zAdd(String key, Set<StringTuple> tuples) {
+		return delegate.zAdd(key, tuples);
+	}
+
+	public Long zRem(String key, String... values) {
+		return delegate.zRem(key, values);
+	}
+
+	public Double zIncrBy(String key, double increment, String value) {
+		return delegate.zIncrBy(key, increment, value);
+	}
+
+	public Long zRank(String key, String value) {
+		return delegate.zRank(key, value);
+	}
+
+	public Long zRevRank(String key, String value) {
+		return delegate.zRevRank(key, value);
+	}
+
+	public Set<String> zRange(String key, long start, long end) {
+		return delegate.zRange(key, start, end);
+	}
+
+	public Set<StringTuple> zRangeWithScores(String key, long start, long end) {
+		return delegate.zRangeWithScores(key, start, end);
+	}
+
+	public Set<String> zRevRange(String key, long start, long end) {
+		return delegate.zRevRange(key, start, end);
+	}
+
+	public Set<StringTuple> zRevRangeWithScores(String key, long start, long end) {
+		return delegate.zRevRangeWithScores(key, start, end);
+	}
+
+	public Set<String> zRevRangeByScore(String key, double min, double max) {
+		return delegate.zRevRangeByScore(key, min, max);
+	}
+
+	public Set<StringTuple> zRevRangeByScoreWithScores(String key, double min, double max) {
+		return delegate.zRevRangeByScoreWithScores(key, min, max);
+	}
+
+	public Set<String> zRevRangeByScore(String key, double min, double max, long offset, long count) {
+		return delegate.zRevRangeByScore(key, min, max, offset, count);
+	}
+
+	public Set<StringTuple> zRevRangeByScoreWithScores(String key, double min, double max, long offset, long count) {
+		return delegate.zRevRangeByScoreWithScores(key, min, max, offset, count);
+	}
+
+	public Set<String> zRangeByScore(String key, double min, double max) {
+		return delegate.zRangeByScore(key, min, max);
+	}
+
+	public Set<StringTuple> zRangeByScoreWithScores(String key, double min, double max) {
+		return delegate.zRangeByScoreWithScores(key, min, max);
+	}
+
+	public Set<String> zRangeByScore(String key, double min, double max, long offset, long count) {
+		return delegate.zRangeByScore(key, min, max, offset, count);
+	}
+
+	public Set<StringTuple> zRangeByScoreWithScores(String key, double min, double max, long offset, long count) {
+		return delegate.zRangeByScoreWithScores(key, min, max, offset, count);
+	}
+
+	public Long zCount(String key, double min, double max) {
+		return delegate.zCount(key, min, max);
+	}
+
+	public Long zCard(String key) {
+		return delegate.zCard(key);
+	}
+
+	public Double zScore(String key, String value) {
+		return delegate.zScore(key, value);
+	}
+
+	public Long zRemRange(String key, long start, long end) {
+		return delegate.zRemRange(key, start, end);
+	}
+
+	public Long zRemRangeByScore(String key, double min, double max) {
+		return delegate.zRemRangeByScore(key, min, max);
+	}
+
+	public Long zUnionStore(String destKey, String... sets) {
+		return delegate.zUnionStore(destKey, sets);
+	}
+
+	public Long zUnionStore(String destKey, Aggregate aggregate, int[] weights, String... sets) {
+		return delegate.zUnionStore(destKey, aggregate, weights, sets);
+	}
+
+	public Long zInterStore(String destKey, String... sets) {
+		return delegate.zInterStore(destKey, sets);
+	}
+
+	public Long zInterStore(String destKey, Aggregate aggregate, int[] weights, String... sets) {
+		return delegate.zInterStore(destKey, aggregate, weights, sets);
+	}
+
+	public Boolean hSet(String key, String field, String value) {
+		return delegate.hSet(key, field, value);
+	}
+
+	public Boolean hSetNX(String key, String field, String value) {
+		return delegate.hSetNX(key, field, value);
+	}
+
+	public String hGet(String key, String field) {
+		return delegate.hGet(key, field);
+	}
+
+	public List<String> hMGet(String key, String... fields) {
+		return delegate.hMGet(key, fields);
+	}
+
+	public void hMSet(String key, Map<String, String> hashes) {
+		delegate.hMSet(key, hashes);
+	}
+
+	public Long hIncrBy(String key, String field, long delta) {
+		return delegate.hIncrBy(key, field, delta);
+	}
+
+	public Double hIncrBy(String key, String field, double delta) {
+		return delegate.hIncrBy(key, field, delta);
+	}
+
+	public Boolean hExists(String key, String field) {
+		return delegate.hExists(key, field);
+	}
+
+	public Long hDel(String key, String... fields) {
+		return delegate.hDel(key, fields);
+	}
+
+	public Long hLen(String key) {
+		return delegate.hLen(key);
+	}
+
+	public Set<String> hKeys(String key) {
+		return delegate.hKeys(key);
+	}
+
+	public List<String> hVals(String key) {
+		return delegate.hVals(key);
+	}
+
+	public Map<String, String> hGetAll(String key) {
+		return delegate.hGetAll(key);
+	}
+
+	public Long publish(String channel, String message) {
+		return delegate.publish(channel, message);
+	}
+
+	public void subscribe(MessageListener listener, String... channels) {
+		delegate.subscribe(listener, channels);
+	}
+
+	public void pSubscribe(MessageListener listener, String... patterns) {
+		delegate.pSubscribe(listener, patterns);
+	}
+
+	public String scriptLoad(String script) {
+		return delegate.scriptLoad(script);
+	}
+
+	public <T> T eval(String script, ReturnType returnType, int numKeys, String... keysAndArgs) {
+		return delegate.eval(script, returnType, numKeys, keysAndArgs);
+	}
+
+	public <T> T evalSha(String scriptSha1, ReturnType returnType, int numKeys, String... keysAndArgs) {
+		return delegate.evalSha(scriptSha1, returnType, numKeys, keysAndArgs);
+	}
+}
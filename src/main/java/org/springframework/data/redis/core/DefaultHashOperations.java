@@ -41,14 +41,19 @@ class DefaultHashOperations<K, HK, HV> extends AbstractOperations<K, Object> imp
 		final byte[] rawKey = rawKey(key);
 		final byte[] rawHashKey = rawHashKey(hashKey);
 
-		byte[] rawHashValue = execute(new RedisCallback<byte[]>() {
+		return executeRead(ReadCoalescer.HGET, new ReadCallback<HV>() {
 
-			public byte[] doInRedis(RedisConnection connection) {
-				return connection.hGet(rawKey, rawHashKey);
-			}
-		}, true);
+			public HV call() {
+				byte[] rawHashValue = execute(new RedisCallback<byte[]>() {
+
+					public byte[] doInRedis(RedisConnection connection) {
+						return connection.hGet(rawKey, rawHashKey);
+					}
+				}, true);
 
-		return (HV) deserializeHashValue(rawHashValue);
+				return (HV) deserializeHashValue(rawHashValue);
+			}
+		}, rawKey, rawHashKey);
 	}
 
 	public Boolean hasKey(K key, Object hashKey) {
@@ -90,14 +95,19 @@ class DefaultHashOperations<K, HK, HV> extends AbstractOperations<K, Object> imp
 	public Set<HK> keys(K key) {
 		final byte[] rawKey = rawKey(key);
 
-		Set<byte[]> rawValues = execute(new RedisCallback<Set<byte[]>>() {
+		return executeRead(ReadCoalescer.HKEYS, new ReadCallback<Set<HK>>() {
 
-			public Set<byte[]> doInRedis(RedisConnection connection) {
-				return connection.hKeys(rawKey);
-			}
-		}, true);
+			public Set<HK> call() {
+				Set<byte[]> rawValues = execute(new RedisCallback<Set<byte[]>>() {
+
+					public Set<byte[]> doInRedis(RedisConnection connection) {
+						return connection.hKeys(rawKey);
+					}
+				}, true);
 
-		return deserializeHashKeys(rawValues);
+				return deserializeHashKeys(rawValues);
+			}
+		}, rawKey);
 	}
 
 	public Long size(K key) {
@@ -187,14 +197,19 @@ class DefaultHashOperations<K, HK, HV> extends AbstractOperations<K, Object> imp
 	public List<HV> values(K key) {
 		final byte[] rawKey = rawKey(key);
 
-		List<byte[]> rawValues = execute(new RedisCallback<List<byte[]>>() {
+		return executeRead(ReadCoalescer.HVALS, new ReadCallback<List<HV>>() {
 
-			public List<byte[]> doInRedis(RedisConnection connection) {
-				return connection.hVals(rawKey);
-			}
-		}, true);
+			public List<HV> call() {
+				List<byte[]> rawValues = execute(new RedisCallback<List<byte[]>>() {
 
-		return deserializeHashValues(rawValues);
+					public List<byte[]> doInRedis(RedisConnection connection) {
+						return connection.hVals(rawKey);
+					}
+				}, true);
+
+				return deserializeHashValues(rawValues);
+			}
+		}, rawKey);
 	}
 
 	public void delete(K key, Object... hashKeys) {
@@ -213,13 +228,18 @@ class DefaultHashOperations<K, HK, HV> extends AbstractOperations<K, Object> imp
 	public Map<HK, HV> entries(K key) {
 		final byte[] rawKey = rawKey(key);
 
-		Map<byte[], byte[]> entries = execute(new RedisCallback<Map<byte[], byte[]>>() {
+		return executeRead(ReadCoalescer.HGETALL, new ReadCallback<Map<HK, HV>>() {
 
-			public Map<byte[], byte[]> doInRedis(RedisConnection connection) {
-				return connection.hGetAll(rawKey);
-			}
-		}, true);
+			public Map<HK, HV> call() {
+				Map<byte[], byte[]> entries = execute(new RedisCallback<Map<byte[], byte[]>>() {
 
-		return deserializeHashMap(entries);
+					public Map<byte[], byte[]> doInRedis(RedisConnection connection) {
+						return connection.hGetAll(rawKey);
+					}
+				}, true);
+
+				return deserializeHashMap(entries);
+			}
+		}, rawKey);
 	}
 }
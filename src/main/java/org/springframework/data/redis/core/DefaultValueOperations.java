@@ -37,14 +37,22 @@ class DefaultValueOperations<K, V> extends AbstractOperations<K, V> implements V
 		super(template);
 	}
 
-	public V get(final Object key) {
+	public V get(Object key) {
+		final byte[] rawKey = rawKey(key);
 
-		return execute(new ValueDeserializingRedisCallback(key) {
+		return executeRead(ReadCoalescer.GET, new ReadCallback<V>() {
 
-			protected byte[] inRedis(byte[] rawKey, RedisConnection connection) {
-				return connection.get(rawKey);
+			public V call() {
+				byte[] rawValue = execute(new RedisCallback<byte[]>() {
+
+					public byte[] doInRedis(RedisConnection connection) {
+						return connection.get(rawKey);
+					}
+				}, true);
+
+				return deserializeValue(rawValue);
 			}
-		}, true);
+		}, rawKey);
 	}
 
 	public V getAndSet(K key, V newValue) {
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.core;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Read-only list holding raw values and deserializing each of them on first access. Deserialized values are kept, so
+ * each raw value is normally deserialized once.
+ * <p/>
+ * Instances can be read from several threads. Concurrent first accesses to the same element may deserialize it more
+ * than once, but only the first result is kept and returned to all readers.
+ * 
+ * @since 1.2
+ */
+class LazyDeserializingList<T> extends AbstractList<T> implements RandomAccess {
+
+	private static final Object UNRESOLVED = new Object();
+
+	private final RedisSerializer<T> serializer;
+	private final byte[][] rawValues;
+	private final AtomicReferenceArray<Object> values;
+
+	LazyDeserializingList(Collection<byte[]> rawValues, RedisSerializer<T> serializer) {
+		this.serializer = serializer;
+		this.rawValues = rawValues.toArray(new byte[rawValues.size()][]);
+		this.values = new AtomicReferenceArray<Object>(this.rawValues.length);
+		for (int i = 0; i < this.rawValues.length; i++) {
+			values.lazySet(i, UNRESOLVED);
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public T get(int index) {
+		Object value = values.get(index);
+		if (value == UNRESOLVED) {
+			// raw values are kept, a concurrent reader might still need them
+			value = serializer.deserialize(rawValues[index]);
+			if (!values.compareAndSet(index, UNRESOLVED, value)) {
+				value = values.get(index);
+			}
+		}
+		return (T) value;
+	}
+
+	@Override
+	public int size() {
+		return values.length();
+	}
+}
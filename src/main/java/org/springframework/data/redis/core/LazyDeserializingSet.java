@@ -0,0 +1,49 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.core;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Read-only set holding raw values (in their original order) and deserializing each of them on first access. As the
+ * raw values are distinct members of a Redis set, they are assumed to deserialize to distinct values. Note that
+ * {@link #contains(Object)} deserializes the members it needs to compare against.
+ * 
+ * @see LazyDeserializingList
+ * @since 1.2
+ */
+class LazyDeserializingSet<T> extends AbstractSet<T> {
+
+	private final LazyDeserializingList<T> values;
+
+	LazyDeserializingSet(Collection<byte[]> rawValues, RedisSerializer<T> serializer) {
+		this.values = new LazyDeserializingList<T>(rawValues, serializer);
+	}
+
+	@Override
+	public Iterator<T> iterator() {
+		return values.iterator();
+	}
+
+	@Override
+	public int size() {
+		return values.size();
+	}
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.core;
+
+import org.springframework.dao.DataAccessException;
+
+/**
+ * Callback for optimistic transactions executed through
+ * {@link RedisOperations#executeOptimistic(java.util.Collection, OptimisticCallback)}. The callback is invoked once per
+ * attempt: {@link #read(RedisOperations)} runs with the keys watched, {@link #write(RedisOperations, Object)} queues
+ * the writes inside <tt>MULTI</tt>. Both must be free of side effects outside Redis as they may run several times.
+ * 
+ * @param <S> the type of the state read before the writes are queued
+ * @since 1.2
+ */
+public interface OptimisticCallback<S> {
+
+	/**
+	 * Reads the state the writes depend on. Invoked with the keys watched.
+	 * 
+	 * @param operations Redis operations bound to the watching connection
+	 * @return the state passed to {@link #write(RedisOperations, Object)}
+	 */
+	<K, V> S read(RedisOperations<K, V> operations) throws DataAccessException;
+
+	/**
+	 * Queues the writes of the transaction. Queueing no writes completes the call without changes.
+	 * 
+	 * @param operations Redis operations bound to the connection in <tt>MULTI</tt> state
+	 * @param state the state returned by {@link #read(RedisOperations)}
+	 */
+	<K, V> void write(RedisOperations<K, V> operations, S state) throws DataAccessException;
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Conflict statistics of the optimistic transactions executed from one call site, identified by the class of the
+ * {@link OptimisticCallback}.
+ * 
+ * @see RedisTemplate#getOptimisticExecutionMetrics()
+ * @since 1.2
+ */
+public class OptimisticExecutionMetrics {
+
+	private final String callSite;
+
+	private final AtomicLong executions = new AtomicLong();
+	private final AtomicLong attempts = new AtomicLong();
+	private final AtomicLong conflicts = new AtomicLong();
+	private final AtomicLong failures = new AtomicLong();
+
+	OptimisticExecutionMetrics(String callSite) {
+		this.callSite = callSite;
+	}
+
+	void recordSuccess(int attempts) {
+		executions.incrementAndGet();
+		this.attempts.addAndGet(attempts);
+		conflicts.addAndGet(attempts - 1);
+	}
+
+	void recordFailure(int attempts) {
+		executions.incrementAndGet();
+		this.attempts.addAndGet(attempts);
+		conflicts.addAndGet(attempts);
+		failures.incrementAndGet();
+	}
+
+	/**
+	 * @return the name of the callback class
+	 */
+	public String getCallSite() {
+		return callSite;
+	}
+
+	/**
+	 * @return the number of completed calls, successful or not
+	 */
+	public long getExecutions() {
+		return executions.get();
+	}
+
+	/**
+	 * @return the number of transactions sent, including retries
+	 */
+	public long getAttempts() {
+		return attempts.get();
+	}
+
+	/**
+	 * @return the number of transactions aborted because a watched key was modified
+	 */
+	public long getConflicts() {
+		return conflicts.get();
+	}
+
+	/**
+	 * @return the number of calls failing after exhausting their attempts
+	 */
+	public long getFailures() {
+		return failures.get();
+	}
+
+	/**
+	 * @return the ratio of aborted to sent transactions
+	 */
+	public double getConflictRate() {
+		long sent = attempts.get();
+		return (sent == 0 ? 0 : (double) conflicts.get() / sent);
+	}
+
+	public String toString() {
+		return callSite + " [executions=" + getExecutions() + ", attempts=" + getAttempts() + ", conflicts="
+				+ getConflicts() + ", failures=" + getFailures() + "]";
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.core;
+
+import java.util.Random;
+
+import org.springframework.util.Assert;
+
+/**
+ * Retry policy for optimistic transactions aborted because a watched key was modified. Retries back off exponentially,
+ * starting at the initial backoff and doubling up to the maximum backoff, with a random jitter keeping competing
+ * clients from retrying in lock-step.
+ * 
+ * @see RedisOperations#executeOptimistic(java.util.Collection, OptimisticCallback, OptimisticRetryPolicy)
+ * @since 1.2
+ */
+public class OptimisticRetryPolicy {
+
+	public static final int DEFAULT_MAX_ATTEMPTS = 10;
+	public static final long DEFAULT_INITIAL_BACKOFF = 1;
+	public static final long DEFAULT_MAX_BACKOFF = 100;
+
+	private final int maxAttempts;
+	private final long initialBackoff;
+	private final long maxBackoff;
+
+	private final Random random = new Random();
+
+	/**
+	 * Constructs a new <code>OptimisticRetryPolicy</code> instance using the default settings.
+	 */
+	public OptimisticRetryPolicy() {
+		this(DEFAULT_MAX_ATTEMPTS, DEFAULT_INITIAL_BACKOFF, DEFAULT_MAX_BACKOFF);
+	}
+
+	/**
+	 * Constructs a new <code>OptimisticRetryPolicy</code> instance.
+	 * 
+	 * @param maxAttempts the maximum number of attempts, including the first one
+	 * @param initialBackoff the backoff in milliseconds after the first conflict
+	 * @param maxBackoff the maximum backoff in milliseconds
+	 */
+	public OptimisticRetryPolicy(int maxAttempts, long initialBackoff, long maxBackoff) {
+		Assert.isTrue(maxAttempts > 0, "at least one attempt is required");
+		Assert.isTrue(initialBackoff >= 0 && maxBackoff >= initialBackoff, "invalid backoff range");
+		this.maxAttempts = maxAttempts;
+		this.initialBackoff = initialBackoff;
+		this.maxBackoff = maxBackoff;
+	}
+
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	public long getInitialBackoff() {
+		return initialBackoff;
+	}
+
+	public long getMaxBackoff() {
+		return maxBackoff;
+	}
+
+	/**
+	 * Returns the time to wait after the given failed attempt, between half and all of the exponential backoff.
+	 * 
+	 * @param attempt the number of the failed attempt, starting at 1
+	 * @return the backoff in milliseconds
+	 */
+	public long getBackoff(int attempt) {
+		long backoff = initialBackoff << Math.min(attempt - 1, 30);
+		if (backoff > maxBackoff || backoff < 0) {
+			backoff = maxBackoff;
+		}
+		long half = backoff / 2;
+		return half + (long) (random.nextDouble() * (backoff - half + 1));
+	}
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.core;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.util.Assert;
+
+/**
+ * Coalesces identical reads issued concurrently through a {@link RedisTemplate}: while a read of a key is in flight,
+ * other threads reading the same key wait for it and share its deserialized result instead of sending their own
+ * request. Results are never kept once the read completes, so no value is older than the in-flight window. Reads on a
+ * connection bound to the thread (sessions, pipelines, transactions) are not coalesced.
+ * <p/>
+ * Supported commands are {@link #GET}, {@link #HGET}, {@link #HGETALL}, {@link #HKEYS} and {@link #HVALS}.
+ * Coalesced callers receive the same result instance, whatever its type: collections, but also values deserialized
+ * into mutable objects (such as JDK serialized or JSON mapped beans), are shared across threads and must be treated as
+ * read-only. Only enable coalescing for commands whose results are immutable or not modified by the application.
+ * Reads are identified by their serialized arguments, so a coalescer should not be shared between templates using
+ * different serializers.
+ * 
+ * @see RedisTemplate#setReadCoalescer(ReadCoalescer)
+ * @since 1.2
+ */
+public class ReadCoalescer {
+
+	/** {@link ValueOperations#get(Object)} */
+	public static final String GET = "GET";
+	/** {@link HashOperations#get(Object, Object)} */
+	public static final String HGET = "HGET";
+	/** {@link HashOperations#entries(Object)} */
+	public static final String HGETALL = "HGETALL";
+	/** {@link HashOperations#keys(Object)} */
+	public static final String HKEYS = "HKEYS";
+	/** {@link HashOperations#values(Object)} */
+	public static final String HVALS = "HVALS";
+
+	private final Set<String> commands;
+	private final ConcurrentMap<ReadKey, FutureTask<?>> inFlight = new ConcurrentHashMap<ReadKey, FutureTask<?>>();
+	private final AtomicLong coalescedReads = new AtomicLong();
+
+	/**
+	 * Constructs a new <code>ReadCoalescer</code> instance coalescing {@link #GET} and {@link #HGETALL}.
+	 */
+	public ReadCoalescer() {
+		this(Arrays.asList(GET, HGETALL));
+	}
+
+	/**
+	 * Constructs a new <code>ReadCoalescer</code> instance.
+	 * 
+	 * @param commands the names of the commands to coalesce
+	 */
+	public ReadCoalescer(Collection<String> commands) {
+		Assert.notNull(commands, "a valid collection of commands is required");
+		this.commands = Collections.unmodifiableSet(new HashSet<String>(commands));
+	}
+
+	/**
+	 * @return the names of the coalesced commands
+	 */
+	public Set<String> getCommands() {
+		return commands;
+	}
+
+	/**
+	 * @param command the command name
+	 * @return true if reads of the given command are coalesced
+	 */
+	public boolean isCoalesced(String command) {
+		return commands.contains(command);
+	}
+
+	/**
+	 * @return the number of reads served by another thread's request
+	 */
+	public long getCoalescedReads() {
+		return coalescedReads.get();
+	}
+
+	@SuppressWarnings("unchecked")
+	<T> T execute(String command, Callable<T> read, byte[]... args) {
+		ReadKey key = new ReadKey(command, args);
+		FutureTask<T> task = new FutureTask<T>(read);
+		FutureTask<T> existing = (FutureTask<T>) inFlight.putIfAbsent(key, task);
+		if (existing == null) {
+			try {
+				task.run();
+			} finally {
+				inFlight.remove(key, task);
+			}
+		} else {
+			coalescedReads.incrementAndGet();
+			task = existing;
+		}
+
+		try {
+			return task.get();
+		} catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new RedisSystemException("Coalesced read failed", cause);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new RedisSystemException("Interrupted while waiting for coalesced read", ex);
+		}
+	}
+
+	private static class ReadKey {
+
+		private final String command;
+		private final byte[][] args;
+		private final int hashCode;
+
+		ReadKey(String command, byte[][] args) {
+			this.command = command;
+			this.args = args;
+			this.hashCode = 31 * command.hashCode() + Arrays.deepHashCode(args);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof ReadKey)) {
+				return false;
+			}
+			ReadKey other = (ReadKey) obj;
+			return command.equals(other.command) && Arrays.deepEquals(args, other.args);
+		}
+	}
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.core;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+/**
+ * AOP interceptor binding a Redis connection to the current thread for the duration of the intercepted method, without
+ * requiring a transaction. All {@link RedisTemplate} operations using the same {@link RedisConnectionFactory} inside
+ * the method share that connection, rather than borrowing and returning a pooled connection per operation. Typically
+ * applied to service or web controller methods performing many Redis operations per request. A connection is checked
+ * out even if the method does not access Redis.
+ * <p/>
+ * Nested invocations reuse the outer binding; the connection is closed once the outermost invocation completes.
+ * 
+ * @see RedisConnectionUtils#bindConnection(RedisConnectionFactory)
+ * @since 1.2
+ */
+public class RedisConnectionBindingInterceptor extends RedisAccessor implements MethodInterceptor {
+
+	public RedisConnectionBindingInterceptor() {}
+
+	/**
+	 * Constructs a new <code>RedisConnectionBindingInterceptor</code> instance.
+	 * 
+	 * @param connectionFactory the factory whose connections should be bound
+	 */
+	public RedisConnectionBindingInterceptor(RedisConnectionFactory connectionFactory) {
+		setConnectionFactory(connectionFactory);
+		afterPropertiesSet();
+	}
+
+	public Object invoke(MethodInvocation invocation) throws Throwable {
+		RedisConnectionFactory factory = getConnectionFactory();
+		RedisConnectionUtils.bindConnection(factory);
+		try {
+			return invocation.proceed();
+		} finally {
+			RedisConnectionUtils.unbindConnection(factory);
+		}
+	}
+}
@@ -15,6 +15,8 @@
  */
 package org.springframework.data.redis.core;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.data.redis.connection.RedisConnection;
@@ -33,8 +35,23 @@ public abstract class RedisConnectionUtils {
 
 	private static final Log log = LogFactory.getLog(RedisConnectionUtils.class);
 
+	// number of connections currently bound (across all threads); while zero, thread resources need not be looked up
+	private static final AtomicInteger boundConnections = new AtomicInteger();
+
 	/**
-	 * Binds a new Redis connection (from the given factory) to the current thread, if none is already bound.
+	 * Binds a new Redis connection (from the given factory) to the current thread, if none is already bound. Bindings
+	 * nest: the connection stays bound until each call has been matched by {@link #unbindConnection(RedisConnectionFactory)},
+	 * so that a scope spanning several template operations (see {@link RedisConnectionBindingInterceptor}) reuses a single
+	 * connection instead of checking one out of the pool per operation.
+	 * 
+	 * <pre>
+	 * RedisConnectionUtils.bindConnection(factory);
+	 * try {
+	 * 	// template operations on the current thread share one connection
+	 * } finally {
+	 * 	RedisConnectionUtils.unbindConnection(factory);
+	 * }
+	 * </pre>
 	 * 
 	 * @param factory connection factory
 	 * @return a new Redis connection
@@ -69,11 +86,15 @@ public abstract class RedisConnectionUtils {
 	public static RedisConnection doGetConnection(RedisConnectionFactory factory, boolean allowCreate, boolean bind) {
 		Assert.notNull(factory, "No RedisConnectionFactory specified");
 
-		RedisConnectionHolder connHolder = (RedisConnectionHolder) TransactionSynchronizationManager.getResource(factory);
+		RedisConnectionHolder connHolder = getConnectionHolder(factory);
 		// TODO: investigate tx synchronization
 
-		if (connHolder != null)
+		if (connHolder != null) {
+			if (bind) {
+				connHolder.requested();
+			}
 			return connHolder.getConnection();
+		}
 
 		if (!allowCreate) {
 			throw new IllegalArgumentException("No connection found and allowCreate = false");
@@ -86,6 +107,7 @@ public abstract class RedisConnectionUtils {
 
 		if (bind) {
 			connHolder = new RedisConnectionHolder(conn);
+			boundConnections.incrementAndGet();
 			TransactionSynchronizationManager.bindResource(factory, connHolder);
 			return connHolder.getConnection();
 		}
@@ -113,17 +135,29 @@ public abstract class RedisConnectionUtils {
 	}
 
 	/**
-	 * Unbinds and closes the connection (if any) associated with the given factory.
+	 * Unbinds and closes the connection (if any) associated with the given factory, once all nested bindings have been
+	 * released.
 	 * 
 	 * @param factory Redis factory
 	 */
 	public static void unbindConnection(RedisConnectionFactory factory) {
-		RedisConnectionHolder connHolder = (RedisConnectionHolder) TransactionSynchronizationManager
-				.unbindResourceIfPossible(factory);
-		if (connHolder != null) {
-			RedisConnection connection = connHolder.getConnection();
-			connection.close();
+		RedisConnectionHolder connHolder = getConnectionHolder(factory);
+		if (connHolder == null || connHolder.released()) {
+			return;
 		}
+		TransactionSynchronizationManager.unbindResource(factory);
+		boundConnections.decrementAndGet();
+		connHolder.getConnection().close();
+	}
+
+	/**
+	 * Return whether a connection created by the given factory is bound to the current thread.
+	 * 
+	 * @param factory Redis connection factory
+	 * @return whether a connection is bound or not
+	 */
+	public static boolean isConnectionBound(RedisConnectionFactory factory) {
+		return getConnectionHolder(factory) != null;
 	}
 
 	/**
@@ -138,15 +172,23 @@ public abstract class RedisConnectionUtils {
 		if (connFactory == null) {
 			return false;
 		}
-		RedisConnectionHolder connHolder = (RedisConnectionHolder) TransactionSynchronizationManager
-				.getResource(connFactory);
+		RedisConnectionHolder connHolder = getConnectionHolder(connFactory);
 		return (connHolder != null && conn == connHolder.getConnection());
 	}
 
+	private static RedisConnectionHolder getConnectionHolder(RedisConnectionFactory factory) {
+		if (boundConnections.get() == 0) {
+			return null;
+		}
+		return (RedisConnectionHolder) TransactionSynchronizationManager.getResource(factory);
+	}
+
 	private static class RedisConnectionHolder implements ResourceHolder {
 
 		private boolean isVoid = false;
 		private final RedisConnection conn;
+		// number of bindings not released yet; only accessed by the thread the holder is bound to
+		private int referenceCount = 1;
 
 		public RedisConnectionHolder(RedisConnection conn) {
 			this.conn = conn;
@@ -160,6 +202,17 @@ public abstract class RedisConnectionUtils {
 			return conn;
 		}
 
+		public void requested() {
+			referenceCount++;
+		}
+
+		/**
+		 * @return true if the connection is still referenced by an enclosing binding
+		 */
+		public boolean released() {
+			return --referenceCount > 0;
+		}
+
 		public void reset() {
 			// no-op
 		}
@@ -18,6 +18,7 @@ package org.springframework.data.redis.core;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
@@ -59,6 +60,35 @@ public interface RedisOperations<K, V> {
 	 */
 	<T> T execute(SessionCallback<T> session);
 
+	/**
+	 * Executes an optimistic transaction: watches the given keys, reads through
+	 * {@link OptimisticCallback#read(RedisOperations)}, queues the writes of
+	 * {@link OptimisticCallback#write(RedisOperations, Object)} in <tt>MULTI</tt> and executes them. When a watched key
+	 * is modified concurrently and <tt>EXEC</tt> aborts, the whole sequence is retried after a backoff. Uses the
+	 * template's default {@link OptimisticRetryPolicy}.
+	 * 
+	 * @param keys the keys to watch
+	 * @param callback callback reading the state and queueing the writes
+	 * @return the results of the executed transaction
+	 * @throws org.springframework.dao.OptimisticLockingFailureException if all attempts conflicted
+	 * @since 1.2
+	 */
+	<S> List<Object> executeOptimistic(Collection<K> keys, OptimisticCallback<S> callback);
+
+	/**
+	 * Executes an optimistic transaction, retrying according to the given policy when <tt>EXEC</tt> aborts.
+	 * 
+	 * @param keys the keys to watch
+	 * @param callback callback reading the state and queueing the writes
+	 * @param retryPolicy the number of attempts and the backoff between them
+	 * @return the results of the executed transaction
+	 * @throws org.springframework.dao.OptimisticLockingFailureException if all attempts conflicted
+	 * @see #executeOptimistic(Collection, OptimisticCallback)
+	 * @since 1.2
+	 */
+	<S> List<Object> executeOptimistic(Collection<K> keys, OptimisticCallback<S> callback,
+			OptimisticRetryPolicy retryPolicy);
+
 	/**
 	 * Executes the given action object on a pipelined connection, returning the results. Note that the callback
 	 * <b>cannot</b> return a non-null value as it gets overwritten by the pipeline. This method will use the default
@@ -187,6 +217,27 @@ public interface RedisOperations<K, V> {
 	// pubsub functionality on the template
 	void convertAndSend(String destination, Object message);
 
+	/**
+	 * Publishes the given messages to the given channel. Each message is serialized once and all of them are sent in a
+	 * single pipeline, that is a single round trip.
+	 * 
+	 * @param destination the channel to publish to
+	 * @param messages messages to publish
+	 * @return the number of clients that received each message (in iteration order) or null when used in pipeline /
+	 *         transaction
+	 */
+	List<Long> convertAndSendAll(String destination, Collection<?> messages);
+
+	/**
+	 * Publishes the given messages to their respective channels. Each message is serialized once and all of them are
+	 * sent in a single pipeline, that is a single round trip.
+	 * 
+	 * @param messages messages to publish, keyed by channel
+	 * @return the number of clients that received each message (in iteration order), keyed by channel or null when used
+	 *         in pipeline / transaction
+	 */
+	Map<String, List<Long>> convertAndSendAll(Map<String, ? extends Collection<?>> messages);
+
 	// operation types
 	/**
 	 * Returns the operations performed on simple values (or Strings in Redis terminology).
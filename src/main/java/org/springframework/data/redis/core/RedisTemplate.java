@@ -20,14 +20,19 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.redis.RedisSystemException;
 import org.springframework.data.redis.connection.DataType;
 import org.springframework.data.redis.connection.RedisConnection;
@@ -41,10 +46,11 @@ import org.springframework.data.redis.core.script.DefaultScriptExecutor;
 import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.data.redis.core.script.ScriptExecutor;
 import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.ParallelDeserializer;
+import org.springframework.data.redis.serializer.ParallelDeserializer.ChunkDeserializer;
 import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.SerializationUtils;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
-import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.CollectionUtils;
@@ -88,6 +94,14 @@ public class RedisTemplate<K, V> extends RedisAccessor implements RedisOperation
 
 	private ScriptExecutor<K> scriptExecutor;
 
+	private ParallelDeserializer parallelDeserializer;
+	private boolean lazyDeserialization = false;
+	private ReadCoalescer readCoalescer;
+
+	private OptimisticRetryPolicy optimisticRetryPolicy = new OptimisticRetryPolicy();
+	private final ConcurrentMap<String, OptimisticExecutionMetrics> optimisticMetrics =
+			new ConcurrentHashMap<String, OptimisticExecutionMetrics>();
+
 	// cache singleton objects (where possible)
 	private ValueOperations<K, V> valueOps;
 	private ListOperations<K, V> listOps;
@@ -168,7 +182,7 @@ public class RedisTemplate<K, V> extends RedisAccessor implements RedisOperation
 		try {
 			conn = RedisConnectionUtils.getConnection(factory);
 
-			boolean existingConnection = TransactionSynchronizationManager.hasResource(factory);
+			boolean existingConnection = RedisConnectionUtils.isConnectionTransactional(conn, factory);
 
 			RedisConnection connToUse = preProcessConnection(conn, existingConnection);
 
@@ -270,6 +284,103 @@ public class RedisTemplate<K, V> extends RedisAccessor implements RedisOperation
 		});
 	}
 
+	public <S> List<Object> executeOptimistic(Collection<K> keys, OptimisticCallback<S> callback) {
+		return executeOptimistic(keys, callback, optimisticRetryPolicy);
+	}
+
+	public <S> List<Object> executeOptimistic(final Collection<K> keys, final OptimisticCallback<S> callback,
+			final OptimisticRetryPolicy retryPolicy) {
+		Assert.notEmpty(keys, "at least one key to watch is required");
+		Assert.notNull(callback, "a valid callback is required");
+		Assert.notNull(retryPolicy, "a valid retry policy is required");
+
+		final OptimisticExecutionMetrics metrics = getOptimisticExecutionMetrics(callback.getClass().getName());
+		return execute(new SessionCallback<List<Object>>() {
+			@SuppressWarnings("rawtypes")
+			public List<Object> execute(RedisOperations operations) {
+				for (int attempt = 1;; attempt++) {
+					List<Object> results = executeOptimisticAttempt(keys, callback);
+					if (results != null) {
+						metrics.recordSuccess(attempt);
+						return results;
+					}
+					if (attempt >= retryPolicy.getMaxAttempts()) {
+						metrics.recordFailure(attempt);
+						throw new OptimisticLockingFailureException("Transaction watching " + keys + " aborted " + attempt
+								+ " times");
+					}
+					backoff(retryPolicy.getBackoff(attempt));
+				}
+			}
+		});
+	}
+
+	private <S> List<Object> executeOptimisticAttempt(Collection<K> keys, OptimisticCallback<S> callback) {
+		watch(keys);
+		boolean queueing = false;
+		try {
+			S state = callback.read(this);
+			multi();
+			queueing = true;
+			callback.write(this, state);
+		} catch (RuntimeException ex) {
+			if (queueing) {
+				discard();
+			} else {
+				unwatch();
+			}
+			throw ex;
+		}
+		// null if a watched key has been modified
+		return exec();
+	}
+
+	private static void backoff(long millis) {
+		if (millis <= 0) {
+			return;
+		}
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new OptimisticLockingFailureException("Interrupted while backing off", ex);
+		}
+	}
+
+	private OptimisticExecutionMetrics getOptimisticExecutionMetrics(String callSite) {
+		OptimisticExecutionMetrics metrics = optimisticMetrics.get(callSite);
+		if (metrics == null) {
+			metrics = new OptimisticExecutionMetrics(callSite);
+			OptimisticExecutionMetrics existing = optimisticMetrics.putIfAbsent(callSite, metrics);
+			if (existing != null) {
+				metrics = existing;
+			}
+		}
+		return metrics;
+	}
+
+	/**
+	 * Returns the conflict statistics of the optimistic transactions executed through this template, keyed by the class
+	 * name of their {@link OptimisticCallback}.
+	 * 
+	 * @return conflict statistics per call site
+	 * @since 1.2
+	 */
+	public Map<String, OptimisticExecutionMetrics> getOptimisticExecutionMetrics() {
+		return Collections.unmodifiableMap(optimisticMetrics);
+	}
+
+	/**
+	 * Sets the {@link OptimisticRetryPolicy} used by {@link #executeOptimistic(Collection, OptimisticCallback)}.
+	 * 
+	 * @param optimisticRetryPolicy the retry policy to use
+	 * @since 1.2
+	 */
+	public void setOptimisticRetryPolicy(OptimisticRetryPolicy optimisticRetryPolicy) {
+		Assert.notNull(optimisticRetryPolicy, "a valid retry policy is required");
+		this.optimisticRetryPolicy = optimisticRetryPolicy;
+	}
+
 	public <T> T execute(RedisScript<T> script, List<K> keys, Object... args) {
 		return scriptExecutor.execute(script, keys, args);
 	}
@@ -283,7 +394,20 @@ public class RedisTemplate<K, V> extends RedisAccessor implements RedisOperation
 		return session.execute(this);
 	}
 
+	/**
+	 * Returns a view of the given connection suppressing <tt>close</tt> calls, exposed to {@link RedisCallback}s unless
+	 * {@link #setExposeConnection(boolean)} is set. Connections implementing only {@link RedisConnection} or
+	 * {@link org.springframework.data.redis.connection.StringRedisConnection} are wrapped by a plain delegating class;
+	 * others by a JDK dynamic proxy.
+	 * 
+	 * @param pm connection to wrap
+	 * @return close suppressing connection
+	 */
 	protected RedisConnection createRedisConnectionProxy(RedisConnection pm) {
+		RedisConnection wrapper = CloseSuppressingRedisConnection.wrap(pm);
+		if (wrapper != null) {
+			return wrapper;
+		}
 		Class<?>[] ifcs = ClassUtils.getAllInterfacesForClass(pm.getClass(), getClass().getClassLoader());
 		return (RedisConnection) Proxy.newProxyInstance(pm.getClass().getClassLoader(), ifcs,
 				new CloseSuppressingInvocationHandler(pm));
@@ -451,6 +575,69 @@ public class RedisTemplate<K, V> extends RedisAccessor implements RedisOperation
 		this.stringSerializer = stringSerializer;
 	}
 
+	/**
+	 * Returns the parallel deserializer used for large multi-value results, if any.
+	 * 
+	 * @return Returns the parallelDeserializer
+	 */
+	public ParallelDeserializer getParallelDeserializer() {
+		return parallelDeserializer;
+	}
+
+	/**
+	 * Sets the {@link ParallelDeserializer} used to split the deserialization of large multi-value results (such as
+	 * <code>MGET</code>, <code>LRANGE</code>, <code>SMEMBERS</code>, <code>SORT</code> or pipeline results) across
+	 * threads. Not set by default, meaning results are deserialized on the calling thread.
+	 * 
+	 * @param parallelDeserializer The parallelDeserializer to set.
+	 */
+	public void setParallelDeserializer(ParallelDeserializer parallelDeserializer) {
+		this.parallelDeserializer = parallelDeserializer;
+	}
+
+	/**
+	 * Indicates whether multi-value results of the value, list, set and sorted set operations are deserialized lazily.
+	 * 
+	 * @return true if results are deserialized on access
+	 */
+	public boolean isLazyDeserialization() {
+		return lazyDeserialization;
+	}
+
+	/**
+	 * Sets whether the multi-value results of the value, list, set and sorted set operations (such as
+	 * {@link ListOperations#range(Object, long, long)} or {@link ZSetOperations#range(Object, long, long)}) are returned
+	 * as read-only views deserializing each element on first access, instead of being deserialized upfront. Useful when
+	 * only a few elements of large results are looked at. Default is false.
+	 * 
+	 * @param lazyDeserialization whether to deserialize results lazily
+	 */
+	public void setLazyDeserialization(boolean lazyDeserialization) {
+		this.lazyDeserialization = lazyDeserialization;
+	}
+
+	/**
+	 * Returns the {@link ReadCoalescer} sharing identical concurrent reads, if any.
+	 * 
+	 * @return the read coalescer or null if reads are not coalesced
+	 * @since 1.2
+	 */
+	public ReadCoalescer getReadCoalescer() {
+		return readCoalescer;
+	}
+
+	/**
+	 * Sets the {@link ReadCoalescer} used to share the result of identical reads issued concurrently, for example by
+	 * many threads reading the same hot key. Coalesced callers share the same result instance, which must then not be
+	 * modified. Default is null (no coalescing).
+	 * 
+	 * @param readCoalescer the read coalescer to use
+	 * @since 1.2
+	 */
+	public void setReadCoalescer(ReadCoalescer readCoalescer) {
+		this.readCoalescer = readCoalescer;
+	}
+
 	/**
 	 * @param scriptExecutor The {@link ScriptExecutor} to use for executing Redis scripts
 	 */
@@ -476,7 +663,7 @@ public class RedisTemplate<K, V> extends RedisAccessor implements RedisOperation
 		if (valueSerializer == null && value instanceof byte[]) {
 			return (byte[]) value;
 		}
-		return valueSerializer.serialize(value);
+		return SerializationUtils.serialize(valueSerializer, value);
 	}
 
 	private byte[][] rawKeys(Collection<K> keys) {
@@ -495,12 +682,40 @@ public class RedisTemplate<K, V> extends RedisAccessor implements RedisOperation
 		return keySerializer != null ? (K) keySerializer.deserialize(value) : (K) value;
 	}
 
-	@SuppressWarnings({ "unchecked", "rawtypes" })
-	private List<Object> deserializeMixedResults(List<Object> rawValues, RedisSerializer valueSerializer,
-			RedisSerializer hashKeySerializer, RedisSerializer hashValueSerializer) {
+	<T> List<T> deserializeValues(List<byte[]> rawValues, RedisSerializer<T> serializer) {
+		if (parallelDeserializer != null) {
+			return parallelDeserializer.deserialize(rawValues, serializer);
+		}
+		return SerializationUtils.deserialize(rawValues, serializer);
+	}
+
+	<T> Set<T> deserializeValues(Set<byte[]> rawValues, RedisSerializer<T> serializer) {
+		if (parallelDeserializer != null) {
+			return parallelDeserializer.deserialize(rawValues, serializer);
+		}
+		return SerializationUtils.deserialize(rawValues, serializer);
+	}
+
+	@SuppressWarnings("rawtypes")
+	private List<Object> deserializeMixedResults(List<Object> rawValues, final RedisSerializer valueSerializer,
+			final RedisSerializer hashKeySerializer, final RedisSerializer hashValueSerializer) {
 		if (rawValues == null) {
 			return null;
 		}
+		if (parallelDeserializer == null) {
+			return deserializeMixedChunk(rawValues, valueSerializer, hashKeySerializer, hashValueSerializer);
+		}
+		return parallelDeserializer.deserialize(rawValues, new ChunkDeserializer<Object, Object>() {
+
+			public List<Object> deserialize(List<Object> chunk) {
+				return deserializeMixedChunk(chunk, valueSerializer, hashKeySerializer, hashValueSerializer);
+			}
+		});
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private List<Object> deserializeMixedChunk(List<Object> rawValues, RedisSerializer valueSerializer,
+			RedisSerializer hashKeySerializer, RedisSerializer hashValueSerializer) {
 		List<Object> values = new ArrayList<Object>();
 		for (Object rawValue : rawValues) {
 			if (rawValue instanceof byte[] && valueSerializer != null) {
@@ -527,7 +742,7 @@ public class RedisTemplate<K, V> extends RedisAccessor implements RedisOperation
 		}
 		Object setValue = rawSet.iterator().next();
 		if (setValue instanceof byte[] && valueSerializer != null) {
-			return (SerializationUtils.deserialize((Set) rawSet, valueSerializer));
+			return deserializeValues((Set<byte[]>) rawSet, valueSerializer);
 		} else if (setValue instanceof Tuple) {
 			return convertTupleValues(rawSet, valueSerializer);
 		} else {
@@ -667,6 +882,82 @@ public class RedisTemplate<K, V> extends RedisAccessor implements RedisOperation
 		}, true);
 	}
 
+	public List<Long> convertAndSendAll(String channel, Collection<?> messages) {
+		Assert.hasText(channel, "a non-empty channel is required");
+
+		Map<String, List<Long>> receivers = convertAndSendAll(Collections.singletonMap(channel, messages));
+		return (receivers != null ? receivers.get(channel) : null);
+	}
+
+	public Map<String, List<Long>> convertAndSendAll(Map<String, ? extends Collection<?>> messages) {
+		Assert.notNull(messages, "non-null messages are required");
+
+		// serialize everything upfront so the connection is only held for the actual publishing
+		int count = 0;
+		for (Collection<?> channelMessages : messages.values()) {
+			Assert.notNull(channelMessages, "non-null messages are required");
+			count += channelMessages.size();
+		}
+
+		final byte[][] rawChannels = new byte[count][];
+		final byte[][] rawMessages = new byte[count][];
+
+		int index = 0;
+		for (Map.Entry<String, ? extends Collection<?>> entry : messages.entrySet()) {
+			Assert.hasText(entry.getKey(), "a non-empty channel is required");
+			byte[] rawChannel = rawString(entry.getKey());
+			for (Object message : entry.getValue()) {
+				rawChannels[index] = rawChannel;
+				rawMessages[index++] = rawValue(message);
+			}
+		}
+
+		List<Object> results = execute(new RedisCallback<List<Object>>() {
+
+			public List<Object> doInRedis(RedisConnection connection) {
+				// already part of a pipeline or transaction - the results are reported there
+				if (connection.isPipelined() || connection.isQueueing()) {
+					publish(connection);
+					return null;
+				}
+
+				connection.openPipeline();
+				boolean pipelineClosed = false;
+				try {
+					publish(connection);
+					List<Object> closePipeline = connection.closePipeline();
+					pipelineClosed = true;
+					return closePipeline;
+				} finally {
+					if (!pipelineClosed) {
+						connection.closePipeline();
+					}
+				}
+			}
+
+			private void publish(RedisConnection connection) {
+				for (int i = 0; i < rawChannels.length; i++) {
+					connection.publish(rawChannels[i], rawMessages[i]);
+				}
+			}
+		}, true);
+
+		if (results == null) {
+			return null;
+		}
+
+		Map<String, List<Long>> receivers = new LinkedHashMap<String, List<Long>>(messages.size());
+		Iterator<Object> iterator = results.iterator();
+		for (Map.Entry<String, ? extends Collection<?>> entry : messages.entrySet()) {
+			List<Long> channelReceivers = new ArrayList<Long>(entry.getValue().size());
+			for (int i = 0; i < entry.getValue().size(); i++) {
+				channelReceivers.add((Long) iterator.next());
+			}
+			receivers.put(entry.getKey(), channelReceivers);
+		}
+		return receivers;
+	}
+
 	//
 	// Value operations
 	//
@@ -893,7 +1184,7 @@ public class RedisTemplate<K, V> extends RedisAccessor implements RedisOperation
 			}
 		}, true);
 
-		return SerializationUtils.deserialize(vals, resultSerializer);
+		return deserializeValues(vals, resultSerializer);
 	}
 
 	@SuppressWarnings("unchecked")
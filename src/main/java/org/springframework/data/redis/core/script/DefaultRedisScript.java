@@ -28,6 +28,10 @@ import org.springframework.util.Assert;
  * Default implementation of {@link RedisScript}. Delegates to an underlying {@link ScriptSource} to retrieve script
  * text and detect if script has been modified (and thus should have SHA1 re-calculated). This class is best used as a
  * Singleton to avoid re-calculation of SHA1 on every script execution.
+ * <p/>
+ * The SHA1 is cached without locking. By default the {@link ScriptSource} is asked on every call whether the script has
+ * been modified, which for resource based scripts means a file system check; use {@link #setRefreshCheckDelay(long)}
+ * to limit or disable these checks.
  * 
  * @author Jennifer Hickey
  * @param <T> The script result type. Should be one of Long, Boolean, List, or deserialized value type. Can be null if
@@ -37,23 +41,55 @@ public class DefaultRedisScript<T> implements RedisScript<T>, InitializingBean {
 
 	private ScriptSource scriptSource;
 
-	private String sha1;
+	private volatile String sha1;
 
 	private Class<T> resultType;
 
-	private final Object shaModifiedMonitor = new Object();
+	private long refreshCheckDelay = 0;
+
+	private volatile long lastRefreshCheck;
+
+	public DefaultRedisScript() {
+	}
+
+	/**
+	 * Constructs a new <code>DefaultRedisScript</code> instance from the given script text.
+	 * 
+	 * @param scriptText The script text
+	 * @param resultType The script result type
+	 * @since 1.2
+	 */
+	public DefaultRedisScript(String scriptText, Class<T> resultType) {
+		setScriptText(scriptText);
+		this.resultType = resultType;
+	}
 
 	public void afterPropertiesSet() throws Exception {
 		Assert.notNull(this.scriptSource, "Either script, script location," + " or script source is required");
 	}
 
 	public String getSha1() {
-		synchronized (shaModifiedMonitor) {
-			if (sha1 == null || scriptSource.isModified()) {
-				this.sha1 = DigestUtils.sha1DigestAsHex(getScriptAsString());
+		// concurrent callers may both compute the digest of the same text, which is harmless
+		String sha = this.sha1;
+		if (sha == null || isRefreshRequired()) {
+			sha = DigestUtils.sha1DigestAsHex(getScriptAsString());
+			this.sha1 = sha;
+		}
+		return sha;
+	}
+
+	private boolean isRefreshRequired() {
+		if (refreshCheckDelay < 0) {
+			return false;
+		}
+		if (refreshCheckDelay > 0) {
+			long now = System.currentTimeMillis();
+			if (now - lastRefreshCheck < refreshCheckDelay) {
+				return false;
 			}
-			return sha1;
+			lastRefreshCheck = now;
 		}
+		return scriptSource.isModified();
 	}
 
 	public Class<T> getResultType() {
@@ -76,6 +112,17 @@ public class DefaultRedisScript<T> implements RedisScript<T>, InitializingBean {
 		this.resultType = resultType;
 	}
 
+	/**
+	 * Sets the delay in milliseconds between checks whether the underlying {@link ScriptSource} has been modified. A
+	 * value of 0 (the default) checks on every {@link #getSha1()} call, a negative value disables the checks once the
+	 * SHA1 has been calculated.
+	 * 
+	 * @param refreshCheckDelay the delay in milliseconds between modification checks
+	 */
+	public void setRefreshCheckDelay(long refreshCheckDelay) {
+		this.refreshCheckDelay = refreshCheckDelay;
+	}
+
 	/**
 	 * @param script The script text
 	 */
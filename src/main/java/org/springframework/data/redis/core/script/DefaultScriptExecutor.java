@@ -19,24 +19,34 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.RedisConnectionFailureException;
 import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisPipelineException;
 import org.springframework.data.redis.connection.ReturnType;
 import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.util.Assert;
 
 /**
  * Default implementation of {@link ScriptExecutor}. Optimizes performance by attempting to execute script first using
  * evalsha, then falling back to eval if Redis has not yet cached the script. Evalsha is not attempted if the script is
- * executed in a pipeline or transaction.
+ * executed in a pipeline or transaction, unless a {@link ScriptRegistry} for the template's connection factory ensures
+ * the script is loaded beforehand.
  * 
  * @author Jennifer Hickey
  * @param <K> The type of keys that may be passed during script execution
  */
 public class DefaultScriptExecutor<K> implements ScriptExecutor<K> {
 
+	private static final String NO_SCRIPT = "NOSCRIPT";
+
+	private static final Object[] NO_ARGS = new Object[0];
+
 	private RedisTemplate<K, ?> template;
 
+	private ScriptRegistry scriptRegistry;
+
 	/**
 	 * @param template The {@link RedisTemplate} to use
 	 */
@@ -44,6 +54,16 @@ public class DefaultScriptExecutor<K> implements ScriptExecutor<K> {
 		this.template = template;
 	}
 
+	/**
+	 * @param template The {@link RedisTemplate} to use
+	 * @param scriptRegistry The {@link ScriptRegistry} tracking the scripts loaded on the template's server
+	 * @since 1.2
+	 */
+	public DefaultScriptExecutor(RedisTemplate<K, ?> template, ScriptRegistry scriptRegistry) {
+		this.template = template;
+		this.scriptRegistry = scriptRegistry;
+	}
+
 	@SuppressWarnings("unchecked")
 	public <T> T execute(final RedisScript<T> script, final List<K> keys, final Object... args) {
 		// use the Template's value serializer for args and result
@@ -59,9 +79,7 @@ public class DefaultScriptExecutor<K> implements ScriptExecutor<K> {
 				final byte[][] keysAndArgs = keysAndArgs(argsSerializer, keys, args);
 				final int keySize = keys != null ? keys.size() : 0;
 				if (connection.isPipelined() || connection.isQueueing()) {
-					// We could script load first and then do evalsha to ensure sha is present,
-					// but this adds a sha1 to exec/closePipeline results. Instead, just eval
-					connection.eval(scriptBytes(script), returnType, keySize, keysAndArgs);
+					evalInPipeline(connection, script, returnType, keySize, keysAndArgs);
 					return null;
 				}
 				return eval(connection, script, returnType, keySize, keysAndArgs, resultSerializer);
@@ -69,12 +87,144 @@ public class DefaultScriptExecutor<K> implements ScriptExecutor<K> {
 		});
 	}
 
+	@SuppressWarnings("unchecked")
+	public <T> List<T> executeBatch(RedisScript<T> script, List<List<K>> keys, List<Object[]> args) {
+		// use the Template's value serializer for args and result
+		return executeBatch(script, template.getValueSerializer(), (RedisSerializer<T>) template.getValueSerializer(),
+				keys, args);
+	}
+
+	public <T> List<T> executeBatch(final RedisScript<T> script, final RedisSerializer<?> argsSerializer,
+			final RedisSerializer<T> resultSerializer, final List<List<K>> keys, final List<Object[]> args) {
+		Assert.notNull(keys, "a valid list of key sets is required");
+		Assert.isTrue(args == null || args.size() == keys.size(), "args must be given for every key set");
+		return template.execute(new RedisCallback<List<T>>() {
+			public List<T> doInRedis(RedisConnection connection) throws DataAccessException {
+				final ReturnType returnType = ReturnType.fromJavaType(script.getResultType());
+				final int size = keys.size();
+				final int[] keySizes = new int[size];
+				final byte[][][] keysAndArgs = new byte[size][][];
+				for (int i = 0; i < size; i++) {
+					List<K> scriptKeys = keys.get(i);
+					Object[] scriptArgs = args != null ? args.get(i) : null;
+					keySizes[i] = scriptKeys != null ? scriptKeys.size() : 0;
+					keysAndArgs[i] = keysAndArgs(argsSerializer, scriptKeys, scriptArgs != null ? scriptArgs : NO_ARGS);
+				}
+				if (connection.isPipelined() || connection.isQueueing()) {
+					for (int i = 0; i < size; i++) {
+						evalInPipeline(connection, script, returnType, keySizes[i], keysAndArgs[i]);
+					}
+					return null;
+				}
+				List<Object> results = evalBatch(connection, script, returnType, keySizes, keysAndArgs);
+				List<T> batchResults = new ArrayList<T>(size);
+				for (Object result : results) {
+					batchResults.add(script.getResultType() == null ? null : deserializeResult(resultSerializer, result));
+				}
+				return batchResults;
+			}
+		});
+	}
+
+	private void evalInPipeline(RedisConnection connection, RedisScript<?> script, ReturnType returnType, int numKeys,
+			byte[][] keysAndArgs) {
+		// Loading the script on this connection would add a sha1 to exec/closePipeline results.
+		// Use evalsha only if the registry has loaded the script through a separate connection
+		if (isRegistryApplicable() && scriptRegistry.ensureLoaded(script)) {
+			connection.evalSha(script.getSha1(), returnType, numKeys, keysAndArgs);
+		} else {
+			connection.eval(scriptBytes(script), returnType, numKeys, keysAndArgs);
+		}
+	}
+
+	/**
+	 * Executes the script once for every key and argument set, pipelining the evalsha calls. Calls failing because the
+	 * script is not cached are repeated once after loading the script. Drivers not supporting scripts in pipelines
+	 * execute the calls one after the other on the given connection.
+	 */
+	protected List<Object> evalBatch(RedisConnection connection, RedisScript<?> script, ReturnType returnType,
+			int[] numKeys, byte[][][] keysAndArgs) {
+		if (isRegistryApplicable()) {
+			scriptRegistry.ensureLoaded(script);
+		}
+		String sha1 = script.getSha1();
+		int[] indexes = new int[keysAndArgs.length];
+		for (int i = 0; i < indexes.length; i++) {
+			indexes[i] = i;
+		}
+		try {
+			connection.openPipeline();
+			for (int i = 0; i < keysAndArgs.length; i++) {
+				connection.evalSha(sha1, returnType, numKeys[i], keysAndArgs[i]);
+			}
+		} catch (UnsupportedOperationException ex) {
+			if (connection.isPipelined()) {
+				connection.closePipeline();
+			}
+			return evalSequentially(connection, script, returnType, numKeys, keysAndArgs);
+		}
+		List<Object> results;
+		try {
+			results = connection.closePipeline();
+		} catch (RedisPipelineException ex) {
+			results = new ArrayList<Object>(ex.getPipelineResult());
+			List<Integer> missing = new ArrayList<Integer>();
+			for (int i = 0; i < results.size(); i++) {
+				if (results.get(i) instanceof Exception) {
+					if (!isNoScriptError((Exception) results.get(i))) {
+						throw ex;
+					}
+					missing.add(i);
+				}
+			}
+			if (missing.isEmpty() || results.size() != keysAndArgs.length) {
+				throw ex;
+			}
+			invalidateRegistry();
+			connection.scriptLoad(scriptBytes(script));
+			connection.openPipeline();
+			for (Integer i : missing) {
+				connection.evalSha(sha1, returnType, numKeys[i], keysAndArgs[i]);
+			}
+			List<Object> retried = connection.closePipeline();
+			for (int i = 0; i < missing.size(); i++) {
+				results.set(missing.get(i), retried.get(i));
+			}
+		}
+		return results;
+	}
+
+	private List<Object> evalSequentially(RedisConnection connection, RedisScript<?> script, ReturnType returnType,
+			int[] numKeys, byte[][][] keysAndArgs) {
+		String sha1 = script.getSha1();
+		List<Object> results = new ArrayList<Object>(keysAndArgs.length);
+		boolean loaded = false;
+		for (int i = 0; i < keysAndArgs.length; i++) {
+			try {
+				results.add(connection.evalSha(sha1, returnType, numKeys[i], keysAndArgs[i]));
+			} catch (RuntimeException ex) {
+				if (loaded || !isNoScriptError(ex)) {
+					throw ex;
+				}
+				invalidateRegistry();
+				connection.scriptLoad(scriptBytes(script));
+				loaded = true;
+				results.add(connection.evalSha(sha1, returnType, numKeys[i], keysAndArgs[i]));
+			}
+		}
+		return results;
+	}
+
 	protected <T> T eval(RedisConnection connection, RedisScript<T> script, ReturnType returnType, int numKeys,
 			byte[][] keysAndArgs, RedisSerializer<T> resultSerializer) {
 		Object result;
 		try {
 			result = connection.evalSha(script.getSha1(), returnType, numKeys, keysAndArgs);
 		} catch (Exception e) {
+			if (isNoScriptError(e) || e instanceof RedisConnectionFailureException) {
+				// the server's script cache has been flushed or lost, revalidate before the next pipelined use
+				invalidateRegistry();
+			}
 			result = connection.eval(scriptBytes(script), returnType, numKeys, keysAndArgs);
 		}
 		if (script.getResultType() == null) {
@@ -83,6 +233,28 @@ public class DefaultScriptExecutor<K> implements ScriptExecutor<K> {
 		return deserializeResult(resultSerializer, result);
 	}
 
+	private void invalidateRegistry() {
+		if (scriptRegistry != null) {
+			scriptRegistry.invalidate();
+		}
+	}
+
+	private boolean isRegistryApplicable() {
+		return scriptRegistry != null && scriptRegistry.getConnectionFactory() == template.getConnectionFactory();
+	}
+
+	private static boolean isNoScriptError(Throwable ex) {
+		for (Throwable t = ex; t != null; t = t.getCause()) {
+			if (t.getMessage() != null && t.getMessage().contains(NO_SCRIPT)) {
+				return true;
+			}
+			if (t.getCause() == t) {
+				break;
+			}
+		}
+		return false;
+	}
+
 	@SuppressWarnings({ "unchecked", "rawtypes" })
 	protected byte[][] keysAndArgs(RedisSerializer argsSerializer, List<K> keys, Object[] args) {
 		final int keySize = keys != null ? keys.size() : 0;
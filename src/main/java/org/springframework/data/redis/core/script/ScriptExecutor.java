@@ -53,4 +53,32 @@ public interface ScriptExecutor<K> {
 	<T> T execute(RedisScript<T> script, RedisSerializer<?> argsSerializer, RedisSerializer<T> resultSerializer,
 			List<K> keys, Object... args);
 
+	/**
+	 * Executes the given {@link RedisScript} once for every set of keys and args, pipelining the executions over a single
+	 * connection.
+	 * 
+	 * @param script The script to execute
+	 * @param keys The keys to pass to each script execution
+	 * @param args The args to pass to each script execution, matching the keys by index. Can be null if the script takes
+	 *          no args
+	 * @return The return values of the script executions, in order
+	 * @since 1.2
+	 */
+	<T> List<T> executeBatch(RedisScript<T> script, List<List<K>> keys, List<Object[]> args);
+
+	/**
+	 * Executes the given {@link RedisScript} once for every set of keys and args, pipelining the executions over a single
+	 * connection and using the provided {@link RedisSerializer}s to serialize the script arguments and results.
+	 * 
+	 * @param script The script to execute
+	 * @param argsSerializer The {@link RedisSerializer} to use for serializing args
+	 * @param resultSerializer The {@link RedisSerializer} to use for serializing the script return values
+	 * @param keys The keys to pass to each script execution
+	 * @param args The args to pass to each script execution, matching the keys by index. Can be null if the script takes
+	 *          no args
+	 * @return The return values of the script executions, in order
+	 * @since 1.2
+	 */
+	<T> List<T> executeBatch(RedisScript<T> script, RedisSerializer<?> argsSerializer,
+			RedisSerializer<T> resultSerializer, List<List<K>> keys, List<Object[]> args);
 }
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.core.script;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.util.Assert;
+
+/**
+ * Registry of {@link RedisScript}s loaded into the script cache of the Redis server behind a
+ * {@link RedisConnectionFactory}. Registered scripts are loaded through <a
+ * href="http://redis.io/commands/script-load">SCRIPT LOAD</a> on startup, including all {@link RedisScript} beans of
+ * the enclosing application context, which allows {@link DefaultScriptExecutor} to use evalsha in pipelines and
+ * transactions where the eval fallback is not available.
+ * <p/>
+ * The registry keeps track of the SHA1s known to be loaded on the server. After a reconnect or server restart the
+ * script cache may be empty; {@link #invalidate()} discards the tracked state, which is then revalidated through <a
+ * href="http://redis.io/commands/script-exists">SCRIPT EXISTS</a> (reloading any missing script) the next time a script
+ * is required. {@link DefaultScriptExecutor} invalidates the registry whenever evalsha reports a missing script outside
+ * of pipelines and transactions. As errors inside pipelines and transactions only surface in their results, the
+ * tracked state is also revalidated once the {@link #setRevalidationInterval(long) revalidation interval} has elapsed,
+ * so that a lost script cache stops failing pipelined calls within that interval.
+ * 
+ * @since 1.2
+ */
+public class ScriptRegistry implements InitializingBean, ApplicationContextAware,
+		ApplicationListener<ContextRefreshedEvent> {
+
+	/**
+	 * Default time (in milliseconds) after which the loaded scripts are checked again.
+	 */
+	public static final long DEFAULT_REVALIDATION_INTERVAL = 1000;
+
+	private static final StringRedisSerializer SCRIPT_SERIALIZER = new StringRedisSerializer();
+
+	private final Log logger = LogFactory.getLog(getClass());
+
+	private final RedisConnectionFactory connectionFactory;
+
+	private final Set<RedisScript<?>> scripts = Collections
+			.newSetFromMap(new ConcurrentHashMap<RedisScript<?>, Boolean>());
+
+	private final Set<String> loaded = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+	private final Object loadMonitor = new Object();
+
+	private ApplicationContext applicationContext;
+
+	private volatile long revalidationInterval = DEFAULT_REVALIDATION_INTERVAL;
+
+	private volatile long lastValidation;
+
+	/**
+	 * Constructs a new <code>ScriptRegistry</code> instance.
+	 * 
+	 * @param connectionFactory the factory providing connections to the server the scripts are loaded into
+	 */
+	public ScriptRegistry(RedisConnectionFactory connectionFactory) {
+		Assert.notNull(connectionFactory, "a valid factory is required");
+		this.connectionFactory = connectionFactory;
+	}
+
+	public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
+		this.applicationContext = applicationContext;
+	}
+
+	/**
+	 * Sets the time after which scripts known to be loaded are checked again with SCRIPT EXISTS when they are required.
+	 * A negative value disables the periodic check. Default is {@value #DEFAULT_REVALIDATION_INTERVAL} ms.
+	 * 
+	 * @param revalidationInterval The revalidationInterval to set, in milliseconds.
+	 */
+	public void setRevalidationInterval(long revalidationInterval) {
+		this.revalidationInterval = revalidationInterval;
+	}
+
+	/**
+	 * Registers the given scripts, in addition to the {@link RedisScript} beans found in the application context.
+	 * 
+	 * @param scripts scripts to load on startup
+	 */
+	public void setScripts(Collection<? extends RedisScript<?>> scripts) {
+		for (RedisScript<?> script : scripts) {
+			register(script);
+		}
+	}
+
+	/**
+	 * Registers the given script. The script is loaded on startup, or on first use if the registry has already been
+	 * initialized.
+	 * 
+	 * @param script the script to register
+	 */
+	public void register(RedisScript<?> script) {
+		Assert.notNull(script, "a valid script is required");
+		scripts.add(script);
+	}
+
+	public void afterPropertiesSet() {
+		preload();
+	}
+
+	public void onApplicationEvent(ContextRefreshedEvent event) {
+		if (applicationContext == null || event.getApplicationContext() != applicationContext) {
+			return;
+		}
+		for (RedisScript<?> script : applicationContext.getBeansOfType(RedisScript.class).values()) {
+			register(script);
+		}
+		preload();
+	}
+
+	private void preload() {
+		if (scripts.isEmpty()) {
+			return;
+		}
+		try {
+			load();
+		} catch (DataAccessException ex) {
+			// the scripts are loaded on first use instead
+			logger.warn("Could not preload Redis scripts", ex);
+		}
+	}
+
+	/**
+	 * Revalidates all registered scripts against the server, loading the ones missing from the script cache. Uses a
+	 * connection of its own, so it can be called while the current connection is pipelined or queueing.
+	 */
+	public void load() {
+		RedisConnection connection = connectionFactory.getConnection();
+		try {
+			synchronized (loadMonitor) {
+				List<RedisScript<?>> registered = new ArrayList<RedisScript<?>>(scripts);
+				if (registered.isEmpty()) {
+					return;
+				}
+				String[] sha1s = new String[registered.size()];
+				for (int i = 0; i < sha1s.length; i++) {
+					sha1s[i] = registered.get(i).getSha1();
+				}
+				List<Boolean> exists = connection.scriptExists(sha1s);
+				for (int i = 0; i < sha1s.length; i++) {
+					if (!Boolean.TRUE.equals(exists.get(i))) {
+						connection.scriptLoad(SCRIPT_SERIALIZER.serialize(registered.get(i).getScriptAsString()));
+					}
+					loaded.add(sha1s[i]);
+				}
+				lastValidation = System.currentTimeMillis();
+			}
+		} finally {
+			connection.close();
+		}
+	}
+
+	/**
+	 * Returns whether the given script is known to be loaded on the server.
+	 * 
+	 * @param script the script
+	 * @return true if the script has been loaded and the registry has not been invalidated since
+	 */
+	public boolean isLoaded(RedisScript<?> script) {
+		return loaded.contains(script.getSha1());
+	}
+
+	/**
+	 * Makes sure the given script is loaded on the server, registering it if necessary.
+	 * 
+	 * @param script the script
+	 * @return true if the script is loaded
+	 */
+	public boolean ensureLoaded(RedisScript<?> script) {
+		String sha1 = script.getSha1();
+		if (loaded.contains(sha1)) {
+			if (!isRevalidationDue()) {
+				return true;
+			}
+			synchronized (loadMonitor) {
+				// another thread might have revalidated meanwhile
+				if (isRevalidationDue()) {
+					load();
+				}
+			}
+			return loaded.contains(sha1);
+		}
+		register(script);
+		load();
+		return loaded.contains(sha1);
+	}
+
+	private boolean isRevalidationDue() {
+		long interval = revalidationInterval;
+		return interval >= 0 && System.currentTimeMillis() - lastValidation >= interval;
+	}
+
+	/**
+	 * Discards the tracked script state, typically after a reconnect or a missing script error. The registered scripts
+	 * are revalidated the next time one of them is required.
+	 */
+	public void invalidate() {
+		loaded.clear();
+	}
+
+	/**
+	 * @return the factory providing connections to the server the scripts are loaded into
+	 */
+	public RedisConnectionFactory getConnectionFactory() {
+		return connectionFactory;
+	}
+}
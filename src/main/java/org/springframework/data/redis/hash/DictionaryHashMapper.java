@@ -0,0 +1,90 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.hash;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.util.Assert;
+
+/**
+ * {@link HashMapper} decorator replacing the field names produced by another mapper with the short codes of a
+ * {@link HashFieldDictionary} (and back), reducing the memory taken by hashes holding many objects of the same type
+ * and keeping small hashes within the limits of the compact (ziplist) encoding.
+ * <p/>
+ * Only the top-level fields are encoded; nested values are left as produced by the delegate. Codes carry a marker
+ * character (see {@link HashFieldDictionary#isCode(String)}), so hashes written before the decorator was in place (with
+ * plain field names, numeric ones included) are still readable. A dictionary is typically used per mapped type.
+ * 
+ * @since 1.2
+ */
+public class DictionaryHashMapper<T, V> implements HashMapper<T, String, V> {
+
+	private final HashMapper<T, String, V> delegate;
+	private final HashFieldDictionary dictionary;
+
+	/**
+	 * Constructs a new <code>DictionaryHashMapper</code> instance, using a dictionary stored under
+	 * <code>hash-dictionary:</code> followed by the name of the given type.
+	 * 
+	 * @param delegate mapper producing the hashes to encode
+	 * @param type mapped type
+	 * @param factory connection factory
+	 */
+	public DictionaryHashMapper(HashMapper<T, String, V> delegate, Class<T> type, RedisConnectionFactory factory) {
+		this(delegate, new HashFieldDictionary("hash-dictionary:" + type.getName(), factory));
+	}
+
+	/**
+	 * Constructs a new <code>DictionaryHashMapper</code> instance.
+	 * 
+	 * @param delegate mapper producing the hashes to encode
+	 * @param dictionary dictionary to use
+	 */
+	public DictionaryHashMapper(HashMapper<T, String, V> delegate, HashFieldDictionary dictionary) {
+		Assert.notNull(delegate, "a valid mapper is required");
+		Assert.notNull(dictionary, "a valid dictionary is required");
+		this.delegate = delegate;
+		this.dictionary = dictionary;
+	}
+
+	public Map<String, V> toHash(T object) {
+		Map<String, V> hash = delegate.toHash(object);
+		Map<String, V> encoded = new LinkedHashMap<String, V>(hash.size());
+		for (Map.Entry<String, V> entry : hash.entrySet()) {
+			encoded.put(dictionary.encode(entry.getKey()), entry.getValue());
+		}
+		return encoded;
+	}
+
+	public T fromHash(Map<String, V> hash) {
+		Map<String, V> decoded = new LinkedHashMap<String, V>(hash.size());
+		for (Map.Entry<String, V> entry : hash.entrySet()) {
+			String field = entry.getKey();
+			if (HashFieldDictionary.isCode(field)) {
+				String name = dictionary.decode(field);
+				if (name == null) {
+					throw new IllegalArgumentException("Unknown field code " + field + " for dictionary "
+							+ dictionary.getKey());
+				}
+				field = name;
+			}
+			decoded.put(field, entry.getValue());
+		}
+		return delegate.fromHash(decoded);
+	}
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.hash;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.BoundHashOperations;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.util.Assert;
+
+/**
+ * Dictionary assigning short, stable codes to hash field names, persisted in a Redis hash (name to code) and cached
+ * locally. Codes are decimal numbers, assigned atomically so that all the clients sharing the dictionary agree on
+ * them, and are used as hash fields prefixed with a {@link #CODE_MARKER marker} character so that they cannot be
+ * mistaken for plain field names (including numeric ones). Plain field names starting with the marker are not supported.
+ * <p/>
+ * The dictionary only grows: once assigned, a code is never reused for another name. Codes unknown locally cause the
+ * dictionary to be reloaded, at most once per {@link #setReloadInterval(long) reload interval}.
+ * 
+ * @see DictionaryHashMapper
+ * @since 1.2
+ */
+public class HashFieldDictionary {
+
+	/**
+	 * Character prefixing the codes used as hash fields (<code>U+0001</code>).
+	 */
+	public static final char CODE_MARKER = '\u0001';
+
+	/**
+	 * Default minimum time (in milliseconds) between two reloads triggered by unknown codes.
+	 */
+	public static final long DEFAULT_RELOAD_INTERVAL = 1000;
+
+	// hash field holding the last assigned code; not a valid field name
+	private static final String SEQUENCE_FIELD = "";
+
+	private final BoundHashOperations<String, String, String> operations;
+
+	private final ConcurrentMap<String, String> codes = new ConcurrentHashMap<String, String>();
+	private final ConcurrentMap<String, String> names = new ConcurrentHashMap<String, String>();
+
+	private volatile boolean loaded = false;
+
+	private volatile long lastReload;
+
+	private volatile long reloadInterval = DEFAULT_RELOAD_INTERVAL;
+
+	/**
+	 * Constructs a new <code>HashFieldDictionary</code> instance.
+	 * 
+	 * @param key key of the Redis hash holding the dictionary
+	 * @param factory connection factory
+	 */
+	public HashFieldDictionary(String key, RedisConnectionFactory factory) {
+		this(key, new StringRedisTemplate(factory));
+	}
+
+	/**
+	 * Constructs a new <code>HashFieldDictionary</code> instance.
+	 * 
+	 * @param key key of the Redis hash holding the dictionary
+	 * @param template template using String serialization for hash keys and values
+	 */
+	public HashFieldDictionary(String key, RedisOperations<String, String> template) {
+		Assert.hasText(key, "a valid dictionary key is required");
+		Assert.notNull(template, "a valid template is required");
+		this.operations = template.boundHashOps(key);
+	}
+
+	/**
+	 * Sets the minimum time between two reloads of the dictionary caused by unknown codes, so that hashes holding
+	 * unknown codes do not cause a reload on each read. Default is {@value #DEFAULT_RELOAD_INTERVAL} ms.
+	 * 
+	 * @param reloadInterval The reloadInterval to set, in milliseconds.
+	 */
+	public void setReloadInterval(long reloadInterval) {
+		Assert.isTrue(reloadInterval >= 0, "the reload interval cannot be negative");
+		this.reloadInterval = reloadInterval;
+	}
+
+	/**
+	 * Returns the key of the Redis hash holding the dictionary.
+	 * 
+	 * @return dictionary key
+	 */
+	public String getKey() {
+		return operations.getKey();
+	}
+
+	/**
+	 * Returns the code of the given field name, assigning one if needed.
+	 * 
+	 * @param name field name
+	 * @return field code
+	 */
+	public String encode(String name) {
+		Assert.hasText(name, "a valid field name is required");
+		String code = codes.get(name);
+		if (code != null) {
+			return code;
+		}
+
+		load();
+		code = codes.get(name);
+		if (code == null) {
+			code = assign(name);
+		}
+		return code;
+	}
+
+	/**
+	 * Returns the field name of the given code, reloading the dictionary if the code is unknown locally (as it might have
+	 * been assigned by another client) and the reload interval has elapsed.
+	 * 
+	 * @param code field code
+	 * @return field name or null if the code is unknown
+	 */
+	public String decode(String code) {
+		String name = names.get(code);
+		if (name == null && (!loaded || System.currentTimeMillis() - lastReload >= reloadInterval)) {
+			reload();
+			name = names.get(code);
+		}
+		return name;
+	}
+
+	/**
+	 * Indicates whether the given hash field is a code (as opposed to a plain field name).
+	 * 
+	 * @param field hash field
+	 * @return true if the field is a code
+	 */
+	public static boolean isCode(String field) {
+		if (field.length() < 2 || field.charAt(0) != CODE_MARKER) {
+			return false;
+		}
+		for (int i = 1; i < field.length(); i++) {
+			char c = field.charAt(i);
+			if (c < '0' || c > '9') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private String assign(String name) {
+		String code = String.valueOf(operations.increment(SEQUENCE_FIELD, 1));
+		if (!operations.putIfAbsent(name, code)) {
+			// assigned concurrently by another client
+			code = operations.get(name);
+		}
+		return register(name, code);
+	}
+
+	private void load() {
+		if (!loaded) {
+			reload();
+		}
+	}
+
+	private void reload() {
+		lastReload = System.currentTimeMillis();
+		Map<String, String> entries = operations.entries();
+		for (Map.Entry<String, String> entry : entries.entrySet()) {
+			if (!SEQUENCE_FIELD.equals(entry.getKey())) {
+				register(entry.getKey(), entry.getValue());
+			}
+		}
+		loaded = true;
+	}
+
+	// the dictionary holds the plain numbers, the marker is only added to the hash fields
+	private String register(String name, String number) {
+		String code = CODE_MARKER + number;
+		codes.put(name, code);
+		names.put(code, name);
+		return code;
+	}
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.hash;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Loads and saves objects stored as hashes through a {@link HashMapper}, writing back only the fields that changed.
+ * On load, the session keeps the hash produced by {@link HashMapper#toHash(Object)} for the loaded object; on save, the
+ * current hash is compared against it and only the changed fields are written with <code>HSET</code>, removed fields
+ * (including those mapped to null) being deleted with <code>HDEL</code>, all in a single pipelined call. Objects saved
+ * without being loaded through the session first (or after being {@link #evict(String) evicted}) replace the stored
+ * hash: the key is deleted and all fields are written, in a single pipelined call as well, so that no stale field
+ * remains.
+ * <p/>
+ * Hash fields and values are compared as returned by the mapper, before serialization. Sessions are meant to be short
+ * lived and are not thread-safe.
+ * 
+ * @since 1.2
+ */
+public class HashMappingSession<T, K, V> {
+
+	private final HashMapper<T, K, V> mapper;
+	private final HashOperations<String, K, V> hashOps;
+	private final RedisOperations<String, ?> operations;
+	private final Map<String, Map<K, V>> snapshots = new HashMap<String, Map<K, V>>();
+
+	/**
+	 * Constructs a new <code>HashMappingSession</code> instance.
+	 * 
+	 * @param mapper mapper converting objects from and to hashes
+	 * @param operations operations used to access the hashes
+	 */
+	public HashMappingSession(HashMapper<T, K, V> mapper, RedisOperations<String, ?> operations) {
+		Assert.notNull(mapper, "a valid mapper is required");
+		Assert.notNull(operations, "a valid template is required");
+		this.mapper = mapper;
+		this.operations = operations;
+		this.hashOps = operations.opsForHash();
+	}
+
+	/**
+	 * Loads the object stored in the hash of the given key, keeping its hash for later saves.
+	 * 
+	 * @param key hash key
+	 * @return the loaded object or null if the key does not exist
+	 */
+	public T load(String key) {
+		Map<K, V> hash = hashOps.entries(key);
+		if (hash == null || hash.isEmpty()) {
+			snapshots.remove(key);
+			return null;
+		}
+		T object = mapper.fromHash(hash);
+		snapshots.put(key, hashOf(object));
+		return object;
+	}
+
+	/**
+	 * Saves the given object to the hash of the given key, writing only the fields changed since it was loaded or last
+	 * saved through this session.
+	 * 
+	 * @param key hash key
+	 * @param object object to save
+	 * @return the number of fields written or removed
+	 */
+	public int save(final String key, T object) {
+		Assert.notNull(object, "a valid object is required");
+		Map<K, V> hash = hashOf(object);
+		Map<K, V> snapshot = snapshots.get(key);
+
+		final Map<K, V> changed;
+		final List<K> removed = new ArrayList<K>();
+
+		if (snapshot == null) {
+			changed = hash;
+		} else {
+			changed = new LinkedHashMap<K, V>();
+			for (Map.Entry<K, V> entry : hash.entrySet()) {
+				if (!snapshot.containsKey(entry.getKey())
+						|| !ObjectUtils.nullSafeEquals(snapshot.get(entry.getKey()), entry.getValue())) {
+					changed.put(entry.getKey(), entry.getValue());
+				}
+			}
+			for (K field : snapshot.keySet()) {
+				if (!hash.containsKey(field)) {
+					removed.add(field);
+				}
+			}
+		}
+
+		if (snapshot == null) {
+			replace(key, changed);
+		} else if (changed.size() + removed.size() == 1) {
+			// a single command does not need a pipeline
+			if (changed.isEmpty()) {
+				hashOps.delete(key, removed.get(0));
+			} else {
+				Map.Entry<K, V> entry = changed.entrySet().iterator().next();
+				hashOps.put(key, entry.getKey(), entry.getValue());
+			}
+		} else if (!changed.isEmpty() || !removed.isEmpty()) {
+			operations.executePipelined(new SessionCallback<Object>() {
+				public <KK, VV> Object execute(RedisOperations<KK, VV> ops) throws DataAccessException {
+					for (Map.Entry<K, V> entry : changed.entrySet()) {
+						hashOps.put(key, entry.getKey(), entry.getValue());
+					}
+					if (!removed.isEmpty()) {
+						hashOps.delete(key, removed.toArray());
+					}
+					return null;
+				}
+			});
+		}
+
+		snapshots.put(key, hash);
+		return changed.size() + removed.size();
+	}
+
+	private void replace(final String key, final Map<K, V> hash) {
+		if (hash.isEmpty()) {
+			// HMSET requires at least one field
+			operations.delete(key);
+			return;
+		}
+		operations.executePipelined(new SessionCallback<Object>() {
+			public <KK, VV> Object execute(RedisOperations<KK, VV> ops) throws DataAccessException {
+				operations.delete(key);
+				hashOps.putAll(key, hash);
+				return null;
+			}
+		});
+	}
+
+	// null values are not stored
+	private Map<K, V> hashOf(T object) {
+		Map<K, V> hash = new LinkedHashMap<K, V>();
+		for (Map.Entry<K, V> entry : mapper.toHash(object).entrySet()) {
+			if (entry.getValue() != null) {
+				hash.put(entry.getKey(), entry.getValue());
+			}
+		}
+		return hash;
+	}
+
+	/**
+	 * Forgets the hash kept for the given key; the next save of that key replaces the stored hash.
+	 * 
+	 * @param key hash key
+	 */
+	public void evict(String key) {
+		snapshots.remove(key);
+	}
+
+	/**
+	 * Forgets the hashes kept for all keys.
+	 */
+	public void clear() {
+		snapshots.clear();
+	}
+}
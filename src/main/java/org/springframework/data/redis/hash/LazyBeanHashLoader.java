@@ -0,0 +1,261 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.hash;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.util.Assert;
+
+/**
+ * Loads JavaBeans stored in Redis hashes, one field per property (as written by {@link BeanUtilsHashMapper}), as
+ * proxies fetching their properties on first access rather than converting the whole hash upfront. Fields accessed for
+ * the first time are read with a single <code>HMGET</code>, together with the configured prefetched properties not
+ * loaded yet; {@link #fetch(Object, String...)} loads several properties at once. Properties changed through their
+ * setters are written back by {@link #flush(Object)} with a single <code>HMSET</code> (properties set to null are
+ * removed from the hash).
+ * <p/>
+ * Only read/write properties whose type can be converted from and to String are mapped. Calling any other method on a
+ * proxy loads all remaining properties first, except for <code>equals</code> and <code>hashCode</code> which are handled
+ * by the proxy itself. The operations should use String serializers for hash keys and values.
+ * Proxies are not thread-safe. The mapped type must be a non-final class with a default constructor.
+ * 
+ * @since 1.2
+ */
+public class LazyBeanHashLoader<T> {
+
+	private final Class<T> type;
+	private final HashOperations<String, String, String> hashOps;
+	private final ConversionService conversionService = new DefaultConversionService();
+	private final Map<Method, String> getters = new HashMap<Method, String>();
+	private final Map<Method, String> setters = new HashMap<Method, String>();
+	private final Set<String> properties = new LinkedHashSet<String>();
+	private Set<String> prefetchedProperties = Collections.emptySet();
+
+	/**
+	 * Constructs a new <code>LazyBeanHashLoader</code> instance.
+	 * 
+	 * @param type mapped type
+	 * @param operations operations used to access the hashes
+	 */
+	public LazyBeanHashLoader(Class<T> type, RedisOperations<String, ?> operations) {
+		Assert.notNull(type, "a valid type is required");
+		Assert.notNull(operations, "a valid template is required");
+		Assert.isTrue(!type.isInterface(), "a class is required");
+		this.type = type;
+		this.hashOps = operations.opsForHash();
+
+		for (PropertyDescriptor descriptor : BeanUtils.getPropertyDescriptors(type)) {
+			Method getter = descriptor.getReadMethod();
+			Method setter = descriptor.getWriteMethod();
+			Class<?> propertyType = descriptor.getPropertyType();
+			if (getter != null && setter != null && conversionService.canConvert(String.class, propertyType)
+					&& conversionService.canConvert(propertyType, String.class)) {
+				getters.put(getter, descriptor.getName());
+				setters.put(setter, descriptor.getName());
+				properties.add(descriptor.getName());
+			}
+		}
+	}
+
+	/**
+	 * @return the names of the mapped properties
+	 */
+	public Set<String> getProperties() {
+		return Collections.unmodifiableSet(properties);
+	}
+
+	/**
+	 * Sets the properties loaded along with the first property accessed on a proxy, typically those used by most code
+	 * paths.
+	 * 
+	 * @param properties names of the properties to prefetch
+	 */
+	public void setPrefetchedProperties(String... properties) {
+		Set<String> prefetched = new LinkedHashSet<String>(Arrays.asList(properties));
+		for (String property : prefetched) {
+			Assert.isTrue(this.properties.contains(property), "unknown property " + property);
+		}
+		this.prefetchedProperties = prefetched;
+	}
+
+	/**
+	 * Returns a proxy for the object stored in the hash of the given key. No data is read until a property is accessed.
+	 * 
+	 * @param key hash key
+	 * @return lazily loaded object
+	 */
+	@SuppressWarnings("unchecked")
+	public T load(String key) {
+		Assert.notNull(key, "a valid key is required");
+		T target = BeanUtils.instantiateClass(type);
+		ProxyFactory proxyFactory = new ProxyFactory(target);
+		proxyFactory.setProxyTargetClass(true);
+		proxyFactory.addAdvice(new LazyHashInterceptor(key, target));
+		return (T) proxyFactory.getProxy(type.getClassLoader());
+	}
+
+	/**
+	 * Loads the given properties of a proxy (those not loaded yet) with a single request.
+	 * 
+	 * @param object proxy returned by {@link #load(String)}
+	 * @param properties names of the properties to load
+	 */
+	public void fetch(T object, String... properties) {
+		interceptorFor(object).fetch(Arrays.asList(properties));
+	}
+
+	/**
+	 * Writes the properties changed on a proxy back to its hash.
+	 * 
+	 * @param object proxy returned by {@link #load(String)}
+	 */
+	public void flush(T object) {
+		interceptorFor(object).flush();
+	}
+
+	/**
+	 * @param object proxy returned by {@link #load(String)}
+	 * @param property property name
+	 * @return true if the property has been loaded or set
+	 */
+	public boolean isLoaded(T object, String property) {
+		return interceptorFor(object).loaded.contains(property);
+	}
+
+	@SuppressWarnings("unchecked")
+	private LazyHashInterceptor interceptorFor(T object) {
+		if (object instanceof Advised) {
+			for (Advisor advisor : ((Advised) object).getAdvisors()) {
+				if (advisor.getAdvice() instanceof LazyBeanHashLoader.LazyHashInterceptor) {
+					LazyHashInterceptor interceptor = (LazyHashInterceptor) advisor.getAdvice();
+					if (interceptor.getLoader() == this) {
+						return interceptor;
+					}
+				}
+			}
+		}
+		throw new IllegalArgumentException("Object was not loaded by this loader: " + object.getClass());
+	}
+
+	private class LazyHashInterceptor implements MethodInterceptor {
+
+		private final String key;
+		private final BeanWrapper target;
+		private final Set<String> loaded = new HashSet<String>();
+		private final Set<String> dirty = new LinkedHashSet<String>();
+
+		LazyHashInterceptor(String key, Object target) {
+			this.key = key;
+			this.target = new BeanWrapperImpl(target);
+			this.target.setConversionService(conversionService);
+		}
+
+		LazyBeanHashLoader<T> getLoader() {
+			return LazyBeanHashLoader.this;
+		}
+
+		public Object invoke(MethodInvocation invocation) throws Throwable {
+			Method method = invocation.getMethod();
+			String property = getters.get(method);
+			if (property != null) {
+				if (!loaded.contains(property)) {
+					List<String> batch = new ArrayList<String>(prefetchedProperties.size() + 1);
+					batch.add(property);
+					batch.addAll(prefetchedProperties);
+					fetch(batch);
+				}
+				return invocation.proceed();
+			}
+			property = setters.get(method);
+			if (property != null) {
+				Object result = invocation.proceed();
+				loaded.add(property);
+				dirty.add(property);
+				return result;
+			}
+			fetch(properties);
+			return invocation.proceed();
+		}
+
+		void fetch(Collection<String> names) {
+			List<String> missing = new ArrayList<String>(names.size());
+			for (String name : names) {
+				Assert.isTrue(properties.contains(name), "unknown property " + name);
+				if (!loaded.contains(name) && !missing.contains(name)) {
+					missing.add(name);
+				}
+			}
+			if (missing.isEmpty()) {
+				return;
+			}
+			List<String> values = hashOps.multiGet(key, missing);
+			for (int i = 0; i < missing.size(); i++) {
+				String value = values.get(i);
+				if (value != null) {
+					target.setPropertyValue(missing.get(i), value);
+				}
+			}
+			loaded.addAll(missing);
+		}
+
+		void flush() {
+			if (dirty.isEmpty()) {
+				return;
+			}
+			Map<String, String> changed = new LinkedHashMap<String, String>(dirty.size());
+			List<String> removed = new ArrayList<String>();
+			for (String name : dirty) {
+				Object value = target.getPropertyValue(name);
+				if (value == null) {
+					removed.add(name);
+				} else {
+					changed.put(name, conversionService.convert(value, String.class));
+				}
+			}
+			if (!changed.isEmpty()) {
+				hashOps.putAll(key, changed);
+			}
+			if (!removed.isEmpty()) {
+				hashOps.delete(key, removed.toArray());
+			}
+			dirty.clear();
+		}
+	}
+}
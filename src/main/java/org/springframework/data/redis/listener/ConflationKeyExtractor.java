@@ -0,0 +1,41 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.listener;
+
+import org.springframework.data.redis.connection.Message;
+
+/**
+ * Strategy used by {@link RedisMessageListenerContainer} for identifying messages that supersede each other. A pending
+ * (not yet delivered) message is replaced by an incoming one with the same key, for the same listener.
+ * <p/>
+ * By default messages are keyed by channel; implementations can for example extract an instrument or entity id from
+ * the message body to conflate per entity rather than per channel.
+ *
+ * @see RedisMessageListenerContainer#setConflating(boolean)
+ * @see RedisMessageListenerContainer#setConflationKeyExtractor(ConflationKeyExtractor)
+ * @since 1.2
+ */
+public interface ConflationKeyExtractor {
+
+	/**
+	 * Returns the conflation key of the given message. Keys are compared through {@link Object#equals(Object)} and
+	 * {@link Object#hashCode()}.
+	 *
+	 * @param message the received message
+	 * @return conflation key (never null)
+	 */
+	Object getKey(Message message);
+}
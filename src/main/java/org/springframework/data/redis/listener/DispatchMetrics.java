@@ -0,0 +1,262 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.listener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.data.redis.connection.util.ByteArrayWrapper;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.util.Assert;
+
+/**
+ * Statistics gathered by a {@link RedisMessageListenerContainer} while dispatching messages to its listeners. Besides
+ * the number of messages waiting for dispatch, figures are kept per topic, that is per channel or pattern a listener
+ * has been registered for.
+ * <p/>
+ * All counters are updated lock-free by the dispatching threads and can be read at any time.
+ *
+ * @see RedisMessageListenerContainer#getDispatchMetrics()
+ * @since 1.2
+ */
+public class DispatchMetrics {
+
+	private final AtomicInteger queueDepth = new AtomicInteger();
+
+	// topics are looked up by their raw form to avoid deserializing the channel for each message
+	private final ConcurrentMap<ByteArrayWrapper, TopicMetrics> topics = new ConcurrentHashMap<ByteArrayWrapper, TopicMetrics>();
+
+	private volatile RedisSerializer<String> topicSerializer = new StringRedisSerializer();
+
+	/**
+	 * Returns the number of messages received but not yet handed to a listener.
+	 *
+	 * @return number of pending messages
+	 */
+	public int getQueueDepth() {
+		return queueDepth.get();
+	}
+
+	/**
+	 * Returns the metrics of the given topic (channel or pattern).
+	 *
+	 * @param topic topic name
+	 * @return the topic metrics or null if no message has been dispatched for the topic
+	 */
+	public TopicMetrics getTopicMetrics(String topic) {
+		return topics.get(new ByteArrayWrapper(topicSerializer.serialize(topic)));
+	}
+
+	/**
+	 * Returns the metrics of all topics for which messages have been dispatched, keyed by topic name.
+	 *
+	 * @return map of topic names and their metrics
+	 */
+	public Map<String, TopicMetrics> getTopicMetrics() {
+		Map<String, TopicMetrics> result = new LinkedHashMap<String, TopicMetrics>(topics.size());
+		for (TopicMetrics metrics : topics.values()) {
+			result.put(metrics.getTopic(), metrics);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the total number of dropped messages, across all topics.
+	 *
+	 * @return number of dropped messages
+	 */
+	public long getDroppedCount() {
+		long dropped = 0;
+		for (TopicMetrics metrics : topics.values()) {
+			dropped += metrics.getDroppedCount();
+		}
+		return dropped;
+	}
+
+	/**
+	 * Clears the per topic statistics. The queue depth is not affected.
+	 */
+	public void reset() {
+		topics.clear();
+	}
+
+	void setTopicSerializer(RedisSerializer<String> topicSerializer) {
+		Assert.notNull(topicSerializer, "a valid serializer is required");
+		this.topicSerializer = topicSerializer;
+	}
+
+	TopicMetrics forTopic(ByteArrayWrapper topic) {
+		TopicMetrics metrics = topics.get(topic);
+		if (metrics == null) {
+			metrics = new TopicMetrics(topicSerializer.deserialize(topic.getArray()));
+			TopicMetrics existing = topics.putIfAbsent(topic, metrics);
+			if (existing != null) {
+				metrics = existing;
+			}
+		}
+		return metrics;
+	}
+
+	void messageQueued() {
+		queueDepth.incrementAndGet();
+	}
+
+	void messageDequeued() {
+		queueDepth.decrementAndGet();
+	}
+
+	/**
+	 * Dispatch statistics of a single topic. Durations are measured in nanoseconds and can be converted through the
+	 * {@link TimeUnit} aware accessors.
+	 */
+	public static class TopicMetrics {
+
+		private final String topic;
+
+		private final AtomicLong dispatched = new AtomicLong();
+		private final AtomicLong dropped = new AtomicLong();
+		private final AtomicLong conflated = new AtomicLong();
+		private final AtomicLong totalLatency = new AtomicLong();
+		private final AtomicLong maxLatency = new AtomicLong();
+		private final AtomicLong totalExecution = new AtomicLong();
+		private final AtomicLong maxExecution = new AtomicLong();
+
+		TopicMetrics(String topic) {
+			this.topic = topic;
+		}
+
+		/**
+		 * Returns the topic (channel or pattern) name.
+		 *
+		 * @return topic name
+		 */
+		public String getTopic() {
+			return topic;
+		}
+
+		/**
+		 * Returns the number of messages handed to listeners.
+		 *
+		 * @return number of dispatched messages
+		 */
+		public long getDispatchedCount() {
+			return dispatched.get();
+		}
+
+		/**
+		 * Returns the number of messages discarded because the pending queue was full.
+		 *
+		 * @return number of dropped messages
+		 */
+		public long getDroppedCount() {
+			return dropped.get();
+		}
+
+		/**
+		 * Returns the number of messages which replaced an older, not yet dispatched message.
+		 *
+		 * @return number of conflated messages
+		 */
+		public long getConflatedCount() {
+			return conflated.get();
+		}
+
+		/**
+		 * Returns the average time messages spent waiting for dispatch.
+		 *
+		 * @param unit time unit
+		 * @return average dispatch latency
+		 */
+		public long getAverageDispatchLatency(TimeUnit unit) {
+			return unit.convert(average(totalLatency, dispatched), TimeUnit.NANOSECONDS);
+		}
+
+		/**
+		 * Returns the longest time a message spent waiting for dispatch.
+		 *
+		 * @param unit time unit
+		 * @return maximum dispatch latency
+		 */
+		public long getMaxDispatchLatency(TimeUnit unit) {
+			return unit.convert(maxLatency.get(), TimeUnit.NANOSECONDS);
+		}
+
+		/**
+		 * Returns the average listener execution time.
+		 *
+		 * @param unit time unit
+		 * @return average execution time
+		 */
+		public long getAverageExecutionTime(TimeUnit unit) {
+			return unit.convert(average(totalExecution, dispatched), TimeUnit.NANOSECONDS);
+		}
+
+		/**
+		 * Returns the longest listener execution time.
+		 *
+		 * @param unit time unit
+		 * @return maximum execution time
+		 */
+		public long getMaxExecutionTime(TimeUnit unit) {
+			return unit.convert(maxExecution.get(), TimeUnit.NANOSECONDS);
+		}
+
+		void recordDispatch(long latency) {
+			dispatched.incrementAndGet();
+			totalLatency.addAndGet(latency);
+			updateMax(maxLatency, latency);
+		}
+
+		void recordExecution(long duration) {
+			totalExecution.addAndGet(duration);
+			updateMax(maxExecution, duration);
+		}
+
+		void recordDrop() {
+			dropped.incrementAndGet();
+		}
+
+		void recordConflation() {
+			conflated.incrementAndGet();
+		}
+
+		private static long average(AtomicLong total, AtomicLong count) {
+			long c = count.get();
+			return (c > 0 ? total.get() / c : 0);
+		}
+
+		private static void updateMax(AtomicLong max, long value) {
+			long current;
+			while ((current = max.get()) < value) {
+				if (max.compareAndSet(current, value)) {
+					return;
+				}
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "TopicMetrics [topic=" + topic + ", dispatched=" + dispatched + ", dropped=" + dropped + ", conflated="
+					+ conflated + "]";
+		}
+	}
+}
@@ -0,0 +1,454 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.listener;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.util.ByteArrayWrapper;
+import org.springframework.data.redis.listener.DispatchMetrics.TopicMetrics;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Hands received messages over to the listener executor. When bounded, messages are parked in a queue of fixed capacity
+ * and the executor is only given a (shared) drain task per accepted message, so the amount of work buffered inside the
+ * executor cannot grow past the queue capacity. Once the queue is full, the configured {@link OverflowPolicy} applies.
+ * <p/>
+ * An unbounded queue simply submits one task per message, as the container always did.
+ * <p/>
+ * In conflating mode, messages are parked per listener instead and each listener is given at most one task at a time.
+ * While the listener is busy, an incoming message replaces the pending one with the same conflation key, so the listener
+ * only sees the newest message per key and the memory used is bounded by the number of distinct keys.
+ *
+ * @see RedisMessageListenerContainer
+ * @since 1.2
+ */
+class DispatchQueue {
+
+	/**
+	 * Callback invoked (on an executor thread) for each message taken off the queue.
+	 */
+	interface ListenerInvoker {
+
+		void invoke(MessageListener listener, Message message, byte[] source);
+	}
+
+	// interval used for re-checking the queue state while blocking the subscription thread
+	private static final long BLOCK_CHECK_INTERVAL = 100;
+
+	/**
+	 * Default key extractor, conflating messages per channel.
+	 */
+	static final ConflationKeyExtractor CHANNEL_KEY_EXTRACTOR = new ConflationKeyExtractor() {
+		public Object getKey(Message message) {
+			return new ByteArrayWrapper(message.getChannel());
+		}
+	};
+
+	private final Executor executor;
+	private final ListenerInvoker invoker;
+	private final DispatchMetrics metrics;
+	private final OverflowPolicy overflowPolicy;
+	private final ConflationKeyExtractor keyExtractor;
+
+	// null when unbounded
+	private final BlockingDeque<PendingMessage> queue;
+	// pending messages per listener/channel - used only when conflating
+	private final ConcurrentMap<ConflationKey, PendingMessage> conflationIndex;
+	// pending messages per listener - used only in conflating mode
+	private final ConcurrentMap<MessageListener, Mailbox> mailboxes;
+
+	private volatile boolean active = true;
+
+	private final Runnable drainTask = new Runnable() {
+		public void run() {
+			PendingMessage pending = poll();
+			if (pending != null) {
+				deliver(pending);
+			}
+		}
+	};
+
+	/**
+	 * Constructs a new <code>DispatchQueue</code> instance.
+	 *
+	 * @param capacity maximum number of pending messages; zero or less means unbounded
+	 * @param overflowPolicy policy applied once the capacity is reached
+	 * @param executor executor running the listeners
+	 * @param invoker listener callback
+	 * @param metrics dispatch metrics
+	 */
+	DispatchQueue(int capacity, OverflowPolicy overflowPolicy, Executor executor, ListenerInvoker invoker,
+			DispatchMetrics metrics) {
+		this(capacity, overflowPolicy, false, CHANNEL_KEY_EXTRACTOR, executor, invoker, metrics);
+	}
+
+	/**
+	 * Constructs a new <code>DispatchQueue</code> instance.
+	 *
+	 * @param capacity maximum number of pending messages; zero or less means unbounded. Ignored in conflating mode.
+	 * @param overflowPolicy policy applied once the capacity is reached. Ignored in conflating mode.
+	 * @param conflating whether to deliver messages serially per listener, replacing pending messages with the same key
+	 * @param keyExtractor conflation key extractor, used in conflating mode and by {@link OverflowPolicy#CONFLATE}
+	 * @param executor executor running the listeners
+	 * @param invoker listener callback
+	 * @param metrics dispatch metrics
+	 */
+	DispatchQueue(int capacity, OverflowPolicy overflowPolicy, boolean conflating, ConflationKeyExtractor keyExtractor,
+			Executor executor, ListenerInvoker invoker, DispatchMetrics metrics) {
+		Assert.notNull(overflowPolicy, "a valid overflow policy is required");
+		Assert.notNull(keyExtractor, "a valid key extractor is required");
+		Assert.notNull(executor, "a valid executor is required");
+		Assert.notNull(invoker, "a valid invoker is required");
+		Assert.notNull(metrics, "valid metrics are required");
+
+		this.overflowPolicy = overflowPolicy;
+		this.keyExtractor = keyExtractor;
+		this.executor = executor;
+		this.invoker = invoker;
+		this.metrics = metrics;
+
+		this.mailboxes = (conflating ? new ConcurrentHashMap<MessageListener, Mailbox>() : null);
+		this.queue = (capacity > 0 && !conflating ? new LinkedBlockingDeque<PendingMessage>(capacity) : null);
+		this.conflationIndex = (queue != null && overflowPolicy == OverflowPolicy.CONFLATE ? new ConcurrentHashMap<ConflationKey, PendingMessage>()
+				: null);
+	}
+
+	/**
+	 * Allows the queue to stop blocking the caller (typically because the container is shutting down). Messages that
+	 * cannot be queued while inactive are dropped.
+	 *
+	 * @param active whether the queue is active or not
+	 */
+	void setActive(boolean active) {
+		this.active = active;
+	}
+
+	/**
+	 * Dispatches the given message to the listener.
+	 *
+	 * @param listener target listener
+	 * @param message message
+	 * @param source channel or pattern the message was received through
+	 * @param topic metrics of the topic the listener is registered for
+	 */
+	void dispatch(MessageListener listener, Message message, byte[] source, TopicMetrics topic) {
+		final PendingMessage pending = new PendingMessage(listener, message, source, topic);
+
+		if (mailboxes != null) {
+			enqueueMailbox(pending);
+			return;
+		}
+
+		if (queue == null) {
+			metrics.messageQueued();
+			executor.execute(new Runnable() {
+				public void run() {
+					metrics.messageDequeued();
+					deliver(pending);
+				}
+			});
+			return;
+		}
+
+		switch (overflowPolicy) {
+			case BLOCK:
+				enqueueBlocking(pending);
+				break;
+			case DROP_NEWEST:
+				if (queue.offerLast(pending)) {
+					accepted();
+				} else {
+					pending.topic.recordDrop();
+				}
+				break;
+			case DROP_OLDEST:
+				enqueueEvicting(pending);
+				break;
+			case CONFLATE:
+				enqueueConflating(pending);
+				break;
+		}
+	}
+
+	/**
+	 * Forgets the given listener, dropping any message still pending for it. Only conflating mode keeps per listener
+	 * state; other modes deliver what was already queued.
+	 *
+	 * @param listener listener that is no longer registered
+	 */
+	void removeListener(MessageListener listener) {
+		if (mailboxes == null) {
+			return;
+		}
+		Mailbox mailbox = mailboxes.remove(listener);
+		if (mailbox != null) {
+			mailbox.discard();
+		}
+	}
+
+	private void enqueueBlocking(PendingMessage pending) {
+		try {
+			while (!queue.offerLast(pending, BLOCK_CHECK_INTERVAL, TimeUnit.MILLISECONDS)) {
+				if (!active) {
+					pending.topic.recordDrop();
+					return;
+				}
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			pending.topic.recordDrop();
+			return;
+		}
+		accepted();
+	}
+
+	private void enqueueEvicting(PendingMessage pending) {
+		boolean evicted = false;
+
+		while (!queue.offerLast(pending)) {
+			PendingMessage oldest = queue.pollFirst();
+			if (oldest != null) {
+				// the drain task submitted for the evicted message picks up the new one
+				if (conflationIndex != null) {
+					oldest.take();
+					conflationIndex.remove(oldest.conflationKey, oldest);
+				}
+				oldest.topic.recordDrop();
+				metrics.messageDequeued();
+				evicted = true;
+			}
+		}
+
+		metrics.messageQueued();
+		if (!evicted) {
+			executor.execute(drainTask);
+		}
+	}
+
+	private void enqueueConflating(PendingMessage pending) {
+		pending.conflationKey = new ConflationKey(pending.listener, keyExtractor.getKey(pending.message));
+
+		PendingMessage existing = conflationIndex.get(pending.conflationKey);
+		if (existing != null && existing.replace(pending.message, pending.source)) {
+			pending.topic.recordConflation();
+			return;
+		}
+
+		conflationIndex.put(pending.conflationKey, pending);
+		enqueueEvicting(pending);
+	}
+
+	private void enqueueMailbox(PendingMessage pending) {
+		Mailbox mailbox = mailboxes.get(pending.listener);
+		if (mailbox == null) {
+			mailbox = new Mailbox();
+			Mailbox existing = mailboxes.putIfAbsent(pending.listener, mailbox);
+			if (existing != null) {
+				mailbox = existing;
+			}
+		}
+
+		if (mailbox.offer(keyExtractor.getKey(pending.message), pending)) {
+			executor.execute(mailbox);
+		}
+	}
+
+	private void accepted() {
+		metrics.messageQueued();
+		executor.execute(drainTask);
+	}
+
+	private PendingMessage poll() {
+		PendingMessage pending = queue.pollFirst();
+		if (pending != null) {
+			metrics.messageDequeued();
+			if (conflationIndex != null) {
+				pending.take();
+				conflationIndex.remove(pending.conflationKey, pending);
+			}
+		}
+		return pending;
+	}
+
+	private void deliver(PendingMessage pending) {
+		long start = System.nanoTime();
+		pending.topic.recordDispatch(start - pending.timestamp);
+		try {
+			invoker.invoke(pending.listener, pending.getMessage(), pending.getSource());
+		} finally {
+			pending.topic.recordExecution(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * A message waiting to be handed to a listener. When conflating, the message can be replaced until the entry is
+	 * taken off the queue.
+	 */
+	private static class PendingMessage {
+
+		private final MessageListener listener;
+		private final TopicMetrics topic;
+		private final long timestamp = System.nanoTime();
+
+		private Message message;
+		private byte[] source;
+		private boolean taken = false;
+		private ConflationKey conflationKey;
+
+		PendingMessage(MessageListener listener, Message message, byte[] source, TopicMetrics topic) {
+			this.listener = listener;
+			this.message = message;
+			this.source = source;
+			this.topic = topic;
+		}
+
+		synchronized Message getMessage() {
+			return message;
+		}
+
+		synchronized byte[] getSource() {
+			return source;
+		}
+
+		synchronized boolean replace(Message message, byte[] source) {
+			if (taken) {
+				return false;
+			}
+			this.message = message;
+			this.source = source;
+			return true;
+		}
+
+		synchronized void take() {
+			taken = true;
+		}
+	}
+
+	private static class ConflationKey {
+
+		private final MessageListener listener;
+		private final Object key;
+
+		ConflationKey(MessageListener listener, Object key) {
+			this.listener = listener;
+			this.key = key;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * ObjectUtils.nullSafeHashCode(listener) + ObjectUtils.nullSafeHashCode(key);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof ConflationKey)) {
+				return false;
+			}
+			ConflationKey other = (ConflationKey) obj;
+			return ObjectUtils.nullSafeEquals(listener, other.listener) && ObjectUtils.nullSafeEquals(key, other.key);
+		}
+	}
+
+	/**
+	 * Messages pending for a single listener in conflating mode, in arrival order of their keys. Runs (on the executor)
+	 * until no message is left; at most one such run is scheduled at any time.
+	 */
+	private class Mailbox implements Runnable {
+
+		private final Map<Object, PendingMessage> pending = new LinkedHashMap<Object, PendingMessage>();
+		private boolean scheduled = false;
+
+		/**
+		 * Adds or replaces the message pending under the given key.
+		 *
+		 * @return true if the mailbox needs to be scheduled, false otherwise
+		 */
+		synchronized boolean offer(Object key, PendingMessage message) {
+			// re-inserting an existing key keeps its position, so a busy key cannot starve the others
+			if (pending.put(key, message) != null) {
+				message.topic.recordConflation();
+			} else {
+				metrics.messageQueued();
+			}
+
+			if (scheduled) {
+				return false;
+			}
+			scheduled = true;
+			return true;
+		}
+
+		synchronized void discard() {
+			for (PendingMessage message : pending.values()) {
+				message.topic.recordDrop();
+				metrics.messageDequeued();
+			}
+			pending.clear();
+		}
+
+		private synchronized PendingMessage next() {
+			Iterator<PendingMessage> it = pending.values().iterator();
+			if (!it.hasNext()) {
+				scheduled = false;
+				return null;
+			}
+			PendingMessage next = it.next();
+			it.remove();
+			return next;
+		}
+
+		public void run() {
+			boolean completed = false;
+			try {
+				PendingMessage message;
+				while ((message = next()) != null) {
+					metrics.messageDequeued();
+					deliver(message);
+				}
+				completed = true;
+			} finally {
+				if (!completed) {
+					reschedule();
+				}
+			}
+		}
+
+		// invoked after a failed delivery so that the remaining messages are not stranded
+		private void reschedule() {
+			synchronized (this) {
+				if (pending.isEmpty()) {
+					scheduled = false;
+					return;
+				}
+			}
+			executor.execute(this);
+		}
+	}
+}
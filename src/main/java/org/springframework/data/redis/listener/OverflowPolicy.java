@@ -0,0 +1,52 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.listener;
+
+/**
+ * Strategy applied by {@link RedisMessageListenerContainer} once its pending message queue is full.
+ *
+ * @see RedisMessageListenerContainer#setMaxPendingMessages(int)
+ * @see RedisMessageListenerContainer#setOverflowPolicy(OverflowPolicy)
+ * @since 1.2
+ */
+public enum OverflowPolicy {
+
+	/**
+	 * Blocks the subscription (reader) thread until space becomes available. No message is lost but Redis will
+	 * eventually buffer (or disconnect) the client if the listeners do not catch up.
+	 */
+	BLOCK,
+
+	/**
+	 * Discards the oldest pending message to make room for the incoming one.
+	 */
+	DROP_OLDEST,
+
+	/**
+	 * Discards the incoming message, keeping the pending ones.
+	 */
+	DROP_NEWEST,
+
+	/**
+	 * Replaces a pending message for the same listener and channel with the incoming one, so that only the most recent
+	 * message per channel is delivered. If no such message is pending and the queue is full, the oldest pending message
+	 * is discarded. Messages can be keyed by something other than their channel through a
+	 * {@link ConflationKeyExtractor}.
+	 *
+	 * @see RedisMessageListenerContainer#setConflationKeyExtractor(ConflationKeyExtractor)
+	 */
+	CONFLATE
+}
@@ -45,13 +45,25 @@ import org.springframework.util.ErrorHandler;
  * converting and message dispatching.
  * <p/>
  * As oppose to the low level Redis (one connection per subscription), the container uses only one connection that is
- * 'multiplexed' for all registered listeners, the message dispatch being done through the task executor.
+ * 'multiplexed' for all registered listeners, the message dispatch being done through the task executor. To spread the
+ * load of many (or busy) topics, the container can be configured to use several subscription connections through
+ * {@link #setSubscriptionConnections(int)}; topics are then assigned to a connection based on the hash of their name.
  * <p/>
  * Note the container uses the connection in a lazy fashion (the connection is used only if at least one listener is
  * configured).
  * <p/>
  * Adding and removing listeners at the same time has undefined results. It is strongly recommended to synchronize/order
  * these methods accordingly.
+ * <p/>
+ * By default, received messages are handed to the task executor as they arrive. To prevent slow listeners from piling
+ * up work inside the executor, the number of pending messages can be bounded through
+ * {@link #setMaxPendingMessages(int)}, in which case the {@link OverflowPolicy} decides what happens once the limit is
+ * reached. Dispatch statistics are available through {@link #getDispatchMetrics()}.
+ * <p/>
+ * For high-rate topics carrying state (such as prices) where only the latest value matters, the container can be
+ * switched to {@link #setConflating(boolean) conflating} delivery: each listener then handles one message at a time and
+ * messages arriving while it is busy replace the pending message with the same key (by default the channel, see
+ * {@link #setConflationKeyExtractor(ConflationKeyExtractor)}) instead of piling up.
  * 
  * @author Costin Leau
  * @author Jennifer Hickey
@@ -92,14 +104,12 @@ public class RedisMessageListenerContainer implements InitializingBean, Disposab
 	private ErrorHandler errorHandler;
 
 	private final Object monitor = new Object();
+	// number of subscription tasks that signalled their start (guarded by monitor)
+	private int signalledTasks = 0;
 	// whether the container is running (or not)
 	private volatile boolean running = false;
 	// whether the container has been initialized
 	private volatile boolean initialized = false;
-	// whether the container uses a connection or not
-	// (as the container might be running but w/o listeners, it won't use any resources)
-	private volatile boolean listening = false;
-
 	private volatile boolean manageExecutor = false;
 
 	// lookup maps
@@ -113,7 +123,8 @@ public class RedisMessageListenerContainer implements InitializingBean, Disposab
 	// lookup map between listeners and channels
 	private final Map<MessageListener, Set<Topic>> listenerTopics = new ConcurrentHashMap<MessageListener, Set<Topic>>();
 
-	private final SubscriptionTask subscriptionTask = new SubscriptionTask();
+	// one task (and connection) per subscription shard
+	private volatile SubscriptionTask[] subscriptionTasks = new SubscriptionTask[] { new SubscriptionTask(0) };
 
 	private volatile RedisSerializer<String> serializer = new StringRedisSerializer();
 
@@ -121,6 +132,18 @@ public class RedisMessageListenerContainer implements InitializingBean, Disposab
 
 	private long maxSubscriptionRegistrationWaitingTime = DEFAULT_SUBSCRIPTION_REGISTRATION_WAIT_TIME;
 
+	private int maxPendingMessages = 0;
+
+	private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+	private boolean conflating = false;
+
+	private ConflationKeyExtractor conflationKeyExtractor = DispatchQueue.CHANNEL_KEY_EXTRACTOR;
+
+	private final DispatchMetrics dispatchMetrics = new DispatchMetrics();
+
+	private volatile DispatchQueue dispatchQueue;
+
 	public void afterPropertiesSet() {
 		if (taskExecutor == null) {
 			manageExecutor = true;
@@ -131,6 +154,14 @@ public class RedisMessageListenerContainer implements InitializingBean, Disposab
 			subscriptionExecutor = taskExecutor;
 		}
 
+		dispatchQueue = new DispatchQueue(maxPendingMessages, overflowPolicy, conflating, conflationKeyExtractor,
+				taskExecutor,
+				new DispatchQueue.ListenerInvoker() {
+					public void invoke(MessageListener listener, Message message, byte[] source) {
+						processMessage(listener, message, source);
+					}
+				}, dispatchMetrics);
+
 		initialized = true;
 	}
 
@@ -184,17 +215,26 @@ public class RedisMessageListenerContainer implements InitializingBean, Disposab
 	public void start() {
 		if (!running) {
 			running = true;
+			if (dispatchQueue != null) {
+				dispatchQueue.setActive(true);
+			}
 			// wait for the subscription to start before returning
 			// technically speaking we can only be notified right before the subscription starts
 			synchronized (monitor) {
-				lazyListen();
-				if (listening) {
-					try {
-						// wait up to 5 seconds for Subscription thread
-						monitor.wait(initWait);
-					} catch (InterruptedException e) {
-						// stop waiting
+				// tasks cannot signal before the monitor is released by wait()
+				int expected = signalledTasks + lazyListen();
+				long deadline = System.currentTimeMillis() + initWait;
+				try {
+					// wait up to 5 seconds for all Subscription threads
+					while (signalledTasks < expected) {
+						long remaining = deadline - System.currentTimeMillis();
+						if (remaining <= 0) {
+							break;
+						}
+						monitor.wait(remaining);
 					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
 				}
 			}
 
@@ -207,7 +247,11 @@ public class RedisMessageListenerContainer implements InitializingBean, Disposab
 	public void stop() {
 		if (isRunning()) {
 			running = false;
-			subscriptionTask.cancel();
+			// release the subscription thread in case it waits for room in the dispatch queue
+			if (dispatchQueue != null) {
+				dispatchQueue.setActive(false);
+			}
+			cancelSubscriptions();
 		}
 
 		if (logger.isDebugEnabled()) {
@@ -323,6 +367,26 @@ public class RedisMessageListenerContainer implements InitializingBean, Disposab
 		this.subscriptionExecutor = subscriptionExecutor;
 	}
 
+	/**
+	 * Sets the number of connections used for subscribing to channels and patterns. Each connection is read by its own
+	 * (subscription) thread and topics are distributed across the connections based on the hash of their name. The
+	 * default is 1, that is all topics share one connection.
+	 * <p/>
+	 * Note: This setting cannot be changed while the container is running.
+	 * 
+	 * @param subscriptionConnections number of subscription connections
+	 */
+	public void setSubscriptionConnections(int subscriptionConnections) {
+		Assert.isTrue(subscriptionConnections > 0, "at least one subscription connection is required");
+		Assert.state(!isRunning(), "cannot change the subscription connections of a running container");
+
+		SubscriptionTask[] tasks = new SubscriptionTask[subscriptionConnections];
+		for (int i = 0; i < tasks.length; i++) {
+			tasks[i] = new SubscriptionTask(i);
+		}
+		this.subscriptionTasks = tasks;
+	}
+
 	/**
 	 * Sets the serializer for converting the {@link Topic}s into low-level channels and patterns. By default,
 	 * {@link StringRedisSerializer} is used.
@@ -331,6 +395,71 @@ public class RedisMessageListenerContainer implements InitializingBean, Disposab
 	 */
 	public void setTopicSerializer(RedisSerializer<String> serializer) {
 		this.serializer = serializer;
+		this.dispatchMetrics.setTopicSerializer(serializer);
+	}
+
+	/**
+	 * Sets the maximum number of messages that can be pending dispatch, that is received from Redis but not yet handed to
+	 * a listener (each listener of a topic counts as one message). Once the limit is reached, the configured
+	 * {@link OverflowPolicy} applies. By default (zero or less) there is no limit and every message is submitted to the
+	 * task executor straight away.
+	 * <p/>
+	 * Note: This setting is applied on initialization only.
+	 * 
+	 * @param maxPendingMessages maximum number of pending messages
+	 * @see #setOverflowPolicy(OverflowPolicy)
+	 */
+	public void setMaxPendingMessages(int maxPendingMessages) {
+		this.maxPendingMessages = maxPendingMessages;
+	}
+
+	/**
+	 * Sets the policy applied when the pending message limit is reached. The default is {@link OverflowPolicy#BLOCK}.
+	 * Has no effect unless {@link #setMaxPendingMessages(int)} is used.
+	 * 
+	 * @param overflowPolicy The overflowPolicy to set.
+	 */
+	public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+		Assert.notNull(overflowPolicy, "a valid overflow policy is required");
+		this.overflowPolicy = overflowPolicy;
+	}
+
+	/**
+	 * Enables or disables conflating delivery. When enabled, messages are delivered to each listener serially and a
+	 * message received while the listener is busy replaces the pending message with the same conflation key. Listeners
+	 * thus always see the newest message per key, without building up a backlog; the pending messages are bounded by the
+	 * number of distinct keys and {@link #setMaxPendingMessages(int)} is ignored. Default is false.
+	 * <p/>
+	 * Note: This setting is applied on initialization only.
+	 * 
+	 * @param conflating whether to conflate messages or not
+	 * @see #setConflationKeyExtractor(ConflationKeyExtractor)
+	 */
+	public void setConflating(boolean conflating) {
+		this.conflating = conflating;
+	}
+
+	/**
+	 * Sets the strategy identifying the messages that replace each other when conflating, either through
+	 * {@link #setConflating(boolean)} or {@link OverflowPolicy#CONFLATE}. By default, messages are keyed by channel.
+	 * <p/>
+	 * Note: This setting is applied on initialization only.
+	 * 
+	 * @param conflationKeyExtractor The conflationKeyExtractor to set.
+	 */
+	public void setConflationKeyExtractor(ConflationKeyExtractor conflationKeyExtractor) {
+		Assert.notNull(conflationKeyExtractor, "a valid key extractor is required");
+		this.conflationKeyExtractor = conflationKeyExtractor;
+	}
+
+	/**
+	 * Returns the metrics (queue depth, dispatch latency, listener execution time, dropped messages) gathered while
+	 * dispatching messages.
+	 * 
+	 * @return the dispatch metrics
+	 */
+	public DispatchMetrics getDispatchMetrics() {
+		return dispatchMetrics;
 	}
 
 	/**
@@ -419,11 +548,14 @@ public class RedisMessageListenerContainer implements InitializingBean, Disposab
 	private void initMapping(Map<? extends MessageListener, Collection<? extends Topic>> listeners) {
 		// stop the listener if currently running
 		if (isRunning()) {
-			subscriptionTask.cancel();
+			cancelSubscriptions();
 		}
 
 		patternMapping.clear();
 		channelMapping.clear();
+		for (MessageListener listener : listenerTopics.keySet()) {
+			discardPending(listener);
+		}
 		listenerTopics.clear();
 
 		if (!CollectionUtils.isEmpty(listeners)) {
@@ -440,39 +572,61 @@ public class RedisMessageListenerContainer implements InitializingBean, Disposab
 
 	/**
 	 * Method inspecting whether listening for messages (and thus using a thread) is actually needed and triggering it.
+	 * 
+	 * @return the number of subscription tasks started
 	 */
-	private void lazyListen() {
+	private int lazyListen() {
 		boolean debug = logger.isDebugEnabled();
-		boolean started = false;
+		int started = 0;
 
 		if (isRunning()) {
-			if (!listening) {
-				synchronized (monitor) {
-					if (!listening) {
-						if (channelMapping.size() > 0 || patternMapping.size() > 0) {
-							subscriptionExecutor.execute(subscriptionTask);
-							listening = true;
-							started = true;
+			for (SubscriptionTask task : subscriptionTasks) {
+				if (!task.listening) {
+					boolean taskStarted = false;
+					synchronized (monitor) {
+						if (!task.listening) {
+							if (task.hasTopics()) {
+								subscriptionExecutor.execute(task);
+								task.listening = true;
+								taskStarted = true;
+								started++;
+							}
 						}
 					}
-				}
-				if (debug) {
-					if (started) {
-						logger.debug("Started listening for Redis messages");
-					} else {
-						logger.debug("Postpone listening for Redis messages until actual listeners are added");
+					if (debug) {
+						if (taskStarted) {
+							logger.debug("Started listening for Redis messages" + task.describe());
+						} else {
+							logger.debug("Postpone listening for Redis messages" + task.describe()
+									+ " until actual listeners are added");
+						}
 					}
 				}
 			}
 		}
+		return started;
+	}
+
+	private void cancelSubscriptions() {
+		for (SubscriptionTask task : subscriptionTasks) {
+			task.cancel();
+		}
+	}
+
+	/**
+	 * Returns the subscription task (and thus connection) responsible for the given channel or pattern.
+	 */
+	private SubscriptionTask subscriptionTaskFor(ByteArrayWrapper topic) {
+		SubscriptionTask[] tasks = subscriptionTasks;
+		return tasks[(topic.hashCode() & Integer.MAX_VALUE) % tasks.length];
 	}
 
 	private void addListener(MessageListener listener, Collection<? extends Topic> topics) {
 		Assert.notNull(listener, "a valid listener is required");
 		Assert.notEmpty(topics, "at least one topic is required");
 
-		List<byte[]> channels = new ArrayList<byte[]>(topics.size());
-		List<byte[]> patterns = new ArrayList<byte[]>(topics.size());
+		Map<SubscriptionTask, List<byte[]>> channels = topicsPerSubscriptionTask();
+		Map<SubscriptionTask, List<byte[]>> patterns = topicsPerSubscriptionTask();
 
 		boolean trace = logger.isTraceEnabled();
 
@@ -495,7 +649,7 @@ public class RedisMessageListenerContainer implements InitializingBean, Disposab
 					channelMapping.put(holder, collection);
 				}
 				collection.add(listener);
-				channels.add(holder.getArray());
+				channels.get(subscriptionTaskFor(holder)).add(holder.getArray());
 
 				if (trace)
 					logger.trace("Adding listener '" + listener + "' on channel '" + topic.getTopic() + "'");
@@ -508,7 +662,7 @@ public class RedisMessageListenerContainer implements InitializingBean, Disposab
 					patternMapping.put(holder, collection);
 				}
 				collection.add(listener);
-				patterns.add(holder.getArray());
+				patterns.get(subscriptionTaskFor(holder)).add(holder.getArray());
 
 				if (trace)
 					logger.trace("Adding listener '" + listener + "' for pattern '" + topic.getTopic() + "'");
@@ -520,9 +674,13 @@ public class RedisMessageListenerContainer implements InitializingBean, Disposab
 		}
 
 		// check the current listening state
-		if (listening) {
-			subscriptionTask.subscribeChannel(channels.toArray(new byte[channels.size()][]));
-			subscriptionTask.subscribePattern(patterns.toArray(new byte[patterns.size()][]));
+		for (Map.Entry<SubscriptionTask, List<byte[]>> entry : channels.entrySet()) {
+			SubscriptionTask task = entry.getKey();
+			if (task.listening) {
+				List<byte[]> taskPatterns = patterns.get(task);
+				task.subscribeChannel(entry.getValue().toArray(new byte[entry.getValue().size()][]));
+				task.subscribePattern(taskPatterns.toArray(new byte[taskPatterns.size()][]));
+			}
 		}
 	}
 
@@ -531,12 +689,12 @@ public class RedisMessageListenerContainer implements InitializingBean, Disposab
 
 		// check stop listening case
 		if (listener == null && CollectionUtils.isEmpty(topics)) {
-			subscriptionTask.cancel();
+			cancelSubscriptions();
 			return;
 		}
 
-		List<byte[]> channelsToRemove = new ArrayList<byte[]>();
-		List<byte[]> patternsToRemove = new ArrayList<byte[]>();
+		Map<SubscriptionTask, List<byte[]>> channelsToRemove = topicsPerSubscriptionTask();
+		Map<SubscriptionTask, List<byte[]>> patternsToRemove = topicsPerSubscriptionTask();
 
 		// check unsubscribe all topics case
 		if (CollectionUtils.isEmpty(topics)) {
@@ -552,7 +710,7 @@ public class RedisMessageListenerContainer implements InitializingBean, Disposab
 			ByteArrayWrapper holder = new ByteArrayWrapper(serializer.serialize(topic.getTopic()));
 
 			if (topic instanceof ChannelTopic) {
-				remove(listener, topic, holder, channelMapping, channelsToRemove);
+				remove(listener, topic, holder, channelMapping, channelsToRemove.get(subscriptionTaskFor(holder)));
 
 				if (trace) {
 					String msg = (listener != null ? "listener '" + listener + "'" : "all listeners");
@@ -561,7 +719,7 @@ public class RedisMessageListenerContainer implements InitializingBean, Disposab
 			}
 
 			else if (topic instanceof PatternTopic) {
-				remove(listener, topic, holder, patternMapping, patternsToRemove);
+				remove(listener, topic, holder, patternMapping, patternsToRemove.get(subscriptionTaskFor(holder)));
 
 				if (trace) {
 					String msg = (listener != null ? "listener '" + listener + "'" : "all listeners");
@@ -570,17 +728,30 @@ public class RedisMessageListenerContainer implements InitializingBean, Disposab
 			}
 		}
 
-		// double check whether there are still subscriptions available otherwise cancel the connection
-		// as most drivers forfeit the connection on unsubscribe
-		if (listenerTopics.isEmpty()) {
-			subscriptionTask.cancel();
+		for (SubscriptionTask task : channelsToRemove.keySet()) {
+			// double check whether there are still subscriptions available otherwise cancel the connection
+			// as most drivers forfeit the connection on unsubscribe
+			if (listenerTopics.isEmpty() || !task.hasTopics()) {
+				task.cancel();
+			}
+
+			// check the current listening state
+			else if (task.listening) {
+				List<byte[]> channels = channelsToRemove.get(task);
+				List<byte[]> patterns = patternsToRemove.get(task);
+				task.unsubscribeChannel(channels.toArray(new byte[channels.size()][]));
+				task.unsubscribePattern(patterns.toArray(new byte[patterns.size()][]));
+			}
 		}
+	}
 
-		// check the current listening state
-		else if (listening) {
-			subscriptionTask.unsubscribeChannel(channelsToRemove.toArray(new byte[channelsToRemove.size()][]));
-			subscriptionTask.unsubscribePattern(patternsToRemove.toArray(new byte[patternsToRemove.size()][]));
+	private Map<SubscriptionTask, List<byte[]>> topicsPerSubscriptionTask() {
+		SubscriptionTask[] tasks = subscriptionTasks;
+		Map<SubscriptionTask, List<byte[]>> topics = new LinkedHashMap<SubscriptionTask, List<byte[]>>(tasks.length);
+		for (SubscriptionTask task : tasks) {
+			topics.put(task, new ArrayList<byte[]>());
 		}
+		return topics;
 	}
 
 	private void remove(MessageListener listener, Topic topic, ByteArrayWrapper holder,
@@ -609,6 +780,7 @@ public class RedisMessageListenerContainer implements InitializingBean, Disposab
 				}
 				if (CollectionUtils.isEmpty(topics)) {
 					listenerTopics.remove(messageListener);
+					discardPending(messageListener);
 				}
 			}
 			// if we removed everything, remove the empty holder collection
@@ -619,6 +791,13 @@ public class RedisMessageListenerContainer implements InitializingBean, Disposab
 		}
 	}
 
+	private void discardPending(MessageListener listener) {
+		DispatchQueue queue = dispatchQueue;
+		if (queue != null) {
+			queue.removeListener(listener);
+		}
+	}
+
 	/**
 	 * Handle subscription task exception. Will attempt to restart the subscription if the Exception is a connection
 	 * failure (for example, Redis was restarted).
@@ -626,8 +805,6 @@ public class RedisMessageListenerContainer implements InitializingBean, Disposab
 	 * @param ex Throwable exception
 	 */
 	protected void handleSubscriptionException(Throwable ex) {
-		listening = false;
-		subscriptionTask.closeConnection();
 		if (ex instanceof RedisConnectionFailureException) {
 			if (isRunning()) {
 				logger.error("Connection failure occurred. Restarting subscription task after " + recoveryInterval + " ms");
@@ -685,7 +862,7 @@ public class RedisMessageListenerContainer implements InitializingBean, Disposab
 						synchronized (localMonitor) {
 							if (connection.isSubscribed()) {
 								done = true;
-								connection.getSubscription().pSubscribe(unwrap(patternMapping.keySet()));
+								connection.getSubscription().pSubscribe(unwrap(ownTopics(patternMapping.keySet())));
 							} else {
 								try {
 									Thread.sleep(WAIT);
@@ -699,16 +876,57 @@ public class RedisMessageListenerContainer implements InitializingBean, Disposab
 			}
 		}
 
+		private final int shard;
+		// whether the task uses a connection or not
+		// (as the container might be running but w/o listeners, it won't use any resources)
+		private volatile boolean listening = false;
 		private volatile RedisConnection connection;
 		private boolean subscriptionTaskRunning = false;
+		// whether the current run signalled its start to the container (guarded by monitor)
+		private boolean signalled = false;
 		private final Object localMonitor = new Object();
 		private long subscriptionWait = TimeUnit.SECONDS.toMillis(5);
 
+		SubscriptionTask(int shard) {
+			this.shard = shard;
+		}
+
 		public boolean isLongLived() {
 			return true;
 		}
 
+		/**
+		 * Returns whether any channel or pattern is assigned to this task.
+		 */
+		boolean hasTopics() {
+			return !ownTopics(channelMapping.keySet()).isEmpty() || !ownTopics(patternMapping.keySet()).isEmpty();
+		}
+
+		String describe() {
+			return (subscriptionTasks.length > 1 ? " on subscription connection #" + shard : "");
+		}
+
+		/**
+		 * Filters the given channels/patterns down to the ones assigned to this task.
+		 */
+		private Collection<ByteArrayWrapper> ownTopics(Collection<ByteArrayWrapper> topics) {
+			if (subscriptionTasks.length == 1) {
+				return topics;
+			}
+
+			List<ByteArrayWrapper> own = new ArrayList<ByteArrayWrapper>();
+			for (ByteArrayWrapper topic : topics) {
+				if (subscriptionTaskFor(topic) == this) {
+					own.add(topic);
+				}
+			}
+			return own;
+		}
+
 		public void run() {
+			synchronized (monitor) {
+				signalled = false;
+			}
 			synchronized (localMonitor) {
 				subscriptionTaskRunning = true;
 			}
@@ -722,9 +940,7 @@ public class RedisMessageListenerContainer implements InitializingBean, Disposab
 
 				// NB: async drivers' Xsubscribe calls block, so we notify the RDMLC before performing the actual subscription.
 				if (!asyncConnection) {
-					synchronized (monitor) {
-						monitor.notify();
-					}
+					signalStarted();
 				}
 
 				SubscriptionPresentCondition subscriptionPresent = eventuallyPerformSubscription();
@@ -732,11 +948,13 @@ public class RedisMessageListenerContainer implements InitializingBean, Disposab
 				if (asyncConnection) {
 					SpinBarrier.waitFor(subscriptionPresent, getMaxSubscriptionRegistrationWaitingTime());
 
-					synchronized (monitor) {
-						monitor.notify();
-					}
+					signalStarted();
 				}
 			} catch (Throwable t) {
+				listening = false;
+				// do not keep start() waiting for a task that failed
+				signalStarted();
+				closeConnection();
 				handleSubscriptionException(t);
 			} finally {
 				// this block is executed once the subscription thread has ended, this may or may not mean
@@ -748,6 +966,19 @@ public class RedisMessageListenerContainer implements InitializingBean, Disposab
 			}
 		}
 
+		/**
+		 * Lets {@link RedisMessageListenerContainer#start()} know this task started (or failed), once per run.
+		 */
+		private void signalStarted() {
+			synchronized (monitor) {
+				if (!signalled) {
+					signalled = true;
+					signalledTasks++;
+					monitor.notifyAll();
+				}
+			}
+		}
+
 		/**
 		 * Performs a potentially asynchronous registration of a subscription.
 		 * 
@@ -757,13 +988,16 @@ public class RedisMessageListenerContainer implements InitializingBean, Disposab
 
 			SubscriptionPresentCondition condition = null;
 
-			if (channelMapping.isEmpty()) {
+			Collection<ByteArrayWrapper> channels = ownTopics(channelMapping.keySet());
+			Collection<ByteArrayWrapper> patterns = ownTopics(patternMapping.keySet());
+
+			if (channels.isEmpty()) {
 
 				condition = new PatternSubscriptionPresentCondition();
-				connection.pSubscribe(new DispatchMessageListener(), unwrap(patternMapping.keySet()));
+				connection.pSubscribe(new DispatchMessageListener(), unwrap(patterns));
 			} else {
 
-				if (patternMapping.isEmpty()) {
+				if (patterns.isEmpty()) {
 					condition = new SubscriptionPresentCondition();
 				} else {
 					// schedule the rest of the subscription
@@ -771,7 +1005,7 @@ public class RedisMessageListenerContainer implements InitializingBean, Disposab
 					condition = new PatternSubscriptionPresentCondition();
 				}
 
-				connection.subscribe(new DispatchMessageListener(), unwrap(channelMapping.keySet()));
+				connection.subscribe(new DispatchMessageListener(), unwrap(channels));
 			}
 
 			return condition;
@@ -925,31 +1159,32 @@ public class RedisMessageListenerContainer implements InitializingBean, Disposab
 
 		public void onMessage(Message message, byte[] pattern) {
 			Collection<MessageListener> listeners = null;
+			ByteArrayWrapper topic = null;
 
 			// if it's a pattern, disregard channel
 			if (pattern != null && pattern.length > 0) {
-				listeners = patternMapping.get(new ByteArrayWrapper(pattern));
+				topic = new ByteArrayWrapper(pattern);
+				listeners = patternMapping.get(topic);
 			} else {
 				pattern = null;
 				// do channel matching first
-				listeners = channelMapping.get(new ByteArrayWrapper(message.getChannel()));
+				topic = new ByteArrayWrapper(message.getChannel());
+				listeners = channelMapping.get(topic);
 			}
 
 			if (!CollectionUtils.isEmpty(listeners)) {
-				dispatchMessage(listeners, message, pattern);
+				dispatchMessage(listeners, message, pattern, topic);
 			}
 		}
 	}
 
-	private void dispatchMessage(Collection<MessageListener> listeners, final Message message, final byte[] pattern) {
-		final byte[] source = (pattern != null ? pattern.clone() : message.getChannel());
+	private void dispatchMessage(Collection<MessageListener> listeners, Message message, byte[] pattern,
+			ByteArrayWrapper topic) {
+		byte[] source = (pattern != null ? pattern.clone() : message.getChannel());
+		DispatchMetrics.TopicMetrics topicMetrics = dispatchMetrics.forTopic(topic);
 
-		for (final MessageListener messageListener : listeners) {
-			taskExecutor.execute(new Runnable() {
-				public void run() {
-					processMessage(messageListener, message, source);
-				}
-			});
+		for (MessageListener messageListener : listeners) {
+			dispatchQueue.dispatch(messageListener, message, source, topicMetrics);
 		}
 	}
 
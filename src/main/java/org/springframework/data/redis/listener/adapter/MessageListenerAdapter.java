@@ -20,18 +20,24 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.cglib.reflect.FastClass;
+import org.springframework.cglib.reflect.FastMethod;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.redis.connection.Message;
 import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.util.ByteArrayWrapper;
 import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.ReflectionUtils;
 import org.springframework.util.ReflectionUtils.MethodCallback;
@@ -39,9 +45,10 @@ import org.springframework.util.ReflectionUtils.MethodFilter;
 import org.springframework.util.StringUtils;
 
 /**
- * Message listener adapter that delegates the handling of messages to target listener methods via reflection, with
- * flexible message type conversion. Allows listener methods to operate on message content types, completely independent
- * from the Redis API.
+ * Message listener adapter that delegates the handling of messages to target listener methods, with flexible message
+ * type conversion. Listener methods are resolved once, on initialization, and invoked through generated accessors
+ * (falling back to reflection if these cannot be created). Allows listener methods to operate on message content types,
+ * completely independent from the Redis API.
  * <p/>
  * Make sure to call {@link #afterPropertiesSet()} after setting all the parameters on the adapter.
  * <p/>
@@ -70,6 +77,9 @@ import org.springframework.util.StringUtils;
  * }
  * </pre>
  * <p>
+ * When several methods qualify, each message is passed only to the methods whose parameter type matches the (converted)
+ * message content.
+ * <p>
  * In addition, the channel or pattern to which a message is sent can be passed in to the method as a second argument of
  * type String:
  * 
@@ -93,11 +103,15 @@ import org.springframework.util.StringUtils;
  */
 public class MessageListenerAdapter implements InitializingBean, MessageListener {
 
+	/**
+	 * Resolves the listener methods once and invokes them without per-message reflection lookups. Whenever possible the
+	 * methods are called through a generated accessor, falling back to plain reflection otherwise.
+	 */
 	private class MethodInvoker {
 		private final Object delegate;
 		private String methodName;
 
-		private List<Method> methods;
+		private final List<ListenerMethod> methods;
 		private boolean lenient = false;
 
 		MethodInvoker(Object delegate, final String methodName) {
@@ -108,13 +122,13 @@ public class MessageListenerAdapter implements InitializingBean, MessageListener
 
 			Class<?> c = delegate.getClass();
 
-			methods = new ArrayList<Method>();
+			final List<Method> candidates = new ArrayList<Method>();
 
 			ReflectionUtils.doWithMethods(c, new MethodCallback() {
 
 				public void doWith(Method method) throws IllegalArgumentException, IllegalAccessException {
 					ReflectionUtils.makeAccessible(method);
-					methods.add(method);
+					candidates.add(method);
 				}
 
 			}, new MethodFilter() {
@@ -129,17 +143,40 @@ public class MessageListenerAdapter implements InitializingBean, MessageListener
 				}
 			});
 
-			Assert.isTrue(lenient || !methods.isEmpty(), "Cannot find a suitable method named [" + c.getName() + "#"
+			Assert.isTrue(lenient || !candidates.isEmpty(), "Cannot find a suitable method named [" + c.getName() + "#"
 					+ methodName + "] - is the method public and has the proper arguments?");
+
+			FastClass fastClass = createFastClass(c);
+			methods = new ArrayList<ListenerMethod>(candidates.size());
+			for (Method method : candidates) {
+				methods.add(new ListenerMethod(method, fastClass));
+			}
 		}
 
 		void invoke(Object[] arguments) throws InvocationTargetException, IllegalAccessException {
 
-			Object[] message = new Object[] { arguments[0] };
-			for (Method m : methods) {
-				Class<?>[] types = m.getParameterTypes();
-				Object[] args = (types.length == 2 ? arguments : message);
-				m.invoke(delegate, args);
+			Object payload = arguments[0];
+			Object[] message = null;
+			boolean invoked = false;
+
+			for (int i = 0; i < methods.size(); i++) {
+				ListenerMethod m = methods.get(i);
+				if (m.accepts(payload)) {
+					if (m.withChannel) {
+						m.invoke(delegate, arguments);
+					} else {
+						if (message == null) {
+							message = new Object[] { payload };
+						}
+						m.invoke(delegate, message);
+					}
+					invoked = true;
+				}
+			}
+
+			if (!invoked && !methods.isEmpty()) {
+				throw new IllegalArgumentException("No listener method named [" + methodName + "] accepts "
+						+ (payload == null ? "a null payload" : "a payload of type [" + payload.getClass().getName() + "]"));
 			}
 		}
 
@@ -151,6 +188,63 @@ public class MessageListenerAdapter implements InitializingBean, MessageListener
 		public String getMethodName() {
 			return methodName;
 		}
+
+		private FastClass createFastClass(Class<?> type) {
+			if (!Modifier.isPublic(type.getModifiers())) {
+				return null;
+			}
+			try {
+				return FastClass.create(type);
+			} catch (Throwable ex) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Cannot generate accessor for [" + type.getName() + "]; falling back to reflection", ex);
+				}
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * A listener method with its payload type resolved upfront.
+	 */
+	private static class ListenerMethod {
+
+		private final Method method;
+		private final FastMethod fastMethod;
+		private final Class<?> payloadType;
+		private final boolean primitive;
+		private final boolean withChannel;
+
+		ListenerMethod(Method method, FastClass fastClass) {
+			Class<?>[] parameterTypes = method.getParameterTypes();
+
+			this.method = method;
+			this.payloadType = ClassUtils.resolvePrimitiveIfNecessary(parameterTypes[0]);
+			this.primitive = parameterTypes[0].isPrimitive();
+			this.withChannel = (parameterTypes.length == 2);
+			this.fastMethod = (fastClass != null && method.getDeclaringClass().isAssignableFrom(fastClass.getJavaClass()) ? getFastMethod(
+					fastClass, method) : null);
+		}
+
+		private static FastMethod getFastMethod(FastClass fastClass, Method method) {
+			try {
+				return fastClass.getMethod(method);
+			} catch (Throwable ex) {
+				return null;
+			}
+		}
+
+		boolean accepts(Object payload) {
+			return (payload == null ? !primitive : payloadType.isInstance(payload));
+		}
+
+		void invoke(Object target, Object[] args) throws InvocationTargetException, IllegalAccessException {
+			if (fastMethod != null) {
+				fastMethod.invoke(target, args);
+			} else {
+				method.invoke(target, args);
+			}
+		}
 	}
 
 	/**
@@ -158,6 +252,8 @@ public class MessageListenerAdapter implements InitializingBean, MessageListener
 	 */
 	public static final String ORIGINAL_DEFAULT_LISTENER_METHOD = "handleMessage";
 
+	private static final int CHANNEL_NAME_CACHE_LIMIT = 1024;
+
 	/** Logger available to subclasses */
 	protected final Log logger = LogFactory.getLog(getClass());
 
@@ -171,6 +267,9 @@ public class MessageListenerAdapter implements InitializingBean, MessageListener
 
 	private RedisSerializer<String> stringSerializer;
 
+	// deserialized channel/pattern names - bounded as pattern subscriptions can match an arbitrary number of channels
+	private final ConcurrentMap<ByteArrayWrapper, String> channelNames = new ConcurrentHashMap<ByteArrayWrapper, String>();
+
 	/**
 	 * Create a new {@link MessageListenerAdapter} with default settings.
 	 */
@@ -261,6 +360,7 @@ public class MessageListenerAdapter implements InitializingBean, MessageListener
 	 */
 	public void setStringSerializer(RedisSerializer<String> serializer) {
 		this.stringSerializer = serializer;
+		this.channelNames.clear();
 	}
 
 	public void afterPropertiesSet() {
@@ -298,7 +398,7 @@ public class MessageListenerAdapter implements InitializingBean, MessageListener
 
 			// Regular case: find a handler method reflectively.
 			Object convertedMessage = extractMessage(message);
-			String convertedChannel = stringSerializer.deserialize(pattern);
+			String convertedChannel = deserializeChannel(pattern);
 			// Invoke the handler method with appropriate arguments.
 			Object[] listenerArguments = new Object[] { convertedMessage, convertedChannel };
 
@@ -308,6 +408,23 @@ public class MessageListenerAdapter implements InitializingBean, MessageListener
 		}
 	}
 
+	private String deserializeChannel(byte[] channel) {
+		if (channel == null) {
+			return stringSerializer.deserialize(channel);
+		}
+
+		ByteArrayWrapper key = new ByteArrayWrapper(channel);
+		String name = channelNames.get(key);
+		if (name == null) {
+			name = stringSerializer.deserialize(channel);
+			if (name != null && channelNames.size() < CHANNEL_NAME_CACHE_LIMIT) {
+				// copy the array as the key has to outlive the message
+				channelNames.put(new ByteArrayWrapper(channel.clone()), name);
+			}
+		}
+		return name;
+	}
+
 	/**
 	 * Initialize the default implementations for the adapter's strategies.
 	 * 
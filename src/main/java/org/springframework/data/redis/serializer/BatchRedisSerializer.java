@@ -0,0 +1,44 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.serializer;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Optional extension of {@link RedisSerializer} for serializers able to deserialize a whole batch of values (such as
+ * the result of <code>MGET</code> or <code>LRANGE</code>) more efficiently than one value at a time, typically in a
+ * single streaming pass.
+ * <p/>
+ * Used by {@link SerializationUtils} and thus by the template operations whenever a multi-value result is converted.
+ * 
+ * @since 1.2
+ */
+public interface BatchRedisSerializer<T> extends RedisSerializer<T> {
+
+	/**
+	 * Deserializes the given values, preserving their iteration order. Null or empty entries result in null elements.
+	 * <p/>
+	 * The batch is read as a whole: if any value cannot be deserialized, the call fails and no value is returned,
+	 * even if the other values are valid. Callers needing per-value error handling should use
+	 * {@link #deserialize(byte[])} instead.
+	 * 
+	 * @param values values to deserialize
+	 * @return the deserialized values
+	 * @throws SerializationException if any of the values cannot be deserialized
+	 */
+	List<T> deserializeAll(Collection<byte[]> values) throws SerializationException;
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.serializer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Optional extension of {@link RedisSerializer} for serializers able to work on buffers instead of exact-size arrays:
+ * values are written into a caller supplied (and typically reused) {@link SerializationBuffer} and read from a
+ * {@link ByteBuffer} view, such as a region of a network buffer, without copying it first.
+ * <p/>
+ * Both forms must produce and accept the same binary format as the array based methods. The buffer forms are used
+ * for classes implementing this interface themselves only, so that subclasses can customize the array based methods
+ * alone (see {@link SerializationUtils#supportsBuffers(RedisSerializer)}).
+ * 
+ * @see SerializationUtils#serialize(RedisSerializer, Object)
+ * @since 1.2
+ */
+public interface BufferRedisSerializer<T> extends RedisSerializer<T> {
+
+	/**
+	 * Serializes the given (non null) object, appending the binary data to the given buffer.
+	 * 
+	 * @param t object to serialize
+	 * @param buffer buffer to write into
+	 */
+	void serialize(T t, SerializationBuffer buffer) throws SerializationException;
+
+	/**
+	 * Deserializes an object from the remaining content of the given buffer. Implementations must not keep a reference
+	 * to the buffer, whose content can be reused once the method returns.
+	 * 
+	 * @param buffer buffer to read from
+	 * @return the deserialized object. Can be null.
+	 */
+	T deserialize(ByteBuffer buffer) throws SerializationException;
+}
@@ -0,0 +1,1090 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.serializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Externalizable;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.beans.factory.BeanClassLoaderAware;
+import org.springframework.core.ConfigurableObjectInputStream;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Compact binary serializer, meant as a faster and (much) smaller alternative to {@link JdkSerializationRedisSerializer}.
+ * <p/>
+ * Values are written as a type tag followed by their content, using variable-length encoding for numbers and lengths.
+ * Strings, primitive wrappers, byte arrays, dates, big numbers, UUIDs, enums, arrays as well as the common
+ * <code>java.util</code> collections and maps are supported natively. Other objects are written field by field
+ * (including inherited, non-transient fields) and require a no-argument constructor (of any visibility). Object graphs
+ * are preserved: an object referenced several times is written once and cycles are supported.
+ * <p/>
+ * Classes are identified through ids registered upfront ({@link #registerClass(int, Class)}) which take a couple of
+ * bytes at most. By default only registered (and natively supported) classes are accepted, so that a payload cannot
+ * make the serializer load and instantiate arbitrary classes. For trusted data, registration can be turned off
+ * ({@link #setRegistrationRequired(boolean)}) in which case unregistered classes are written by name, once per payload.
+ * <p/>
+ * Objects that cannot be written field by field, such as classes with custom serialization methods (
+ * <code>writeObject</code>, <code>readResolve</code> and the likes), {@link Externalizable} classes or other JDK types,
+ * are embedded using Java serialization as long as they are {@link Serializable} and registration is not required.
+ * <p/>
+ * Note the format does not carry per-class metadata: adding, removing or renaming fields of a class invalidates the
+ * payloads written with the previous version of the class. Registered class ids should never be reused for a
+ * different class.
+ *
+ * @since 1.2
+ */
+public class CompactRedisSerializer implements RedisSerializer<Object>, BeanClassLoaderAware {
+
+	/**
+	 * Highest class id that can be registered.
+	 */
+	public static final int MAX_CLASS_ID = 0x1FFFFFFF;
+
+	// type tags
+	private static final int NULL = 0;
+	private static final int TRUE = 1;
+	private static final int FALSE = 2;
+	private static final int BYTE = 3;
+	private static final int SHORT = 4;
+	private static final int INT = 5;
+	private static final int LONG = 6;
+	private static final int FLOAT = 7;
+	private static final int DOUBLE = 8;
+	private static final int CHAR = 9;
+	private static final int STRING = 10;
+	private static final int BYTES = 11;
+	private static final int DATE = 12;
+	private static final int BIG_INTEGER = 13;
+	private static final int BIG_DECIMAL = 14;
+	private static final int UUID_VALUE = 15;
+	private static final int ENUM = 16;
+	private static final int ARRAY = 17;
+	private static final int COLLECTION = 18;
+	private static final int MAP = 19;
+	private static final int OBJECT = 20;
+	private static final int REFERENCE = 21;
+	private static final int JAVA = 22;
+
+	// field/array element kind of reference types; primitives use the tag of their wrapper (TRUE for booleans)
+	private static final int REFERENCE_KIND = -1;
+
+	// class reference flags (lowest two bits)
+	private static final int CLASS_INLINE = 0;
+	private static final int CLASS_REGISTERED = 1;
+	private static final int CLASS_LOCAL = 2;
+	private static final int CLASS_BUILTIN = 3;
+
+	/*
+	 * Classes known without registration. The position in the array is the class id hence new classes must be appended.
+	 */
+	private static final Class<?>[] BUILTIN_CLASSES = new Class<?>[] { Object.class, String.class, Boolean.class,
+			Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class, Character.class, boolean.class,
+			byte.class, short.class, int.class, long.class, float.class, double.class, char.class, ArrayList.class,
+			LinkedList.class, HashSet.class, LinkedHashSet.class, TreeSet.class, HashMap.class, LinkedHashMap.class,
+			TreeMap.class, ConcurrentHashMap.class, Date.class, BigInteger.class, BigDecimal.class, UUID.class };
+
+	private static final Map<Class<?>, Integer> BUILTIN_IDS = new HashMap<Class<?>, Integer>();
+
+	static {
+		for (int i = 0; i < BUILTIN_CLASSES.length; i++) {
+			BUILTIN_IDS.put(BUILTIN_CLASSES[i], i);
+		}
+	}
+
+	private final ConcurrentMap<Class<?>, Integer> classIds = new ConcurrentHashMap<Class<?>, Integer>();
+	private final ConcurrentMap<Integer, Class<?>> registeredClasses = new ConcurrentHashMap<Integer, Class<?>>();
+
+	private final ConcurrentMap<Class<?>, ClassDescriptor> descriptors = new ConcurrentHashMap<Class<?>, ClassDescriptor>();
+	private final ConcurrentMap<String, Class<?>> resolvedClasses = new ConcurrentHashMap<String, Class<?>>();
+
+	private volatile ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+
+	private boolean registrationRequired = true;
+
+	/**
+	 * Registers the given class under the given id. Ids need to be the same on all the clients reading and writing the
+	 * same data.
+	 *
+	 * @param id class id, between 0 and {@link #MAX_CLASS_ID}
+	 * @param type class to register
+	 */
+	public void registerClass(int id, Class<?> type) {
+		Assert.isTrue(id >= 0 && id <= MAX_CLASS_ID, "class id must be between 0 and " + MAX_CLASS_ID);
+		Assert.notNull(type, "a valid class is required");
+		Assert.isTrue(!type.isPrimitive() && !BUILTIN_IDS.containsKey(type), type.getName() + " is supported natively");
+
+		Class<?> existing = registeredClasses.putIfAbsent(id, type);
+		Assert.isTrue(existing == null || existing == type, "class id " + id + " already registered for " + existing);
+		classIds.put(type, id);
+	}
+
+	/**
+	 * Registers the given classes, keyed by their id. Useful for XML configurations.
+	 *
+	 * @param classes classes to register
+	 * @see #registerClass(int, Class)
+	 */
+	public void setRegisteredClasses(Map<Integer, Class<?>> classes) {
+		for (Map.Entry<Integer, Class<?>> entry : classes.entrySet()) {
+			registerClass(entry.getKey(), entry.getValue());
+		}
+	}
+
+	/**
+	 * Sets whether only registered (or natively supported) classes can be written and read. When enabled, class names
+	 * never appear in the payload and no fallback to Java serialization takes place. Default is true.
+	 * <p/>
+	 * Disable this only for data coming from trusted sources: payloads can then name any class on the classpath, which
+	 * gets loaded and instantiated on read.
+	 *
+	 * @param registrationRequired whether registration is required or not
+	 */
+	public void setRegistrationRequired(boolean registrationRequired) {
+		this.registrationRequired = registrationRequired;
+	}
+
+	public void setBeanClassLoader(ClassLoader classLoader) {
+		this.classLoader = classLoader;
+	}
+
+	public byte[] serialize(Object object) throws SerializationException {
+		if (object == null) {
+			return SerializationUtils.EMPTY_ARRAY;
+		}
+
+		Output out = new Output();
+		try {
+			writeValue(out, object);
+		} catch (SerializationException ex) {
+			throw ex;
+		} catch (Exception ex) {
+			throw new SerializationException("Cannot serialize", ex);
+		}
+		return out.toByteArray();
+	}
+
+	public Object deserialize(byte[] bytes) throws SerializationException {
+		if (SerializationUtils.isEmpty(bytes)) {
+			return null;
+		}
+
+		Input in = new Input(bytes);
+		Object value;
+		try {
+			value = readValue(in);
+		} catch (SerializationException ex) {
+			throw ex;
+		} catch (Exception ex) {
+			throw new SerializationException("Cannot deserialize", ex);
+		}
+		if (in.position != bytes.length) {
+			throw new SerializationException("Cannot deserialize; unexpected data after position " + in.position);
+		}
+		return value;
+	}
+
+	private void writeValue(Output out, Object value) throws Exception {
+		if (value == null) {
+			out.writeByte(NULL);
+			return;
+		}
+
+		Class<?> type = value.getClass();
+
+		// immutable values - written in place
+		if (type == String.class) {
+			out.writeByte(STRING);
+			out.writeString((String) value);
+			return;
+		}
+		int kind = kindOf(type);
+		if (kind != REFERENCE_KIND) {
+			if (kind == TRUE) {
+				out.writeByte(((Boolean) value).booleanValue() ? TRUE : FALSE);
+			} else {
+				out.writeByte(kind);
+				writePrimitive(out, kind, value);
+			}
+			return;
+		}
+		if (type == byte[].class) {
+			byte[] bytes = (byte[]) value;
+			out.writeByte(BYTES);
+			out.writeVarInt(bytes.length);
+			out.writeBytes(bytes);
+			return;
+		}
+		if (type == Date.class) {
+			out.writeByte(DATE);
+			out.writeVarLong(zigZag(((Date) value).getTime()));
+			return;
+		}
+		if (type == BigInteger.class) {
+			out.writeByte(BIG_INTEGER);
+			byte[] bytes = ((BigInteger) value).toByteArray();
+			out.writeVarInt(bytes.length);
+			out.writeBytes(bytes);
+			return;
+		}
+		if (type == BigDecimal.class) {
+			BigDecimal decimal = (BigDecimal) value;
+			out.writeByte(BIG_DECIMAL);
+			out.writeVarInt(zigZag(decimal.scale()));
+			byte[] bytes = decimal.unscaledValue().toByteArray();
+			out.writeVarInt(bytes.length);
+			out.writeBytes(bytes);
+			return;
+		}
+		if (type == UUID.class) {
+			UUID uuid = (UUID) value;
+			out.writeByte(UUID_VALUE);
+			out.writeLong(uuid.getMostSignificantBits());
+			out.writeLong(uuid.getLeastSignificantBits());
+			return;
+		}
+		if (value instanceof Enum) {
+			out.writeByte(ENUM);
+			writeClass(out, ((Enum<?>) value).getDeclaringClass());
+			out.writeString(((Enum<?>) value).name());
+			return;
+		}
+
+		// (potentially) shared references
+		int handle = out.handleOf(value);
+		if (handle >= 0) {
+			out.writeByte(REFERENCE);
+			out.writeVarInt(handle);
+			return;
+		}
+
+		if (type.isArray()) {
+			writeArray(out, value);
+		} else if (isNativeContainer(type, value)) {
+			writeContainer(out, value);
+		} else {
+			ClassDescriptor descriptor = describe(type);
+			if (descriptor.fields != null) {
+				writeObject(out, value, descriptor);
+			} else {
+				writeJava(out, value);
+			}
+		}
+	}
+
+	private void writeArray(Output out, Object array) throws Exception {
+		Class<?> componentType = array.getClass().getComponentType();
+		out.writeByte(ARRAY);
+		writeClass(out, componentType);
+		out.addHandle(array);
+
+		int length = Array.getLength(array);
+		out.writeVarInt(length);
+
+		int kind = kindOf(componentType);
+		if (kind == REFERENCE_KIND || !componentType.isPrimitive()) {
+			for (int i = 0; i < length; i++) {
+				writeValue(out, Array.get(array, i));
+			}
+		} else {
+			for (int i = 0; i < length; i++) {
+				writePrimitive(out, kind, Array.get(array, i));
+			}
+		}
+	}
+
+	private void writeContainer(Output out, Object container) throws Exception {
+		boolean map = (container instanceof Map);
+		out.writeByte(map ? MAP : COLLECTION);
+		writeClass(out, container.getClass());
+		out.addHandle(container);
+
+		if (map) {
+			Map<?, ?> entries = (Map<?, ?>) container;
+			out.writeVarInt(entries.size());
+			for (Map.Entry<?, ?> entry : entries.entrySet()) {
+				writeValue(out, entry.getKey());
+				writeValue(out, entry.getValue());
+			}
+		} else {
+			Collection<?> elements = (Collection<?>) container;
+			out.writeVarInt(elements.size());
+			for (Object element : elements) {
+				writeValue(out, element);
+			}
+		}
+	}
+
+	private void writeObject(Output out, Object object, ClassDescriptor descriptor) throws Exception {
+		out.writeByte(OBJECT);
+		writeClass(out, descriptor.type);
+		out.addHandle(object);
+
+		Field[] fields = descriptor.fields;
+		int[] kinds = descriptor.kinds;
+		for (int i = 0; i < fields.length; i++) {
+			Object value = fields[i].get(object);
+			if (kinds[i] == REFERENCE_KIND) {
+				writeValue(out, value);
+			} else {
+				writePrimitive(out, kinds[i], value);
+			}
+		}
+	}
+
+	private void writeJava(Output out, Object object) throws Exception {
+		if (registrationRequired || !(object instanceof Serializable)) {
+			throw new SerializationException("Cannot serialize " + object.getClass().getName()
+					+ "; type is neither supported nor " + (registrationRequired ? "registered" : "Serializable"));
+		}
+
+		out.writeByte(JAVA);
+		out.addHandle(object);
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+		ObjectOutputStream stream = new ObjectOutputStream(bytes);
+		stream.writeObject(object);
+		stream.flush();
+		out.writeVarInt(bytes.size());
+		out.writeBytes(bytes.toByteArray());
+	}
+
+	private void writePrimitive(Output out, int kind, Object value) {
+		switch (kind) {
+			case TRUE:
+				out.writeByte(((Boolean) value).booleanValue() ? 1 : 0);
+				break;
+			case BYTE:
+				out.writeByte(((Byte) value).byteValue());
+				break;
+			case SHORT:
+				out.writeVarInt(zigZag(((Short) value).shortValue()));
+				break;
+			case INT:
+				out.writeVarInt(zigZag(((Integer) value).intValue()));
+				break;
+			case LONG:
+				out.writeVarLong(zigZag(((Long) value).longValue()));
+				break;
+			case FLOAT:
+				out.writeInt(Float.floatToIntBits(((Float) value).floatValue()));
+				break;
+			case DOUBLE:
+				out.writeLong(Double.doubleToLongBits(((Double) value).doubleValue()));
+				break;
+			case CHAR:
+				out.writeVarInt(((Character) value).charValue());
+				break;
+			default:
+				throw new IllegalStateException("Unknown primitive kind " + kind);
+		}
+	}
+
+	private void writeClass(Output out, Class<?> type) {
+		Integer id = BUILTIN_IDS.get(type);
+		if (id != null) {
+			out.writeVarInt((id << 2) | CLASS_BUILTIN);
+			return;
+		}
+		id = classIds.get(type);
+		if (id != null) {
+			out.writeVarInt((id << 2) | CLASS_REGISTERED);
+			return;
+		}
+		if (registrationRequired) {
+			throw new SerializationException("Cannot serialize; class " + type.getName() + " is not registered");
+		}
+
+		int index = out.classIndexOf(type);
+		if (index >= 0) {
+			out.writeVarInt((index << 2) | CLASS_LOCAL);
+		} else {
+			out.addClass(type);
+			out.writeVarInt(CLASS_INLINE);
+			out.writeString(type.getName());
+		}
+	}
+
+	private Object readValue(Input in) throws Exception {
+		int tag = in.readByte();
+		switch (tag) {
+			case NULL:
+				return null;
+			case TRUE:
+				return Boolean.TRUE;
+			case FALSE:
+				return Boolean.FALSE;
+			case BYTE:
+			case SHORT:
+			case INT:
+			case LONG:
+			case FLOAT:
+			case DOUBLE:
+			case CHAR:
+				return readPrimitive(in, tag);
+			case STRING:
+				return in.readString();
+			case BYTES:
+				return in.readBytes(in.readVarInt());
+			case DATE:
+				return new Date(unZigZag(in.readVarLong()));
+			case BIG_INTEGER:
+				return new BigInteger(in.readBytes(in.readVarInt()));
+			case BIG_DECIMAL: {
+				int scale = unZigZag(in.readVarInt());
+				return new BigDecimal(new BigInteger(in.readBytes(in.readVarInt())), scale);
+			}
+			case UUID_VALUE:
+				return new UUID(in.readLong(), in.readLong());
+			case ENUM:
+				return readEnum(in);
+			case ARRAY:
+				return readArray(in);
+			case COLLECTION:
+				return readCollection(in);
+			case MAP:
+				return readMap(in);
+			case OBJECT:
+				return readObject(in);
+			case REFERENCE:
+				return in.handle(in.readVarInt());
+			case JAVA:
+				return readJava(in);
+			default:
+				throw new SerializationException("Cannot deserialize; unknown type tag " + tag + " at position "
+						+ (in.position - 1));
+		}
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private Object readEnum(Input in) {
+		Class type = readClass(in);
+		return Enum.valueOf(type, in.readString());
+	}
+
+	private Object readArray(Input in) throws Exception {
+		Class<?> componentType = readClass(in);
+		int length = in.readLength();
+		Object array = Array.newInstance(componentType, length);
+		in.addHandle(array);
+
+		int kind = kindOf(componentType);
+		if (kind == REFERENCE_KIND || !componentType.isPrimitive()) {
+			Object[] elements = (Object[]) array;
+			for (int i = 0; i < length; i++) {
+				elements[i] = readValue(in);
+			}
+		} else {
+			for (int i = 0; i < length; i++) {
+				Array.set(array, i, readPrimitive(in, kind));
+			}
+		}
+		return array;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Object readCollection(Input in) throws Exception {
+		Class<?> type = readClass(in);
+		Collection<Object> collection = (Collection<Object>) newContainer(type);
+		in.addHandle(collection);
+
+		int size = in.readLength();
+		if (collection instanceof ArrayList) {
+			((ArrayList<?>) collection).ensureCapacity(size);
+		}
+		for (int i = 0; i < size; i++) {
+			collection.add(readValue(in));
+		}
+		return collection;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Object readMap(Input in) throws Exception {
+		Class<?> type = readClass(in);
+		Map<Object, Object> map = (Map<Object, Object>) newContainer(type);
+		in.addHandle(map);
+
+		int size = in.readLength();
+		for (int i = 0; i < size; i++) {
+			Object key = readValue(in);
+			map.put(key, readValue(in));
+		}
+		return map;
+	}
+
+	private Object readObject(Input in) throws Exception {
+		Class<?> type = readClass(in);
+		ClassDescriptor descriptor = describe(type);
+		if (descriptor.fields == null) {
+			throw new SerializationException("Cannot deserialize; " + type.getName() + " cannot be instantiated");
+		}
+
+		Object object = descriptor.constructor.newInstance();
+		in.addHandle(object);
+
+		Field[] fields = descriptor.fields;
+		int[] kinds = descriptor.kinds;
+		for (int i = 0; i < fields.length; i++) {
+			fields[i].set(object, kinds[i] == REFERENCE_KIND ? readValue(in) : readPrimitive(in, kinds[i]));
+		}
+		return object;
+	}
+
+	private Object readJava(Input in) throws Exception {
+		if (registrationRequired) {
+			throw new SerializationException("Cannot deserialize; Java serialized content is not allowed");
+		}
+
+		int handle = in.addHandle(null);
+		int length = in.readLength();
+		ObjectInputStream stream = new ConfigurableObjectInputStream(new ByteArrayInputStream(in.data, in.position,
+				length), classLoader);
+		Object object = stream.readObject();
+		in.position += length;
+		in.setHandle(handle, object);
+		return object;
+	}
+
+	private Object readPrimitive(Input in, int kind) {
+		switch (kind) {
+			case TRUE:
+				return Boolean.valueOf(in.readByte() != 0);
+			case BYTE:
+				return Byte.valueOf((byte) in.readByte());
+			case SHORT:
+				return Short.valueOf((short) unZigZag(in.readVarInt()));
+			case INT:
+				return Integer.valueOf(unZigZag(in.readVarInt()));
+			case LONG:
+				return Long.valueOf(unZigZag(in.readVarLong()));
+			case FLOAT:
+				return Float.valueOf(Float.intBitsToFloat(in.readInt()));
+			case DOUBLE:
+				return Double.valueOf(Double.longBitsToDouble(in.readLong()));
+			case CHAR:
+				return Character.valueOf((char) in.readVarInt());
+			default:
+				throw new IllegalStateException("Unknown primitive kind " + kind);
+		}
+	}
+
+	private Class<?> readClass(Input in) {
+		int ref = in.readVarInt();
+		int id = ref >>> 2;
+
+		switch (ref & 3) {
+			case CLASS_BUILTIN:
+				if (id >= BUILTIN_CLASSES.length) {
+					throw new SerializationException("Cannot deserialize; unknown built-in class id " + id);
+				}
+				return BUILTIN_CLASSES[id];
+			case CLASS_REGISTERED:
+				Class<?> registered = registeredClasses.get(id);
+				if (registered == null) {
+					throw new SerializationException("Cannot deserialize; no class registered for id " + id);
+				}
+				return registered;
+			case CLASS_LOCAL:
+				return in.classAt(id);
+			default:
+				if (registrationRequired) {
+					throw new SerializationException("Cannot deserialize; unregistered classes are not allowed");
+				}
+				Class<?> type = resolveClass(in.readString());
+				in.addClass(type);
+				return type;
+		}
+	}
+
+	private Class<?> resolveClass(String name) throws SerializationException {
+		Class<?> type = resolvedClasses.get(name);
+		if (type == null) {
+			try {
+				type = ClassUtils.forName(name, classLoader);
+			} catch (ClassNotFoundException ex) {
+				throw new SerializationException("Cannot deserialize; class " + name + " not found", ex);
+			}
+			resolvedClasses.put(name, type);
+		}
+		return type;
+	}
+
+	private Object newContainer(Class<?> type) throws Exception {
+		if (!isContainerType(type)) {
+			throw new SerializationException("Cannot deserialize; " + type.getName() + " is not a supported container");
+		}
+		if (type == ArrayList.class) {
+			return new ArrayList<Object>();
+		}
+		if (type == HashMap.class) {
+			return new HashMap<Object, Object>();
+		}
+		if (type == LinkedHashMap.class) {
+			return new LinkedHashMap<Object, Object>();
+		}
+		return type.newInstance();
+	}
+
+	private static boolean isContainerType(Class<?> type) {
+		return (BUILTIN_IDS.containsKey(type) && (Collection.class.isAssignableFrom(type) || Map.class
+				.isAssignableFrom(type)));
+	}
+
+	private static boolean isNativeContainer(Class<?> type, Object container) {
+		if (!isContainerType(type)) {
+			return false;
+		}
+		// a comparator would be lost
+		Comparator<?> comparator = null;
+		if (container instanceof SortedSet) {
+			comparator = ((SortedSet<?>) container).comparator();
+		} else if (container instanceof SortedMap) {
+			comparator = ((SortedMap<?, ?>) container).comparator();
+		}
+		return comparator == null;
+	}
+
+	private static int kindOf(Class<?> type) {
+		if (type == Integer.class || type == int.class) {
+			return INT;
+		}
+		if (type == Long.class || type == long.class) {
+			return LONG;
+		}
+		if (type == Double.class || type == double.class) {
+			return DOUBLE;
+		}
+		if (type == Boolean.class || type == boolean.class) {
+			return TRUE;
+		}
+		if (type == Float.class || type == float.class) {
+			return FLOAT;
+		}
+		if (type == Short.class || type == short.class) {
+			return SHORT;
+		}
+		if (type == Byte.class || type == byte.class) {
+			return BYTE;
+		}
+		if (type == Character.class || type == char.class) {
+			return CHAR;
+		}
+		return REFERENCE_KIND;
+	}
+
+	private ClassDescriptor describe(Class<?> type) {
+		ClassDescriptor descriptor = descriptors.get(type);
+		if (descriptor == null) {
+			descriptor = new ClassDescriptor(type);
+			descriptors.putIfAbsent(type, descriptor);
+		}
+		return descriptor;
+	}
+
+	private static int zigZag(int value) {
+		return (value << 1) ^ (value >> 31);
+	}
+
+	private static long zigZag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	private static int unZigZag(int value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	private static long unZigZag(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	/**
+	 * Field layout of a class written field by field. Classes that cannot be handled this way (no default constructor,
+	 * custom serialization, JDK classes) have no fields.
+	 */
+	private static class ClassDescriptor {
+
+		private final Class<?> type;
+		private final Constructor<?> constructor;
+		// null if the class cannot be written field by field
+		private final Field[] fields;
+		private final int[] kinds;
+
+		ClassDescriptor(Class<?> type) {
+			this.type = type;
+
+			Constructor<?> ctor = (isFieldSerializable(type) ? defaultConstructor(type) : null);
+			if (ctor == null) {
+				this.constructor = null;
+				this.fields = null;
+				this.kinds = null;
+				return;
+			}
+
+			// superclass fields first
+			List<Class<?>> hierarchy = new ArrayList<Class<?>>();
+			for (Class<?> current = type; current != Object.class; current = current.getSuperclass()) {
+				hierarchy.add(current);
+			}
+			Collections.reverse(hierarchy);
+
+			List<Field> fieldList = new ArrayList<Field>();
+			for (Class<?> current : hierarchy) {
+				for (Field field : current.getDeclaredFields()) {
+					int modifiers = field.getModifiers();
+					if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers) && !field.isSynthetic()) {
+						ReflectionUtils.makeAccessible(field);
+						fieldList.add(field);
+					}
+				}
+			}
+
+			this.constructor = ctor;
+			this.fields = fieldList.toArray(new Field[fieldList.size()]);
+			this.kinds = new int[fields.length];
+			for (int i = 0; i < fields.length; i++) {
+				Class<?> fieldType = fields[i].getType();
+				kinds[i] = (fieldType.isPrimitive() ? kindOf(fieldType) : REFERENCE_KIND);
+			}
+		}
+
+		private static boolean isFieldSerializable(Class<?> type) {
+			if (type.isInterface() || Modifier.isAbstract(type.getModifiers()) || Externalizable.class.isAssignableFrom(type)) {
+				return false;
+			}
+			for (Class<?> current = type; current != Object.class; current = current.getSuperclass()) {
+				String name = current.getName();
+				if (name.startsWith("java.") || name.startsWith("javax.") || hasSerializationMethods(current)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private static boolean hasSerializationMethods(Class<?> type) {
+			return declares(type, "writeObject", ObjectOutputStream.class)
+					|| declares(type, "readObject", ObjectInputStream.class) || declares(type, "writeReplace")
+					|| declares(type, "readResolve");
+		}
+
+		private static boolean declares(Class<?> type, String name, Class<?>... parameterTypes) {
+			try {
+				type.getDeclaredMethod(name, parameterTypes);
+				return true;
+			} catch (NoSuchMethodException ex) {
+				return false;
+			}
+		}
+
+		private static Constructor<?> defaultConstructor(Class<?> type) {
+			try {
+				Constructor<?> ctor = type.getDeclaredConstructor();
+				ReflectionUtils.makeAccessible(ctor);
+				return ctor;
+			} catch (NoSuchMethodException ex) {
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Growable output buffer, keeping track of the objects and classes already written.
+	 */
+	private static class Output {
+
+		private byte[] buffer = new byte[64];
+		private int count = 0;
+
+		// created on demand
+		private Map<Object, Integer> handles;
+		private Map<Class<?>, Integer> classes;
+
+		int handleOf(Object object) {
+			if (handles == null) {
+				return -1;
+			}
+			Integer handle = handles.get(object);
+			return (handle != null ? handle.intValue() : -1);
+		}
+
+		void addHandle(Object object) {
+			if (handles == null) {
+				handles = new IdentityHashMap<Object, Integer>();
+			}
+			handles.put(object, handles.size());
+		}
+
+		int classIndexOf(Class<?> type) {
+			if (classes == null) {
+				return -1;
+			}
+			Integer index = classes.get(type);
+			return (index != null ? index.intValue() : -1);
+		}
+
+		void addClass(Class<?> type) {
+			if (classes == null) {
+				classes = new HashMap<Class<?>, Integer>();
+			}
+			classes.put(type, classes.size());
+		}
+
+		private void ensureCapacity(int extra) {
+			if (count + extra > buffer.length) {
+				byte[] larger = new byte[Math.max(buffer.length << 1, count + extra)];
+				System.arraycopy(buffer, 0, larger, 0, count);
+				buffer = larger;
+			}
+		}
+
+		void writeByte(int value) {
+			ensureCapacity(1);
+			buffer[count++] = (byte) value;
+		}
+
+		void writeBytes(byte[] bytes) {
+			ensureCapacity(bytes.length);
+			System.arraycopy(bytes, 0, buffer, count, bytes.length);
+			count += bytes.length;
+		}
+
+		void writeVarInt(int value) {
+			ensureCapacity(5);
+			while ((value & ~0x7F) != 0) {
+				buffer[count++] = (byte) ((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			buffer[count++] = (byte) value;
+		}
+
+		void writeVarLong(long value) {
+			ensureCapacity(10);
+			while ((value & ~0x7FL) != 0) {
+				buffer[count++] = (byte) ((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			buffer[count++] = (byte) value;
+		}
+
+		void writeInt(int value) {
+			ensureCapacity(4);
+			buffer[count++] = (byte) (value >>> 24);
+			buffer[count++] = (byte) (value >>> 16);
+			buffer[count++] = (byte) (value >>> 8);
+			buffer[count++] = (byte) value;
+		}
+
+		void writeLong(long value) {
+			writeInt((int) (value >>> 32));
+			writeInt((int) value);
+		}
+
+		/**
+		 * Writes the number of chars followed by the chars themselves, each one encoded on 1 to 3 bytes (as in UTF-8,
+		 * surrogates being encoded individually).
+		 */
+		void writeString(String value) {
+			int length = value.length();
+			writeVarInt(length);
+			ensureCapacity(length * 3);
+
+			byte[] buf = buffer;
+			int pos = count;
+			for (int i = 0; i < length; i++) {
+				char c = value.charAt(i);
+				if (c < 0x80) {
+					buf[pos++] = (byte) c;
+				} else if (c < 0x800) {
+					buf[pos++] = (byte) (0xC0 | (c >> 6));
+					buf[pos++] = (byte) (0x80 | (c & 0x3F));
+				} else {
+					buf[pos++] = (byte) (0xE0 | (c >> 12));
+					buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+					buf[pos++] = (byte) (0x80 | (c & 0x3F));
+				}
+			}
+			count = pos;
+		}
+
+		byte[] toByteArray() {
+			byte[] result = new byte[count];
+			System.arraycopy(buffer, 0, result, 0, count);
+			return result;
+		}
+	}
+
+	/**
+	 * Input cursor, keeping track of the objects and classes already read.
+	 */
+	private static class Input {
+
+		private final byte[] data;
+		private int position = 0;
+
+		// created on demand
+		private List<Object> handles;
+		private List<Class<?>> classes;
+
+		Input(byte[] data) {
+			this.data = data;
+		}
+
+		int addHandle(Object object) {
+			if (handles == null) {
+				handles = new ArrayList<Object>();
+			}
+			handles.add(object);
+			return handles.size() - 1;
+		}
+
+		void setHandle(int handle, Object object) {
+			handles.set(handle, object);
+		}
+
+		Object handle(int handle) {
+			if (handles == null || handle >= handles.size()) {
+				throw new SerializationException("Cannot deserialize; unknown reference " + handle);
+			}
+			return handles.get(handle);
+		}
+
+		void addClass(Class<?> type) {
+			if (classes == null) {
+				classes = new ArrayList<Class<?>>();
+			}
+			classes.add(type);
+		}
+
+		Class<?> classAt(int index) {
+			if (classes == null || index >= classes.size()) {
+				throw new SerializationException("Cannot deserialize; unknown class reference " + index);
+			}
+			return classes.get(index);
+		}
+
+		int readByte() {
+			return data[position++];
+		}
+
+		byte[] readBytes(int length) {
+			if (length < 0 || position + length > data.length) {
+				throw new SerializationException("Cannot deserialize; invalid length " + length);
+			}
+			byte[] bytes = new byte[length];
+			System.arraycopy(data, position, bytes, 0, length);
+			position += length;
+			return bytes;
+		}
+
+		/**
+		 * Reads a length (or element count) that cannot exceed the remaining input since every byte or element takes at
+		 * least one byte. Checked before allocating anything so that corrupt data cannot exhaust the heap.
+		 */
+		int readLength() {
+			int length = readVarInt();
+			if (length < 0 || length > data.length - position) {
+				throw new SerializationException("Cannot deserialize; invalid length " + length + " at position " + position);
+			}
+			return length;
+		}
+
+		int readVarInt() {
+			int value = 0;
+			for (int shift = 0; shift < 32; shift += 7) {
+				int b = data[position++];
+				value |= (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					return value;
+				}
+			}
+			throw new SerializationException("Cannot deserialize; malformed variable length int");
+		}
+
+		long readVarLong() {
+			long value = 0;
+			for (int shift = 0; shift < 64; shift += 7) {
+				int b = data[position++];
+				value |= (long) (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					return value;
+				}
+			}
+			throw new SerializationException("Cannot deserialize; malformed variable length long");
+		}
+
+		int readInt() {
+			return ((data[position++] & 0xFF) << 24) | ((data[position++] & 0xFF) << 16) | ((data[position++] & 0xFF) << 8)
+					| (data[position++] & 0xFF);
+		}
+
+		long readLong() {
+			return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+		}
+
+		String readString() {
+			int length = readVarInt();
+			if (length < 0 || length > data.length - position) {
+				throw new SerializationException("Cannot deserialize; invalid string length " + length);
+			}
+
+			char[] chars = new char[length];
+			byte[] buf = data;
+			int pos = position;
+			for (int i = 0; i < length; i++) {
+				int b = buf[pos++];
+				if (b >= 0) {
+					chars[i] = (char) b;
+				} else if ((b & 0xE0) == 0xC0) {
+					chars[i] = (char) (((b & 0x1F) << 6) | (buf[pos++] & 0x3F));
+				} else {
+					chars[i] = (char) (((b & 0x0F) << 12) | ((buf[pos++] & 0x3F) << 6) | (buf[pos++] & 0x3F));
+				}
+			}
+			position = pos;
+			return new String(chars);
+		}
+	}
+}
@@ -0,0 +1,366 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.serializer;
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * {@link RedisSerializer} decorator compressing the payloads produced by another serializer once they exceed a given
+ * size.
+ * <p/>
+ * Compressed payloads start with a header byte (<code>0x00</code>) followed by the id of the compression algorithm and
+ * the uncompressed length. Payloads below the threshold are stored as produced by the delegate, so values written
+ * before compression was turned on (or with a different threshold) are still readable, unless they start with the
+ * header byte themselves: such legacy values cannot be told apart from compressed ones and fail to deserialize.
+ * Uncompressed payloads written by this serializer that start with the header byte are escaped.
+ * <p/>
+ * The uncompressed length read from the header is checked against the maximum ratio of the algorithm and a
+ * configurable limit before any buffer is allocated, so corrupted values fail with a {@link SerializationException}.
+ * <p/>
+ * Both {@link Compression#DEFLATE} (JDK) and {@link Compression#LZ4} (requires the <code>lz4</code> library) are
+ * supported; payloads are decompressed according to the algorithm they were written with, regardless of the configured
+ * one. Compression buffers are kept per thread to avoid allocating them for each call.
+ *
+ * @since 1.2
+ */
+public class CompressingRedisSerializer<T> implements RedisSerializer<T> {
+
+	/**
+	 * Compression algorithms.
+	 */
+	public enum Compression {
+
+		/**
+		 * JDK deflate (raw, without zlib header), favouring speed over ratio.
+		 */
+		DEFLATE,
+
+		/**
+		 * LZ4 fast compression. Requires <code>net.jpountz.lz4:lz4</code> on the classpath.
+		 */
+		LZ4
+	}
+
+	/**
+	 * Default threshold (in bytes) above which payloads are compressed.
+	 */
+	public static final int DEFAULT_THRESHOLD = 1024;
+
+	/**
+	 * Default maximum uncompressed length (in bytes), the largest value Redis can store.
+	 */
+	public static final int DEFAULT_MAX_UNCOMPRESSED_LENGTH = 512 * 1024 * 1024;
+
+	static final byte HEADER = 0x00;
+
+	// algorithm ids, as written after the header
+	private static final byte NONE_ID = 0;
+	private static final byte DEFLATE_ID = 1;
+	private static final byte LZ4_ID = 2;
+
+	// header, algorithm id and (at most) 5 bytes of uncompressed length
+	private static final int MAX_HEADER_LENGTH = 7;
+
+	// highest expansion the algorithms can produce per compressed byte
+	private static final int DEFLATE_MAX_RATIO = 1032;
+	private static final int LZ4_MAX_RATIO = 255;
+
+	// buffers larger than this are not kept around
+	private static final int MAX_CACHED_BUFFER_SIZE = 1024 * 1024;
+
+	private static final boolean lz4Present = ClassUtils.isPresent("net.jpountz.lz4.LZ4Factory",
+			CompressingRedisSerializer.class.getClassLoader());
+
+	private static final ThreadLocal<byte[]> buffers = new ThreadLocal<byte[]>();
+
+	private final RedisSerializer<T> delegate;
+
+	private volatile Compression compression = Compression.DEFLATE;
+
+	private int threshold = DEFAULT_THRESHOLD;
+
+	private int maxUncompressedLength = DEFAULT_MAX_UNCOMPRESSED_LENGTH;
+
+	/**
+	 * Constructs a new <code>CompressingRedisSerializer</code> instance using {@link Compression#DEFLATE}.
+	 *
+	 * @param delegate serializer producing the payloads to compress
+	 */
+	public CompressingRedisSerializer(RedisSerializer<T> delegate) {
+		this(delegate, Compression.DEFLATE);
+	}
+
+	/**
+	 * Constructs a new <code>CompressingRedisSerializer</code> instance.
+	 *
+	 * @param delegate serializer producing the payloads to compress
+	 * @param compression compression algorithm
+	 */
+	public CompressingRedisSerializer(RedisSerializer<T> delegate, Compression compression) {
+		Assert.notNull(delegate, "a valid serializer is required");
+		this.delegate = delegate;
+		setCompression(compression);
+	}
+
+	/**
+	 * Sets the compression algorithm used for writing. Default is {@link Compression#DEFLATE}.
+	 *
+	 * @param compression The compression to set.
+	 */
+	public void setCompression(Compression compression) {
+		Assert.notNull(compression, "a valid compression algorithm is required");
+		Assert.isTrue(compression != Compression.LZ4 || lz4Present, "LZ4 compression requires lz4 on the classpath");
+		this.compression = compression;
+	}
+
+	/**
+	 * Sets the size (in bytes) from which payloads are compressed. Default is {@value #DEFAULT_THRESHOLD}.
+	 *
+	 * @param threshold The threshold to set.
+	 */
+	public void setThreshold(int threshold) {
+		Assert.isTrue(threshold >= 0, "the threshold cannot be negative");
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Sets the maximum length (in bytes) of decompressed payloads; larger values are rejected without being
+	 * decompressed. Default is {@value #DEFAULT_MAX_UNCOMPRESSED_LENGTH}.
+	 *
+	 * @param maxUncompressedLength The maxUncompressedLength to set.
+	 */
+	public void setMaxUncompressedLength(int maxUncompressedLength) {
+		Assert.isTrue(maxUncompressedLength > 0, "the maximum length must be positive");
+		this.maxUncompressedLength = maxUncompressedLength;
+	}
+
+	public byte[] serialize(T t) throws SerializationException {
+		byte[] raw = delegate.serialize(t);
+		if (SerializationUtils.isEmpty(raw)) {
+			return raw;
+		}
+
+		if (raw.length >= threshold) {
+			byte[] compressed = compress(raw);
+			if (compressed != null) {
+				return compressed;
+			}
+		}
+
+		if (raw[0] != HEADER) {
+			return raw;
+		}
+
+		// escape payloads that would be mistaken for compressed ones
+		byte[] escaped = new byte[raw.length + 2];
+		escaped[0] = HEADER;
+		escaped[1] = NONE_ID;
+		System.arraycopy(raw, 0, escaped, 2, raw.length);
+		return escaped;
+	}
+
+	public T deserialize(byte[] bytes) throws SerializationException {
+		if (SerializationUtils.isEmpty(bytes) || bytes[0] != HEADER) {
+			return delegate.deserialize(bytes);
+		}
+		if (bytes.length < 2) {
+			throw new SerializationException("Cannot deserialize; truncated compression header");
+		}
+
+		byte id = bytes[1];
+		if (id == NONE_ID) {
+			byte[] raw = new byte[bytes.length - 2];
+			System.arraycopy(bytes, 2, raw, 0, raw.length);
+			return delegate.deserialize(raw);
+		}
+
+		// uncompressed length
+		int length = 0;
+		int position = 2;
+		for (int shift = 0;; shift += 7) {
+			if (position >= bytes.length || shift > 28) {
+				throw new SerializationException("Cannot deserialize; malformed compression header");
+			}
+			int b = bytes[position++];
+			length |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				break;
+			}
+		}
+
+		if (id != DEFLATE_ID && id != LZ4_ID) {
+			throw new SerializationException("Cannot deserialize; unknown compression algorithm " + id);
+		}
+		long maxLength = (long) (bytes.length - position) * (id == DEFLATE_ID ? DEFLATE_MAX_RATIO : LZ4_MAX_RATIO);
+		if (length < 0 || length > maxLength || length > maxUncompressedLength) {
+			throw new SerializationException("Cannot deserialize; invalid uncompressed length " + length);
+		}
+
+		byte[] raw;
+		if (id == DEFLATE_ID) {
+			raw = DeflateCodec.decompress(bytes, position, length);
+		} else {
+			if (!lz4Present) {
+				throw new SerializationException("Cannot deserialize; LZ4 compressed payload but lz4 is not available");
+			}
+			raw = Lz4Codec.decompress(bytes, position, length);
+		}
+		return delegate.deserialize(raw);
+	}
+
+	/**
+	 * Compresses the given payload into a per-thread buffer.
+	 *
+	 * @return the compressed payload (including header) or null if compression does not pay off
+	 */
+	private byte[] compress(byte[] raw) {
+		boolean lz4 = (compression == Compression.LZ4);
+		int bound = MAX_HEADER_LENGTH + (lz4 ? Lz4Codec.maxCompressedLength(raw.length) : raw.length);
+		byte[] buffer = buffer(bound);
+
+		buffer[0] = HEADER;
+		buffer[1] = (lz4 ? LZ4_ID : DEFLATE_ID);
+		int offset = 2;
+		int value = raw.length;
+		while ((value & ~0x7F) != 0) {
+			buffer[offset++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		buffer[offset++] = (byte) value;
+
+		// deflate gives up (-1) once the output would not be smaller than the input
+		int length = (lz4 ? Lz4Codec.compress(raw, buffer, offset) : DeflateCodec.compress(raw, buffer, offset));
+		if (length < 0 || offset + length >= raw.length) {
+			return null;
+		}
+
+		byte[] result = new byte[offset + length];
+		System.arraycopy(buffer, 0, result, 0, result.length);
+		return result;
+	}
+
+	private static byte[] buffer(int size) {
+		if (size > MAX_CACHED_BUFFER_SIZE) {
+			return new byte[size];
+		}
+		byte[] buffer = buffers.get();
+		if (buffer == null || buffer.length < size) {
+			buffer = new byte[Math.max(size, 1024)];
+			buffers.set(buffer);
+		}
+		return buffer;
+	}
+
+	/**
+	 * Deflate support, reusing a deflater/inflater per thread.
+	 */
+	private static class DeflateCodec {
+
+		private static final ThreadLocal<Deflater> deflaters = new ThreadLocal<Deflater>() {
+			@Override
+			protected Deflater initialValue() {
+				return new Deflater(Deflater.BEST_SPEED, true);
+			}
+		};
+
+		private static final ThreadLocal<Inflater> inflaters = new ThreadLocal<Inflater>() {
+			@Override
+			protected Inflater initialValue() {
+				return new Inflater(true);
+			}
+		};
+
+		static int compress(byte[] raw, byte[] buffer, int offset) {
+			Deflater deflater = deflaters.get();
+			try {
+				deflater.setInput(raw);
+				deflater.finish();
+				int length = deflater.deflate(buffer, offset, buffer.length - offset);
+				return (deflater.finished() ? length : -1);
+			} finally {
+				deflater.reset();
+			}
+		}
+
+		static byte[] decompress(byte[] bytes, int offset, int length) {
+			Inflater inflater = inflaters.get();
+			byte[] raw;
+			try {
+				raw = new byte[length];
+				inflater.setInput(bytes, offset, bytes.length - offset);
+				int read = 0;
+				while (read < length && !inflater.finished()) {
+					int count = inflater.inflate(raw, read, length - read);
+					if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+						break;
+					}
+					read += count;
+				}
+				if (read != length) {
+					throw new SerializationException("Cannot deserialize; truncated compressed payload");
+				}
+			} catch (DataFormatException ex) {
+				throw new SerializationException("Cannot deserialize; invalid compressed payload", ex);
+			} finally {
+				inflater.reset();
+			}
+			return raw;
+		}
+	}
+
+	/**
+	 * LZ4 support. Kept in a separate class so the library is only loaded when used.
+	 */
+	private static class Lz4Codec {
+
+		private static final LZ4Compressor compressor = LZ4Factory.fastestInstance().fastCompressor();
+		private static final LZ4FastDecompressor decompressor = LZ4Factory.fastestInstance().fastDecompressor();
+
+		static int maxCompressedLength(int length) {
+			return compressor.maxCompressedLength(length);
+		}
+
+		static int compress(byte[] raw, byte[] buffer, int offset) {
+			return compressor.compress(raw, 0, raw.length, buffer, offset, buffer.length - offset);
+		}
+
+		static byte[] decompress(byte[] bytes, int offset, int length) {
+			byte[] raw;
+			try {
+				raw = new byte[length];
+				int read = decompressor.decompress(bytes, offset, raw, 0, length);
+				if (offset + read != bytes.length) {
+					throw new SerializationException("Cannot deserialize; invalid compressed payload");
+				}
+			} catch (RuntimeException ex) {
+				if (ex instanceof SerializationException) {
+					throw ex;
+				}
+				throw new SerializationException("Cannot deserialize; invalid compressed payload", ex);
+			}
+			return raw;
+		}
+	}
+}
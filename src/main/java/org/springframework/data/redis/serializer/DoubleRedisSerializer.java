@@ -0,0 +1,116 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.serializer;
+
+/**
+ * {@link Double} serializer writing and parsing the decimal (ASCII) representation directly. Integral values are
+ * written without fraction, as Redis does, and the common short decimals are parsed without going through
+ * {@link String}s. Values can be manipulated through <code>INCRBYFLOAT</code>.
+ * 
+ * @see LongRedisSerializer
+ * @since 1.2
+ */
+public class DoubleRedisSerializer implements RedisSerializer<Double> {
+
+	// doubles represent integers exactly up to 2^53
+	private static final double MAX_EXACT_INTEGER = 9007199254740992d;
+
+	// significant digits and powers of ten that are exact as doubles
+	private static final int MAX_FAST_DIGITS = 15;
+	private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12,
+			1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	public byte[] serialize(Double value) {
+		if (value == null) {
+			return null;
+		}
+
+		double d = value.doubleValue();
+		if (d == Math.rint(d) && Math.abs(d) < MAX_EXACT_INTEGER && !isNegativeZero(d)) {
+			return LongRedisSerializer.toBytes((long) d);
+		}
+
+		String string = Double.toString(d);
+		byte[] bytes = new byte[string.length()];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = (byte) string.charAt(i);
+		}
+		return bytes;
+	}
+
+	public Double deserialize(byte[] bytes) {
+		if (SerializationUtils.isEmpty(bytes)) {
+			return null;
+		}
+
+		int length = bytes.length;
+		int index = 0;
+		boolean negative = false;
+		if (bytes[0] == '-') {
+			negative = true;
+			index++;
+		} else if (bytes[0] == '+') {
+			index++;
+		}
+
+		long mantissa = 0;
+		int significantDigits = 0;
+		int scale = 0;
+		boolean fraction = false;
+		boolean digits = false;
+
+		for (; index < length; index++) {
+			int b = bytes[index];
+			if (b >= '0' && b <= '9') {
+				digits = true;
+				if (mantissa != 0 || b != '0') {
+					if (++significantDigits > MAX_FAST_DIGITS) {
+						return parseSlow(bytes);
+					}
+				}
+				mantissa = mantissa * 10 + (b - '0');
+				if (fraction) {
+					scale++;
+				}
+			} else if (b == '.' && !fraction) {
+				fraction = true;
+			} else {
+				// exponent, special values or garbage
+				return parseSlow(bytes);
+			}
+		}
+
+		if (!digits || scale >= POWERS_OF_TEN.length) {
+			return parseSlow(bytes);
+		}
+
+		// both operands are exact, so the division is correctly rounded
+		double result = mantissa / POWERS_OF_TEN[scale];
+		return Double.valueOf(negative ? -result : result);
+	}
+
+	private static Double parseSlow(byte[] bytes) {
+		try {
+			return Double.valueOf(new String(bytes, LongRedisSerializer.ASCII));
+		} catch (NumberFormatException ex) {
+			throw LongRedisSerializer.invalid(bytes, ex);
+		}
+	}
+
+	private static boolean isNegativeZero(double d) {
+		return d == 0 && Double.doubleToRawLongBits(d) != 0;
+	}
+}
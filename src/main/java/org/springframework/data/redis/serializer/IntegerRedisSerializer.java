@@ -0,0 +1,35 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.serializer;
+
+/**
+ * {@link Integer} serializer writing and parsing the decimal (ASCII) representation directly, without going through
+ * {@link String}s. Values can be manipulated through <code>INCR</code>/<code>INCRBY</code>.
+ * 
+ * @see LongRedisSerializer
+ * @since 1.2
+ */
+public class IntegerRedisSerializer implements RedisSerializer<Integer> {
+
+	public byte[] serialize(Integer value) {
+		return (value == null ? null : LongRedisSerializer.toBytes(value.intValue()));
+	}
+
+	public Integer deserialize(byte[] bytes) {
+		return (SerializationUtils.isEmpty(bytes) ? null : Integer.valueOf((int) LongRedisSerializer.parse(bytes,
+				Integer.MIN_VALUE, Integer.MAX_VALUE)));
+	}
+}
@@ -15,12 +15,28 @@
  */
 package org.springframework.data.redis.serializer;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.codehaus.jackson.JsonEncoding;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
 import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.ObjectReader;
+import org.codehaus.jackson.map.ObjectWriter;
 import org.codehaus.jackson.map.type.TypeFactory;
 import org.codehaus.jackson.type.JavaType;
+import org.springframework.beans.factory.BeanClassLoaderAware;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 
-import java.nio.charset.Charset;
 
 /**
  * {@link RedisSerializer} that can read and write JSON using <a href="http://jackson.codehaus.org/">Jackson's</a>
@@ -28,11 +44,20 @@ import java.nio.charset.Charset;
  * <p>
  * This converter can be used to bind to typed beans, or untyped {@link java.util.HashMap HashMap} instances.
  * <b>Note:</b>Null objects are serialized as empty arrays and vice versa.
+ * <p>
+ * The {@link ObjectReader}/{@link ObjectWriter} for the target type are created once (and again whenever the
+ * {@link ObjectMapper} changes) and values are written into a buffer reused by the calling thread. Multi-value results
+ * are read with a single parser (see {@link BatchRedisSerializer}); a malformed value fails the whole batch.
+ * <p>
+ * With {@link #setTypeHinting(boolean) type hinting} enabled, each value is stored together with its class name (
+ * <code>["com.example.Person",{...}]</code>) so that subtypes of the target type are read back as such without
+ * configuring default typing on the {@link ObjectMapper}.
  * 
  * @author Costin Leau
  * @author Thomas Darimont
  */
-public class JacksonJsonRedisSerializer<T> implements RedisSerializer<T> {
+public class JacksonJsonRedisSerializer<T> implements BufferRedisSerializer<T>, BatchRedisSerializer<T>,
+		BeanClassLoaderAware {
 
 	public static final Charset DEFAULT_CHARSET = Charset.forName("UTF-8");
 
@@ -40,28 +65,109 @@ public class JacksonJsonRedisSerializer<T> implements RedisSerializer<T> {
 
 	private ObjectMapper objectMapper = new ObjectMapper();
 
+	private volatile ObjectReader reader;
+	private volatile ObjectWriter writer;
+
+	// readers and writers of the concrete types met when type hinting is enabled
+	private final ConcurrentMap<Class<?>, ObjectReader> typedReaders = new ConcurrentHashMap<Class<?>, ObjectReader>();
+	private final ConcurrentMap<Class<?>, ObjectWriter> typedWriters = new ConcurrentHashMap<Class<?>, ObjectWriter>();
+
+	private volatile boolean typeHinting = false;
+
+	private volatile ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+
 	public JacksonJsonRedisSerializer(Class<T> type) {
 		this.javaType = TypeFactory.defaultInstance().constructType(type);
+		initReaderAndWriter();
+	}
+
+	public void setBeanClassLoader(ClassLoader classLoader) {
+		this.classLoader = classLoader;
 	}
 
 	@SuppressWarnings("unchecked")
 	public T deserialize(byte[] bytes) throws SerializationException {
+
 		if (SerializationUtils.isEmpty(bytes)) {
 			return null;
 		}
 		try {
-			return (T) this.objectMapper.readValue(bytes, 0, bytes.length, javaType);
+			if (typeHinting) {
+				return readValue(objectMapper.getJsonFactory().createJsonParser(bytes));
+			}
+			return (T) reader.readValue(bytes, 0, bytes.length);
 		} catch (Exception ex) {
 			throw new SerializationException("Could not read JSON: " + ex.getMessage(), ex);
 		}
 	}
 
+	@SuppressWarnings("unchecked")
+	public T deserialize(ByteBuffer buffer) throws SerializationException {
+
+		if (!buffer.hasRemaining()) {
+			return null;
+		}
+		try {
+			if (typeHinting) {
+				return readValue(objectMapper.getJsonFactory().createJsonParser(SerializationUtils.asInputStream(buffer)));
+			}
+			if (buffer.hasArray()) {
+				return (T) reader.readValue(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+			}
+			return (T) reader.readValue(SerializationUtils.asInputStream(buffer));
+		} catch (Exception ex) {
+			throw new SerializationException("Could not read JSON: " + ex.getMessage(), ex);
+		}
+	}
+
+	public List<T> deserializeAll(Collection<byte[]> values) throws SerializationException {
+
+		List<T> result = new ArrayList<T>(values.size());
+		try {
+			// all values are read by the same parser, separated by whitespace
+			JsonParser parser = objectMapper.getJsonFactory().createJsonParser(
+					SerializationUtils.asInputStream(values, (byte) ' '));
+			try {
+				for (byte[] bytes : values) {
+					if (SerializationUtils.isEmpty(bytes)) {
+						result.add(null);
+					} else {
+						parser.nextToken();
+						result.add(readValue(parser));
+					}
+				}
+			} finally {
+				parser.close();
+			}
+		} catch (Exception ex) {
+			throw new SerializationException("Could not read JSON: " + ex.getMessage(), ex);
+		}
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
 	public byte[] serialize(Object t) throws SerializationException {
+
 		if (t == null) {
 			return SerializationUtils.EMPTY_ARRAY;
 		}
+		return SerializationUtils.serialize(this, (T) t);
+	}
+
+	public void serialize(T t, SerializationBuffer buffer) throws SerializationException {
+
 		try {
-			return this.objectMapper.writeValueAsBytes(t);
+			if (!typeHinting) {
+				writer.writeValue(buffer, t);
+				return;
+			}
+
+			JsonGenerator generator = objectMapper.getJsonFactory().createJsonGenerator(buffer, JsonEncoding.UTF8);
+			generator.writeStartArray();
+			generator.writeString(t.getClass().getName());
+			typedWriter(t.getClass()).writeValue(generator, t);
+			generator.writeEndArray();
+			generator.close();
 		} catch (Exception ex) {
 			throw new SerializationException("Could not write JSON: " + ex.getMessage(), ex);
 		}
@@ -76,10 +182,24 @@ public class JacksonJsonRedisSerializer<T> implements RedisSerializer<T> {
 	 * provides custom serializers for specific types. The other option for refining the serialization process is to use
 	 * Jackson's provided annotations on the types to be serialized, in which case a custom-configured ObjectMapper is
 	 * unnecessary.
+	 * <p>
+	 * The mapper should be fully configured before being set, as readers and writers are created from it right away.
 	 */
 	public void setObjectMapper(ObjectMapper objectMapper) {
+
 		Assert.notNull(objectMapper, "'objectMapper' must not be null");
 		this.objectMapper = objectMapper;
+		initReaderAndWriter();
+	}
+
+	/**
+	 * Sets whether values are stored along with their class name, allowing subtypes of the target type to be read back.
+	 * Values written with and without type hints cannot be mixed. Default is false.
+	 * 
+	 * @param typeHinting whether to embed type hints
+	 */
+	public void setTypeHinting(boolean typeHinting) {
+		this.typeHinting = typeHinting;
 	}
 
 	/**
@@ -104,4 +224,76 @@ public class JacksonJsonRedisSerializer<T> implements RedisSerializer<T> {
 	protected JavaType getJavaType(Class<?> clazz) {
 		return TypeFactory.defaultInstance().constructType(clazz);
 	}
+
+	private void initReaderAndWriter() {
+		this.reader = objectMapper.reader(javaType);
+		// the root serializer is only fixed upfront for final types, others are written according to their runtime type
+		this.writer = (javaType.isFinal() ? objectMapper.typedWriter(javaType) : objectMapper.writer());
+		typedReaders.clear();
+		typedWriters.clear();
+	}
+
+	/**
+	 * Reads a value starting at the current token of the given parser.
+	 */
+	@SuppressWarnings("unchecked")
+	private T readValue(JsonParser parser) throws IOException {
+
+		if (!typeHinting) {
+			return (T) reader.readValue(parser);
+		}
+
+		if (parser.getCurrentToken() == null) {
+			parser.nextToken();
+		}
+		if (parser.getCurrentToken() != JsonToken.START_ARRAY || parser.nextToken() != JsonToken.VALUE_STRING) {
+			throw new SerializationException("Cannot deserialize; missing type hint");
+		}
+		Class<?> type = resolveType(parser.getText());
+		parser.nextToken();
+		T value = (T) typedReader(type).readValue(parser);
+		if (parser.nextToken() != JsonToken.END_ARRAY) {
+			throw new SerializationException("Cannot deserialize; malformed type hint");
+		}
+		return value;
+	}
+
+	private Class<?> resolveType(String typeName) {
+
+		Class<?> type;
+		try {
+			// the type comes from the payload - do not initialize it before checking it
+			type = Class.forName(typeName, false, classLoader);
+		} catch (ClassNotFoundException ex) {
+			throw new SerializationException("Cannot deserialize; unknown type " + typeName, ex);
+		} catch (LinkageError ex) {
+			throw new SerializationException("Cannot deserialize; type " + typeName + " cannot be loaded", ex);
+		}
+		// only subtypes of the target type are accepted
+		if (!javaType.getRawClass().isAssignableFrom(type)) {
+			throw new SerializationException("Cannot deserialize; " + typeName + " is not assignable to "
+					+ javaType.getRawClass().getName());
+		}
+		return type;
+	}
+
+	private ObjectReader typedReader(Class<?> type) {
+
+		ObjectReader typedReader = typedReaders.get(type);
+		if (typedReader == null) {
+			typedReader = (type == javaType.getRawClass() ? reader : objectMapper.reader(type));
+			typedReaders.putIfAbsent(type, typedReader);
+		}
+		return typedReader;
+	}
+
+	private ObjectWriter typedWriter(Class<?> type) {
+
+		ObjectWriter typedWriter = typedWriters.get(type);
+		if (typedWriter == null) {
+			typedWriter = objectMapper.typedWriter(type);
+			typedWriters.putIfAbsent(type, typedWriter);
+		}
+		return typedWriter;
+	}
 }
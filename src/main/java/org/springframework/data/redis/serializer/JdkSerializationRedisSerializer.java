@@ -15,7 +15,11 @@
  */
 package org.springframework.data.redis.serializer;
 
+import java.nio.ByteBuffer;
+
 import org.springframework.core.convert.converter.Converter;
+import org.springframework.core.serializer.DefaultDeserializer;
+import org.springframework.core.serializer.DefaultSerializer;
 import org.springframework.core.serializer.support.DeserializingConverter;
 import org.springframework.core.serializer.support.SerializingConverter;
 
@@ -25,11 +29,14 @@ import org.springframework.core.serializer.support.SerializingConverter;
  * @author Mark Pollack
  * @author Costin Leau
  */
-public class JdkSerializationRedisSerializer implements RedisSerializer<Object> {
+public class JdkSerializationRedisSerializer implements BufferRedisSerializer<Object> {
 
 	private Converter<Object, byte[]> serializer = new SerializingConverter();
 	private Converter<byte[], Object> deserializer = new DeserializingConverter();
 
+	private final DefaultSerializer streamSerializer = new DefaultSerializer();
+	private final DefaultDeserializer streamDeserializer = new DefaultDeserializer();
+
 	public Object deserialize(byte[] bytes) {
 		if (SerializationUtils.isEmpty(bytes)) {
 			return null;
@@ -52,4 +59,24 @@ public class JdkSerializationRedisSerializer implements RedisSerializer<Object>
 			throw new SerializationException("Cannot serialize", ex);
 		}
 	}
+
+	public void serialize(Object object, SerializationBuffer buffer) {
+		try {
+			streamSerializer.serialize(object, buffer);
+		} catch (Exception ex) {
+			throw new SerializationException("Cannot serialize", ex);
+		}
+	}
+
+	public Object deserialize(ByteBuffer buffer) {
+		if (!buffer.hasRemaining()) {
+			return null;
+		}
+
+		try {
+			return streamDeserializer.deserialize(SerializationUtils.asInputStream(buffer));
+		} catch (Exception ex) {
+			throw new SerializationException("Cannot deserialize", ex);
+		}
+	}
 }
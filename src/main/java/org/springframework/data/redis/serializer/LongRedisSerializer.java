@@ -0,0 +1,124 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.serializer;
+
+import java.nio.charset.Charset;
+
+/**
+ * {@link Long} serializer writing and parsing the decimal (ASCII) representation directly, without going through
+ * {@link String}s. The format is the one Redis uses for integers, hence values can be manipulated through
+ * <code>INCR</code>/<code>INCRBY</code>.
+ * 
+ * @see IntegerRedisSerializer
+ * @see DoubleRedisSerializer
+ * @since 1.2
+ */
+public class LongRedisSerializer implements RedisSerializer<Long> {
+
+	static final Charset ASCII = Charset.forName("US-ASCII");
+
+	private static final byte[] MIN_VALUE = String.valueOf(Long.MIN_VALUE).getBytes(ASCII);
+
+	public byte[] serialize(Long value) {
+		return (value == null ? null : toBytes(value.longValue()));
+	}
+
+	public Long deserialize(byte[] bytes) {
+		return (SerializationUtils.isEmpty(bytes) ? null : Long.valueOf(parse(bytes, Long.MIN_VALUE, Long.MAX_VALUE)));
+	}
+
+	/**
+	 * Returns the decimal representation of the given value.
+	 */
+	static byte[] toBytes(long value) {
+		if (value == Long.MIN_VALUE) {
+			return MIN_VALUE.clone();
+		}
+
+		boolean negative = (value < 0);
+		long remaining = (negative ? -value : value);
+
+		int length = (negative ? 1 : 0) + digits(remaining);
+		byte[] bytes = new byte[length];
+		int position = length;
+		do {
+			bytes[--position] = (byte) ('0' + (remaining % 10));
+			remaining /= 10;
+		} while (remaining != 0);
+
+		if (negative) {
+			bytes[0] = '-';
+		}
+		return bytes;
+	}
+
+	private static int digits(long value) {
+		long bound = 10;
+		for (int digits = 1; digits < 19; digits++) {
+			if (value < bound) {
+				return digits;
+			}
+			bound *= 10;
+		}
+		return 19;
+	}
+
+	/**
+	 * Parses the given decimal representation, checking it is within the given bounds.
+	 */
+	static long parse(byte[] bytes, long min, long max) {
+		int length = bytes.length;
+		int index = 0;
+		boolean negative = false;
+
+		if (bytes[0] == '-') {
+			negative = true;
+			index++;
+		} else if (bytes[0] == '+') {
+			index++;
+		}
+		if (index == length) {
+			throw invalid(bytes, null);
+		}
+
+		// accumulate negatively to cover Long.MIN_VALUE
+		long limit = (negative ? Long.MIN_VALUE : -Long.MAX_VALUE);
+		long multiplyLimit = limit / 10;
+		long result = 0;
+		for (; index < length; index++) {
+			int digit = bytes[index] - '0';
+			if (digit < 0 || digit > 9 || result < multiplyLimit) {
+				throw invalid(bytes, null);
+			}
+			result *= 10;
+			if (result < limit + digit) {
+				throw invalid(bytes, null);
+			}
+			result -= digit;
+		}
+
+		result = (negative ? result : -result);
+		if (result < min || result > max) {
+			throw invalid(bytes, null);
+		}
+		return result;
+	}
+
+	static SerializationException invalid(byte[] bytes, Throwable cause) {
+		return new SerializationException("Cannot deserialize; '" + new String(bytes, ASCII) + "' is not a valid number",
+				cause);
+	}
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.serializer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.util.Assert;
+
+/**
+ * Deserializes large multi-value results by splitting them into chunks processed concurrently on an {@link Executor},
+ * the calling thread taking care of the first chunk. The order of the values is preserved. Results below the
+ * {@link #setThreshold(int) threshold} are deserialized on the calling thread, as by {@link SerializationUtils}.
+ * Chunks still queued once the calling thread is done with the previous ones are run by the calling thread as well,
+ * so deserialization never waits for queued work. This makes it safe to call from a thread of the executor itself or
+ * when the executor is busy.
+ * <p/>
+ * Once configured, this class is thread-safe.
+ * 
+ * @since 1.2
+ */
+public class ParallelDeserializer {
+
+	/**
+	 * Default number of values from which results are split.
+	 */
+	public static final int DEFAULT_THRESHOLD = 1000;
+
+	/**
+	 * Deserializes a chunk of raw values.
+	 * 
+	 * @param <S> raw value type
+	 * @param <R> deserialized value type
+	 */
+	public interface ChunkDeserializer<S, R> {
+
+		/**
+		 * Deserializes the given chunk, returning exactly one value per raw value, in the same order.
+		 * 
+		 * @param chunk raw values
+		 * @return deserialized values
+		 */
+		List<R> deserialize(List<S> chunk);
+	}
+
+	private final Executor executor;
+
+	private volatile int threshold = DEFAULT_THRESHOLD;
+
+	private volatile int parallelism = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Constructs a new <code>ParallelDeserializer</code> instance.
+	 * 
+	 * @param executor executor running the chunks other than the first one
+	 */
+	public ParallelDeserializer(Executor executor) {
+		Assert.notNull(executor, "a valid executor is required");
+		this.executor = executor;
+	}
+
+	/**
+	 * Sets the number of values from which results are deserialized in parallel. Default is {@value #DEFAULT_THRESHOLD}.
+	 * 
+	 * @param threshold The threshold to set.
+	 */
+	public void setThreshold(int threshold) {
+		Assert.isTrue(threshold > 0, "the threshold must be positive");
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Sets the maximum number of chunks a result is split into. Defaults to the number of available processors.
+	 * 
+	 * @param parallelism The parallelism to set.
+	 */
+	public void setParallelism(int parallelism) {
+		Assert.isTrue(parallelism > 0, "the parallelism must be positive");
+		this.parallelism = parallelism;
+	}
+
+	public <T> List<T> deserialize(List<byte[]> rawValues, RedisSerializer<T> serializer) {
+		if (rawValues == null || rawValues.size() < threshold) {
+			return SerializationUtils.deserialize(rawValues, serializer);
+		}
+		return deserialize(rawValues, valueDeserializer(serializer));
+	}
+
+	public <T> Set<T> deserialize(Set<byte[]> rawValues, RedisSerializer<T> serializer) {
+		if (rawValues == null || rawValues.size() < threshold) {
+			return SerializationUtils.deserialize(rawValues, serializer);
+		}
+		return new LinkedHashSet<T>(deserialize(new ArrayList<byte[]>(rawValues), valueDeserializer(serializer)));
+	}
+
+	/**
+	 * Deserializes the given values using the given chunk deserializer, splitting them in chunks if they exceed the
+	 * threshold.
+	 * 
+	 * @param rawValues raw values
+	 * @param deserializer chunk deserializer
+	 * @return deserialized values, in the same order as the raw ones
+	 */
+	public <S, R> List<R> deserialize(List<S> rawValues, final ChunkDeserializer<S, R> deserializer) {
+		if (rawValues == null) {
+			return null;
+		}
+		int size = rawValues.size();
+		int chunks = Math.min(parallelism, size);
+		if (size < threshold || chunks < 2) {
+			return deserializer.deserialize(rawValues);
+		}
+
+		int chunkSize = (size + chunks - 1) / chunks;
+		List<FutureTask<List<R>>> tasks = new ArrayList<FutureTask<List<R>>>(chunks - 1);
+		for (int start = chunkSize; start < size; start += chunkSize) {
+			final List<S> chunk = rawValues.subList(start, Math.min(size, start + chunkSize));
+			FutureTask<List<R>> task = new FutureTask<List<R>>(new Callable<List<R>>() {
+
+				public List<R> call() {
+					return deserializer.deserialize(chunk);
+				}
+			});
+			tasks.add(task);
+			try {
+				executor.execute(task);
+			} catch (RejectedExecutionException ex) {
+				// saturated executor; run it on the calling thread
+				task.run();
+			}
+		}
+
+		List<R> result = new ArrayList<R>(size);
+		result.addAll(deserializer.deserialize(rawValues.subList(0, chunkSize)));
+		for (FutureTask<List<R>> task : tasks) {
+			// chunks no worker picked up yet are run by the caller (a no-op for started ones)
+			task.run();
+			result.addAll(get(task));
+		}
+		return result;
+	}
+
+	private static <R> List<R> get(FutureTask<List<R>> task) {
+		try {
+			return task.get();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new SerializationException("Interrupted while waiting for deserialization", ex);
+		} catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new SerializationException("Cannot deserialize", cause);
+		}
+	}
+
+	private static <T> ChunkDeserializer<byte[], T> valueDeserializer(final RedisSerializer<T> serializer) {
+		return new ChunkDeserializer<byte[], T>() {
+
+			public List<T> deserialize(List<byte[]> chunk) {
+				return SerializationUtils.deserialize(chunk, serializer);
+			}
+		};
+	}
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.serializer;
+
+import org.springframework.util.Assert;
+
+/**
+ * Builder assembling composite keys (such as <code>prefix:user:42:profile</code>) directly in binary form, encoding
+ * string parts as UTF-8 and numbers as ASCII digits, without creating intermediate strings or arrays.
+ * <p/>
+ * A builder can be reused through {@link #reset()}, which keeps its prefix. Instances are not thread-safe.
+ * 
+ * <pre class="code">
+ * RedisKeyBuilder keys = new RedisKeyBuilder(&quot;user:&quot;).separator(':');
+ * byte[] key = keys.append(userId).append(&quot;profile&quot;).build();
+ * </pre>
+ * 
+ * @since 1.2
+ */
+public class RedisKeyBuilder {
+
+	private static final byte NO_SEPARATOR = -1;
+
+	private final SerializationBuffer buffer = new SerializationBuffer(64);
+
+	private final int prefixLength;
+
+	private byte separator = NO_SEPARATOR;
+
+	// whether a part has been appended since the prefix
+	private boolean parts = false;
+
+	/**
+	 * Constructs a new <code>RedisKeyBuilder</code> instance without prefix.
+	 */
+	public RedisKeyBuilder() {
+		this.prefixLength = 0;
+	}
+
+	/**
+	 * Constructs a new <code>RedisKeyBuilder</code> instance.
+	 * 
+	 * @param prefix prefix of all built keys
+	 */
+	public RedisKeyBuilder(String prefix) {
+		Assert.notNull(prefix, "a valid prefix is required");
+		appendUtf8(prefix);
+		this.prefixLength = buffer.size();
+	}
+
+	/**
+	 * Constructs a new <code>RedisKeyBuilder</code> instance.
+	 * 
+	 * @param prefix prefix of all built keys
+	 */
+	public RedisKeyBuilder(byte[] prefix) {
+		Assert.notNull(prefix, "a valid prefix is required");
+		buffer.write(prefix, 0, prefix.length);
+		this.prefixLength = prefix.length;
+	}
+
+	/**
+	 * Sets the (ASCII) separator written between the appended parts. Not written between the prefix and the first part.
+	 * 
+	 * @param separator separator character
+	 * @return this builder
+	 */
+	public RedisKeyBuilder separator(char separator) {
+		Assert.isTrue(separator < 0x80, "the separator must be an ASCII character");
+		this.separator = (byte) separator;
+		return this;
+	}
+
+	public RedisKeyBuilder append(String part) {
+		Assert.notNull(part, "a valid key part is required");
+		startPart();
+		appendUtf8(part);
+		return this;
+	}
+
+	public RedisKeyBuilder append(byte[] part) {
+		Assert.notNull(part, "a valid key part is required");
+		startPart();
+		buffer.write(part, 0, part.length);
+		return this;
+	}
+
+	public RedisKeyBuilder append(long part) {
+		startPart();
+		if (part == Long.MIN_VALUE) {
+			appendUtf8(String.valueOf(part));
+			return this;
+		}
+
+		int digits = 1;
+		for (long value = Math.abs(part); value >= 10; value /= 10) {
+			digits++;
+		}
+		int length = (part < 0 ? digits + 1 : digits);
+		buffer.ensureCapacity(length);
+		byte[] bytes = buffer.array();
+		int end = buffer.size() + length;
+		int position = end;
+		long value = Math.abs(part);
+		do {
+			bytes[--position] = (byte) ('0' + (value % 10));
+			value /= 10;
+		} while (value != 0);
+		if (part < 0) {
+			bytes[--position] = '-';
+		}
+		buffer.setSize(end);
+		return this;
+	}
+
+	/**
+	 * Returns the key built so far.
+	 * 
+	 * @return the key
+	 */
+	public byte[] build() {
+		return buffer.toByteArray();
+	}
+
+	/**
+	 * Discards the appended parts, keeping the prefix.
+	 * 
+	 * @return this builder
+	 */
+	public RedisKeyBuilder reset() {
+		buffer.setSize(prefixLength);
+		parts = false;
+		return this;
+	}
+
+	private void startPart() {
+		if (parts && separator != NO_SEPARATOR) {
+			buffer.write(separator);
+		}
+		parts = true;
+	}
+
+	private void appendUtf8(String value) {
+		buffer.ensureCapacity(StringRedisSerializer.utf8Length(value));
+		buffer.setSize(StringRedisSerializer.encodeUtf8(value, buffer.array(), buffer.size()));
+	}
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.serializer;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Growable byte buffer {@link BufferRedisSerializer}s write into. Unlike {@link java.io.ByteArrayOutputStream} it is
+ * not synchronized and gives access to its backing array, so that serializers can encode in place.
+ * <p/>
+ * Instances are not thread-safe and are meant to be reused (see {@link #reset()}).
+ * 
+ * @see BufferRedisSerializer
+ * @since 1.2
+ */
+public class SerializationBuffer extends OutputStream {
+
+	private byte[] buffer;
+	private int size = 0;
+
+	/**
+	 * Constructs a new <code>SerializationBuffer</code> instance with a default capacity.
+	 */
+	public SerializationBuffer() {
+		this(256);
+	}
+
+	/**
+	 * Constructs a new <code>SerializationBuffer</code> instance.
+	 * 
+	 * @param capacity initial capacity
+	 */
+	public SerializationBuffer(int capacity) {
+		this.buffer = new byte[Math.max(capacity, 16)];
+	}
+
+	@Override
+	public void write(int b) {
+		ensureCapacity(1);
+		buffer[size++] = (byte) b;
+	}
+
+	@Override
+	public void write(byte[] bytes, int offset, int length) {
+		ensureCapacity(length);
+		System.arraycopy(bytes, offset, buffer, size, length);
+		size += length;
+	}
+
+	/**
+	 * Writes the remaining content of the given buffer.
+	 * 
+	 * @param bytes content to write
+	 */
+	public void write(ByteBuffer bytes) {
+		int length = bytes.remaining();
+		ensureCapacity(length);
+		bytes.get(buffer, size, length);
+		size += length;
+	}
+
+	/**
+	 * Makes sure the given number of bytes can be written without growing the buffer. Meant to be used along with
+	 * {@link #array()} and {@link #setSize(int)} for writing in place.
+	 * 
+	 * @param length number of bytes about to be written
+	 */
+	public void ensureCapacity(int length) {
+		int required = size + length;
+		if (required > buffer.length) {
+			byte[] larger = new byte[Math.max(buffer.length << 1, required)];
+			System.arraycopy(buffer, 0, larger, 0, size);
+			buffer = larger;
+		}
+	}
+
+	/**
+	 * Returns the backing array. Only valid until the next write operation.
+	 * 
+	 * @return backing array
+	 */
+	public byte[] array() {
+		return buffer;
+	}
+
+	/**
+	 * Returns the number of bytes written.
+	 * 
+	 * @return number of bytes written
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Sets the number of bytes written, after content has been written in place.
+	 * 
+	 * @param size new size, not exceeding the capacity
+	 */
+	public void setSize(int size) {
+		if (size < 0 || size > buffer.length) {
+			throw new IndexOutOfBoundsException("size " + size + " outside capacity " + buffer.length);
+		}
+		this.size = size;
+	}
+
+	/**
+	 * Returns the current capacity.
+	 * 
+	 * @return capacity
+	 */
+	public int capacity() {
+		return buffer.length;
+	}
+
+	/**
+	 * Discards the written content, keeping the allocated capacity.
+	 */
+	public void reset() {
+		size = 0;
+	}
+
+	/**
+	 * Returns a copy of the written content.
+	 * 
+	 * @return written content
+	 */
+	public byte[] toByteArray() {
+		byte[] result = new byte[size];
+		System.arraycopy(buffer, 0, result, 0, size);
+		return result;
+	}
+
+	/**
+	 * Returns a view of the written content. Only valid until the next write operation.
+	 * 
+	 * @return written content
+	 */
+	public ByteBuffer asByteBuffer() {
+		return ByteBuffer.wrap(buffer, 0, size);
+	}
+}
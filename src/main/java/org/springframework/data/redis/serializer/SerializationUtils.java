@@ -15,8 +15,11 @@
  */
 package org.springframework.data.redis.serializer;
 
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -32,10 +35,171 @@ public abstract class SerializationUtils {
 
 	static final byte[] EMPTY_ARRAY = new byte[0];
 
+	// buffers larger than this are not kept around
+	private static final int MAX_CACHED_BUFFER_SIZE = 1024 * 1024;
+
+	private static final ThreadLocal<SerializationBuffer> buffers = new ThreadLocal<SerializationBuffer>();
+
 	static boolean isEmpty(byte[] data) {
 		return (data == null || data.length == 0);
 	}
 
+	/**
+	 * Indicates whether the buffer forms of the given serializer can be used in place of its array based methods. This
+	 * is the case for {@link BufferRedisSerializer}s implementing the interface themselves: a subclass of such a
+	 * serializer may override {@link RedisSerializer#serialize(Object)} or {@link RedisSerializer#deserialize(byte[])}
+	 * only, hence it is always called through the array based methods.
+	 * 
+	 * @param serializer serializer to check
+	 * @return true if the buffer forms can be used, false otherwise
+	 */
+	public static boolean supportsBuffers(RedisSerializer<?> serializer) {
+		return (serializer instanceof BufferRedisSerializer && serializer.getClass().getSuperclass() == Object.class);
+	}
+
+	/**
+	 * Serializes the given value. {@link BufferRedisSerializer}s write into a buffer reused by the calling thread, so
+	 * that only the resulting array gets allocated.
+	 * 
+	 * @param serializer serializer to use
+	 * @param value value to serialize
+	 * @return the serialized value
+	 * @see #supportsBuffers(RedisSerializer)
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> byte[] serialize(RedisSerializer<T> serializer, T value) {
+		if (value == null || !supportsBuffers(serializer)) {
+			return serializer.serialize(value);
+		}
+
+		// taken out of the thread local while in use, so that nested calls get their own buffer
+		SerializationBuffer buffer = buffers.get();
+		if (buffer == null) {
+			buffer = new SerializationBuffer();
+		} else {
+			buffers.remove();
+			buffer.reset();
+		}
+
+		try {
+			((BufferRedisSerializer<T>) serializer).serialize(value, buffer);
+			return buffer.toByteArray();
+		} finally {
+			if (buffer.capacity() <= MAX_CACHED_BUFFER_SIZE) {
+				buffers.set(buffer);
+			}
+		}
+	}
+
+	/**
+	 * Returns the remaining content of the given buffer as an array, consuming it.
+	 * 
+	 * @param buffer buffer to read
+	 * @return remaining content
+	 */
+	public static byte[] toArray(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.remaining()];
+		buffer.get(bytes);
+		return bytes;
+	}
+
+	/**
+	 * Returns a stream reading the remaining content of the given buffer.
+	 * 
+	 * @param buffer buffer to read
+	 * @return input stream backed by the buffer
+	 */
+	public static InputStream asInputStream(final ByteBuffer buffer) {
+		return new InputStream() {
+
+			@Override
+			public int read() {
+				return (buffer.hasRemaining() ? buffer.get() & 0xFF : -1);
+			}
+
+			@Override
+			public int read(byte[] bytes, int offset, int length) {
+				if (length == 0) {
+					return 0;
+				}
+				if (!buffer.hasRemaining()) {
+					return -1;
+				}
+				int count = Math.min(length, buffer.remaining());
+				buffer.get(bytes, offset, count);
+				return count;
+			}
+
+			@Override
+			public int available() {
+				return buffer.remaining();
+			}
+		};
+	}
+
+	/**
+	 * Returns a stream reading the given values one after the other, separated by the given byte. Null or empty values
+	 * are skipped.
+	 * 
+	 * @param values values to read
+	 * @param separator byte written between two values
+	 * @return input stream over all values
+	 */
+	static InputStream asInputStream(final Collection<byte[]> values, final byte separator) {
+		return new InputStream() {
+
+			private final Iterator<byte[]> iterator = values.iterator();
+			private byte[] current = EMPTY_ARRAY;
+			private int position = 0;
+			private boolean started;
+
+			@Override
+			public int read() {
+				byte[] b = new byte[1];
+				return (read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF);
+			}
+
+			@Override
+			public int read(byte[] bytes, int offset, int length) {
+				if (length == 0) {
+					return 0;
+				}
+				if (!advance()) {
+					return -1;
+				}
+				int count = 0;
+				while (count < length && advance()) {
+					if (position < 0) {
+						bytes[offset + count++] = separator;
+						position++;
+					} else {
+						int chunk = Math.min(length - count, current.length - position);
+						System.arraycopy(current, position, bytes, offset + count, chunk);
+						position += chunk;
+						count += chunk;
+					}
+				}
+				return count;
+			}
+
+			// moves to the next non-empty value once the current one is consumed; position -1 stands for the separator
+			private boolean advance() {
+				while (position >= current.length) {
+					if (!iterator.hasNext()) {
+						return false;
+					}
+					byte[] next = iterator.next();
+					if (!isEmpty(next)) {
+						current = next;
+						position = (started ? -1 : 0);
+						started = true;
+					}
+				}
+				return true;
+			}
+		};
+	}
+
 	@SuppressWarnings("unchecked")
 	static <T extends Collection<?>> T deserializeValues(Collection<byte[]> rawValues, Class<T> type,
 			RedisSerializer<?> redisSerializer) {
@@ -46,6 +210,10 @@ public abstract class SerializationUtils {
 
 		Collection<Object> values = (List.class.isAssignableFrom(type) ? new ArrayList<Object>(rawValues.size())
 				: new LinkedHashSet<Object>(rawValues.size()));
+		if (redisSerializer instanceof BatchRedisSerializer) {
+			values.addAll(((BatchRedisSerializer<?>) redisSerializer).deserializeAll(rawValues));
+			return (T) values;
+		}
 		for (byte[] bs : rawValues) {
 			values.add(redisSerializer.deserialize(bs));
 		}
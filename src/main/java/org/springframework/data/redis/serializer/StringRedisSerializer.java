@@ -15,6 +15,7 @@
  */
 package org.springframework.data.redis.serializer;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 
 import org.springframework.util.Assert;
@@ -26,20 +27,36 @@ import org.springframework.util.Assert;
  * Useful when the interaction with the Redis happens mainly through Strings.
  * <p/>
  * Does not perform any null conversion since empty strings are valid keys/values.
+ * <p/>
+ * For UTF-8 (and ASCII compatible charsets in case of ASCII content) strings are encoded directly, without going
+ * through a {@link java.nio.charset.CharsetEncoder}, so that the resulting array is the only allocation.
  * 
  * @author Costin Leau
+ * @see RedisKeyBuilder
  */
-public class StringRedisSerializer implements RedisSerializer<String> {
+public class StringRedisSerializer implements BufferRedisSerializer<String> {
+
+	static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private static final Charset US_ASCII = Charset.forName("US-ASCII");
+	private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
 
 	private final Charset charset;
 
+	private final boolean utf8;
+
+	// whether ASCII content is encoded as is
+	private final boolean asciiCompatible;
+
 	public StringRedisSerializer() {
-		this(Charset.forName("UTF8"));
+		this(UTF_8);
 	}
 
 	public StringRedisSerializer(Charset charset) {
 		Assert.notNull(charset);
 		this.charset = charset;
+		this.utf8 = UTF_8.equals(charset);
+		this.asciiCompatible = (utf8 || US_ASCII.equals(charset) || ISO_8859_1.equals(charset));
 	}
 
 	public String deserialize(byte[] bytes) {
@@ -47,6 +64,153 @@ public class StringRedisSerializer implements RedisSerializer<String> {
 	}
 
 	public byte[] serialize(String string) {
-		return (string == null ? null : string.getBytes(charset));
+		if (string == null) {
+			return null;
+		}
+		int length = encodedLength(string);
+		if (length < 0) {
+			return string.getBytes(charset);
+		}
+		byte[] bytes = new byte[length];
+		encode(string, bytes, 0);
+		return bytes;
+	}
+
+	/**
+	 * Serializes the given string right after the given prefix, in a single array.
+	 * 
+	 * @param prefix bytes to start with
+	 * @param string string to serialize
+	 * @return the prefix followed by the serialized string
+	 */
+	public byte[] serialize(byte[] prefix, String string) {
+		Assert.notNull(prefix, "a valid prefix is required");
+		Assert.notNull(string, "a valid string is required");
+
+		int length = encodedLength(string);
+		byte[] encoded = (length < 0 ? string.getBytes(charset) : null);
+		byte[] bytes = new byte[prefix.length + (encoded != null ? encoded.length : length)];
+		System.arraycopy(prefix, 0, bytes, 0, prefix.length);
+		if (encoded != null) {
+			System.arraycopy(encoded, 0, bytes, prefix.length, encoded.length);
+		} else {
+			encode(string, bytes, prefix.length);
+		}
+		return bytes;
+	}
+
+	public void serialize(String string, SerializationBuffer buffer) {
+		int length = encodedLength(string);
+		if (length < 0) {
+			byte[] bytes = string.getBytes(charset);
+			buffer.write(bytes, 0, bytes.length);
+			return;
+		}
+		buffer.ensureCapacity(length);
+		buffer.setSize(encode(string, buffer.array(), buffer.size()));
+	}
+
+	public String deserialize(ByteBuffer buffer) {
+		if (buffer.hasArray()) {
+			return new String(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining(), charset);
+		}
+		return charset.decode(buffer).toString();
+	}
+
+	/**
+	 * Returns the number of bytes the given string is encoded into by {@link #encode(String, byte[], int)}, or -1 if it
+	 * has to go through the charset.
+	 */
+	private int encodedLength(String string) {
+		if (utf8) {
+			return utf8Length(string);
+		}
+		if (asciiCompatible && isAscii(string)) {
+			return string.length();
+		}
+		return -1;
+	}
+
+	private int encode(String string, byte[] bytes, int offset) {
+		return (utf8 ? encodeUtf8(string, bytes, offset) : encodeAscii(string, bytes, offset));
+	}
+
+	private static boolean isAscii(String string) {
+		for (int i = 0; i < string.length(); i++) {
+			if (string.charAt(i) >= 0x80) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isSurrogate(char c) {
+		return (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE);
+	}
+
+	private static int encodeAscii(String string, byte[] bytes, int offset) {
+		for (int i = 0; i < string.length(); i++) {
+			bytes[offset++] = (byte) string.charAt(i);
+		}
+		return offset;
+	}
+
+	/**
+	 * Returns the UTF-8 encoded length of the given string. Unpaired surrogates count as one byte, as they are encoded as
+	 * <code>'?'</code> (like {@link String#getBytes(Charset)} does).
+	 */
+	static int utf8Length(String string) {
+		int length = string.length();
+		int bytes = length;
+		for (int i = 0; i < length; i++) {
+			char c = string.charAt(i);
+			if (c < 0x80) {
+				continue;
+			}
+			if (c < 0x800) {
+				bytes += 1;
+			} else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(string.charAt(i + 1))) {
+				// 4 bytes for two chars
+				bytes += 2;
+				i++;
+			} else if (!isSurrogate(c)) {
+				bytes += 2;
+			}
+		}
+		return bytes;
+	}
+
+	/**
+	 * Encodes the given string as UTF-8 at the given offset, returning the offset following the written bytes.
+	 */
+	static int encodeUtf8(String string, byte[] bytes, int offset) {
+		int length = string.length();
+		int i = 0;
+		// ASCII prefix
+		for (char c; i < length && (c = string.charAt(i)) < 0x80; i++) {
+			bytes[offset++] = (byte) c;
+		}
+		for (; i < length; i++) {
+			char c = string.charAt(i);
+			if (c < 0x80) {
+				bytes[offset++] = (byte) c;
+			} else if (c < 0x800) {
+				bytes[offset++] = (byte) (0xC0 | (c >> 6));
+				bytes[offset++] = (byte) (0x80 | (c & 0x3F));
+			} else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(string.charAt(i + 1))) {
+				int codePoint = Character.toCodePoint(c, string.charAt(++i));
+				bytes[offset++] = (byte) (0xF0 | (codePoint >> 18));
+				bytes[offset++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+				bytes[offset++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+				bytes[offset++] = (byte) (0x80 | (codePoint & 0x3F));
+			} else if (isSurrogate(c)) {
+				bytes[offset++] = '?';
+			} else {
+				bytes[offset++] = (byte) (0xE0 | (c >> 12));
+				bytes[offset++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+				bytes[offset++] = (byte) (0x80 | (c & 0x3F));
+			}
+		}
+		return offset;
 	}
 }
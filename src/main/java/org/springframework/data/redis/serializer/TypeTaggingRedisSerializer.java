@@ -0,0 +1,348 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.serializer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.beans.factory.BeanClassLoaderAware;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Serializer for templates holding values of mixed types. Each payload starts with a one byte type tag followed by a
+ * dedicated encoding for {@link String}s (UTF-8), <code>byte[]</code> (as is), boxed primitives (fixed size, big
+ * endian), {@link UUID}s, {@link Date}s and enums. Other types are handed to a fallback serializer (by default
+ * {@link JdkSerializationRedisSerializer}), so that only those go through heavyweight serialization.
+ * <p/>
+ * When the fallback serializer is a {@link BufferRedisSerializer}, it writes right after the type tag and reads from a
+ * view of the payload, without intermediate copies.
+ * 
+ * @since 1.2
+ */
+public class TypeTaggingRedisSerializer implements BufferRedisSerializer<Object>, BeanClassLoaderAware {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	// type tags
+	private static final byte STRING = 1;
+	private static final byte BYTES = 2;
+	private static final byte TRUE = 3;
+	private static final byte FALSE = 4;
+	private static final byte BYTE = 5;
+	private static final byte SHORT = 6;
+	private static final byte INT = 7;
+	private static final byte LONG = 8;
+	private static final byte FLOAT = 9;
+	private static final byte DOUBLE = 10;
+	private static final byte CHAR = 11;
+	private static final byte UUID_VALUE = 12;
+	private static final byte DATE = 13;
+	private static final byte ENUM = 14;
+	private static final byte OTHER = 15;
+
+	private static final byte[] TRUE_BYTES = { TRUE };
+	private static final byte[] FALSE_BYTES = { FALSE };
+
+	private final RedisSerializer<Object> fallback;
+
+	private final ConcurrentMap<String, Class<?>> enumTypes = new ConcurrentHashMap<String, Class<?>>();
+
+	private volatile ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+
+	/**
+	 * Constructs a new <code>TypeTaggingRedisSerializer</code> instance falling back to Java serialization.
+	 */
+	public TypeTaggingRedisSerializer() {
+		this(new JdkSerializationRedisSerializer());
+	}
+
+	/**
+	 * Constructs a new <code>TypeTaggingRedisSerializer</code> instance.
+	 * 
+	 * @param fallback serializer used for the types not handled natively
+	 */
+	public TypeTaggingRedisSerializer(RedisSerializer<Object> fallback) {
+		Assert.notNull(fallback, "a valid fallback serializer is required");
+		this.fallback = fallback;
+	}
+
+	public void setBeanClassLoader(ClassLoader classLoader) {
+		this.classLoader = classLoader;
+	}
+
+	public byte[] serialize(Object value) throws SerializationException {
+		if (value == null) {
+			return SerializationUtils.EMPTY_ARRAY;
+		}
+
+		Class<?> type = value.getClass();
+		if (type == String.class) {
+			return encodeString((String) value);
+		}
+		if (type == byte[].class) {
+			byte[] bytes = (byte[]) value;
+			byte[] result = new byte[bytes.length + 1];
+			result[0] = BYTES;
+			System.arraycopy(bytes, 0, result, 1, bytes.length);
+			return result;
+		}
+		if (type == Long.class) {
+			return writeLong(LONG, ((Long) value).longValue());
+		}
+		if (type == Integer.class) {
+			return writeInt(INT, ((Integer) value).intValue());
+		}
+		if (type == Double.class) {
+			return writeLong(DOUBLE, Double.doubleToLongBits(((Double) value).doubleValue()));
+		}
+		if (type == Boolean.class) {
+			return (((Boolean) value).booleanValue() ? TRUE_BYTES : FALSE_BYTES).clone();
+		}
+		if (type == Float.class) {
+			return writeInt(FLOAT, Float.floatToIntBits(((Float) value).floatValue()));
+		}
+		if (type == Short.class) {
+			return new byte[] { SHORT, (byte) (((Short) value) >> 8), (byte) ((Short) value).shortValue() };
+		}
+		if (type == Byte.class) {
+			return new byte[] { BYTE, ((Byte) value).byteValue() };
+		}
+		if (type == Character.class) {
+			char c = ((Character) value).charValue();
+			return new byte[] { CHAR, (byte) (c >> 8), (byte) c };
+		}
+		if (type == UUID.class) {
+			UUID uuid = (UUID) value;
+			byte[] result = new byte[17];
+			result[0] = UUID_VALUE;
+			putLong(result, 1, uuid.getMostSignificantBits());
+			putLong(result, 9, uuid.getLeastSignificantBits());
+			return result;
+		}
+		if (type == Date.class) {
+			return writeLong(DATE, ((Date) value).getTime());
+		}
+		if (value instanceof Enum) {
+			return encodeEnum((Enum<?>) value);
+		}
+
+		if (SerializationUtils.supportsBuffers(fallback) && SerializationUtils.supportsBuffers(this)) {
+			return SerializationUtils.serialize(this, value);
+		}
+
+		byte[] bytes = fallback.serialize(value);
+		if (bytes == null) {
+			bytes = SerializationUtils.EMPTY_ARRAY;
+		}
+		byte[] result = new byte[bytes.length + 1];
+		result[0] = OTHER;
+		System.arraycopy(bytes, 0, result, 1, bytes.length);
+		return result;
+	}
+
+	public Object deserialize(byte[] bytes) throws SerializationException {
+		if (SerializationUtils.isEmpty(bytes)) {
+			return null;
+		}
+
+		byte tag = bytes[0];
+		switch (tag) {
+			case STRING:
+				return new String(bytes, 1, bytes.length - 1, UTF8);
+			case BYTES:
+				return copy(bytes, 1, bytes.length - 1);
+			case TRUE:
+				return Boolean.TRUE;
+			case FALSE:
+				return Boolean.FALSE;
+			case BYTE:
+				checkLength(bytes, 2);
+				return Byte.valueOf(bytes[1]);
+			case SHORT:
+				checkLength(bytes, 3);
+				return Short.valueOf((short) ((bytes[1] << 8) | (bytes[2] & 0xFF)));
+			case CHAR:
+				checkLength(bytes, 3);
+				return Character.valueOf((char) ((bytes[1] << 8) | (bytes[2] & 0xFF)));
+			case INT:
+				checkLength(bytes, 5);
+				return Integer.valueOf(getInt(bytes, 1));
+			case FLOAT:
+				checkLength(bytes, 5);
+				return Float.valueOf(Float.intBitsToFloat(getInt(bytes, 1)));
+			case LONG:
+				checkLength(bytes, 9);
+				return Long.valueOf(getLong(bytes, 1));
+			case DOUBLE:
+				checkLength(bytes, 9);
+				return Double.valueOf(Double.longBitsToDouble(getLong(bytes, 1)));
+			case DATE:
+				checkLength(bytes, 9);
+				return new Date(getLong(bytes, 1));
+			case UUID_VALUE:
+				checkLength(bytes, 17);
+				return new UUID(getLong(bytes, 1), getLong(bytes, 9));
+			case ENUM:
+				return decodeEnum(bytes);
+			case OTHER:
+				if (SerializationUtils.supportsBuffers(fallback)) {
+					return ((BufferRedisSerializer<Object>) fallback).deserialize(ByteBuffer.wrap(bytes, 1, bytes.length - 1));
+				}
+				return fallback.deserialize(copy(bytes, 1, bytes.length - 1));
+			default:
+				throw new SerializationException("Cannot deserialize; unknown type tag " + tag);
+		}
+	}
+
+	public void serialize(Object value, SerializationBuffer buffer) throws SerializationException {
+		if (SerializationUtils.supportsBuffers(fallback) && !isNative(value)) {
+			buffer.write(OTHER);
+			((BufferRedisSerializer<Object>) fallback).serialize(value, buffer);
+			return;
+		}
+
+		byte[] bytes = serialize(value);
+		buffer.write(bytes, 0, bytes.length);
+	}
+
+	public Object deserialize(ByteBuffer buffer) throws SerializationException {
+		if (buffer.hasRemaining() && buffer.get(buffer.position()) == OTHER
+				&& SerializationUtils.supportsBuffers(fallback)) {
+			buffer.get();
+			return ((BufferRedisSerializer<Object>) fallback).deserialize(buffer);
+		}
+		return deserialize(SerializationUtils.toArray(buffer));
+	}
+
+	private static boolean isNative(Object value) {
+		Class<?> type = value.getClass();
+		return (type == String.class || type == byte[].class || type == Long.class || type == Integer.class
+				|| type == Double.class || type == Boolean.class || type == Float.class || type == Short.class
+				|| type == Byte.class || type == Character.class || type == UUID.class || type == Date.class || value instanceof Enum);
+	}
+
+	private static byte[] encodeString(String value) {
+		int length = value.length();
+		for (int i = 0; i < length; i++) {
+			if (value.charAt(i) >= 0x80) {
+				byte[] bytes = value.getBytes(UTF8);
+				byte[] result = new byte[bytes.length + 1];
+				result[0] = STRING;
+				System.arraycopy(bytes, 0, result, 1, bytes.length);
+				return result;
+			}
+		}
+
+		// ASCII only - no need for an encoder
+		byte[] result = new byte[length + 1];
+		result[0] = STRING;
+		for (int i = 0; i < length; i++) {
+			result[i + 1] = (byte) value.charAt(i);
+		}
+		return result;
+	}
+
+	/**
+	 * Enums are written as the length of their class name (2 bytes), the class name and the constant name.
+	 */
+	private static byte[] encodeEnum(Enum<?> value) {
+		byte[] type = value.getDeclaringClass().getName().getBytes(UTF8);
+		byte[] name = value.name().getBytes(UTF8);
+
+		byte[] result = new byte[3 + type.length + name.length];
+		result[0] = ENUM;
+		result[1] = (byte) (type.length >> 8);
+		result[2] = (byte) type.length;
+		System.arraycopy(type, 0, result, 3, type.length);
+		System.arraycopy(name, 0, result, 3 + type.length, name.length);
+		return result;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private Object decodeEnum(byte[] bytes) {
+		checkLength(bytes, 3);
+		int typeLength = ((bytes[1] & 0xFF) << 8) | (bytes[2] & 0xFF);
+		checkLength(bytes, 3 + typeLength);
+
+		String typeName = new String(bytes, 3, typeLength, UTF8);
+		Class type = enumTypes.get(typeName);
+		if (type == null) {
+			try {
+				// the type comes from the payload - do not initialize it unless it is an enum
+				type = Class.forName(typeName, false, classLoader);
+			} catch (ClassNotFoundException ex) {
+				throw new SerializationException("Cannot deserialize; enum " + typeName + " not found", ex);
+			} catch (LinkageError ex) {
+				throw new SerializationException("Cannot deserialize; enum " + typeName + " cannot be loaded", ex);
+			}
+			if (!type.isEnum()) {
+				throw new SerializationException("Cannot deserialize; " + typeName + " is not an enum");
+			}
+			enumTypes.put(typeName, type);
+		}
+
+		String name = new String(bytes, 3 + typeLength, bytes.length - 3 - typeLength, UTF8);
+		try {
+			return Enum.valueOf(type, name);
+		} catch (IllegalArgumentException ex) {
+			throw new SerializationException("Cannot deserialize; unknown constant " + name + " of " + typeName, ex);
+		}
+	}
+
+	private static byte[] writeInt(byte tag, int value) {
+		return new byte[] { tag, (byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value };
+	}
+
+	private static byte[] writeLong(byte tag, long value) {
+		byte[] result = new byte[9];
+		result[0] = tag;
+		putLong(result, 1, value);
+		return result;
+	}
+
+	private static void putLong(byte[] bytes, int offset, long value) {
+		for (int i = 7; i >= 0; i--) {
+			bytes[offset + i] = (byte) value;
+			value >>>= 8;
+		}
+	}
+
+	private static int getInt(byte[] bytes, int offset) {
+		return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16) | ((bytes[offset + 2] & 0xFF) << 8)
+				| (bytes[offset + 3] & 0xFF);
+	}
+
+	private static long getLong(byte[] bytes, int offset) {
+		return ((long) getInt(bytes, offset) << 32) | (getInt(bytes, offset + 4) & 0xFFFFFFFFL);
+	}
+
+	private static byte[] copy(byte[] bytes, int offset, int length) {
+		byte[] result = new byte[length];
+		System.arraycopy(bytes, offset, result, 0, length);
+		return result;
+	}
+
+	private static void checkLength(byte[] bytes, int length) {
+		if (bytes.length < length) {
+			throw new SerializationException("Cannot deserialize; truncated payload");
+		}
+	}
+}
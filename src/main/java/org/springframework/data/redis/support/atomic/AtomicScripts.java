@@ -0,0 +1,50 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.support.atomic;
+
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+/**
+ * Lua scripts implementing the compound operations of the Redis atomic counters, each executed as a single atomic
+ * round trip.
+ * 
+ * @since 1.2
+ */
+abstract class AtomicScripts {
+
+	/**
+	 * Sets KEYS[1] to ARGV[2] if its current value equals ARGV[1].
+	 */
+	static final RedisScript<Boolean> COMPARE_AND_SET = script("if redis.call('GET', KEYS[1]) == ARGV[1] then "
+			+ "redis.call('SET', KEYS[1], ARGV[2]) return true end return false");
+
+	/**
+	 * Sets KEYS[1] to ARGV[2] if its current value equals ARGV[1] as a string or numerically, so that for example 1.0
+	 * matches 1.
+	 */
+	static final RedisScript<Boolean> COMPARE_AND_SET_NUMBER = script("local current = redis.call('GET', KEYS[1]) "
+			+ "local number = tonumber(current) "
+			+ "if current == ARGV[1] or (number ~= nil and number == tonumber(ARGV[1])) then "
+			+ "redis.call('SET', KEYS[1], ARGV[2]) return true end return false");
+
+	private static RedisScript<Boolean> script(String text) {
+		DefaultRedisScript<Boolean> script = new DefaultRedisScript<Boolean>(text, Boolean.class);
+		// the text never changes, skip the modification checks
+		script.setRefreshCheckDelay(-1);
+		return script;
+	}
+}
@@ -25,15 +25,13 @@ import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.BoundKeyOperations;
 import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.core.ValueOperations;
-import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.DoubleRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.util.Assert;
 
 /**
- * Atomic double backed by Redis. Uses Redis atomic increment/decrement and watch/multi/exec operations for CAS
- * operations.
+ * Atomic double backed by Redis. Uses Redis atomic increment/decrement and a Lua script for CAS operations.
  * 
  * @author Jennifer Hickey
  */
@@ -71,7 +69,7 @@ public class RedisAtomicDouble extends Number implements Serializable, BoundKeyO
 
 		RedisTemplate<String, Double> redisTemplate = new RedisTemplate<String, Double>();
 		redisTemplate.setKeySerializer(new StringRedisSerializer());
-		redisTemplate.setValueSerializer(new GenericToStringSerializer<Double>(Double.class));
+		redisTemplate.setValueSerializer(new DoubleRedisSerializer());
 		redisTemplate.setExposeConnection(true);
 		redisTemplate.setConnectionFactory(factory);
 		redisTemplate.afterPropertiesSet();
@@ -162,26 +160,8 @@ public class RedisAtomicDouble extends Number implements Serializable, BoundKeyO
 	 * @param update the new value
 	 * @return true if successful. False return indicates that the actual value was not equal to the expected value.
 	 */
-	public boolean compareAndSet(final double expect, final double update) {
-		return generalOps.execute(new SessionCallback<Boolean>() {
-
-			@SuppressWarnings({ "unchecked", "rawtypes" })
-			public Boolean execute(RedisOperations operations) {
-				for (;;) {
-					operations.watch(Collections.singleton(key));
-					if (expect == get()) {
-						generalOps.multi();
-						set(update);
-						if (operations.exec() != null) {
-							return true;
-						}
-					}
-					{
-						return false;
-					}
-				}
-			}
-		});
+	public boolean compareAndSet(double expect, double update) {
+		return generalOps.execute(AtomicScripts.COMPARE_AND_SET_NUMBER, Collections.singletonList(key), expect, update);
 	}
 
 	/**
@@ -25,14 +25,12 @@ import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.BoundKeyOperations;
 import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.core.ValueOperations;
-import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.IntegerRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 /**
- * Atomic integer backed by Redis. Uses Redis atomic increment/decrement and watch/multi/exec operations for CAS
- * operations.
+ * Atomic integer backed by Redis. Uses Redis atomic increment/decrement and a Lua script for CAS operations.
  * 
  * @see java.util.concurrent.atomic.AtomicInteger
  * @author Costin Leau
@@ -88,7 +86,7 @@ public class RedisAtomicInteger extends Number implements Serializable, BoundKey
 	private RedisAtomicInteger(String redisCounter, RedisConnectionFactory factory, Integer initialValue) {
 		RedisTemplate<String, Integer> redisTemplate = new RedisTemplate<String, Integer>();
 		redisTemplate.setKeySerializer(new StringRedisSerializer());
-		redisTemplate.setValueSerializer(new GenericToStringSerializer<Integer>(Integer.class));
+		redisTemplate.setValueSerializer(new IntegerRedisSerializer());
 		redisTemplate.setExposeConnection(true);
 		redisTemplate.setConnectionFactory(factory);
 		redisTemplate.afterPropertiesSet();
@@ -155,26 +153,8 @@ public class RedisAtomicInteger extends Number implements Serializable, BoundKey
 	 * @param update the new value
 	 * @return true if successful. False return indicates that the actual value was not equal to the expected value.
 	 */
-	public boolean compareAndSet(final int expect, final int update) {
-		return generalOps.execute(new SessionCallback<Boolean>() {
-
-			@SuppressWarnings("unchecked")
-			public Boolean execute(RedisOperations operations) {
-				for (;;) {
-					operations.watch(Collections.singleton(key));
-					if (expect == get()) {
-						generalOps.multi();
-						set(update);
-						if (operations.exec() != null) {
-							return true;
-						}
-					}
-					{
-						return false;
-					}
-				}
-			}
-		});
+	public boolean compareAndSet(int expect, int update) {
+		return generalOps.execute(AtomicScripts.COMPARE_AND_SET, Collections.singletonList(key), expect, update);
 	}
 
 	/**
@@ -25,15 +25,13 @@ import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.BoundKeyOperations;
 import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.core.ValueOperations;
-import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.LongRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.util.Assert;
 
 /**
- * Atomic long backed by Redis. Uses Redis atomic increment/decrement and watch/multi/exec operations for CAS
- * operations.
+ * Atomic long backed by Redis. Uses Redis atomic increment/decrement and a Lua script for CAS operations.
  * 
  * @see java.util.concurrent.atomic.AtomicLong
  * @author Costin Leau
@@ -71,7 +69,7 @@ public class RedisAtomicLong extends Number implements Serializable, BoundKeyOpe
 
 		RedisTemplate<String, Long> redisTemplate = new RedisTemplate<String, Long>();
 		redisTemplate.setKeySerializer(new StringRedisSerializer());
-		redisTemplate.setValueSerializer(new GenericToStringSerializer<Long>(Long.class));
+		redisTemplate.setValueSerializer(new LongRedisSerializer());
 		redisTemplate.setExposeConnection(true);
 		redisTemplate.setConnectionFactory(factory);
 		redisTemplate.afterPropertiesSet();
@@ -162,26 +160,8 @@ public class RedisAtomicLong extends Number implements Serializable, BoundKeyOpe
 	 * @param update the new value
 	 * @return true if successful. False return indicates that the actual value was not equal to the expected value.
 	 */
-	public boolean compareAndSet(final long expect, final long update) {
-		return generalOps.execute(new SessionCallback<Boolean>() {
-
-			@SuppressWarnings("unchecked")
-			public Boolean execute(RedisOperations operations) {
-				for (;;) {
-					operations.watch(Collections.singleton(key));
-					if (expect == get()) {
-						generalOps.multi();
-						set(update);
-						if (operations.exec() != null) {
-							return true;
-						}
-					}
-					{
-						return false;
-					}
-				}
-			}
-		});
+	public boolean compareAndSet(long expect, long update) {
+		return generalOps.execute(AtomicScripts.COMPARE_AND_SET, Collections.singletonList(key), expect, update);
 	}
 
 	/**
@@ -27,16 +27,33 @@ import java.util.concurrent.TimeUnit;
 import org.springframework.data.redis.connection.DataType;
 import org.springframework.data.redis.core.BoundHashOperations;
 import org.springframework.data.redis.core.RedisOperations;
-import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
 /**
  * Default implementation for {@link RedisMap}. Note that the current implementation doesn't provide the same locking
- * semantics across all methods. In highly concurrent environments, race conditions might appear.
+ * semantics across all methods. In highly concurrent environments, race conditions might appear. The conditional
+ * {@link #remove(Object, Object)} and <code>replace</code> methods execute atomically as Lua scripts, comparing
+ * values in their serialized form.
  * 
  * @author Costin Leau
  */
 public class DefaultRedisMap<K, V> implements RedisMap<K, V> {
 
+	// conditional updates compare the serialized values on the server
+	private static final RedisScript<Boolean> REMOVE_IF_EQUAL = script(
+			"if redis.call('HGET', KEYS[1], ARGV[1]) == ARGV[2] then "
+					+ "return redis.call('HDEL', KEYS[1], ARGV[1]) == 1 end return false", Boolean.class);
+
+	private static final RedisScript<Boolean> REPLACE_IF_EQUAL = script(
+			"if redis.call('HGET', KEYS[1], ARGV[1]) == ARGV[2] then "
+					+ "redis.call('HSET', KEYS[1], ARGV[1], ARGV[3]) return true end return false", Boolean.class);
+
+	private static final RedisScript<byte[]> REPLACE_IF_PRESENT = script(
+			"local current = redis.call('HGET', KEYS[1], ARGV[1]) "
+					+ "if current then redis.call('HSET', KEYS[1], ARGV[1], ARGV[2]) end return current", byte[].class);
+
 	private final BoundHashOperations<String, K, V> hashOps;
 
 	private class DefaultRedisMapEntry implements Map.Entry<K, V> {
@@ -188,76 +205,55 @@ public class DefaultRedisMap<K, V> implements RedisMap<K, V> {
 		return (hashOps.putIfAbsent(key, value) ? null : get(key));
 	}
 
-	public boolean remove(final Object key, final Object value) {
+	public boolean remove(Object key, Object value) {
 		if (value == null) {
 			throw new NullPointerException();
 		}
-		return hashOps.getOperations().execute(new SessionCallback<Boolean>() {
-			@SuppressWarnings({ "unchecked", "rawtypes" })
-			public Boolean execute(RedisOperations ops) {
-				for (;;) {
-					ops.watch(Collections.singleton(getKey()));
-					V v = get(key);
-					if (value.equals(v)) {
-						ops.multi();
-						remove(key);
-						if (ops.exec(ops.getHashValueSerializer()) != null) {
-							return true;
-						}
-					} else {
-						return false;
-					}
-				}
-			}
-		});
-	}
-
-	public boolean replace(final K key, final V oldValue, final V newValue) {
+		return executeScript(REMOVE_IF_EQUAL, rawHashKey(key), rawHashValue(value));
+	}
+
+	public boolean replace(K key, V oldValue, V newValue) {
 		if (oldValue == null || newValue == null) {
 			throw new NullPointerException();
 		}
-		return hashOps.getOperations().execute(new SessionCallback<Boolean>() {
-			@SuppressWarnings({ "unchecked", "rawtypes" })
-			public Boolean execute(RedisOperations ops) {
-				for (;;) {
-					ops.watch(Collections.singleton(getKey()));
-					V v = get(key);
-					if (oldValue.equals(v)) {
-						ops.multi();
-						put(key, newValue);
-						if (ops.exec(ops.getHashValueSerializer()) != null) {
-							return true;
-						}
-					} else {
-						return false;
-					}
-				}
-			}
-		});
-	}
-
-	public V replace(final K key, final V value) {
+		return executeScript(REPLACE_IF_EQUAL, rawHashKey(key), rawHashValue(oldValue), rawHashValue(newValue));
+	}
+
+	@SuppressWarnings("unchecked")
+	public V replace(K key, V value) {
 		if (value == null) {
 			throw new NullPointerException();
 		}
-		return hashOps.getOperations().execute(new SessionCallback<V>() {
-			@SuppressWarnings({ "unchecked", "rawtypes" })
-			public V execute(RedisOperations ops) {
-				for (;;) {
-					ops.watch(Collections.singleton(getKey()));
-					V v = get(key);
-					if (v != null) {
-						ops.multi();
-						put(key, value);
-						if (ops.exec(ops.getHashValueSerializer()) != null) {
-							return v;
-						}
-					} else {
-						return null;
-					}
-				}
-			}
-		});
+		byte[] previous = executeScript(REPLACE_IF_PRESENT, rawHashKey(key), rawHashValue(value));
+		RedisSerializer<?> serializer = hashOps.getOperations().getHashValueSerializer();
+		if (previous == null || serializer == null) {
+			return (V) previous;
+		}
+		return (V) serializer.deserialize(previous);
+	}
+
+	private <T> T executeScript(RedisScript<T> script, byte[]... args) {
+		// args are serialized already, results are handled by the caller
+		return hashOps.getOperations().execute(script, null, null, Collections.singletonList(getKey()),
+				(Object[]) args);
+	}
+
+	@SuppressWarnings("unchecked")
+	private byte[] rawHashKey(Object key) {
+		RedisSerializer<Object> serializer = (RedisSerializer<Object>) hashOps.getOperations().getHashKeySerializer();
+		if (serializer == null && key instanceof byte[]) {
+			return (byte[]) key;
+		}
+		return serializer.serialize(key);
+	}
+
+	@SuppressWarnings("unchecked")
+	private byte[] rawHashValue(Object value) {
+		RedisSerializer<Object> serializer = (RedisSerializer<Object>) hashOps.getOperations().getHashValueSerializer();
+		if (serializer == null && value instanceof byte[]) {
+			return (byte[]) value;
+		}
+		return serializer.serialize(value);
 	}
 
 	public Boolean expire(long timeout, TimeUnit unit) {
@@ -288,6 +284,12 @@ public class DefaultRedisMap<K, V> implements RedisMap<K, V> {
 		return hashOps.getType();
 	}
 
+	private static <T> RedisScript<T> script(String text, Class<T> resultType) {
+		DefaultRedisScript<T> script = new DefaultRedisScript<T>(text, resultType);
+		script.setRefreshCheckDelay(-1);
+		return script;
+	}
+
 	private void checkResult(Object obj) {
 		if (obj == null) {
 			throw new IllegalStateException("Cannot read collection with Redis connection in pipeline/multi-exec mode");
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.connection.lettuce;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+import org.springframework.data.redis.SettingsUtils;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import com.lambdaworks.redis.RedisClient;
+import com.lambdaworks.redis.RedisConnection;
+
+/**
+ * Tests for {@link SerializingRedisCodec}.
+ */
+public class SerializingRedisCodecTests {
+
+	private final SerializingRedisCodec<String, Long> codec = new SerializingRedisCodec<String, Long>(
+			new StringRedisSerializer(), new GenericToStringSerializer<Long>(Long.class));
+
+	@Test
+	public void testEncodeDecode() {
+		assertArrayEquals("key".getBytes(), codec.encodeKey("key"));
+		assertEquals("key", codec.decodeKey(ByteBuffer.wrap("key".getBytes())));
+		assertEquals(Long.valueOf(12), codec.decodeValue(ByteBuffer.wrap("12".getBytes())));
+		assertArrayEquals("12".getBytes(), codec.encodeValue(12L));
+	}
+
+	@Test
+	public void testNativeConnection() {
+		RedisClient client = new RedisClient(SettingsUtils.getHost(), SettingsUtils.getPort());
+		RedisConnection<String, Long> connection = client.connect(codec);
+		try {
+			connection.set("codec-test", 5L);
+			assertEquals(Long.valueOf(6), connection.incr("codec-test"));
+			assertEquals(Long.valueOf(6), connection.get("codec-test"));
+			assertTrue(connection.keys("codec-tes*").contains("codec-test"));
+			connection.del("codec-test");
+		} finally {
+			connection.close();
+			client.shutdown();
+		}
+	}
+}
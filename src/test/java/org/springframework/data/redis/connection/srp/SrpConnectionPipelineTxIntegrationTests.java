@@ -23,6 +23,7 @@ import java.util.Collections;
 import java.util.List;
 
 import org.junit.Test;
+import org.springframework.data.redis.connection.DefaultStringRedisConnection;
 import org.springframework.data.redis.connection.RedisPipelineException;
 import org.springframework.test.annotation.IfProfileValue;
 
@@ -58,6 +59,26 @@ public class SrpConnectionPipelineTxIntegrationTests extends SrpConnectionTransa
 		assertEquals(Arrays.asList(new Object[] { "baz" }), results.get(1));
 	}
 
+	@Test
+	public void testExecAbortedTransactionInPipeline() {
+		connection.set("foo", "bar");
+		assertNull(connection.exec());
+		connection.watch("foo".getBytes());
+		// MULTI is acknowledged only once the WATCH has been processed
+		connection.multi();
+		DefaultStringRedisConnection conn2 = new DefaultStringRedisConnection(connectionFactory.getConnection());
+		conn2.set("foo", "modified");
+		conn2.close();
+		connection.set("foo", "baz");
+		assertNull(connection.exec());
+		connection.multi();
+		connection.get("foo");
+		assertNull(connection.exec());
+		List<Object> results = connection.closePipeline();
+		assertEquals(Arrays.asList(new Object[] { Collections.emptyList(), null,
+				Arrays.asList(new Object[] { "modified" }) }), results);
+	}
+
 	@Test(expected = RedisPipelineException.class)
 	@IfProfileValue(name = "redisVersion", value = "2.6")
 	public void testEvalShaNotFound() {
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.core;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.lang.reflect.Proxy;
+
+import org.junit.Test;
+import org.springframework.data.redis.connection.DefaultStringRedisConnection;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.jedis.JedisConnection;
+
+import redis.clients.jedis.Jedis;
+
+/**
+ * Unit tests for {@link CloseSuppressingRedisConnection} and its use by {@link RedisTemplate}.
+ */
+public class CloseSuppressingRedisConnectionTests {
+
+	@Test
+	public void testCloseIsSuppressed() {
+		RedisConnection target = mock(RedisConnection.class);
+		CloseSuppressingRedisConnection connection = new CloseSuppressingRedisConnection(target);
+
+		connection.close();
+		connection.get(new byte[] { 1 });
+
+		verify(target).get(new byte[] { 1 });
+		verify(target, never()).close();
+		assertEquals(connection, connection);
+		assertFalse(connection.equals(target));
+	}
+
+	@Test
+	public void testStringConnection() {
+		RedisConnection target = mock(RedisConnection.class);
+		RedisConnection connection = CloseSuppressingRedisConnection.wrap(new DefaultStringRedisConnection(target));
+
+		assertTrue(connection instanceof StringRedisConnection);
+		((StringRedisConnection) connection).set("key", "value");
+		connection.close();
+
+		verify(target).set("key".getBytes(), "value".getBytes());
+		verify(target, never()).close();
+	}
+
+	@Test
+	public void testDriverConnectionIsWrapped() {
+		assertEquals(CloseSuppressingRedisConnection.class,
+				CloseSuppressingRedisConnection.wrap(new JedisConnection(new Jedis("localhost"))).getClass());
+	}
+
+	@Test
+	public void testTemplateFallsBackToProxyForOtherConnections() {
+		RedisTemplate<String, String> template = new RedisTemplate<String, String>();
+		template.setConnectionFactory(mock(RedisConnectionFactory.class));
+		template.afterPropertiesSet();
+
+		// mock classes implement additional interfaces
+		RedisConnection target = mock(RedisConnection.class);
+		RedisConnection connection = template.createRedisConnectionProxy(target);
+		assertTrue(Proxy.isProxyClass(connection.getClass()));
+		connection.close();
+		verify(target, never()).close();
+	}
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.core;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+/**
+ * Unit tests for {@link LazyDeserializingList} and {@link LazyDeserializingSet}.
+ */
+public class LazyDeserializingCollectionsTests {
+
+	private final CountingSerializer serializer = new CountingSerializer();
+
+	@Test
+	public void testListDeserializesOnAccessOnly() {
+		List<String> list = new LazyDeserializingList<String>(rawValues(500), serializer);
+		assertEquals(500, list.size());
+		assertEquals(0, serializer.count);
+
+		for (int i = 0; i < 20; i++) {
+			assertEquals("value" + i, list.get(i));
+		}
+		assertEquals("value0", list.get(0));
+		assertEquals(20, serializer.count);
+	}
+
+	@Test
+	public void testListEquality() {
+		List<String> list = new LazyDeserializingList<String>(rawValues(3), serializer);
+		assertEquals(Arrays.asList("value0", "value1", "value2"), list);
+		assertEquals(Arrays.asList("value0", "value1", "value2").hashCode(), list.hashCode());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testListIsReadOnly() {
+		new LazyDeserializingList<String>(rawValues(3), serializer).add("value");
+	}
+
+	@Test
+	public void testSetKeepsOrder() {
+		Set<String> set = new LazyDeserializingSet<String>(new LinkedHashSet<byte[]>(rawValues(100)), serializer);
+		Iterator<String> iterator = set.iterator();
+		assertEquals("value0", iterator.next());
+		assertEquals("value1", iterator.next());
+		assertEquals(2, serializer.count);
+
+		assertEquals(100, set.size());
+		assertTrue(set.contains("value99"));
+		assertEquals(new LinkedHashSet<String>(new LazyDeserializingList<String>(rawValues(100), serializer)), set);
+	}
+
+	@Test
+	public void testConcurrentReadsSeeTheSameValue() throws Exception {
+		final List<String> list = new LazyDeserializingList<String>(rawValues(200), new StringRedisSerializer() {
+			@Override
+			public String deserialize(byte[] bytes) {
+				Thread.yield();
+				return super.deserialize(bytes);
+			}
+		});
+		final CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<List<String>>> results = new ArrayList<Future<List<String>>>();
+			for (int t = 0; t < 4; t++) {
+				results.add(executor.submit(new Callable<List<String>>() {
+					public List<String> call() throws Exception {
+						start.await();
+						List<String> read = new ArrayList<String>(list.size());
+						for (int i = 0; i < list.size(); i++) {
+							read.add(list.get(i));
+						}
+						return read;
+					}
+				}));
+			}
+			start.countDown();
+
+			for (Future<List<String>> result : results) {
+				List<String> read = result.get(10, TimeUnit.SECONDS);
+				for (int i = 0; i < read.size(); i++) {
+					assertEquals("value" + i, read.get(i));
+					assertSame(list.get(i), read.get(i));
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static List<byte[]> rawValues(int count) {
+		List<byte[]> raw = new ArrayList<byte[]>(count);
+		for (int i = 0; i < count; i++) {
+			raw.add(("value" + i).getBytes());
+		}
+		return raw;
+	}
+
+	private static class CountingSerializer extends StringRedisSerializer {
+
+		int count;
+
+		@Override
+		public String deserialize(byte[] bytes) {
+			count++;
+			return super.deserialize(bytes);
+		}
+	}
+}
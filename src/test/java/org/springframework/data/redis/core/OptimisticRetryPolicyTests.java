@@ -0,0 +1,57 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.core;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link OptimisticRetryPolicy}
+ */
+public class OptimisticRetryPolicyTests {
+
+	@Test
+	public void testBackoffGrowsExponentiallyWithJitter() {
+		OptimisticRetryPolicy policy = new OptimisticRetryPolicy(10, 8, 100);
+		for (int i = 0; i < 100; i++) {
+			assertBetween(4, 8, policy.getBackoff(1));
+			assertBetween(8, 16, policy.getBackoff(2));
+			assertBetween(16, 32, policy.getBackoff(3));
+			assertBetween(50, 100, policy.getBackoff(5));
+			assertBetween(50, 100, policy.getBackoff(64));
+		}
+	}
+
+	@Test
+	public void testNoBackoff() {
+		assertEquals(0, new OptimisticRetryPolicy(3, 0, 0).getBackoff(2));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidMaxAttempts() {
+		new OptimisticRetryPolicy(0, 1, 10);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidBackoffRange() {
+		new OptimisticRetryPolicy(3, 10, 1);
+	}
+
+	private void assertBetween(long min, long max, long actual) {
+		assertTrue(actual + " not in [" + min + ", " + max + "]", actual >= min && actual <= max);
+	}
+}
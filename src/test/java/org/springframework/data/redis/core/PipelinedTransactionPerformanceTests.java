@@ -0,0 +1,159 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.core;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.*;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.ConnectionFactoryTracker;
+import org.springframework.data.redis.RedisTestProfileValueSource;
+import org.springframework.data.redis.SettingsUtils;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.srp.SrpConnectionFactory;
+
+/**
+ * Benchmark of transactions executed one by one against the same transactions sent through
+ * {@link RedisTemplate#executePipelined(SessionCallback)}, where MULTI, the queued commands and EXEC of all transactions
+ * are written back to back and their replies read once. Only runs as part of the long tests.
+ */
+@RunWith(Parameterized.class)
+public class PipelinedTransactionPerformanceTests {
+
+	private static final String KEY = "PipelinedTransactionPerformanceTests:counter";
+	private static final int TRANSACTIONS = 200;
+	private static final int COMMANDS = 20;
+
+	private final RedisConnectionFactory factory;
+
+	private StringRedisTemplate template;
+
+	public PipelinedTransactionPerformanceTests(RedisConnectionFactory factory) {
+		this.factory = factory;
+		ConnectionFactoryTracker.add(factory);
+	}
+
+	@Parameters
+	public static Collection<Object[]> testParams() {
+		JedisConnectionFactory jedisConnFactory = new JedisConnectionFactory();
+		jedisConnFactory.setPort(SettingsUtils.getPort());
+		jedisConnFactory.setHostName(SettingsUtils.getHost());
+		jedisConnFactory.afterPropertiesSet();
+
+		LettuceConnectionFactory lettuceConnFactory = new LettuceConnectionFactory();
+		lettuceConnFactory.setPort(SettingsUtils.getPort());
+		lettuceConnFactory.setHostName(SettingsUtils.getHost());
+		lettuceConnFactory.afterPropertiesSet();
+
+		SrpConnectionFactory srpConnFactory = new SrpConnectionFactory();
+		srpConnFactory.setPort(SettingsUtils.getPort());
+		srpConnFactory.setHostName(SettingsUtils.getHost());
+		srpConnFactory.afterPropertiesSet();
+
+		return Arrays.asList(new Object[][] { { jedisConnFactory }, { lettuceConnFactory }, { srpConnFactory } });
+	}
+
+	@AfterClass
+	public static void cleanUp() {
+		ConnectionFactoryTracker.cleanUp();
+	}
+
+	@Before
+	public void setUp() {
+		assumeTrue(RedisTestProfileValueSource.matches("runLongTests", "true"));
+		template = new StringRedisTemplate(factory);
+		template.delete(KEY);
+	}
+
+	@After
+	public void tearDown() {
+		if (template != null) {
+			template.delete(KEY);
+		}
+	}
+
+	@Test
+	public void testPipelinedTransactions() {
+		// warm up
+		runSequential();
+		runPipelined();
+		template.delete(KEY);
+
+		long start = System.nanoTime();
+		runSequential();
+		long sequentialTime = System.nanoTime() - start;
+		assertEquals(String.valueOf(TRANSACTIONS * COMMANDS), template.opsForValue().get(KEY));
+
+		template.delete(KEY);
+		start = System.nanoTime();
+		List<Object> results = runPipelined();
+		long pipelinedTime = System.nanoTime() - start;
+		assertEquals(String.valueOf(TRANSACTIONS * COMMANDS), template.opsForValue().get(KEY));
+		assertEquals(TRANSACTIONS, results.size());
+		for (Object txResults : results) {
+			assertEquals(COMMANDS, ((List<?>) txResults).size());
+		}
+
+		System.out.println(String.format("%s: %d transactions of %d commands - sequential %d ms - pipelined %d ms", factory
+				.getClass().getSimpleName(), TRANSACTIONS, COMMANDS, TimeUnit.NANOSECONDS.toMillis(sequentialTime),
+				TimeUnit.NANOSECONDS.toMillis(pipelinedTime)));
+		assertTrue("pipelined transactions not faster", pipelinedTime < sequentialTime);
+	}
+
+	private void runSequential() {
+		for (int i = 0; i < TRANSACTIONS; i++) {
+			template.execute(new IncrementSession());
+		}
+	}
+
+	private List<Object> runPipelined() {
+		return template.executePipelined(new SessionCallback<Object>() {
+			public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+				for (int i = 0; i < TRANSACTIONS; i++) {
+					new IncrementSession().execute(operations);
+				}
+				return null;
+			}
+		});
+	}
+
+	private static class IncrementSession implements SessionCallback<List<Object>> {
+
+		@SuppressWarnings("unchecked")
+		public <K, V> List<Object> execute(RedisOperations<K, V> operations) throws DataAccessException {
+			RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+			ops.multi();
+			for (int i = 0; i < COMMANDS; i++) {
+				ops.opsForValue().increment(KEY, 1);
+			}
+			return ops.exec();
+		}
+	}
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.core;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+/**
+ * Unit tests for {@link ReadCoalescer} and its use by {@link RedisTemplate}
+ */
+public class ReadCoalescerTests {
+
+	private static final int THREADS = 8;
+
+	private ExecutorService executor;
+	private CountDownLatch release;
+	private AtomicInteger reads;
+
+	@Before
+	public void setUp() {
+		executor = Executors.newFixedThreadPool(THREADS);
+		release = new CountDownLatch(1);
+		reads = new AtomicInteger();
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testConcurrentReadsShareResult() throws Exception {
+		final ReadCoalescer coalescer = new ReadCoalescer();
+		List<Future<Object>> results = submit(new Callable<Object>() {
+			public Object call() {
+				return coalescer.execute(ReadCoalescer.GET, blockingRead(new Object()), "key".getBytes());
+			}
+		});
+		awaitWaiting(coalescer);
+		release.countDown();
+
+		Object result = results.get(0).get(5, TimeUnit.SECONDS);
+		for (Future<Object> future : results) {
+			assertSame(result, future.get(5, TimeUnit.SECONDS));
+		}
+		assertEquals(1, reads.get());
+		assertEquals(THREADS - 1, coalescer.getCoalescedReads());
+	}
+
+	@Test
+	public void testReadsAreNotCached() {
+		ReadCoalescer coalescer = new ReadCoalescer();
+		release.countDown();
+		coalescer.execute(ReadCoalescer.GET, blockingRead("foo"), "key".getBytes());
+		coalescer.execute(ReadCoalescer.GET, blockingRead("foo"), "key".getBytes());
+		assertEquals(2, reads.get());
+		assertEquals(0, coalescer.getCoalescedReads());
+	}
+
+	@Test
+	public void testDifferentReadsAreNotCoalesced() throws Exception {
+		final ReadCoalescer coalescer = new ReadCoalescer();
+		final AtomicInteger index = new AtomicInteger();
+		List<Future<Object>> results = submit(new Callable<Object>() {
+			public Object call() {
+				return coalescer.execute(ReadCoalescer.GET, blockingRead("foo"), ("key" + index.getAndIncrement()).getBytes());
+			}
+		});
+		release.countDown();
+		for (Future<Object> future : results) {
+			future.get(5, TimeUnit.SECONDS);
+		}
+		assertEquals(THREADS, reads.get());
+		assertEquals(0, coalescer.getCoalescedReads());
+	}
+
+	@Test
+	public void testFailureIsPropagatedToAllCallers() throws Exception {
+		final ReadCoalescer coalescer = new ReadCoalescer();
+		final RedisConnectionFailureException failure = new RedisConnectionFailureException("down");
+		List<Future<Object>> results = submit(new Callable<Object>() {
+			public Object call() {
+				try {
+					return coalescer.execute(ReadCoalescer.GET, new Callable<Object>() {
+						public Object call() throws Exception {
+							reads.incrementAndGet();
+							release.await();
+							throw failure;
+						}
+					}, "key".getBytes());
+				} catch (RedisConnectionFailureException ex) {
+					return ex;
+				}
+			}
+		});
+		awaitWaiting(coalescer);
+		release.countDown();
+		for (Future<Object> future : results) {
+			assertSame(failure, future.get(5, TimeUnit.SECONDS));
+		}
+		assertEquals(1, reads.get());
+	}
+
+	@Test
+	public void testTemplateCoalescesGet() throws Exception {
+		RedisConnectionFactory factory = mock(RedisConnectionFactory.class);
+		RedisConnection connection = mock(RedisConnection.class);
+		when(factory.getConnection()).thenReturn(connection);
+		when(connection.get(any(byte[].class))).thenAnswer(new Answer<byte[]>() {
+			public byte[] answer(InvocationOnMock invocation) throws Throwable {
+				reads.incrementAndGet();
+				release.await();
+				return "bar".getBytes();
+			}
+		});
+		final StringRedisTemplate template = new StringRedisTemplate(factory);
+		template.setReadCoalescer(new ReadCoalescer());
+
+		List<Future<Object>> results = submit(new Callable<Object>() {
+			public Object call() {
+				return template.opsForValue().get("foo");
+			}
+		});
+		awaitWaiting(template.getReadCoalescer());
+		release.countDown();
+		for (Future<Object> future : results) {
+			assertEquals("bar", future.get(5, TimeUnit.SECONDS));
+		}
+		assertEquals(1, reads.get());
+		verify(factory, times(1)).getConnection();
+	}
+
+	@Test
+	public void testTemplateDoesNotCoalesceOnBoundConnection() {
+		RedisConnectionFactory factory = mock(RedisConnectionFactory.class);
+		RedisConnection connection = mock(RedisConnection.class);
+		when(factory.getConnection()).thenReturn(connection);
+		ReadCoalescer coalescer = spy(new ReadCoalescer());
+		StringRedisTemplate template = new StringRedisTemplate(factory);
+		template.setReadCoalescer(coalescer);
+
+		template.execute(new SessionCallback<Object>() {
+			@SuppressWarnings("unchecked")
+			public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+				((RedisOperations<String, String>) operations).opsForValue().get("foo");
+				return null;
+			}
+		});
+		template.opsForHash().entries("foo");
+		// only the read outside of the session is coalesced
+		verify(coalescer, times(1)).execute(anyString(), Matchers.<Callable<Object>> any(), (byte[][]) anyVararg());
+	}
+
+	@Test
+	public void testCommandsNotConfiguredAreNotCoalesced() {
+		ReadCoalescer coalescer = new ReadCoalescer(Collections.singleton(ReadCoalescer.HGET));
+		assertTrue(coalescer.isCoalesced(ReadCoalescer.HGET));
+		assertFalse(coalescer.isCoalesced(ReadCoalescer.GET));
+	}
+
+	private Callable<Object> blockingRead(final Object result) {
+		return new Callable<Object>() {
+			public Object call() throws Exception {
+				reads.incrementAndGet();
+				release.await();
+				return result;
+			}
+		};
+	}
+
+	private List<Future<Object>> submit(Callable<Object> task) {
+		List<Future<Object>> futures = new ArrayList<Future<Object>>();
+		for (int i = 0; i < THREADS; i++) {
+			futures.add(executor.submit(task));
+		}
+		return futures;
+	}
+
+	// waits until all threads but the one performing the read have joined it
+	private void awaitWaiting(ReadCoalescer coalescer) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (coalescer.getCoalescedReads() < THREADS - 1 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.core;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Unit tests for nested connection bindings through {@link RedisConnectionUtils} and
+ * {@link RedisConnectionBindingInterceptor}
+ */
+public class RedisConnectionBindingTests {
+
+	private RedisConnectionFactory factory;
+	private RedisConnection connection;
+	private StringRedisTemplate template;
+
+	@Before
+	public void setUp() {
+		factory = mock(RedisConnectionFactory.class);
+		connection = mock(RedisConnection.class);
+		when(factory.getConnection()).thenReturn(connection);
+		template = new StringRedisTemplate(factory);
+	}
+
+	@After
+	public void tearDown() {
+		assertFalse(TransactionSynchronizationManager.hasResource(factory));
+	}
+
+	@Test
+	public void testNestedBindings() {
+		RedisConnection bound = RedisConnectionUtils.bindConnection(factory);
+		assertSame(bound, RedisConnectionUtils.bindConnection(factory));
+		RedisConnectionUtils.unbindConnection(factory);
+		assertTrue(RedisConnectionUtils.isConnectionTransactional(bound, factory));
+		verify(connection, never()).close();
+
+		RedisConnectionUtils.unbindConnection(factory);
+		assertFalse(RedisConnectionUtils.isConnectionTransactional(bound, factory));
+		verify(connection).close();
+		verify(factory, times(1)).getConnection();
+	}
+
+	@Test
+	public void testUnbindWithoutBinding() {
+		RedisConnectionUtils.unbindConnection(factory);
+		verifyZeroInteractions(factory);
+	}
+
+	@Test
+	public void testTemplateOperationsShareBoundConnection() {
+		RedisConnectionUtils.bindConnection(factory);
+		try {
+			template.opsForValue().get("foo");
+			template.hasKey("foo");
+			// session callbacks join the binding instead of closing it
+			template.execute(new SessionCallback<Object>() {
+				public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+					template.opsForValue().get("foo");
+					return null;
+				}
+			});
+			template.opsForValue().get("foo");
+			verify(connection, never()).close();
+		} finally {
+			RedisConnectionUtils.unbindConnection(factory);
+		}
+		verify(factory, times(1)).getConnection();
+		verify(connection, times(3)).get("foo".getBytes());
+		verify(connection).close();
+	}
+
+	@Test
+	public void testInterceptor() {
+		ProxyFactory proxyFactory = new ProxyFactory(new Runnable() {
+			public void run() {
+				template.opsForValue().get("foo");
+				template.opsForValue().get("bar");
+			}
+		});
+		proxyFactory.addAdvice(new RedisConnectionBindingInterceptor(factory));
+		Runnable proxy = (Runnable) proxyFactory.getProxy();
+
+		proxy.run();
+		verify(factory, times(1)).getConnection();
+		verify(connection).close();
+
+		proxy.run();
+		verify(factory, times(2)).getConnection();
+	}
+
+	@Test
+	public void testInterceptorUnbindsOnException() {
+		ProxyFactory proxyFactory = new ProxyFactory(new Runnable() {
+			public void run() {
+				template.opsForValue().get("foo");
+				throw new IllegalStateException();
+			}
+		});
+		proxyFactory.addAdvice(new RedisConnectionBindingInterceptor(factory));
+		try {
+			((Runnable) proxyFactory.getProxy()).run();
+			fail("Expected IllegalStateException");
+		} catch (IllegalStateException expected) {}
+		verify(connection).close();
+	}
+}
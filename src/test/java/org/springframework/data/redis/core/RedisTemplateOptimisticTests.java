@@ -0,0 +1,194 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.core;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.redis.ConnectionFactoryTracker;
+import org.springframework.data.redis.SettingsUtils;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.srp.SrpConnectionFactory;
+
+/**
+ * Integration test of {@link RedisTemplate#executeOptimistic(Collection, OptimisticCallback)}
+ */
+@RunWith(Parameterized.class)
+public class RedisTemplateOptimisticTests {
+
+	private static final String KEY = "RedisTemplateOptimisticTests:counter";
+
+	private final RedisConnectionFactory factory;
+
+	private StringRedisTemplate template;
+
+	public RedisTemplateOptimisticTests(RedisConnectionFactory factory) {
+		this.factory = factory;
+		ConnectionFactoryTracker.add(factory);
+	}
+
+	@Parameters
+	public static Collection<Object[]> testParams() {
+		JedisConnectionFactory jedisConnFactory = new JedisConnectionFactory();
+		jedisConnFactory.setPort(SettingsUtils.getPort());
+		jedisConnFactory.setHostName(SettingsUtils.getHost());
+		jedisConnFactory.afterPropertiesSet();
+
+		LettuceConnectionFactory lettuceConnFactory = new LettuceConnectionFactory();
+		lettuceConnFactory.setPort(SettingsUtils.getPort());
+		lettuceConnFactory.setHostName(SettingsUtils.getHost());
+		lettuceConnFactory.afterPropertiesSet();
+
+		SrpConnectionFactory srpConnFactory = new SrpConnectionFactory();
+		srpConnFactory.setPort(SettingsUtils.getPort());
+		srpConnFactory.setHostName(SettingsUtils.getHost());
+		srpConnFactory.afterPropertiesSet();
+
+		return Arrays.asList(new Object[][] { { jedisConnFactory }, { lettuceConnFactory }, { srpConnFactory } });
+	}
+
+	@AfterClass
+	public static void cleanUp() {
+		ConnectionFactoryTracker.cleanUp();
+	}
+
+	@Before
+	public void setUp() {
+		template = new StringRedisTemplate(factory);
+		template.opsForValue().set(KEY, "0");
+	}
+
+	@After
+	public void tearDown() {
+		template.delete(KEY);
+	}
+
+	@Test
+	public void testExecuteOptimistic() {
+		List<Object> results = template.executeOptimistic(Collections.singleton(KEY), new IncrementCallback(0));
+		assertNotNull(results);
+		assertEquals("1", template.opsForValue().get(KEY));
+
+		OptimisticExecutionMetrics metrics = template.getOptimisticExecutionMetrics().get(
+				IncrementCallback.class.getName());
+		assertEquals(1, metrics.getExecutions());
+		assertEquals(1, metrics.getAttempts());
+		assertEquals(0, metrics.getConflicts());
+	}
+
+	@Test
+	public void testRetryOnConflict() {
+		IncrementCallback callback = new IncrementCallback(1);
+		template.executeOptimistic(Collections.singleton(KEY), callback,
+				new OptimisticRetryPolicy(3, 0, 0));
+		// the concurrent modification sets 100, which the retry reads and increments
+		assertEquals("101", template.opsForValue().get(KEY));
+		assertEquals(2, callback.reads.get());
+
+		OptimisticExecutionMetrics metrics = template.getOptimisticExecutionMetrics().get(
+				IncrementCallback.class.getName());
+		assertEquals(2, metrics.getAttempts());
+		assertEquals(1, metrics.getConflicts());
+		assertEquals(0.5, metrics.getConflictRate(), 0);
+	}
+
+	@Test
+	public void testFailAfterMaxAttempts() {
+		IncrementCallback callback = new IncrementCallback(Integer.MAX_VALUE);
+		try {
+			template.executeOptimistic(Collections.singleton(KEY), callback, new OptimisticRetryPolicy(3, 0, 1));
+			fail("Expected OptimisticLockingFailureException");
+		} catch (OptimisticLockingFailureException expected) {}
+		assertEquals(3, callback.reads.get());
+		assertEquals("100", template.opsForValue().get(KEY));
+
+		OptimisticExecutionMetrics metrics = template.getOptimisticExecutionMetrics().get(
+				IncrementCallback.class.getName());
+		assertEquals(1, metrics.getFailures());
+		assertEquals(3, metrics.getConflicts());
+	}
+
+	@Test
+	public void testWriteExceptionDiscardsTransaction() {
+		try {
+			template.executeOptimistic(Collections.singleton(KEY), new OptimisticCallback<String>() {
+				public <K, V> String read(RedisOperations<K, V> operations) {
+					return "1";
+				}
+
+				@SuppressWarnings("unchecked")
+				public <K, V> void write(RedisOperations<K, V> operations, String state) {
+					((RedisOperations<String, String>) operations).opsForValue().set(KEY, state);
+					throw new IllegalStateException();
+				}
+			});
+			fail("Expected IllegalStateException");
+		} catch (IllegalStateException expected) {}
+		assertEquals("0", template.opsForValue().get(KEY));
+		// connection is usable afterwards
+		template.executeOptimistic(Collections.singleton(KEY), new IncrementCallback(0));
+		assertEquals("1", template.opsForValue().get(KEY));
+	}
+
+	/**
+	 * Increments the counter, modifying it from another connection during the first given number of reads.
+	 */
+	private class IncrementCallback implements OptimisticCallback<Long> {
+
+		private final int conflicts;
+		private final AtomicInteger reads = new AtomicInteger();
+
+		IncrementCallback(int conflicts) {
+			this.conflicts = conflicts;
+		}
+
+		@SuppressWarnings("unchecked")
+		public <K, V> Long read(RedisOperations<K, V> operations) throws DataAccessException {
+			Long value = Long.valueOf(((RedisOperations<String, String>) operations).opsForValue().get(KEY));
+			if (reads.getAndIncrement() < conflicts) {
+				RedisConnection connection = factory.getConnection();
+				try {
+					connection.set(KEY.getBytes(), "100".getBytes());
+				} finally {
+					connection.close();
+				}
+			}
+			return value;
+		}
+
+		@SuppressWarnings("unchecked")
+		public <K, V> void write(RedisOperations<K, V> operations, Long state) throws DataAccessException {
+			((RedisOperations<String, String>) operations).opsForValue().set(KEY, String.valueOf(state + 1));
+		}
+	}
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.core;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.*;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.RedisTestProfileValueSource;
+import org.springframework.data.redis.SettingsUtils;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Benchmark of the per-call overhead of {@link RedisTemplate#execute(RedisCallback)}, comparing the delegating
+ * connection wrapper with the JDK proxy previously exposed to callbacks. The callback only calls connection methods
+ * that do not reach the server (connections come from a pool), so the measured time is the template overhead. Also
+ * compares pool checkouts per operation with a connection bound for a whole scope. Only runs as part of the long tests.
+ */
+public class RedisTemplatePerformanceTests {
+
+	private static final int WARMUP_ITERATIONS = 200000;
+	private static final int ITERATIONS = 1000000;
+
+	private JedisConnectionFactory factory;
+
+	private final RedisCallback<Object> callback = new RedisCallback<Object>() {
+
+		public Object doInRedis(RedisConnection connection) throws DataAccessException {
+			for (int i = 0; i < 5; i++) {
+				connection.isPipelined();
+				connection.isQueueing();
+			}
+			return connection.getNativeConnection();
+		}
+	};
+
+	@Before
+	public void setUp() {
+		assumeTrue(RedisTestProfileValueSource.matches("runLongTests", "true"));
+		factory = new JedisConnectionFactory();
+		factory.setHostName(SettingsUtils.getHost());
+		factory.setPort(SettingsUtils.getPort());
+		factory.afterPropertiesSet();
+	}
+
+	@After
+	public void tearDown() {
+		if (factory != null) {
+			factory.destroy();
+		}
+	}
+
+	@Test
+	public void testExecuteOverhead() {
+		RedisTemplate<String, String> template = new RedisTemplate<String, String>();
+		template.setConnectionFactory(factory);
+		template.afterPropertiesSet();
+
+		RedisTemplate<String, String> proxyTemplate = new RedisTemplate<String, String>() {
+
+			@Override
+			protected RedisConnection createRedisConnectionProxy(RedisConnection pm) {
+				Class<?>[] ifcs = ClassUtils.getAllInterfacesForClass(pm.getClass(), getClass().getClassLoader());
+				return (RedisConnection) Proxy.newProxyInstance(pm.getClass().getClassLoader(), ifcs,
+						new CloseSuppressingInvocationHandler(pm));
+			}
+		};
+		proxyTemplate.setConnectionFactory(factory);
+		proxyTemplate.afterPropertiesSet();
+
+		run(proxyTemplate, WARMUP_ITERATIONS);
+		run(template, WARMUP_ITERATIONS);
+		long proxyTime = run(proxyTemplate, ITERATIONS);
+		long wrapperTime = run(template, ITERATIONS);
+
+		System.out.println(String.format("execute: proxy %d ns/call - wrapper %d ns/call", proxyTime / ITERATIONS,
+				wrapperTime / ITERATIONS));
+		System.out.println(String.format("total: proxy %d ms - wrapper %d ms", TimeUnit.NANOSECONDS.toMillis(proxyTime),
+				TimeUnit.NANOSECONDS.toMillis(wrapperTime)));
+
+		assertTrue("execute not faster", wrapperTime < proxyTime);
+	}
+
+	@Test
+	public void testBoundConnectionScope() {
+		RedisTemplate<String, String> template = new RedisTemplate<String, String>();
+		template.setConnectionFactory(factory);
+		template.afterPropertiesSet();
+
+		runScopes(template, WARMUP_ITERATIONS / 20, false);
+		runScopes(template, WARMUP_ITERATIONS / 20, true);
+		long pooledTime = runScopes(template, ITERATIONS / 20, false);
+		long boundTime = runScopes(template, ITERATIONS / 20, true);
+
+		System.out.println(String.format("scope of 20 operations: pooled %d ns - bound %d ns", pooledTime
+				/ (ITERATIONS / 20), boundTime / (ITERATIONS / 20)));
+		assertTrue("bound scope not faster", boundTime < pooledTime);
+	}
+
+	private long runScopes(RedisTemplate<String, String> template, int scopes, boolean bind) {
+		long start = System.nanoTime();
+		for (int i = 0; i < scopes; i++) {
+			if (bind) {
+				RedisConnectionUtils.bindConnection(factory);
+			}
+			try {
+				for (int j = 0; j < 20; j++) {
+					template.execute(callback);
+				}
+			} finally {
+				if (bind) {
+					RedisConnectionUtils.unbindConnection(factory);
+				}
+			}
+		}
+		return System.nanoTime() - start;
+	}
+
+	private long run(RedisTemplate<String, String> template, int iterations) {
+		long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			template.execute(callback);
+		}
+		return System.nanoTime() - start;
+	}
+}
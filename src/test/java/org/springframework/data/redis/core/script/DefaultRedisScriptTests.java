@@ -44,6 +44,18 @@ public class DefaultRedisScriptTests {
 		assertFalse(sha1.equals(redisScript.getSha1()));
 	}
 
+	@Test
+	public void testGetSha1NoRefreshCheck() {
+		StaticScriptSource script = new StaticScriptSource("return KEYS[1]");
+		DefaultRedisScript<String> redisScript = new DefaultRedisScript<String>();
+		redisScript.setScriptSource(script);
+		redisScript.setRefreshCheckDelay(-1);
+		String sha1 = redisScript.getSha1();
+		script.setScript("return KEYS[2]");
+		// Modification is not detected once the sha has been calculated
+		assertEquals(sha1, redisScript.getSha1());
+	}
+
 	@Test
 	public void testGetScriptAsString() {
 		DefaultRedisScript<String> redisScript = new DefaultRedisScript<String>();
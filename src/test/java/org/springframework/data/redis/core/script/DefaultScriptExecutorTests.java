@@ -32,8 +32,10 @@ import org.springframework.core.io.ClassPathResource;
 import org.springframework.dao.DataAccessException;
 import org.springframework.data.redis.Person;
 import org.springframework.data.redis.RedisTestProfileValueSource;
+import org.springframework.data.redis.SettingsUtils;
 import org.springframework.data.redis.connection.RedisConnection;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
 import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
@@ -247,4 +249,77 @@ public class DefaultScriptExecutorTests {
 		assertEquals("HELLO", scriptExecutor.execute(script, null));
 		assertEquals("HELLO", scriptExecutor.execute(script, null));
 	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testExecuteBatch() {
+		this.template = new StringRedisTemplate();
+		template.setConnectionFactory(connFactory);
+		template.afterPropertiesSet();
+		DefaultRedisScript<Long> script = new DefaultRedisScript<Long>();
+		script.setScriptText("return redis.call('INCRBY', KEYS[1], ARGV[1])");
+		script.setResultType(Long.class);
+		ScriptExecutor<String> scriptExecutor = new DefaultScriptExecutor<String>(template);
+		List<List<String>> keys = Arrays.asList(Collections.singletonList("a"), Collections.singletonList("b"),
+				Collections.singletonList("a"));
+		List<Object[]> args = Arrays.asList(new Object[] { "1" }, new Object[] { "5" }, new Object[] { "2" });
+		// script is not cached yet, evalsha fails and is repeated after loading the script
+		assertEquals(Arrays.asList(1L, 5L, 3L), scriptExecutor.executeBatch(script, keys, args));
+		assertEquals(Arrays.asList(4L, 10L, 6L), scriptExecutor.executeBatch(script, keys, args));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testExecuteBatchValueResults() {
+		this.template = new StringRedisTemplate();
+		template.setConnectionFactory(connFactory);
+		template.afterPropertiesSet();
+		DefaultRedisScript<String> script = new DefaultRedisScript<String>();
+		script.setScriptText("return 'bar'..KEYS[1]");
+		script.setResultType(String.class);
+		ScriptExecutor<String> scriptExecutor = new DefaultScriptExecutor<String>(template);
+		List<List<String>> keys = Arrays.asList(Collections.singletonList("foo"), Collections.singletonList("baz"));
+		assertEquals(Arrays.asList("barfoo", "barbaz"), scriptExecutor.executeBatch(script, keys, null));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testExecuteBatchPipelined() {
+		this.template = new StringRedisTemplate();
+		template.setConnectionFactory(connFactory);
+		template.afterPropertiesSet();
+		final DefaultRedisScript<String> script = new DefaultRedisScript<String>();
+		script.setScriptText("return KEYS[1]");
+		script.setResultType(String.class);
+		final ScriptExecutor<String> scriptExecutor = new DefaultScriptExecutor<String>(template);
+		List<Object> results = template.executePipelined(new SessionCallback<String>() {
+			@SuppressWarnings("rawtypes")
+			public String execute(RedisOperations operations) throws DataAccessException {
+				assertNull(scriptExecutor.executeBatch(script,
+						Arrays.asList(Collections.singletonList("foo"), Collections.singletonList("bar")), null));
+				return null;
+			}
+		});
+		assertEquals(Arrays.asList("foo", "bar"), results);
+	}
+
+	@Test
+	public void testExecuteBatchWithoutPipelineSupport() {
+		JedisConnectionFactory jedisConnFactory = new JedisConnectionFactory();
+		jedisConnFactory.setHostName(SettingsUtils.getHost());
+		jedisConnFactory.setPort(SettingsUtils.getPort());
+		jedisConnFactory.afterPropertiesSet();
+		try {
+			StringRedisTemplate jedisTemplate = new StringRedisTemplate(jedisConnFactory);
+			DefaultRedisScript<String> script = new DefaultRedisScript<String>();
+			script.setScriptText("return 'bar'..KEYS[1]");
+			script.setResultType(String.class);
+			ScriptExecutor<String> scriptExecutor = new DefaultScriptExecutor<String>(jedisTemplate);
+			List<List<String>> keys = Arrays.asList(Collections.singletonList("foo"), Collections.singletonList("baz"));
+			assertEquals(Arrays.asList("barfoo", "barbaz"), scriptExecutor.executeBatch(script, keys, null));
+		} finally {
+			jedisConnFactory.destroy();
+		}
+		this.template = new StringRedisTemplate(connFactory);
+	}
 }
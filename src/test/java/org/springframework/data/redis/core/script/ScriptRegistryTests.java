@@ -0,0 +1,208 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.core.script;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.support.BeanDefinitionBuilder;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.SettingsUtils;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Integration test of {@link ScriptRegistry}
+ */
+public class ScriptRegistryTests {
+
+	private LettuceConnectionFactory factory;
+
+	private StringRedisTemplate template;
+
+	private ScriptRegistry registry;
+
+	private DefaultRedisScript<String> script;
+
+	@Before
+	public void setUp() {
+		factory = new LettuceConnectionFactory();
+		factory.setHostName(SettingsUtils.getHost());
+		factory.setPort(SettingsUtils.getPort());
+		factory.afterPropertiesSet();
+
+		script = new DefaultRedisScript<String>();
+		script.setScriptText("return 'bar'..KEYS[1]");
+		script.setResultType(String.class);
+
+		registry = new ScriptRegistry(factory);
+		registry.setScripts(Collections.singletonList(script));
+		registry.afterPropertiesSet();
+
+		template = new StringRedisTemplate();
+		template.setConnectionFactory(factory);
+		template.setScriptExecutor(new DefaultScriptExecutor<String>(template, registry));
+		template.afterPropertiesSet();
+	}
+
+	@After
+	public void tearDown() {
+		RedisConnection connection = factory.getConnection();
+		try {
+			connection.scriptFlush();
+		} finally {
+			connection.close();
+		}
+		factory.destroy();
+	}
+
+	@Test
+	public void testScriptsLoadedOnStartup() {
+		assertTrue(registry.isLoaded(script));
+		assertEquals(Collections.singletonList(true), scriptExists(script.getSha1()));
+	}
+
+	@Test
+	public void testApplicationContextScriptsLoadedOnRefresh() {
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.registerBeanDefinition("script",
+				BeanDefinitionBuilder.rootBeanDefinition(DefaultRedisScript.class).addPropertyValue("scriptText", "return 42")
+						.addPropertyValue("resultType", Long.class).getBeanDefinition());
+		context.registerBeanDefinition("registry", BeanDefinitionBuilder.rootBeanDefinition(ScriptRegistry.class)
+				.addConstructorArgValue(factory).getBeanDefinition());
+		context.refresh();
+		try {
+			RedisScript<?> contextScript = context.getBean(RedisScript.class);
+			assertTrue(context.getBean(ScriptRegistry.class).isLoaded(contextScript));
+			assertEquals(Collections.singletonList(true), scriptExists(contextScript.getSha1()));
+		} finally {
+			context.close();
+		}
+	}
+
+	@Test
+	public void testExecutePipelined() {
+		List<Object> results = template.executePipelined(new SessionCallback<Object>() {
+			@SuppressWarnings({ "rawtypes", "unchecked" })
+			public Object execute(RedisOperations operations) throws DataAccessException {
+				operations.execute(script, Collections.singletonList("foo"));
+				operations.execute(script, Collections.singletonList("baz"));
+				return null;
+			}
+		});
+		assertEquals(Arrays.asList("barfoo", "barbaz"), results);
+	}
+
+	@Test
+	public void testExecuteTx() {
+		List<Object> results = template.execute(new SessionCallback<List<Object>>() {
+			@SuppressWarnings({ "rawtypes", "unchecked" })
+			public List<Object> execute(RedisOperations operations) throws DataAccessException {
+				operations.multi();
+				operations.execute(script, Collections.singletonList("foo"));
+				return operations.exec();
+			}
+		});
+		assertEquals(Collections.singletonList("barfoo"), results);
+	}
+
+	@Test
+	public void testRevalidateAfterScriptCacheLoss() {
+		RedisConnection connection = factory.getConnection();
+		try {
+			connection.scriptFlush();
+		} finally {
+			connection.close();
+		}
+		// evalsha fails and falls back to eval, invalidating the registry
+		assertEquals("barfoo", template.execute(script, Collections.singletonList("foo")));
+		assertFalse(registry.isLoaded(script));
+
+		connection = factory.getConnection();
+		try {
+			connection.scriptFlush();
+		} finally {
+			connection.close();
+		}
+		testExecutePipelined();
+		assertTrue(registry.isLoaded(script));
+	}
+
+	@Test
+	public void testRevalidateBetweenPipelines() {
+		registry.setRevalidationInterval(0);
+		testExecutePipelined();
+
+		// the registry is not told about the flush
+		flushScripts();
+		assertTrue(registry.isLoaded(script));
+		testExecutePipelined();
+		assertEquals(Collections.singletonList(true), scriptExists(script.getSha1()));
+	}
+
+	@Test
+	public void testNoRevalidationWithinInterval() {
+		registry.setRevalidationInterval(60000);
+		flushScripts();
+		assertTrue(registry.ensureLoaded(script));
+		assertEquals(Collections.singletonList(false), scriptExists(script.getSha1()));
+	}
+
+	@Test
+	public void testUnregisteredScriptLoadedOnFirstUse() {
+		final DefaultRedisScript<Long> other = new DefaultRedisScript<Long>();
+		other.setScriptText("return 7");
+		other.setResultType(Long.class);
+		assertFalse(registry.isLoaded(other));
+		List<Object> results = template.executePipelined(new SessionCallback<Object>() {
+			@SuppressWarnings({ "rawtypes", "unchecked" })
+			public Object execute(RedisOperations operations) throws DataAccessException {
+				operations.execute(other, null);
+				return null;
+			}
+		});
+		assertEquals(Collections.singletonList(7L), results);
+		assertTrue(registry.isLoaded(other));
+	}
+
+	private void flushScripts() {
+		RedisConnection connection = factory.getConnection();
+		try {
+			connection.scriptFlush();
+		} finally {
+			connection.close();
+		}
+	}
+
+	private List<Boolean> scriptExists(String sha1) {
+		RedisConnection connection = factory.getConnection();
+		try {
+			return connection.scriptExists(sha1);
+		} finally {
+			connection.close();
+		}
+	}
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.listener;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.util.ByteArrayWrapper;
+import org.springframework.data.redis.listener.DispatchMetrics.TopicMetrics;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+/**
+ * Unit tests for {@link DispatchQueue}.
+ */
+public class DispatchQueueTests {
+
+	private static final StringRedisSerializer serializer = new StringRedisSerializer();
+
+	private final List<Runnable> tasks = new ArrayList<Runnable>();
+	private final List<String> received = new ArrayList<String>();
+
+	private final Executor executor = new Executor() {
+		public void execute(Runnable command) {
+			tasks.add(command);
+		}
+	};
+
+	private final DispatchQueue.ListenerInvoker invoker = new DispatchQueue.ListenerInvoker() {
+		public void invoke(MessageListener listener, Message message, byte[] source) {
+			received.add(serializer.deserialize(message.getBody()));
+		}
+	};
+
+	private final MessageListener listener = new MessageListener() {
+		public void onMessage(Message message, byte[] pattern) {}
+	};
+
+	private DispatchMetrics metrics;
+	private TopicMetrics topic;
+
+	@Before
+	public void setUp() {
+		metrics = new DispatchMetrics();
+		topic = metrics.forTopic(new ByteArrayWrapper(serializer.serialize("prices")));
+	}
+
+	@Test
+	public void testUnboundedQueueSubmitsEveryMessage() {
+		DispatchQueue queue = new DispatchQueue(0, OverflowPolicy.BLOCK, executor, invoker, metrics);
+		dispatch(queue, "prices", "1", "2", "3");
+
+		assertEquals(3, tasks.size());
+		assertEquals(3, metrics.getQueueDepth());
+		runTasks();
+		assertEquals(3, received.size());
+		assertEquals(0, metrics.getQueueDepth());
+		assertEquals(3, topic.getDispatchedCount());
+	}
+
+	@Test
+	public void testDropNewest() {
+		DispatchQueue queue = new DispatchQueue(2, OverflowPolicy.DROP_NEWEST, executor, invoker, metrics);
+		dispatch(queue, "prices", "1", "2", "3", "4");
+
+		assertEquals(2, metrics.getQueueDepth());
+		runTasks();
+		assertEquals("[1, 2]", received.toString());
+		assertEquals(2, topic.getDroppedCount());
+		assertEquals(2, metrics.getDroppedCount());
+	}
+
+	@Test
+	public void testDropOldest() {
+		DispatchQueue queue = new DispatchQueue(2, OverflowPolicy.DROP_OLDEST, executor, invoker, metrics);
+		dispatch(queue, "prices", "1", "2", "3", "4");
+
+		assertEquals(2, tasks.size());
+		runTasks();
+		assertEquals("[3, 4]", received.toString());
+		assertEquals(2, topic.getDroppedCount());
+		assertEquals(0, metrics.getQueueDepth());
+	}
+
+	@Test
+	public void testConflateKeepsLatestMessagePerChannel() {
+		DispatchQueue queue = new DispatchQueue(10, OverflowPolicy.CONFLATE, executor, invoker, metrics);
+		dispatch(queue, "prices", "1", "2");
+		dispatch(queue, "rates", "a");
+		dispatch(queue, "prices", "3");
+
+		assertEquals(2, metrics.getQueueDepth());
+		runTasks();
+		assertEquals("[3, a]", received.toString());
+		assertEquals(2, topic.getConflatedCount());
+		assertEquals(0, topic.getDroppedCount());
+	}
+
+	@Test
+	public void testConflateAfterDeliveryQueuesAgain() {
+		DispatchQueue queue = new DispatchQueue(10, OverflowPolicy.CONFLATE, executor, invoker, metrics);
+		dispatch(queue, "prices", "1");
+		runTasks();
+		dispatch(queue, "prices", "2");
+		runTasks();
+
+		assertEquals("[1, 2]", received.toString());
+		assertEquals(0, topic.getConflatedCount());
+	}
+
+	@Test
+	public void testInactiveBlockingQueueDropsMessages() {
+		DispatchQueue queue = new DispatchQueue(1, OverflowPolicy.BLOCK, executor, invoker, metrics);
+		queue.setActive(false);
+		dispatch(queue, "prices", "1", "2");
+
+		runTasks();
+		assertEquals("[1]", received.toString());
+		assertEquals(1, topic.getDroppedCount());
+	}
+
+	@Test
+	public void testConflatingModeDeliversLatestMessagePerKeyOnceListenerIsFree() {
+		DispatchQueue queue = conflatingQueue(DispatchQueue.CHANNEL_KEY_EXTRACTOR);
+		dispatch(queue, "prices", "1", "2");
+		dispatch(queue, "rates", "a");
+		dispatch(queue, "prices", "3");
+
+		// a single task per listener, whatever the number of messages
+		assertEquals(1, tasks.size());
+		assertEquals(2, metrics.getQueueDepth());
+		runTasks();
+		assertEquals("[3, a]", received.toString());
+		assertEquals(2, topic.getConflatedCount());
+		assertEquals(0, metrics.getQueueDepth());
+		assertTrue(tasks.isEmpty());
+	}
+
+	@Test
+	public void testConflatingModeReplacesMessagesWhileListenerIsBusy() {
+		final List<DispatchQueue> holder = new ArrayList<DispatchQueue>();
+		DispatchQueue queue = new DispatchQueue(0, OverflowPolicy.BLOCK, true, DispatchQueue.CHANNEL_KEY_EXTRACTOR,
+				executor, new DispatchQueue.ListenerInvoker() {
+					public void invoke(MessageListener listener, Message message, byte[] source) {
+						String body = serializer.deserialize(message.getBody());
+						received.add(body);
+						// messages published while the listener runs
+						if ("1".equals(body)) {
+							dispatch(holder.get(0), "prices", "2", "3", "4");
+						}
+					}
+				}, metrics);
+		holder.add(queue);
+
+		dispatch(queue, "prices", "1");
+		runTasks();
+		assertEquals("[1, 4]", received.toString());
+		assertEquals(2, topic.getConflatedCount());
+		assertTrue(tasks.isEmpty());
+	}
+
+	@Test
+	public void testConflatingModeUsesKeyExtractor() {
+		DispatchQueue queue = conflatingQueue(new ConflationKeyExtractor() {
+			public Object getKey(Message message) {
+				// instrument id prefix, e.g. "EUR:1.35"
+				return serializer.deserialize(message.getBody()).split(":")[0];
+			}
+		});
+		dispatch(queue, "prices", "EUR:1", "USD:1", "EUR:2", "GBP:1", "USD:2");
+
+		runTasks();
+		assertEquals("[EUR:2, USD:2, GBP:1]", received.toString());
+		assertEquals(2, topic.getConflatedCount());
+	}
+
+	@Test
+	public void testConflatingModeReschedulesAfterListenerFailure() {
+		DispatchQueue queue = new DispatchQueue(0, OverflowPolicy.BLOCK, true, DispatchQueue.CHANNEL_KEY_EXTRACTOR,
+				executor, new DispatchQueue.ListenerInvoker() {
+					public void invoke(MessageListener listener, Message message, byte[] source) {
+						String body = serializer.deserialize(message.getBody());
+						if ("fail".equals(body)) {
+							throw new IllegalStateException();
+						}
+						received.add(body);
+					}
+				}, metrics);
+		dispatch(queue, "prices", "fail");
+		dispatch(queue, "rates", "a");
+
+		try {
+			runTasks();
+			fail("expected listener failure");
+		} catch (IllegalStateException ex) {
+			// expected
+		}
+		runTasks();
+		assertEquals("[a]", received.toString());
+	}
+
+	@Test
+	public void testConflatingModeForgetsRemovedListener() {
+		DispatchQueue queue = conflatingQueue(DispatchQueue.CHANNEL_KEY_EXTRACTOR);
+		dispatch(queue, "prices", "1");
+		dispatch(queue, "rates", "a");
+
+		queue.removeListener(listener);
+		assertEquals(0, metrics.getQueueDepth());
+		assertEquals(2, topic.getDroppedCount());
+
+		// a listener registered again gets a fresh mailbox, scheduled on its own
+		dispatch(queue, "prices", "2");
+		assertEquals(2, tasks.size());
+		runTasks();
+		assertEquals("[2]", received.toString());
+	}
+
+	@Test
+	public void testConflatePolicyUsesKeyExtractor() {
+		DispatchQueue queue = new DispatchQueue(10, OverflowPolicy.CONFLATE, false, new ConflationKeyExtractor() {
+			public Object getKey(Message message) {
+				return serializer.deserialize(message.getBody()).split(":")[0];
+			}
+		}, executor, invoker, metrics);
+		dispatch(queue, "prices", "EUR:1", "USD:1", "EUR:2");
+
+		runTasks();
+		assertEquals("[EUR:2, USD:1]", received.toString());
+		assertEquals(1, topic.getConflatedCount());
+	}
+
+	private DispatchQueue conflatingQueue(ConflationKeyExtractor keyExtractor) {
+		return new DispatchQueue(0, OverflowPolicy.BLOCK, true, keyExtractor, executor, invoker, metrics);
+	}
+
+	private void dispatch(DispatchQueue queue, String channel, String... bodies) {
+		for (String body : bodies) {
+			Message message = new DefaultMessage(serializer.serialize(channel), serializer.serialize(body));
+			queue.dispatch(listener, message, message.getChannel(), topic);
+		}
+	}
+
+	private void runTasks() {
+		List<Runnable> copy = new ArrayList<Runnable>(tasks);
+		tasks.clear();
+		for (Runnable task : copy) {
+			task.run();
+		}
+	}
+}
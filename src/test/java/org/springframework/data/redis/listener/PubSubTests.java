@@ -16,14 +16,19 @@
 package org.springframework.data.redis.listener;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assume.assumeTrue;
 import static org.junit.matchers.JUnitMatchers.hasItems;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.LinkedBlockingDeque;
@@ -153,6 +158,31 @@ public class PubSubTests<T> {
 		assertEquals(COUNT, bag.size());
 	}
 
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testConvertAndSendAll() throws Exception {
+		List<T> payloads = Arrays.asList(getT(), getT(), getT());
+
+		List<Long> receivers = template.convertAndSendAll(CHANNEL, payloads);
+		assertEquals(3, receivers.size());
+		for (Long count : receivers) {
+			assertTrue(count >= 1);
+		}
+
+		Map<String, List<T>> messages = new LinkedHashMap<String, List<T>>();
+		messages.put(CHANNEL, payloads.subList(0, 2));
+		messages.put(CHANNEL + "-unknown", payloads.subList(0, 1));
+
+		Map<String, List<Long>> receiversPerChannel = template.convertAndSendAll(messages);
+		assertEquals(2, receiversPerChannel.get(CHANNEL).size());
+		assertEquals(Arrays.asList(0L), receiversPerChannel.get(CHANNEL + "-unknown"));
+
+		for (int i = 0; i < 5; i++) {
+			assertNotNull(bag.poll(1, TimeUnit.SECONDS));
+		}
+		assertNull(bag.poll(500, TimeUnit.MILLISECONDS));
+	}
+
 	@Test
 	public void testContainerUnsubscribe() throws Exception {
 		T payload1 = getT();
@@ -173,6 +203,43 @@ public class PubSubTests<T> {
 		container.start();
 	}
 
+	@Test
+	public void testContainerWithMultipleSubscriptionConnections() throws Exception {
+		container.destroy();
+
+		container = new RedisMessageListenerContainer();
+		container.setConnectionFactory(template.getConnectionFactory());
+		container.setBeanName("shardedContainer");
+		container.setSubscriptionConnections(3);
+		container.addMessageListener(adapter, Arrays.asList(new ChannelTopic(CHANNEL), new ChannelTopic(CHANNEL + "-1"),
+				new ChannelTopic(CHANNEL + "-2"), new ChannelTopic(CHANNEL + "-3")));
+		container.setTaskExecutor(new SyncTaskExecutor());
+		container.setSubscriptionExecutor(new SimpleAsyncTaskExecutor());
+		container.afterPropertiesSet();
+		long begin = System.currentTimeMillis();
+		container.start();
+		// all subscription threads signal their start, none of them is waited for until the timeout
+		assertTrue(System.currentTimeMillis() - begin < TimeUnit.SECONDS.toMillis(4));
+
+		Thread.sleep(1000);
+
+		T payload = getT();
+		for (String channel : Arrays.asList(CHANNEL, CHANNEL + "-1", CHANNEL + "-2", CHANNEL + "-3")) {
+			template.convertAndSend(channel, payload);
+		}
+
+		for (int i = 0; i < 4; i++) {
+			assertNotNull(bag.poll(1, TimeUnit.SECONDS));
+		}
+
+		container.removeMessageListener(adapter, new ChannelTopic(CHANNEL + "-1"));
+		template.convertAndSend(CHANNEL + "-1", payload);
+		template.convertAndSend(CHANNEL + "-2", payload);
+
+		assertNotNull(bag.poll(1, TimeUnit.SECONDS));
+		assertNull(bag.poll(1, TimeUnit.SECONDS));
+	}
+
 	/**
 	 * @see DATAREDIS-251
 	 */
@@ -17,9 +17,13 @@ package org.springframework.data.redis.listener.adapter;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
@@ -156,6 +160,113 @@ public class MessageListenerTest {
 		assertEquals(1, listener.count);
 	}
 
+	@Test
+	public void testOnlyMethodsMatchingThePayloadTypeAreInvoked() throws Exception {
+		TypedDelegate delegate = new TypedDelegate();
+		MessageListenerAdapter adapter = new MessageListenerAdapter(delegate);
+		adapter.afterPropertiesSet();
+
+		adapter.onMessage(STRING_MSG, RAW_CHANNEL);
+		adapter.onMessage(STRING_MSG, RAW_CHANNEL);
+
+		assertEquals(2, delegate.strings);
+		assertEquals(0, delegate.numbers);
+		assertEquals(CHANNEL, delegate.channel);
+	}
+
+	@Test
+	public void testMethodsNotMatchingThePayloadTypeAreSkipped() throws Exception {
+		OverloadedDelegate delegate = new OverloadedDelegate();
+		MessageListenerAdapter adapter = new MessageListenerAdapter(delegate);
+		adapter.afterPropertiesSet();
+
+		adapter.onMessage(STRING_MSG, RAW_CHANNEL);
+
+		assertEquals(1, delegate.strings);
+		assertEquals(1, delegate.objects);
+		assertEquals(0, delegate.numbers);
+	}
+
+	@Test
+	public void testPayloadNotAcceptedByAnyMethodFails() throws Exception {
+		final List<Throwable> failures = new ArrayList<Throwable>();
+		MessageListenerAdapter adapter = new MessageListenerAdapter(new NumberDelegate()) {
+			@Override
+			protected void handleListenerException(Throwable ex) {
+				failures.add(ex);
+			}
+		};
+		adapter.afterPropertiesSet();
+
+		adapter.onMessage(STRING_MSG, RAW_CHANNEL);
+
+		assertEquals(1, failures.size());
+		assertTrue(failures.get(0) instanceof RedisListenerExecutionFailedException);
+		assertTrue(failures.get(0).getCause() instanceof IllegalArgumentException);
+	}
+
+	@Test
+	public void testNullPayloadNotAcceptedByPrimitiveMethods() throws Exception {
+		final List<Throwable> failures = new ArrayList<Throwable>();
+		MessageListenerAdapter adapter = new MessageListenerAdapter(new PrimitiveDelegate()) {
+			@Override
+			protected void handleListenerException(Throwable ex) {
+				failures.add(ex);
+			}
+		};
+		adapter.afterPropertiesSet();
+
+		adapter.onMessage(new DefaultMessage(RAW_CHANNEL, null), RAW_CHANNEL);
+
+		assertEquals(1, failures.size());
+		assertTrue(failures.get(0).getCause() instanceof IllegalArgumentException);
+	}
+
+	public static class PrimitiveDelegate {
+
+		public void handleMessage(long message) {}
+	}
+
+	public static class OverloadedDelegate {
+
+		int strings;
+		int objects;
+		int numbers;
+
+		public void handleMessage(String message) {
+			strings++;
+		}
+
+		public void handleMessage(Object message) {
+			objects++;
+		}
+
+		public void handleMessage(Integer message) {
+			numbers++;
+		}
+	}
+
+	public static class NumberDelegate {
+
+		public void handleMessage(Long message) {}
+	}
+
+	public static class TypedDelegate {
+
+		int strings;
+		int numbers;
+		String channel;
+
+		public void handleMessage(String message, String channel) {
+			strings++;
+			this.channel = channel;
+		}
+
+		public void handleMessage(Long message) {
+			numbers++;
+		}
+	}
+
 	class SampleListener implements MessageListener {
 
 		int count;
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.mapping;
+
+import static org.junit.Assert.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.data.redis.Address;
+import org.springframework.data.redis.Person;
+import org.springframework.data.redis.SettingsUtils;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.hash.DictionaryHashMapper;
+import org.springframework.data.redis.hash.HashFieldDictionary;
+import org.springframework.data.redis.hash.HashMapper;
+import org.springframework.data.redis.hash.JacksonHashMapper;
+
+/**
+ * Integration tests for {@link DictionaryHashMapper}.
+ */
+public class DictionaryHashMapperTest extends AbstractHashMapperTest {
+
+	private static final String DICTIONARY = "test-dictionary";
+
+	private static JedisConnectionFactory factory;
+
+	@BeforeClass
+	public static void setUpFactory() {
+		factory = new JedisConnectionFactory();
+		factory.setHostName(SettingsUtils.getHost());
+		factory.setPort(SettingsUtils.getPort());
+		factory.afterPropertiesSet();
+	}
+
+	@AfterClass
+	public static void tearDownFactory() {
+		factory.destroy();
+	}
+
+	@Before
+	public void setUp() {
+		new StringRedisTemplate(factory).delete(DICTIONARY);
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	protected HashMapper mapperFor(Class t) {
+		return dictionaryMapperFor(t);
+	}
+
+	private <T> HashMapper<T, String, Object> dictionaryMapperFor(Class<T> type) {
+		return new DictionaryHashMapper<T, Object>(new JacksonHashMapper<T>(type), new HashFieldDictionary(DICTIONARY,
+				factory));
+	}
+
+	@Test
+	public void testFieldNamesAreEncoded() {
+		Map<String, Object> hash = personMapper().toHash(new Person("George", "Enescu", 74));
+		assertEquals(4, hash.size());
+		for (String field : hash.keySet()) {
+			assertTrue(field, HashFieldDictionary.isCode(field));
+		}
+	}
+
+	@Test
+	public void testDictionaryIsShared() {
+		Person person = new Person("George", "Enescu", 74, new Address("liveni", 19));
+		Map<String, Object> hash = personMapper().toHash(person);
+
+		DictionaryHashMapper<Person, Object> other = personMapper();
+		assertEquals(person, other.fromHash(hash));
+		assertEquals(hash.keySet(), other.toHash(person).keySet());
+	}
+
+	@Test
+	public void testPlainFieldNamesAreRead() {
+		Map<String, Object> hash = new LinkedHashMap<String, Object>(new JacksonHashMapper<Address>(Address.class)
+				.toHash(new Address("Broadway", 1)));
+		DictionaryHashMapper<Address, Object> mapper = new DictionaryHashMapper<Address, Object>(
+				new JacksonHashMapper<Address>(Address.class), new HashFieldDictionary(DICTIONARY, factory));
+
+		assertEquals(new Address("Broadway", 1), mapper.fromHash(hash));
+	}
+
+	@Test
+	public void testNumericFieldNames() {
+		Map<String, Object> map = new LinkedHashMap<String, Object>();
+		map.put("2014", "legacy");
+		DictionaryHashMapper<Map<String, Object>, Object> mapper = new DictionaryHashMapper<Map<String, Object>, Object>(
+				new MapHashMapper(), new HashFieldDictionary(DICTIONARY, factory));
+
+		// written without the decorator
+		assertEquals(map, mapper.fromHash(map));
+
+		Map<String, Object> hash = mapper.toHash(map);
+		assertFalse(hash.containsKey("2014"));
+		assertEquals(map, mapper.fromHash(hash));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownCode() {
+		Map<String, Object> hash = new LinkedHashMap<String, Object>();
+		hash.put(HashFieldDictionary.CODE_MARKER + "999", "value");
+		personMapper().fromHash(hash);
+	}
+
+	@Test
+	public void testUnknownCodesDoNotReloadOnEachRead() {
+		HashFieldDictionary dictionary = new HashFieldDictionary(DICTIONARY, factory);
+		dictionary.setReloadInterval(60000);
+		String unknown = HashFieldDictionary.CODE_MARKER + "999";
+		assertNull(dictionary.decode(unknown));
+
+		// assigned by another client; not visible until the reload interval elapsed
+		String code = new HashFieldDictionary(DICTIONARY, factory).encode("firstName");
+		assertNull(dictionary.decode(code));
+
+		dictionary.setReloadInterval(0);
+		assertEquals("firstName", dictionary.decode(code));
+	}
+
+	private static class MapHashMapper implements HashMapper<Map<String, Object>, String, Object> {
+
+		public Map<String, Object> toHash(Map<String, Object> object) {
+			return object;
+		}
+
+		public Map<String, Object> fromHash(Map<String, Object> hash) {
+			return hash;
+		}
+	}
+
+	private DictionaryHashMapper<Person, Object> personMapper() {
+		return new DictionaryHashMapper<Person, Object>(new JacksonHashMapper<Person>(Person.class),
+				new HashFieldDictionary(DICTIONARY, factory));
+	}
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.mapping;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.data.redis.Person;
+import org.springframework.data.redis.SettingsUtils;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.hash.BeanUtilsHashMapper;
+import org.springframework.data.redis.hash.HashMapper;
+import org.springframework.data.redis.hash.HashMappingSession;
+
+/**
+ * Integration tests for {@link HashMappingSession}.
+ */
+public class HashMappingSessionTest {
+
+	private static final String KEY = "test-session-person";
+
+	private static JedisConnectionFactory factory;
+
+	private StringRedisTemplate template;
+	private HashOperations<String, String, String> hashOps;
+	private HashMappingSession<Person, String, String> session;
+
+	@BeforeClass
+	public static void setUpFactory() {
+		factory = new JedisConnectionFactory();
+		factory.setHostName(SettingsUtils.getHost());
+		factory.setPort(SettingsUtils.getPort());
+		factory.afterPropertiesSet();
+	}
+
+	@AfterClass
+	public static void tearDownFactory() {
+		factory.destroy();
+	}
+
+	@Before
+	public void setUp() {
+		template = new StringRedisTemplate(factory);
+		hashOps = template.opsForHash();
+		template.delete(KEY);
+		session = new HashMappingSession<Person, String, String>(new BeanUtilsHashMapper<Person>(Person.class), template);
+	}
+
+	@Test
+	public void testLoadMissingKey() {
+		assertNull(session.load(KEY));
+	}
+
+	@Test
+	public void testSaveWithoutLoadWritesAllFields() {
+		assertEquals(4, session.save(KEY, new Person("George", "Enescu", 74)));
+		assertEquals("George", hashOps.get(KEY, "firstName"));
+		assertEquals("Enescu", hashOps.get(KEY, "lastName"));
+		assertEquals("74", hashOps.get(KEY, "age"));
+	}
+
+	@Test
+	public void testSaveWritesChangedFieldsOnly() {
+		session.save(KEY, new Person("George", "Enescu", 74));
+		session.clear();
+
+		Person person = session.load(KEY);
+		assertEquals(new Person("George", "Enescu", 74), person);
+		assertEquals(0, session.save(KEY, person));
+
+		// changed outside of the session, must not be overwritten
+		hashOps.put(KEY, "firstName", "Constantin");
+		person.setAge(75);
+		person.setLastName("Brancusi");
+		assertEquals(2, session.save(KEY, person));
+
+		assertEquals("Constantin", hashOps.get(KEY, "firstName"));
+		assertEquals("Brancusi", hashOps.get(KEY, "lastName"));
+		assertEquals("75", hashOps.get(KEY, "age"));
+		assertEquals(0, session.save(KEY, person));
+	}
+
+	@Test
+	public void testNullFieldsAreRemoved() {
+		session.save(KEY, new Person("George", "Enescu", 74));
+		Person person = session.load(KEY);
+		person.setLastName(null);
+		assertEquals(1, session.save(KEY, person));
+		assertFalse(hashOps.hasKey(KEY, "lastName"));
+		assertEquals("George", hashOps.get(KEY, "firstName"));
+	}
+
+	@Test
+	public void testSaveWithoutLoadReplacesStoredHash() {
+		hashOps.put(KEY, "nickname", "stale");
+		session.save(KEY, new Person("George", "Enescu", 74));
+		assertFalse(hashOps.hasKey(KEY, "nickname"));
+		assertEquals("George", hashOps.get(KEY, "firstName"));
+	}
+
+	@Test
+	public void testSaveWithoutFields() {
+		HashMappingSession<Map<String, String>, String, String> maps;
+		maps = new HashMappingSession<Map<String, String>, String, String>(new MapHashMapper(), template);
+		hashOps.put(KEY, "stale", "value");
+
+		Map<String, String> empty = Collections.emptyMap();
+		assertEquals(0, maps.save(KEY, empty));
+		assertFalse(template.hasKey(KEY));
+	}
+
+	@Test
+	public void testEvict() {
+		session.save(KEY, new Person("George", "Enescu", 74));
+		Person person = session.load(KEY);
+		session.evict(KEY);
+		hashOps.put(KEY, "firstName", "Constantin");
+		session.save(KEY, person);
+		assertEquals("George", hashOps.get(KEY, "firstName"));
+	}
+
+	private static class MapHashMapper implements HashMapper<Map<String, String>, String, String> {
+
+		public Map<String, String> toHash(Map<String, String> object) {
+			return object;
+		}
+
+		public Map<String, String> fromHash(Map<String, String> hash) {
+			return hash;
+		}
+	}
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.mapping;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.data.redis.Person;
+import org.springframework.data.redis.SettingsUtils;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.hash.LazyBeanHashLoader;
+
+/**
+ * Integration tests for {@link LazyBeanHashLoader}.
+ */
+public class LazyBeanHashLoaderTest {
+
+	private static final String KEY = "test-lazy-person";
+
+	private static JedisConnectionFactory factory;
+
+	private StringRedisTemplate template;
+	private HashOperations<String, String, String> hashOps;
+	private LazyBeanHashLoader<Person> loader;
+
+	@BeforeClass
+	public static void setUpFactory() {
+		factory = new JedisConnectionFactory();
+		factory.setHostName(SettingsUtils.getHost());
+		factory.setPort(SettingsUtils.getPort());
+		factory.afterPropertiesSet();
+	}
+
+	@AfterClass
+	public static void tearDownFactory() {
+		factory.destroy();
+	}
+
+	@Before
+	public void setUp() {
+		template = new StringRedisTemplate(factory);
+		hashOps = template.opsForHash();
+		template.delete(KEY);
+		Map<String, String> hash = new LinkedHashMap<String, String>();
+		hash.put("firstName", "George");
+		hash.put("lastName", "Enescu");
+		hash.put("age", "74");
+		hashOps.putAll(KEY, hash);
+		loader = new LazyBeanHashLoader<Person>(Person.class, template);
+	}
+
+	@Test
+	public void testMappedProperties() {
+		assertEquals(new HashSet<String>(Arrays.asList("firstName", "lastName", "age")), loader.getProperties());
+	}
+
+	@Test
+	public void testPropertiesAreLoadedOnFirstAccess() {
+		Person person = loader.load(KEY);
+		assertFalse(loader.isLoaded(person, "firstName"));
+
+		hashOps.put(KEY, "firstName", "Constantin");
+		assertEquals("Constantin", person.getFirstName());
+		assertTrue(loader.isLoaded(person, "firstName"));
+		assertFalse(loader.isLoaded(person, "lastName"));
+
+		// loaded values are not read again
+		hashOps.put(KEY, "firstName", "Ion");
+		assertEquals("Constantin", person.getFirstName());
+	}
+
+	@Test
+	public void testPrefetchedProperties() {
+		loader.setPrefetchedProperties("lastName");
+		Person person = loader.load(KEY);
+
+		assertEquals(74, person.getAge());
+		assertTrue(loader.isLoaded(person, "lastName"));
+		assertFalse(loader.isLoaded(person, "firstName"));
+
+		hashOps.put(KEY, "lastName", "Brancusi");
+		assertEquals("Enescu", person.getLastName());
+	}
+
+	@Test
+	public void testFetch() {
+		Person person = loader.load(KEY);
+		loader.fetch(person, "firstName", "age");
+		assertTrue(loader.isLoaded(person, "firstName"));
+		assertTrue(loader.isLoaded(person, "age"));
+		assertFalse(loader.isLoaded(person, "lastName"));
+	}
+
+	@Test
+	public void testOtherMethodsLoadAllProperties() {
+		Person person = loader.load(KEY);
+		// address is not mapped
+		assertNull(person.getAddress());
+		for (String property : loader.getProperties()) {
+			assertTrue(loader.isLoaded(person, property));
+		}
+	}
+
+	@Test
+	public void testFlushWritesChangedPropertiesOnly() {
+		Person person = loader.load(KEY);
+		person.setAge(75);
+		hashOps.put(KEY, "firstName", "Constantin");
+
+		loader.flush(person);
+		assertEquals("75", hashOps.get(KEY, "age"));
+		assertEquals("Constantin", hashOps.get(KEY, "firstName"));
+		assertFalse(loader.isLoaded(person, "firstName"));
+
+		person.setLastName(null);
+		loader.flush(person);
+		assertFalse(hashOps.hasKey(KEY, "lastName"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testFlushRejectsOtherObjects() {
+		loader.flush(new Person());
+	}
+}
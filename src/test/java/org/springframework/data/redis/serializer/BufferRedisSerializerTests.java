@@ -0,0 +1,146 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.serializer;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+import org.springframework.data.redis.Address;
+import org.springframework.data.redis.Person;
+
+/**
+ * Unit tests for the {@link BufferRedisSerializer} implementations and {@link SerializationUtils} buffer support.
+ */
+public class BufferRedisSerializerTests {
+
+	@Test
+	public void testStringSerializer() {
+		StringRedisSerializer serializer = new StringRedisSerializer();
+		assertBufferFormsMatch(serializer, "gr\u00fc\u00dfe");
+	}
+
+	@Test
+	public void testJdkSerializer() {
+		assertBufferFormsMatch(new JdkSerializationRedisSerializer(), new Person("Jane", "Doe", 33, new Address(
+				"Broadway", 1)));
+	}
+
+	@Test
+	public void testTypeTaggingSerializer() {
+		TypeTaggingRedisSerializer serializer = new TypeTaggingRedisSerializer();
+		assertBufferFormsMatch(serializer, "value");
+		assertBufferFormsMatch(serializer, 42L);
+		assertBufferFormsMatch(serializer, new Address("Broadway", 1));
+	}
+
+	@Test
+	public void testDeserializeFromRegionOfLargerBuffer() {
+		StringRedisSerializer serializer = new StringRedisSerializer();
+		ByteBuffer buffer = ByteBuffer.wrap("xxvaluexx".getBytes());
+		buffer.position(2);
+		buffer.limit(7);
+		assertEquals("value", serializer.deserialize(buffer.slice()));
+
+		buffer.position(2);
+		ByteBuffer direct = ByteBuffer.allocateDirect(5);
+		direct.put(buffer);
+		direct.flip();
+		assertEquals("value", serializer.deserialize(direct));
+	}
+
+	@Test
+	public void testSerializationBufferGrows() {
+		SerializationBuffer buffer = new SerializationBuffer(16);
+		for (int i = 0; i < 100; i++) {
+			buffer.write(i);
+		}
+		buffer.write(new byte[] { 1, 2, 3 }, 1, 2);
+
+		assertEquals(102, buffer.size());
+		byte[] bytes = buffer.toByteArray();
+		assertEquals(99, bytes[99]);
+		assertEquals(3, bytes[101]);
+
+		buffer.reset();
+		assertEquals(0, buffer.size());
+		assertTrue(buffer.capacity() >= 102);
+	}
+
+	@Test
+	public void testNestedBufferSerialization() {
+		// the tagging serializer goes through the thread local buffer, and so does its fallback
+		TypeTaggingRedisSerializer outer = new TypeTaggingRedisSerializer(new RedisSerializer<Object>() {
+
+			private final JdkSerializationRedisSerializer jdk = new JdkSerializationRedisSerializer();
+
+			public byte[] serialize(Object t) {
+				return jdk.serialize(SerializationUtils.serialize(new StringRedisSerializer(), t.toString()));
+			}
+
+			public Object deserialize(byte[] bytes) {
+				return new StringRedisSerializer().deserialize((byte[]) jdk.deserialize(bytes));
+			}
+		});
+		TypeTaggingRedisSerializer tagging = new TypeTaggingRedisSerializer(new TypeTaggingRedisSerializer(outer));
+
+		Object value = new StringBuilder("nested");
+		assertEquals("nested", tagging.deserialize(SerializationUtils.serialize(tagging, value)));
+	}
+
+	@Test
+	public void testSubclassOverridingArrayFormsIsNotBypassed() {
+		StringRedisSerializer serializer = new StringRedisSerializer() {
+
+			@Override
+			public byte[] serialize(String value) {
+				return super.serialize("tenant1:" + value);
+			}
+
+			@Override
+			public String deserialize(byte[] bytes) {
+				return super.deserialize(bytes).substring("tenant1:".length());
+			}
+		};
+
+		assertFalse(SerializationUtils.supportsBuffers(serializer));
+		byte[] bytes = SerializationUtils.serialize(serializer, "v");
+		assertEquals("tenant1:v", new StringRedisSerializer().deserialize(bytes));
+
+		TypeTaggingRedisSerializer tagging = new TypeTaggingRedisSerializer(new JdkSerializationRedisSerializer() {
+
+			@Override
+			public Object deserialize(byte[] bytes) {
+				return "custom";
+			}
+		});
+		assertEquals("custom", tagging.deserialize(SerializationUtils.serialize(tagging, new StringBuilder("v"))));
+	}
+
+	private static <T> void assertBufferFormsMatch(BufferRedisSerializer<T> serializer, T value) {
+		byte[] bytes = serializer.serialize(value);
+		assertArrayEquals(bytes, SerializationUtils.serialize(serializer, value));
+
+		SerializationBuffer buffer = new SerializationBuffer();
+		buffer.write(7);
+		serializer.serialize(value, buffer);
+		ByteBuffer view = buffer.asByteBuffer();
+		view.get();
+		assertEquals(value, serializer.deserialize(view));
+		assertEquals(value, serializer.deserialize(ByteBuffer.wrap(bytes)));
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.serializer;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.redis.Address;
+import org.springframework.data.redis.Person;
+import org.springframework.data.redis.RedisTestProfileValueSource;
+
+/**
+ * Benchmark comparing {@link CompactRedisSerializer} with {@link JdkSerializationRedisSerializer}, in terms of payload
+ * size and serialization round-trip time. Only runs as part of the long tests.
+ */
+public class CompactRedisSerializerPerformanceTests {
+
+	private static final int WARMUP_ITERATIONS = 20000;
+	private static final int ITERATIONS = 50000;
+
+	private final JdkSerializationRedisSerializer jdk = new JdkSerializationRedisSerializer();
+	private final CompactRedisSerializer compact = new CompactRedisSerializer();
+
+	@Before
+	public void setUp() {
+		assumeTrue(RedisTestProfileValueSource.matches("runLongTests", "true"));
+		compact.registerClass(1, Person.class);
+		compact.registerClass(2, Address.class);
+	}
+
+	@Test
+	public void testSingleObject() {
+		compare("person", new Person("George", "Enescu", 74, new Address("Liveni", 19)));
+	}
+
+	@Test
+	public void testObjectCollection() {
+		List<Person> people = new ArrayList<Person>();
+		for (int i = 0; i < 20; i++) {
+			people.add(new Person("first" + i, "last" + i, i, new Address("street" + i, i)));
+		}
+		compare("list of 20 people", people);
+	}
+
+	@Test
+	public void testMapOfPrimitives() {
+		Map<String, Object> map = new HashMap<String, Object>();
+		for (int i = 0; i < 20; i++) {
+			map.put("key" + i, (i % 2 == 0 ? Long.valueOf(i) : Double.valueOf(i)));
+		}
+		compare("map of 20 numbers", map);
+	}
+
+	private void compare(String name, Object value) {
+		byte[] jdkBytes = jdk.serialize(value);
+		byte[] compactBytes = compact.serialize(value);
+		assertEquals(value, compact.deserialize(compactBytes));
+
+		run(jdk, value, WARMUP_ITERATIONS);
+		run(compact, value, WARMUP_ITERATIONS);
+		long jdkTime = run(jdk, value, ITERATIONS);
+		long compactTime = run(compact, value, ITERATIONS);
+
+		System.out.println(String.format("%s: jdk %d bytes, %d ms - compact %d bytes, %d ms", name, jdkBytes.length,
+				TimeUnit.NANOSECONDS.toMillis(jdkTime), compactBytes.length, TimeUnit.NANOSECONDS.toMillis(compactTime)));
+
+		assertTrue("payload not smaller", compactBytes.length < jdkBytes.length);
+		assertTrue("round-trip not faster", compactTime < jdkTime);
+	}
+
+	private long run(RedisSerializer<Object> serializer, Object value, int iterations) {
+		long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			serializer.deserialize(serializer.serialize(value));
+		}
+		return System.nanoTime() - start;
+	}
+}
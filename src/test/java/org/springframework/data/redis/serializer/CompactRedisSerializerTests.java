@@ -0,0 +1,260 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.serializer;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.redis.Address;
+import org.springframework.data.redis.Person;
+
+/**
+ * Unit tests for {@link CompactRedisSerializer}.
+ */
+public class CompactRedisSerializerTests {
+
+	private CompactRedisSerializer serializer;
+
+	static class Node {
+
+		private String name;
+		private Node next;
+		private final List<Node> children = new ArrayList<Node>();
+		private transient String cached = "cached";
+
+		Node() {}
+
+		Node(String name) {
+			this.name = name;
+		}
+	}
+
+	static class Primitives {
+
+		boolean flag = true;
+		byte b = -1;
+		short s = Short.MIN_VALUE;
+		char c = '\u20ac';
+		int i = -42;
+		long l = Long.MAX_VALUE;
+		float f = 1.5f;
+		double d = Math.PI;
+		int[] values = { 1, -1, Integer.MAX_VALUE };
+	}
+
+	@Before
+	public void setUp() {
+		serializer = new CompactRedisSerializer();
+		serializer.setRegistrationRequired(false);
+	}
+
+	@Test
+	public void testNull() {
+		assertEquals(0, serializer.serialize(null).length);
+		assertNull(serializer.deserialize(new byte[0]));
+		assertNull(serializer.deserialize(null));
+	}
+
+	@Test
+	public void testSimpleValues() {
+		Object[] values = { "", "ascii", "gr\u00fc\u00dfe \u20ac \ud83d\ude00", Boolean.TRUE, Boolean.FALSE,
+				Byte.valueOf((byte) 7), Short.valueOf((short) -300), Integer.MIN_VALUE, Long.MIN_VALUE, 1.25f, -0.5d, 'x',
+				new byte[] { 1, 2, 3 }, new Date(), new BigInteger("-123456789012345678901234567890"),
+				new BigDecimal("3.14159265358979323846"), UUID.randomUUID(), TimeUnit.SECONDS };
+
+		for (Object value : values) {
+			Object result = serializer.deserialize(serializer.serialize(value));
+			if (value instanceof byte[]) {
+				assertArrayEquals((byte[]) value, (byte[]) result);
+			} else {
+				assertEquals(value, result);
+			}
+		}
+	}
+
+	@Test
+	public void testSmallIntegersTakeTwoBytes() {
+		assertEquals(2, serializer.serialize(42).length);
+		assertEquals(2, serializer.serialize(-42L).length);
+	}
+
+	@Test
+	public void testCollectionsAndMaps() {
+		Map<String, Object> map = new HashMap<String, Object>();
+		map.put("list", new ArrayList<Object>(Arrays.asList(1, "two", 3L)));
+		map.put("set", new LinkedHashSet<String>(Arrays.asList("b", "a")));
+		map.put("sorted", new TreeMap<String, Integer>(Collections.singletonMap("k", 1)));
+		map.put("array", new String[] { "x", null });
+
+		@SuppressWarnings("unchecked")
+		Map<String, Object> result = (Map<String, Object>) serializer.deserialize(serializer.serialize(map));
+		assertEquals(HashMap.class, result.getClass());
+		assertEquals(map.get("list"), result.get("list"));
+		assertEquals(LinkedHashSet.class, result.get("set").getClass());
+		assertEquals("[b, a]", result.get("set").toString());
+		assertEquals(map.get("sorted"), result.get("sorted"));
+		assertArrayEquals((String[]) map.get("array"), (String[]) result.get("array"));
+	}
+
+	@Test
+	public void testObjects() {
+		Person person = new Person("Jane", "Doe", 42, new Address("Main Street", 1));
+		assertEquals(person, serializer.deserialize(serializer.serialize(person)));
+
+		Primitives primitives = (Primitives) serializer.deserialize(serializer.serialize(new Primitives()));
+		Primitives expected = new Primitives();
+		assertEquals(expected.flag, primitives.flag);
+		assertEquals(expected.b, primitives.b);
+		assertEquals(expected.s, primitives.s);
+		assertEquals(expected.c, primitives.c);
+		assertEquals(expected.i, primitives.i);
+		assertEquals(expected.l, primitives.l);
+		assertEquals(expected.f, primitives.f, 0);
+		assertEquals(expected.d, primitives.d, 0);
+		assertArrayEquals(expected.values, primitives.values);
+	}
+
+	@Test
+	public void testObjectGraphWithCycles() {
+		Node root = new Node("root");
+		Node child = new Node("child");
+		root.children.add(child);
+		root.children.add(child);
+		child.next = root;
+		root.cached = "changed";
+
+		Node result = (Node) serializer.deserialize(serializer.serialize(root));
+		assertEquals("root", result.name);
+		assertEquals(2, result.children.size());
+		assertSame(result.children.get(0), result.children.get(1));
+		assertSame(result, result.children.get(0).next);
+		// transient fields are skipped, keeping the value assigned on construction
+		assertEquals("cached", result.cached);
+	}
+
+	@Test
+	public void testRegisteredClassesAreSmaller() {
+		Person person = new Person("Jane", "Doe", 42, new Address("Main Street", 1));
+		int unregistered = serializer.serialize(person).length;
+
+		serializer.registerClass(1, Person.class);
+		serializer.registerClass(2, Address.class);
+		byte[] bytes = serializer.serialize(person);
+
+		assertTrue(bytes.length < unregistered);
+		assertEquals(person, serializer.deserialize(bytes));
+	}
+
+	@Test
+	public void testClassNameIsWrittenOncePerPayload() {
+		List<Address> addresses = new ArrayList<Address>();
+		addresses.add(new Address("a", 1));
+		int single = serializer.serialize(addresses).length;
+		addresses.add(new Address("b", 2));
+
+		assertTrue(serializer.serialize(addresses).length - single < 10);
+	}
+
+	@Test
+	public void testRegistrationRequiredByDefault() {
+		byte[] bytes = serializer.serialize(new Address("a", 1));
+		CompactRedisSerializer defaults = new CompactRedisSerializer();
+		try {
+			defaults.serialize(new Address("a", 1));
+			fail("expected unregistered class to be rejected");
+		} catch (SerializationException ex) {
+			// expected
+		}
+		try {
+			defaults.deserialize(bytes);
+			fail("expected unregistered class to be rejected");
+		} catch (SerializationException ex) {
+			// expected
+		}
+	}
+
+	@Test(expected = SerializationException.class)
+	public void testRegistrationRequiredRejectsUnregisteredClassOnWrite() {
+		serializer.setRegistrationRequired(true);
+		serializer.serialize(new Address("a", 1));
+	}
+
+	@Test(expected = SerializationException.class)
+	public void testRegistrationRequiredRejectsUnregisteredClassOnRead() {
+		byte[] bytes = serializer.serialize(new Address("a", 1));
+		serializer.setRegistrationRequired(true);
+		serializer.deserialize(bytes);
+	}
+
+	@Test
+	public void testRegistrationRequiredAcceptsRegisteredClasses() {
+		serializer.registerClass(10, Address.class);
+		serializer.setRegistrationRequired(true);
+
+		Address address = new Address("a", 1);
+		assertEquals(address, serializer.deserialize(serializer.serialize(address)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testClassIdCannotBeReused() {
+		serializer.registerClass(1, Person.class);
+		serializer.registerClass(1, Address.class);
+	}
+
+	@Test
+	public void testFallbackToJavaSerialization() {
+		List<String> list = Collections.unmodifiableList(Arrays.asList("a", "b"));
+		Object result = serializer.deserialize(serializer.serialize(list));
+		assertEquals(list, result);
+		assertEquals(list.getClass(), result.getClass());
+	}
+
+	@Test(expected = SerializationException.class)
+	public void testNonSerializableObjectWithoutDefaultConstructor() {
+		serializer.serialize(new Thread());
+	}
+
+	@Test(expected = SerializationException.class)
+	public void testArrayLengthExceedingPayload() {
+		serializer.deserialize(new byte[] { 0x11, 0x03, (byte) 0xF0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07 });
+	}
+
+	@Test(expected = SerializationException.class)
+	public void testCollectionSizeExceedingPayload() {
+		// built-in ArrayList (id 18)
+		serializer.deserialize(new byte[] { 0x12, 0x4B, (byte) 0xF0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07 });
+	}
+
+	@Test(expected = SerializationException.class)
+	public void testDeserializeForeignData() {
+		serializer.deserialize(new JdkSerializationRedisSerializer().serialize("foreign"));
+	}
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.serializer;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+import org.springframework.data.redis.serializer.CompressingRedisSerializer.Compression;
+
+/**
+ * Unit tests for {@link CompressingRedisSerializer}.
+ */
+public class CompressingRedisSerializerTests {
+
+	private final StringRedisSerializer strings = new StringRedisSerializer();
+
+	@Test
+	public void testSmallPayloadIsLeftAsIs() {
+		CompressingRedisSerializer<String> serializer = new CompressingRedisSerializer<String>(strings);
+		assertArrayEquals(strings.serialize("small"), serializer.serialize("small"));
+		assertEquals("small", serializer.deserialize(serializer.serialize("small")));
+	}
+
+	@Test
+	public void testNull() {
+		CompressingRedisSerializer<String> serializer = new CompressingRedisSerializer<String>(strings);
+		assertNull(serializer.deserialize(serializer.serialize(null)));
+	}
+
+	@Test
+	public void testDeflate() {
+		assertCompressed(new CompressingRedisSerializer<String>(strings, Compression.DEFLATE));
+	}
+
+	@Test
+	public void testLz4() {
+		assertCompressed(new CompressingRedisSerializer<String>(strings, Compression.LZ4));
+	}
+
+	@Test
+	public void testReadsPayloadsOfEitherAlgorithm() {
+		String value = repetitive(5000);
+		CompressingRedisSerializer<String> deflate = new CompressingRedisSerializer<String>(strings, Compression.DEFLATE);
+		CompressingRedisSerializer<String> lz4 = new CompressingRedisSerializer<String>(strings, Compression.LZ4);
+
+		assertEquals(value, lz4.deserialize(deflate.serialize(value)));
+		assertEquals(value, deflate.deserialize(lz4.serialize(value)));
+	}
+
+	@Test
+	public void testReadsLegacyUncompressedPayloads() {
+		CompressingRedisSerializer<String> serializer = new CompressingRedisSerializer<String>(strings);
+		serializer.setThreshold(0);
+
+		String value = repetitive(5000);
+		assertEquals(value, serializer.deserialize(strings.serialize(value)));
+	}
+
+	@Test
+	public void testIncompressiblePayloadIsStoredUncompressed() {
+		byte[] random = new byte[4096];
+		new Random(0).nextBytes(random);
+		random[0] = 1;
+
+		CompressingRedisSerializer<byte[]> serializer = new CompressingRedisSerializer<byte[]>(new RawSerializer());
+		assertArrayEquals(random, serializer.serialize(random));
+	}
+
+	@Test
+	public void testPayloadStartingWithHeaderIsEscaped() {
+		byte[] raw = new byte[] { CompressingRedisSerializer.HEADER, 1, 2 };
+
+		CompressingRedisSerializer<byte[]> serializer = new CompressingRedisSerializer<byte[]>(new RawSerializer());
+		byte[] bytes = serializer.serialize(raw);
+		assertEquals(raw.length + 2, bytes.length);
+		assertArrayEquals(raw, serializer.deserialize(bytes));
+	}
+
+	@Test(expected = SerializationException.class)
+	public void testCorruptedPayload() {
+		CompressingRedisSerializer<String> serializer = new CompressingRedisSerializer<String>(strings);
+		byte[] bytes = serializer.serialize(repetitive(5000));
+		bytes[bytes.length / 2] ^= 0x55;
+		bytes[bytes.length - 1] ^= 0x55;
+		serializer.deserialize(bytes);
+	}
+
+	@Test
+	public void testCorruptedLengthIsRejectedBeforeAllocation() {
+		CompressingRedisSerializer<String> serializer = new CompressingRedisSerializer<String>(strings);
+		// ~4 GB varint overflowing to a negative length
+		assertRejected(serializer, new byte[] { CompressingRedisSerializer.HEADER, 1, -1, -1, -1, -1, 15, 0 });
+		// 2 GB claimed for a few bytes of input
+		assertRejected(serializer, new byte[] { CompressingRedisSerializer.HEADER, 2, -1, -1, -1, -1, 7, 0 });
+	}
+
+	@Test
+	public void testMaxUncompressedLength() {
+		CompressingRedisSerializer<String> serializer = new CompressingRedisSerializer<String>(strings);
+		byte[] bytes = serializer.serialize(repetitive(5000));
+		serializer.setMaxUncompressedLength(4999);
+		assertRejected(serializer, bytes);
+		serializer.setMaxUncompressedLength(5000);
+		assertEquals(repetitive(5000), serializer.deserialize(bytes));
+	}
+
+	@Test
+	public void testLegacyPayloadStartingWithHeaderFails() {
+		CompressingRedisSerializer<byte[]> serializer = new CompressingRedisSerializer<byte[]>(new RawSerializer());
+		assertRejected(serializer, new byte[] { CompressingRedisSerializer.HEADER, 1, 120, 3, 4 });
+	}
+
+	private static void assertRejected(RedisSerializer<?> serializer, byte[] bytes) {
+		try {
+			serializer.deserialize(bytes);
+			fail("expected a SerializationException");
+		} catch (SerializationException expected) {}
+	}
+
+	private void assertCompressed(CompressingRedisSerializer<String> serializer) {
+		String value = repetitive(6000);
+		byte[] bytes = serializer.serialize(value);
+		assertTrue(bytes.length < value.length() / 4);
+		assertEquals(CompressingRedisSerializer.HEADER, bytes[0]);
+		assertEquals(value, serializer.deserialize(bytes));
+
+		// buffers are reused across calls
+		String other = repetitive(20000);
+		assertEquals(other, serializer.deserialize(serializer.serialize(other)));
+		assertEquals(value, serializer.deserialize(serializer.serialize(value)));
+	}
+
+	private static String repetitive(int length) {
+		StringBuilder sb = new StringBuilder(length);
+		for (int i = 0; sb.length() < length; i++) {
+			sb.append("{\"id\":").append(i).append(",\"name\":\"item\",\"tags\":[\"redis\",\"cache\"]}");
+		}
+		return sb.substring(0, length);
+	}
+
+	private static class RawSerializer implements RedisSerializer<byte[]> {
+
+		public byte[] serialize(byte[] t) {
+			return t;
+		}
+
+		public byte[] deserialize(byte[] bytes) {
+			return bytes;
+		}
+	}
+}
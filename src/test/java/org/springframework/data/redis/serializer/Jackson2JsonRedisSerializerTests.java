@@ -17,12 +17,15 @@ package org.springframework.data.redis.serializer;
 
 import static org.junit.Assert.*;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.List;
 
 import org.hamcrest.core.Is;
 import org.hamcrest.core.IsNull;
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.data.redis.Address;
 import org.springframework.data.redis.Person;
 import org.springframework.data.redis.PersonObjectFactory;
 
@@ -34,6 +37,19 @@ public class Jackson2JsonRedisSerializerTests {
 
 	private Jackson2JsonRedisSerializer<Person> serializer;
 
+	public static class Employee extends Person {
+
+		private String company;
+
+		public String getCompany() {
+			return company;
+		}
+
+		public void setCompany(String company) {
+			this.company = company;
+		}
+	}
+
 	@Before
 	public void setUp() {
 		this.serializer = new Jackson2JsonRedisSerializer<Person>(Person.class);
@@ -86,4 +102,88 @@ public class Jackson2JsonRedisSerializerTests {
 		serializer.setObjectMapper(null);
 	}
 
+	@Test
+	public void testBufferRoundTrip() {
+
+		Person person = new PersonObjectFactory().instance();
+		SerializationBuffer buffer = new SerializationBuffer();
+		serializer.serialize(person, buffer);
+
+		assertArrayEquals(serializer.serialize(person), buffer.toByteArray());
+		assertEquals(person, serializer.deserialize(buffer.asByteBuffer()));
+		assertNull(serializer.deserialize(ByteBuffer.allocate(0)));
+	}
+
+	@Test
+	public void testDeserializeAll() {
+
+		Person first = new Person("first", "last", 1, new Address("street", 1));
+		Person second = new Person("second", "last", 2);
+		List<Person> result = SerializationUtils.deserialize(
+				Arrays.asList(serializer.serialize(first), null, new byte[0], serializer.serialize(second)), serializer);
+
+		assertEquals(Arrays.asList(first, null, null, second), result);
+	}
+
+	@Test
+	public void testDeserializeAllOfScalars() {
+
+		Jackson2JsonRedisSerializer<Long> numbers = new Jackson2JsonRedisSerializer<Long>(Long.class);
+		assertEquals(Arrays.asList(1L, 23L, 456L),
+				numbers.deserializeAll(Arrays.asList(numbers.serialize(1L), numbers.serialize(23L), numbers.serialize(456L))));
+	}
+
+	@Test
+	public void testTypeHintingPreservesSubtypes() {
+
+		serializer.setTypeHinting(true);
+		Employee employee = new Employee();
+		employee.setFirstName("Jane");
+		employee.setAge(30);
+		employee.setCompany("acme");
+		Person person = new Person("John", "Doe", 42);
+
+		Person result = serializer.deserialize(serializer.serialize(employee));
+		assertEquals(Employee.class, result.getClass());
+		assertEquals("acme", ((Employee) result).getCompany());
+		assertEquals(person, serializer.deserialize(serializer.serialize(person)));
+
+		List<Person> all = serializer.deserializeAll(Arrays.asList(serializer.serialize(person),
+				serializer.serialize(employee)));
+		assertEquals(person, all.get(0));
+		assertEquals("acme", ((Employee) all.get(1)).getCompany());
+	}
+
+	@Test(expected = SerializationException.class)
+	public void testTypeHintingRejectsUnrelatedTypes() {
+
+		serializer.setTypeHinting(true);
+		serializer.deserialize("[\"java.lang.Thread\",{}]".getBytes());
+	}
+
+	@Test
+	public void testTypeHintingDoesNotInitializeUnrelatedTypes() {
+
+		serializer.setTypeHinting(true);
+		try {
+			serializer.deserialize(("[\"" + Unrelated.class.getName() + "\",{}]").getBytes());
+			fail("expected a SerializationException");
+		} catch (SerializationException expected) {}
+		assertFalse(initialized);
+	}
+
+	@Test(expected = SerializationException.class)
+	public void testDeserializeAllFailsOnAnyMalformedValue() {
+
+		serializer.deserializeAll(Arrays.asList(serializer.serialize(new Person("John", "Doe", 42)),
+				"{\"age\":".getBytes()));
+	}
+
+	static boolean initialized;
+
+	static class Unrelated {
+		static {
+			initialized = true;
+		}
+	}
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.serializer;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link LongRedisSerializer}, {@link IntegerRedisSerializer} and {@link DoubleRedisSerializer}.
+ */
+public class NumericRedisSerializerTests {
+
+	private final LongRedisSerializer longs = new LongRedisSerializer();
+	private final IntegerRedisSerializer integers = new IntegerRedisSerializer();
+	private final DoubleRedisSerializer doubles = new DoubleRedisSerializer();
+	private final StringRedisSerializer strings = new StringRedisSerializer();
+
+	@Test
+	public void testLongs() {
+		long[] values = { 0, 1, -1, 9, 10, 99, 100, 123456789, -987654321012L, Long.MAX_VALUE, Long.MIN_VALUE,
+				Long.MAX_VALUE / 10, 999999999999999999L, 1000000000000000000L };
+		for (long value : values) {
+			assertEquals(String.valueOf(value), strings.deserialize(longs.serialize(value)));
+			assertEquals(Long.valueOf(value), longs.deserialize(strings.serialize(String.valueOf(value))));
+		}
+
+		Random random = new Random(0);
+		for (int i = 0; i < 1000; i++) {
+			long value = random.nextLong() >> random.nextInt(64);
+			assertEquals(Long.valueOf(value), longs.deserialize(longs.serialize(value)));
+		}
+	}
+
+	@Test
+	public void testIntegers() {
+		int[] values = { 0, 7, -7, 1234, Integer.MAX_VALUE, Integer.MIN_VALUE };
+		for (int value : values) {
+			assertEquals(String.valueOf(value), strings.deserialize(integers.serialize(value)));
+			assertEquals(Integer.valueOf(value), integers.deserialize(integers.serialize(value)));
+		}
+	}
+
+	@Test
+	public void testNulls() {
+		assertNull(longs.serialize(null));
+		assertNull(longs.deserialize(null));
+		assertNull(integers.deserialize(new byte[0]));
+		assertNull(doubles.deserialize(null));
+	}
+
+	@Test(expected = SerializationException.class)
+	public void testLongOverflow() {
+		longs.deserialize(strings.serialize("9223372036854775808"));
+	}
+
+	@Test(expected = SerializationException.class)
+	public void testIntegerOverflow() {
+		integers.deserialize(strings.serialize("2147483648"));
+	}
+
+	@Test(expected = SerializationException.class)
+	public void testInvalidLong() {
+		longs.deserialize(strings.serialize("12a"));
+	}
+
+	@Test(expected = SerializationException.class)
+	public void testSignOnly() {
+		longs.deserialize(strings.serialize("-"));
+	}
+
+	@Test
+	public void testDoublesUseRedisFormatForIntegralValues() {
+		assertEquals("5", strings.deserialize(doubles.serialize(5d)));
+		assertEquals("-12", strings.deserialize(doubles.serialize(-12d)));
+		assertEquals("10.5", strings.deserialize(doubles.serialize(10.5d)));
+	}
+
+	@Test
+	public void testDoubles() {
+		double[] values = { 0, -0d, 1, -1.5, 0.1, 0.3, 3.0000000000000004, 1e-10, 1e300, -2.5e-300, Double.MAX_VALUE,
+				Double.MIN_VALUE, Math.PI, 123456.789, 9007199254740993d, Double.NaN, Double.POSITIVE_INFINITY };
+		for (double value : values) {
+			assertEquals(Double.valueOf(value), doubles.deserialize(doubles.serialize(value)));
+		}
+
+		Random random = new Random(0);
+		for (int i = 0; i < 1000; i++) {
+			double value = random.nextDouble() * Math.pow(10, random.nextInt(20) - 10);
+			assertEquals(Double.valueOf(value), doubles.deserialize(doubles.serialize(value)));
+		}
+	}
+
+	@Test
+	public void testParsesRedisFloatRepresentations() {
+		String[] values = { "10.5", "3.0000000000000004", "5", "-0.25", "1.0E10", "1e-3", "0.000001", "+7.5", ".5",
+				"5.", "123456789012345678", "0.1000000000000000055511151231257827" };
+		for (String value : values) {
+			assertEquals(Double.valueOf(value), doubles.deserialize(strings.serialize(value)));
+		}
+	}
+
+	@Test(expected = SerializationException.class)
+	public void testInvalidDouble() {
+		doubles.deserialize(strings.serialize("1.2.3"));
+	}
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.serializer;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+
+/**
+ * Unit tests for {@link ParallelDeserializer}.
+ */
+public class ParallelDeserializerTests {
+
+	private final StringRedisSerializer serializer = new StringRedisSerializer();
+
+	private ExecutorService executor;
+
+	private final AtomicInteger submitted = new AtomicInteger();
+
+	private ParallelDeserializer deserializer;
+
+	@Before
+	public void setUp() {
+		executor = Executors.newFixedThreadPool(4);
+		deserializer = new ParallelDeserializer(new TaskExecutor() {
+
+			public void execute(Runnable task) {
+				submitted.incrementAndGet();
+				executor.execute(task);
+			}
+		});
+		deserializer.setThreshold(100);
+		deserializer.setParallelism(4);
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testOrderIsPreserved() {
+		List<byte[]> raw = rawValues(1003);
+		List<String> result = deserializer.deserialize(raw, serializer);
+
+		assertEquals(3, submitted.get());
+		assertEquals(1003, result.size());
+		for (int i = 0; i < raw.size(); i++) {
+			assertEquals("value" + i, result.get(i));
+		}
+	}
+
+	@Test
+	public void testSetOrderIsPreserved() {
+		Set<byte[]> raw = new LinkedHashSet<byte[]>(rawValues(500));
+		Set<String> result = deserializer.deserialize(raw, serializer);
+
+		assertEquals(LinkedHashSet.class, result.getClass());
+		assertEquals("value0", result.iterator().next());
+		assertEquals(500, result.size());
+	}
+
+	@Test
+	public void testSmallResultsStayOnCallingThread() {
+		assertEquals(99, deserializer.deserialize(rawValues(99), serializer).size());
+		assertEquals(0, submitted.get());
+		assertNull(deserializer.deserialize((List<byte[]>) null, serializer));
+	}
+
+	@Test
+	public void testRejectedChunksRunOnCallingThread() {
+		ParallelDeserializer rejecting = new ParallelDeserializer(new TaskExecutor() {
+
+			public void execute(Runnable task) {
+				throw new RejectedExecutionException();
+			}
+		});
+		rejecting.setThreshold(10);
+		rejecting.setParallelism(3);
+
+		assertEquals("value49", rejecting.deserialize(rawValues(50), serializer).get(49));
+	}
+
+	@Test
+	public void testSameThreadExecutor() {
+		ParallelDeserializer sync = new ParallelDeserializer(new SyncTaskExecutor());
+		sync.setThreshold(10);
+		assertEquals(Collections.nCopies(1, "value0"), sync.deserialize(rawValues(20), serializer).subList(0, 1));
+	}
+
+	@Test
+	public void testCallFromExecutorThread() throws Exception {
+		final ExecutorService single = Executors.newSingleThreadExecutor();
+		try {
+			final ParallelDeserializer nested = new ParallelDeserializer(single);
+			nested.setThreshold(100);
+			nested.setParallelism(4);
+
+			Future<List<String>> result = single.submit(new Callable<List<String>>() {
+				public List<String> call() {
+					return nested.deserialize(rawValues(1000), serializer);
+				}
+			});
+
+			List<String> values = result.get(10, TimeUnit.SECONDS);
+			assertEquals(1000, values.size());
+			assertEquals("value999", values.get(999));
+		} finally {
+			single.shutdownNow();
+		}
+	}
+
+	@Test(expected = SerializationException.class)
+	public void testExceptionsArePropagated() {
+		List<byte[]> raw = rawValues(400);
+		raw.set(350, new byte[] { 1, 2, 3 });
+		deserializer.deserialize(raw, new JdkSerializationRedisSerializer() {
+
+			@Override
+			public Object deserialize(byte[] bytes) {
+				if (bytes.length == 3) {
+					return super.deserialize(bytes);
+				}
+				return null;
+			}
+		});
+	}
+
+	private static List<byte[]> rawValues(int count) {
+		List<byte[]> raw = new ArrayList<byte[]>(count);
+		for (int i = 0; i < count; i++) {
+			raw.add(("value" + i).getBytes());
+		}
+		return raw;
+	}
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.serializer;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link RedisKeyBuilder}.
+ */
+public class RedisKeyBuilderTests {
+
+	private final StringRedisSerializer strings = new StringRedisSerializer();
+
+	@Test
+	public void testParts() {
+		RedisKeyBuilder builder = new RedisKeyBuilder("app:").separator(':');
+		assertEquals("app:user:42:gr\u00fc\u00dfe", strings.deserialize(builder.append("user").append(42L)
+				.append("gr\u00fc\u00dfe").build()));
+	}
+
+	@Test
+	public void testNumbers() {
+		RedisKeyBuilder builder = new RedisKeyBuilder().separator(',');
+		long[] numbers = { 0, 7, -7, 10, 1234567890123L, Long.MAX_VALUE, Long.MIN_VALUE };
+		StringBuilder expected = new StringBuilder();
+		for (long number : numbers) {
+			builder.append(number);
+			expected.append(expected.length() > 0 ? "," : "").append(number);
+		}
+		assertEquals(expected.toString(), strings.deserialize(builder.build()));
+	}
+
+	@Test
+	public void testResetKeepsPrefix() {
+		RedisKeyBuilder builder = new RedisKeyBuilder(new byte[] { 'p', '-' });
+		assertEquals("p-abc", strings.deserialize(builder.append("a").append(new byte[] { 'b' }).append("c").build()));
+		assertEquals("p-d", strings.deserialize(builder.reset().append("d").build()));
+		assertEquals("p-", strings.deserialize(builder.reset().build()));
+	}
+}
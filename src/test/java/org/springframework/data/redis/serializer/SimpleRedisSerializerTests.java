@@ -18,6 +18,7 @@ package org.springframework.data.redis.serializer;
 import static org.junit.Assert.*;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.UUID;
 
 import org.junit.After;
@@ -157,4 +158,14 @@ public class SimpleRedisSerializerTests {
 		assertEquals(p1, serializer.deserialize(serializer.serialize(p1)));
 	}
 
+	@Test
+	public void testJsonSerializerBatchAndTypeHints() throws Exception {
+		JacksonJsonRedisSerializer<Object> serializer = new JacksonJsonRedisSerializer<Object>(Object.class);
+		serializer.setTypeHinting(true);
+		Person p1 = new Person("first", "last", 1, new Address("street", 2));
+
+		assertEquals(p1, serializer.deserialize(serializer.serialize(p1)));
+		assertEquals(Arrays.asList(p1, null, "value"),
+				serializer.deserializeAll(Arrays.asList(serializer.serialize(p1), null, serializer.serialize("value"))));
+	}
 }
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.serializer;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link StringRedisSerializer}.
+ */
+public class StringRedisSerializerTests {
+
+	private static final String[] VALUES = { "", "key", "user:42:profile", "gr\u00fc\u00dfe", "\u20ac100",
+			"emoji \ud83d\ude00 end", "lone \ud83d surrogate", "reversed \ude00\ud83d", "trailing \ud83d", "\u07ff\u0800" };
+
+	@Test
+	public void testUtf8MatchesJdkEncoding() {
+		assertMatchesJdk(new StringRedisSerializer(), Charset.forName("UTF-8"));
+	}
+
+	@Test
+	public void testOtherCharsets() {
+		assertMatchesJdk(new StringRedisSerializer(Charset.forName("ISO-8859-1")), Charset.forName("ISO-8859-1"));
+		assertMatchesJdk(new StringRedisSerializer(Charset.forName("US-ASCII")), Charset.forName("US-ASCII"));
+		assertMatchesJdk(new StringRedisSerializer(Charset.forName("UTF-16")), Charset.forName("UTF-16"));
+	}
+
+	@Test
+	public void testRoundTrip() {
+		StringRedisSerializer serializer = new StringRedisSerializer();
+		for (String value : VALUES) {
+			if (!value.contains("\ud83d ") && !value.contains("\ude00\ud83d") && !value.endsWith("\ud83d")) {
+				assertEquals(value, serializer.deserialize(serializer.serialize(value)));
+				assertEquals(value, serializer.deserialize(ByteBuffer.wrap(serializer.serialize(value))));
+			}
+		}
+		assertNull(serializer.serialize(null));
+		assertNull(serializer.deserialize((byte[]) null));
+	}
+
+	@Test
+	public void testSerializeWithPrefix() {
+		StringRedisSerializer serializer = new StringRedisSerializer();
+		assertArrayEquals("cache:gr\u00fc\u00dfe".getBytes(StringRedisSerializer.UTF_8),
+				serializer.serialize("cache:".getBytes(), "gr\u00fc\u00dfe"));
+
+		StringRedisSerializer utf16 = new StringRedisSerializer(Charset.forName("UTF-16BE"));
+		assertArrayEquals(new byte[] { 1, 0, 'k' }, utf16.serialize(new byte[] { 1 }, "k"));
+	}
+
+	@Test
+	public void testDeserializeRegionOfBuffer() {
+		ByteBuffer buffer = ByteBuffer.wrap("xx\u20acyy".getBytes(StringRedisSerializer.UTF_8));
+		buffer.position(2);
+		buffer.limit(5);
+		assertEquals("\u20ac", new StringRedisSerializer().deserialize(buffer.slice()));
+		buffer.limit(buffer.capacity());
+		assertEquals("\u20acyy", new StringRedisSerializer().deserialize(buffer));
+	}
+
+	private static void assertMatchesJdk(StringRedisSerializer serializer, Charset charset) {
+		for (String value : VALUES) {
+			byte[] expected = value.getBytes(charset);
+			assertArrayEquals(value, expected, serializer.serialize(value));
+
+			SerializationBuffer buffer = new SerializationBuffer(16);
+			buffer.write('x');
+			serializer.serialize(value, buffer);
+			assertEquals(expected.length + 1, buffer.size());
+			assertEquals(new String(expected, charset), serializer.deserialize(expected));
+		}
+	}
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.serializer;
+
+import static org.junit.Assert.*;
+
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.springframework.data.redis.Address;
+
+/**
+ * Unit tests for {@link TypeTaggingRedisSerializer}.
+ */
+public class TypeTaggingRedisSerializerTests {
+
+	private final TypeTaggingRedisSerializer serializer = new TypeTaggingRedisSerializer();
+
+	@Test
+	public void testNativeTypes() {
+		Object[] values = { "", "plain", "gr\u00fc\u00dfe \u20ac", Boolean.TRUE, Boolean.FALSE, Byte.valueOf((byte) -3),
+				Short.valueOf((short) -1234), Character.valueOf('\u20ac'), Integer.MIN_VALUE, 42, Long.MAX_VALUE, -1L, 1.5f,
+				Math.E, new Date(), UUID.randomUUID(), TimeUnit.HOURS };
+
+		for (Object value : values) {
+			Object result = serializer.deserialize(serializer.serialize(value));
+			assertEquals(value, result);
+			assertEquals(value.getClass(), result.getClass());
+		}
+	}
+
+	@Test
+	public void testBytes() {
+		byte[] bytes = { 0, 1, 2, -1 };
+		assertArrayEquals(bytes, (byte[]) serializer.deserialize(serializer.serialize(bytes)));
+		assertArrayEquals(new byte[0], (byte[]) serializer.deserialize(serializer.serialize(new byte[0])));
+	}
+
+	@Test
+	public void testCompactEncodings() {
+		assertEquals(6, serializer.serialize("plain").length);
+		assertEquals(9, serializer.serialize(Long.MAX_VALUE).length);
+		assertEquals(1, serializer.serialize(Boolean.TRUE).length);
+	}
+
+	@Test
+	public void testFallback() {
+		Address address = new Address("Broadway", 1);
+		assertEquals(address, serializer.deserialize(serializer.serialize(address)));
+	}
+
+	@Test
+	public void testCustomFallback() {
+		CompactRedisSerializer compact = new CompactRedisSerializer();
+		compact.registerClass(1, Address.class);
+		TypeTaggingRedisSerializer tagging = new TypeTaggingRedisSerializer(compact);
+		Address address = new Address("Broadway", 1);
+		assertEquals(address, tagging.deserialize(tagging.serialize(address)));
+	}
+
+	@Test
+	public void testNull() {
+		assertNull(serializer.deserialize(serializer.serialize(null)));
+	}
+
+	@Test(expected = SerializationException.class)
+	public void testUnknownTag() {
+		serializer.deserialize(new byte[] { 99, 1 });
+	}
+
+	@Test(expected = SerializationException.class)
+	public void testTruncatedPayload() {
+		serializer.deserialize(new byte[] { 8, 1, 2 });
+	}
+
+	@Test
+	public void testEnumTypeIsNotInitializedBeforeCheck() {
+		byte[] type = NotAnEnum.class.getName().getBytes();
+		byte[] bytes = new byte[3 + type.length + 1];
+		bytes[0] = 14;
+		bytes[2] = (byte) type.length;
+		System.arraycopy(type, 0, bytes, 3, type.length);
+		bytes[bytes.length - 1] = 'A';
+
+		try {
+			serializer.deserialize(bytes);
+			fail("expected a SerializationException");
+		} catch (SerializationException expected) {}
+		assertFalse(initialized);
+	}
+
+	@Test
+	public void testFallbackReturningNull() {
+		TypeTaggingRedisSerializer tagging = new TypeTaggingRedisSerializer(new RedisSerializer<Object>() {
+			public byte[] serialize(Object t) {
+				return null;
+			}
+
+			public Object deserialize(byte[] bytes) {
+				return null;
+			}
+		});
+		assertArrayEquals(new byte[] { 15 }, tagging.serialize(new Address("Broadway", 1)));
+	}
+
+	static boolean initialized;
+
+	static class NotAnEnum {
+		static {
+			initialized = true;
+		}
+	}
+}
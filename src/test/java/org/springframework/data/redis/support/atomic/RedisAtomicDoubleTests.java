@@ -89,6 +89,21 @@ public class RedisAtomicDoubleTests {
 		assertTrue(doubleCounter.compareAndSet(10.6, 0));
 	}
 
+	@Test
+	public void testCheckAndSetNumericValue() {
+		// Scripts not supported in Jredis
+		assumeTrue(!ConnectionUtils.isJredis(factory));
+		RedisConnection connection = factory.getConnection();
+		try {
+			connection.set(doubleCounter.getKey().getBytes(), "1".getBytes());
+		} finally {
+			connection.close();
+		}
+		// stored value is compared numerically
+		assertTrue(doubleCounter.compareAndSet(1.0, 2.5));
+		assertEquals(2.5, doubleCounter.get(), 0);
+	}
+
 	@Test
 	public void testIncrementAndGet() throws Exception {
 		assumeTrue(!ConnectionUtils.isJredis(factory) && !(ConnectionUtils.isJedis(factory)));
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.redis.support.atomic;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.redis.RedisTestProfileValueSource;
+import org.springframework.data.redis.SettingsUtils;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.serializer.LongRedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+/**
+ * Contention benchmark of {@link RedisAtomicLong#compareAndSet(long, long)}, comparing the Lua script with the
+ * watch/multi/exec transaction previously used for CAS operations. A number of threads increment a shared counter
+ * through compare-and-set retry loops. Only runs as part of the long tests.
+ */
+public class RedisAtomicPerformanceTests {
+
+	private static final int THREADS = 8;
+	private static final int INCREMENTS = 500;
+
+	private static final String KEY = "RedisAtomicPerformanceTests:counter";
+
+	private JedisConnectionFactory factory;
+
+	private RedisTemplate<String, Long> template;
+
+	private ExecutorService executor;
+
+	@Before
+	public void setUp() {
+		assumeTrue(RedisTestProfileValueSource.matches("runLongTests", "true"));
+		factory = new JedisConnectionFactory();
+		factory.setHostName(SettingsUtils.getHost());
+		factory.setPort(SettingsUtils.getPort());
+		factory.getPoolConfig().setMaxTotal(THREADS * 2);
+		factory.afterPropertiesSet();
+
+		template = new RedisTemplate<String, Long>();
+		template.setConnectionFactory(factory);
+		template.setKeySerializer(new StringRedisSerializer());
+		template.setValueSerializer(new LongRedisSerializer());
+		template.setExposeConnection(true);
+		template.afterPropertiesSet();
+
+		executor = Executors.newFixedThreadPool(THREADS);
+	}
+
+	@After
+	public void tearDown() {
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+		if (template != null) {
+			template.delete(KEY);
+		}
+		if (factory != null) {
+			factory.destroy();
+		}
+	}
+
+	@Test
+	public void testCompareAndSetUnderContention() throws Exception {
+		final RedisAtomicLong counter = new RedisAtomicLong(KEY, template, 0);
+		CasStrategy watch = new CasStrategy() {
+
+			public boolean compareAndSet(long expect, long update) {
+				return watchCompareAndSet(expect, update);
+			}
+		};
+		CasStrategy script = new CasStrategy() {
+
+			public boolean compareAndSet(long expect, long update) {
+				return counter.compareAndSet(expect, update);
+			}
+		};
+
+		// warm up
+		run(counter, watch);
+		run(counter, script);
+
+		long[] watchResult = run(counter, watch);
+		long[] scriptResult = run(counter, script);
+
+		System.out.println(String.format("compareAndSet: watch/multi/exec %d ms, %d retries - script %d ms, %d retries",
+				TimeUnit.NANOSECONDS.toMillis(watchResult[0]), watchResult[1], TimeUnit.NANOSECONDS.toMillis(scriptResult[0]),
+				scriptResult[1]));
+
+		assertTrue("compareAndSet not faster", scriptResult[0] < watchResult[0]);
+	}
+
+	/**
+	 * @return the elapsed time in nanoseconds and the number of failed attempts
+	 */
+	private long[] run(final RedisAtomicLong counter, final CasStrategy strategy) throws Exception {
+		counter.set(0);
+		List<Callable<Long>> tasks = new ArrayList<Callable<Long>>();
+		for (int i = 0; i < THREADS; i++) {
+			tasks.add(new Callable<Long>() {
+
+				public Long call() {
+					long retries = 0;
+					for (int j = 0; j < INCREMENTS; j++) {
+						for (;;) {
+							long current = counter.get();
+							if (strategy.compareAndSet(current, current + 1)) {
+								break;
+							}
+							retries++;
+						}
+					}
+					return retries;
+				}
+			});
+		}
+		long start = System.nanoTime();
+		List<Future<Long>> futures = executor.invokeAll(tasks);
+		long elapsed = System.nanoTime() - start;
+
+		long retries = 0;
+		for (Future<Long> future : futures) {
+			retries += future.get();
+		}
+		assertEquals(THREADS * INCREMENTS, counter.get());
+		return new long[] { elapsed, retries };
+	}
+
+	private boolean watchCompareAndSet(final long expect, final long update) {
+		return template.execute(new SessionCallback<Boolean>() {
+
+			@SuppressWarnings({ "unchecked", "rawtypes" })
+			public Boolean execute(RedisOperations operations) {
+				operations.watch(Collections.singleton(KEY));
+				Long current = (Long) operations.opsForValue().get(KEY);
+				if (current == null || current.longValue() != expect) {
+					operations.unwatch();
+					return false;
+				}
+				operations.multi();
+				operations.opsForValue().set(KEY, update);
+				return operations.exec() != null;
+			}
+		});
+	}
+
+	private interface CasStrategy {
+
+		boolean compareAndSet(long expect, long update);
+	}
+}